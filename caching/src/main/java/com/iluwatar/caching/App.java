@@ -95,6 +95,7 @@ public class App {
         app.useReadThroughAndWriteAroundStrategy();
         app.useReadThroughAndWriteBehindStrategy();
         app.useCacheAsideStrategy();
+        LOGGER.info("{}", AppManager.getCacheStats());
     }
 
     /**
@@ -64,6 +64,7 @@ public final class AppManager {
      * Initialize caching policy.
      */
     public static void initCachingPolicy(CachingPolicy policy) {
+        CacheStore.flushPendingWrites(); // queued write-behind data must not overwrite newer writes
         cachingPolicy = policy;
         if (cachingPolicy == CachingPolicy.BEHIND) {
             Runtime.getRuntime().addShutdownHook(new Thread(CacheStore::flushCache));
@@ -75,6 +76,13 @@ public final class AppManager {
         CacheStore.initCapacity(capacity);
     }
 
+    /**
+     * Initialize the eviction policy applied once the cache is full. Defaults to LRU.
+     */
+    public static void initEvictionPolicy(EvictionPolicy policy) {
+        CacheStore.initEvictionPolicy(policy);
+    }
+
     /**
      * Find user account.
      */
@@ -108,6 +116,13 @@ public final class AppManager {
         return CacheStore.print();
     }
 
+    /**
+     * Cache statistics recorded since the last reset.
+     */
+    public static CacheStatsSnapshot getCacheStats() {
+        return CacheStore.stats();
+    }
+
     /**
      * Cache-Aside save user account helper.
      */
@@ -122,7 +137,8 @@ public final class AppManager {
     private static UserAccount findAside(String userId) {
         return Optional.ofNullable(CacheStore.get(userId))
                 .or(() -> {
-                    Optional<UserAccount> userAccount = Optional.ofNullable(DbManager.readFromDb(userId));
+                    Optional<UserAccount> userAccount =
+                            Optional.ofNullable(CacheStore.loadFromDb(userId));
                     userAccount.ifPresent(account -> CacheStore.set(userId, account));
                     return userAccount;
                 })
@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.caching;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low-overhead statistics recorder for {@link CacheStore}. Counters are striped
+ * {@link LongAdder}s, so request threads updating them on every read do not contend on a single
+ * memory location. DB load latencies go into a histogram with power-of-two nanosecond buckets.
+ */
+public class CacheStats {
+
+    private static final int BUCKETS = Long.SIZE;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder[] loadLatencyBuckets = new LongAdder[BUCKETS];
+
+    /**
+     * Creates an empty recorder.
+     */
+    public CacheStats() {
+        for (var i = 0; i < BUCKETS; i++) {
+            loadLatencyBuckets[i] = new LongAdder();
+        }
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    /**
+     * Records a DB load that took {@code nanos} nanoseconds.
+     */
+    public void recordLoad(long nanos, boolean success) {
+        if (success) {
+            loads.increment();
+        } else {
+            loadFailures.increment();
+        }
+        totalLoadNanos.add(nanos);
+        loadLatencyBuckets[bucketOf(nanos)].increment();
+    }
+
+    /**
+     * Resets every counter. Updates racing with the reset may survive it.
+     */
+    public void reset() {
+        hits.reset();
+        misses.reset();
+        loads.reset();
+        loadFailures.reset();
+        totalLoadNanos.reset();
+        evictions.reset();
+        for (var bucket : loadLatencyBuckets) {
+            bucket.reset();
+        }
+    }
+
+    /**
+     * Returns the current values. Counters are read one after the other, so a snapshot taken
+     * under load is not an atomic cut across all of them.
+     */
+    public CacheStatsSnapshot snapshot() {
+        var histogram = new long[BUCKETS];
+        for (var i = 0; i < BUCKETS; i++) {
+            histogram[i] = loadLatencyBuckets[i].sum();
+        }
+        return new CacheStatsSnapshot(hits.sum(), misses.sum(), loads.sum(), loadFailures.sum(),
+                totalLoadNanos.sum(), evictions.sum(), histogram);
+    }
+
+    /**
+     * Index of the bucket holding latencies in {@code [2^index, 2^(index + 1))} nanoseconds.
+     */
+    static int bucketOf(long nanos) {
+        return nanos <= 0 ? 0 : BUCKETS - 1 - Long.numberOfLeadingZeros(nanos);
+    }
+}
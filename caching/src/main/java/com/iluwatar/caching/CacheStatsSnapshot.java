@@ -0,0 +1,93 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.caching;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Point-in-time copy of the {@link CacheStats} counters.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class CacheStatsSnapshot {
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadNanos;
+    private final long evictionCount;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final long[] loadLatencyHistogram;
+
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * Fraction of requests served from the cache, or 1.0 if there was no request yet.
+     */
+    public double hitRate() {
+        var requests = requestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Average time spent loading a user account from the DB, in nanoseconds.
+     */
+    public double averageLoadNanos() {
+        var loads = loadSuccessCount + loadFailureCount;
+        return loads == 0 ? 0.0 : (double) totalLoadNanos / loads;
+    }
+
+    /**
+     * Upper bound, in nanoseconds, of the load latency below which the given fraction of loads
+     * completed. The histogram buckets are powers of two, so the value is accurate within 2x.
+     *
+     * @param quantile fraction between 0 and 1, e.g. 0.99
+     */
+    public long loadLatencyPercentileNanos(double quantile) {
+        var total = 0L;
+        for (var count : loadLatencyHistogram) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        var rank = (long) Math.ceil(quantile * total);
+        var seen = 0L;
+        for (var i = 0; i < loadLatencyHistogram.length; i++) {
+            seen += loadLatencyHistogram[i];
+            if (seen >= rank) {
+                return i >= Long.SIZE - 2 ? Long.MAX_VALUE : 1L << (i + 1);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -30,12 +30,22 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
- * The caching strategies are implemented in this class.
+ * The caching strategies are implemented in this class. The backing {@link UserAccountCache} is
+ * thread-safe, so the strategies can be called from several request threads at once. Which entry
+ * is evicted once the cache is full depends on the configured {@link EvictionPolicy}.
  */
 @Slf4j
 public class CacheStore {
 
-    private static LruCache cache;
+    private static final int WRITE_BEHIND_CAPACITY = 10_000;
+    private static final int WRITE_BEHIND_BATCH_SIZE = 100;
+    private static final long WRITE_BEHIND_MAX_DELAY_MILLIS = 50;
+
+    private static final WriteBehindFlusher flusher = new WriteBehindFlusher(DbManager::upsertDb,
+            WRITE_BEHIND_CAPACITY, WRITE_BEHIND_BATCH_SIZE, WRITE_BEHIND_MAX_DELAY_MILLIS);
+    private static final CacheStats stats = new CacheStats();
+    private static UserAccountCache cache;
+    private static EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
 
     private CacheStore() {
     }
@@ -45,23 +55,39 @@ public class CacheStore {
      */
     public static void initCapacity(int capacity) {
         if (cache == null) {
-            cache = new LruCache(capacity);
+            cache = createCache(evictionPolicy, capacity);
         } else {
             cache.setCapacity(capacity);
         }
     }
 
+    /**
+     * Init eviction policy. An existing cache is replaced by an empty one of the same capacity.
+     */
+    public static void initEvictionPolicy(EvictionPolicy policy) {
+        evictionPolicy = policy;
+        if (cache != null) {
+            cache = createCache(policy, cache.getCapacity());
+        }
+    }
+
+    private static UserAccountCache createCache(EvictionPolicy policy, int capacity) {
+        if (policy == EvictionPolicy.TINY_LFU) {
+            return new TinyLfuCache(capacity);
+        }
+        return new ConcurrentLruCache(capacity);
+    }
+
     /**
      * Get user account using read-through cache.
      */
     public static UserAccount readThrough(String userId) {
-        if (cache.contains(userId)) {
-            LOGGER.info("# Cache Hit!");
-            return cache.get(userId);
+        var userAccount = get(userId);
+        if (userAccount != null) {
+            return userAccount;
         }
-        LOGGER.info("# Cache Miss!");
-        UserAccount userAccount = DbManager.readFromDb(userId);
-        cache.set(userId, userAccount);
+        userAccount = loadFromDb(userId);
+        set(userId, userAccount);
         return userAccount;
     }
 
@@ -74,7 +100,7 @@ public class CacheStore {
         } else {
             DbManager.writeToDb(userAccount);
         }
-        cache.set(userAccount.getUserId(), userAccount);
+        set(userAccount.getUserId(), userAccount);
     }
 
     /**
@@ -94,18 +120,15 @@ public class CacheStore {
      * Get user account using read-through cache with write-back policy.
      */
     public static UserAccount readThroughWithWriteBackPolicy(String userId) {
-        if (cache.contains(userId)) {
-            LOGGER.info("# Cache Hit!");
-            return cache.get(userId);
+        var userAccount = get(userId);
+        if (userAccount != null) {
+            return userAccount;
         }
-        LOGGER.info("# Cache Miss!");
-        UserAccount userAccount = DbManager.readFromDb(userId);
-        if (cache.isFull()) {
-            LOGGER.info("# Cache is FULL! Writing LRU data to DB...");
-            UserAccount toBeWrittenToDb = cache.getLruData();
-            DbManager.upsertDb(toBeWrittenToDb);
+        userAccount = flusher.getPending(userId);
+        if (userAccount == null) {
+            userAccount = loadFromDb(userId);
         }
-        cache.set(userId, userAccount);
+        writeEvicted(cache.set(userId, userAccount));
         return userAccount;
     }
 
@@ -113,12 +136,33 @@ public class CacheStore {
      * Set user account.
      */
     public static void writeBehind(UserAccount userAccount) {
-        if (cache.isFull() && !cache.contains(userAccount.getUserId())) {
-            LOGGER.info("# Cache is FULL! Writing LRU data to DB...");
-            UserAccount toBeWrittenToDb = cache.getLruData();
-            DbManager.upsertDb(toBeWrittenToDb);
+        writeEvicted(cache.set(userAccount.getUserId(), userAccount));
+    }
+
+    /**
+     * Queues the entry evicted by a write-back insert for the DB. The victim is taken from the insert
+     * itself so that no other thread can slip in between picking and evicting it.
+     */
+    private static void writeEvicted(UserAccount toBeWrittenToDb) {
+        if (toBeWrittenToDb != null) {
+            stats.recordEviction();
+            LOGGER.debug("# Cache is FULL! Writing LRU data to DB...");
+            flusher.enqueue(toBeWrittenToDb);
         }
-        cache.set(userAccount.getUserId(), userAccount);
+    }
+
+    /**
+     * Waits until every queued write-behind entry has been written to the DB.
+     */
+    public static void flushPendingWrites() {
+        flusher.flushAll();
+    }
+
+    /**
+     * Background writer of the write-behind strategy, exposing its queue counters.
+     */
+    public static WriteBehindFlusher getWriteBehindFlusher() {
+        return flusher;
     }
 
     /**
@@ -135,8 +179,9 @@ public class CacheStore {
      */
     public static void flushCache() {
         LOGGER.info("# flushCache...");
+        flusher.flushAll();
         Optional.ofNullable(cache)
-                .map(LruCache::getCacheDataInListForm)
+                .map(UserAccountCache::getCacheDataInListForm)
                 .orElse(List.of())
                 .forEach(DbManager::updateDb);
     }
@@ -146,7 +191,7 @@ public class CacheStore {
      */
     public static String print() {
         return Optional.ofNullable(cache)
-                .map(LruCache::getCacheDataInListForm)
+                .map(UserAccountCache::getCacheDataInListForm)
                 .orElse(List.of())
                 .stream()
                 .map(userAccount -> userAccount.toString() + "\n")
@@ -154,17 +199,54 @@ public class CacheStore {
     }
 
     /**
-     * Delegate to backing cache store.
+     * Delegate to backing cache store, recording a hit or a miss.
      */
     public static UserAccount get(String userId) {
-        return cache.get(userId);
+        var userAccount = cache.get(userId);
+        if (userAccount != null) {
+            stats.recordHit();
+        } else {
+            stats.recordMiss();
+        }
+        return userAccount;
     }
 
     /**
-     * Delegate to backing cache store.
+     * Delegate to backing cache store, recording the eviction it may cause.
      */
     public static void set(String userId, UserAccount userAccount) {
-        cache.set(userId, userAccount);
+        if (cache.set(userId, userAccount) != null) {
+            stats.recordEviction();
+        }
+    }
+
+    /**
+     * Read user account from DB, recording the load latency.
+     */
+    public static UserAccount loadFromDb(String userId) {
+        var start = System.nanoTime();
+        var success = false;
+        try {
+            var userAccount = DbManager.readFromDb(userId);
+            success = true;
+            return userAccount;
+        } finally {
+            stats.recordLoad(System.nanoTime() - start, success);
+        }
+    }
+
+    /**
+     * Returns the hit, miss, eviction and DB load statistics recorded so far.
+     */
+    public static CacheStatsSnapshot stats() {
+        return stats.snapshot();
+    }
+
+    /**
+     * Resets the recorded statistics.
+     */
+    public static void resetStats() {
+        stats.reset();
     }
 
     /**
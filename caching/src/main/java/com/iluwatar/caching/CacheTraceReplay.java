@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.caching;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Trace-replay harness comparing the hit ratio and single-threaded throughput of the eviction
+ * policies. Every access is a {@code get}; a miss is followed by a {@code set}, as in
+ * {@link CacheStore#readThrough(String)}.
+ *
+ * <p>Two synthetic traces are replayed: a Zipfian distribution of user ids, and the same
+ * distribution interrupted by sequential scans over ids that are never requested again, as a
+ * batch job would produce. Usage: {@code CacheTraceReplay [capacity] [traceLength]}.
+ */
+@Slf4j
+public final class CacheTraceReplay {
+
+    private static final int KEY_SPACE = 100_000;
+    private static final double ZIPF_EXPONENT = 0.99;
+    private static final int SCAN_INTERVAL = 20_000;
+    private static final long SEED = 42L;
+
+    private CacheTraceReplay() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional capacity and number of accesses per trace
+     */
+    public static void main(String[] args) {
+        var capacity = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        var length = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        LruCacheBenchmark.quietCacheLogging();
+
+        replayAll("zipfian", zipfian(length, new Random(SEED)), capacity);
+        replayAll("scan-heavy", scanHeavy(length, capacity * 5, new Random(SEED)), capacity);
+    }
+
+    private static void replayAll(String name, String[] trace, int capacity) {
+        var lru = new ConcurrentLruCache(capacity);
+        var tinyLfu = new TinyLfuCache(capacity);
+        report(name, "LRU", trace, new LruCacheBenchmark.BenchmarkedCache() {
+            @Override
+            public UserAccount get(String userId) {
+                return lru.get(userId);
+            }
+
+            @Override
+            public void set(String userId, UserAccount userAccount) {
+                lru.set(userId, userAccount);
+            }
+        });
+        report(name, "TinyLFU", trace, new LruCacheBenchmark.BenchmarkedCache() {
+            @Override
+            public UserAccount get(String userId) {
+                return tinyLfu.get(userId);
+            }
+
+            @Override
+            public void set(String userId, UserAccount userAccount) {
+                tinyLfu.set(userId, userAccount);
+            }
+        });
+    }
+
+    private static void report(String traceName, String policyName, String[] trace,
+                               LruCacheBenchmark.BenchmarkedCache cache) {
+        var account = new UserAccount("", "", "");
+        var hits = 0L;
+        var start = System.nanoTime();
+        for (var userId : trace) {
+            if (cache.get(userId) != null) {
+                hits++;
+            } else {
+                cache.set(userId, account);
+            }
+        }
+        var elapsed = Math.max(1L, System.nanoTime() - start);
+        LOGGER.info("trace={} policy={} hitRatio={} ops/s={}", traceName, policyName,
+                String.format("%.4f", (double) hits / trace.length),
+                trace.length * 1_000_000_000L / elapsed);
+    }
+
+    /**
+     * Returns a trace of user ids drawn from a Zipfian distribution over {@link #KEY_SPACE} ids.
+     */
+    static String[] zipfian(int length, Random random) {
+        var keys = keys(0, KEY_SPACE);
+        var cumulative = new double[KEY_SPACE];
+        var sum = 0.0;
+        for (var i = 0; i < KEY_SPACE; i++) {
+            sum += 1.0 / Math.pow(i + 1, ZIPF_EXPONENT);
+            cumulative[i] = sum;
+        }
+        var trace = new String[length];
+        for (var i = 0; i < length; i++) {
+            var index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            trace[i] = keys[index >= 0 ? index : Math.min(-index - 1, KEY_SPACE - 1)];
+        }
+        return trace;
+    }
+
+    /**
+     * Returns a Zipfian trace where, every {@link #SCAN_INTERVAL} accesses, a scan over
+     * {@code scanLength} ids that are never seen again replaces part of the trace.
+     */
+    static String[] scanHeavy(int length, int scanLength, Random random) {
+        var trace = zipfian(length, random);
+        var nextScanId = KEY_SPACE;
+        for (var start = SCAN_INTERVAL; start < length; start += SCAN_INTERVAL + scanLength) {
+            var end = Math.min(length, start + scanLength);
+            var scan = keys(nextScanId, end - start);
+            System.arraycopy(scan, 0, trace, start, scan.length);
+            nextScanId += scan.length;
+        }
+        return trace;
+    }
+
+    private static String[] keys(int first, int count) {
+        var keys = new String[count];
+        for (var i = 0; i < count; i++) {
+            keys[i] = String.valueOf(first + i);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe counterpart of {@link LruCache}. The key space is split into lock-striped segments,
+ * each holding its own hash table and linked-list, so writers on different segments never contend.
+ *
+ * <p>Reads never take a lock: a hit only marks the entry as referenced. The segment lock is taken
+ * on insert, update and invalidation, and eviction gives referenced entries a second chance by
+ * moving them back to the front of the list (CLOCK approximation of LRU). Eviction is decided per
+ * segment, so the victim is the least-recently-used entry of the segment the new key falls into.
+ */
+@Slf4j
+public class ConcurrentLruCache implements UserAccountCache {
+
+    /**
+     * Segments are only split further when each one can still hold this many entries.
+     */
+    static final int MIN_SEGMENT_CAPACITY = 16;
+
+    static final class Node {
+        final String userId;
+        volatile UserAccount userAccount;
+        volatile boolean referenced;
+        Node previous;
+        Node next;
+
+        Node(String userId, UserAccount userAccount) {
+            this.userId = userId;
+            this.userAccount = userAccount;
+        }
+    }
+
+    static final class Segment extends ReentrantLock {
+        final ConcurrentHashMap<String, Node> cache = new ConcurrentHashMap<>();
+        int capacity;
+        Node head;
+        Node end;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        UserAccount set(String userId, UserAccount userAccount) {
+            lock();
+            try {
+                var old = cache.get(userId);
+                if (old != null) {
+                    old.userAccount = userAccount;
+                    old.referenced = true;
+                    return null;
+                }
+                UserAccount evicted = null;
+                if (cache.size() >= capacity) {
+                    evicted = evict();
+                }
+                var newNode = new Node(userId, userAccount);
+                setHead(newNode);
+                cache.put(userId, newNode);
+                return evicted;
+            } finally {
+                unlock();
+            }
+        }
+
+        Node invalidate(String userId) {
+            lock();
+            try {
+                var toBeRemoved = cache.remove(userId);
+                if (toBeRemoved != null) {
+                    remove(toBeRemoved);
+                }
+                return toBeRemoved;
+            } finally {
+                unlock();
+            }
+        }
+
+        void resize(int newCapacity) {
+            lock();
+            try {
+                capacity = newCapacity;
+                while (cache.size() > capacity) {
+                    evict();
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        void clear() {
+            lock();
+            try {
+                cache.clear();
+                head = null;
+                end = null;
+            } finally {
+                unlock();
+            }
+        }
+
+        void collect(List<UserAccount> listOfCacheData) {
+            lock();
+            try {
+                var temp = head;
+                while (temp != null) {
+                    listOfCacheData.add(temp.userAccount);
+                    temp = temp.next;
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Removes the least-recently-used entry, giving referenced entries a second chance. Must be
+         * called with the lock held and a non-empty list.
+         */
+        private UserAccount evict() {
+            while (end.referenced) {
+                var node = end;
+                node.referenced = false;
+                remove(node);
+                setHead(node);
+            }
+            var victim = end;
+            LOGGER.debug("# Cache is FULL! Removing {} from cache...", victim.userId);
+            cache.remove(victim.userId);
+            remove(victim);
+            return victim.userAccount;
+        }
+
+        private void remove(Node node) {
+            if (node.previous != null) {
+                node.previous.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.previous = node.previous;
+            } else {
+                end = node.previous;
+            }
+        }
+
+        private void setHead(Node node) {
+            node.next = head;
+            node.previous = null;
+            if (head != null) {
+                head.previous = node;
+            }
+            head = node;
+            if (end == null) {
+                end = head;
+            }
+        }
+    }
+
+    private final Segment[] segments;
+    private volatile int capacity;
+
+    /**
+     * Creates a cache striped for the number of available processors.
+     */
+    public ConcurrentLruCache(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a cache with at most {@code concurrencyLevel} segments. Small caches get fewer
+     * segments so that the per-segment eviction stays close to a global LRU.
+     */
+    public ConcurrentLruCache(int capacity, int concurrencyLevel) {
+        if (capacity <= 0 || concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("capacity and concurrencyLevel must be positive");
+        }
+        var limit = Math.max(1, Math.min(concurrencyLevel, capacity / MIN_SEGMENT_CAPACITY));
+        var segmentCount = Integer.highestOneBit(limit);
+        this.segments = new Segment[segmentCount];
+        this.capacity = capacity;
+        for (var i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentCapacity(capacity, i));
+        }
+    }
+
+    @Override
+    public UserAccount get(String userId) {
+        var node = segmentFor(userId).cache.get(userId);
+        if (node == null) {
+            return null;
+        }
+        if (!node.referenced) {
+            node.referenced = true;
+        }
+        return node.userAccount;
+    }
+
+    @Override
+    public UserAccount set(String userId, UserAccount userAccount) {
+        return segmentFor(userId).set(userId, userAccount);
+    }
+
+    @Override
+    public boolean contains(String userId) {
+        return segmentFor(userId).cache.containsKey(userId);
+    }
+
+    @Override
+    public void invalidate(String userId) {
+        if (segmentFor(userId).invalidate(userId) != null) {
+            LOGGER.debug("# {} has been updated! Removing older version from cache...", userId);
+        }
+    }
+
+    @Override
+    public int size() {
+        var size = 0;
+        for (var segment : segments) {
+            size += segment.cache.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isFull() {
+        return size() >= capacity;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void clear() {
+        for (var segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Returns cache data in list form, most-recently-inserted first within each segment.
+     */
+    @Override
+    public List<UserAccount> getCacheDataInListForm() {
+        var listOfCacheData = new ArrayList<UserAccount>();
+        for (var segment : segments) {
+            segment.collect(listOfCacheData);
+        }
+        return listOfCacheData;
+    }
+
+    /**
+     * Set cache capacity. Shrinking the cache evicts entries from every segment until it fits; every
+     * segment keeps room for at least one entry.
+     */
+    @Override
+    public synchronized void setCapacity(int newCapacity) {
+        if (newCapacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = newCapacity;
+        for (var i = 0; i < segments.length; i++) {
+            segments[i].resize(segmentCapacity(newCapacity, i));
+        }
+    }
+
+    private int segmentCapacity(int totalCapacity, int index) {
+        var base = totalCapacity / segments.length;
+        return Math.max(1, index < totalCapacity % segments.length ? base + 1 : base);
+    }
+
+    private Segment segmentFor(String userId) {
+        var h = userId.hashCode();
+        return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+    }
+}
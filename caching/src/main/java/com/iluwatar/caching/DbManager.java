@@ -26,13 +26,17 @@ package com.iluwatar.caching;
 import com.iluwatar.caching.constants.CachingConstants;
 import com.mongodb.MongoClient;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.UpdateOptions;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 
 import java.text.ParseException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <p>DBManager handles the communication with the underlying data store i.e. Database. It contains
@@ -60,7 +64,7 @@ public final class DbManager {
      */
     public static void createVirtualDb() {
         useMongoDB = false;
-        virtualDB = new HashMap<>();
+        virtualDB = new ConcurrentHashMap<>();
     }
 
     /**
@@ -169,4 +173,38 @@ public final class DbManager {
                 new UpdateOptions().upsert(true)
         );
     }
+
+    /**
+     * Upsert several user accounts with a single bulk write.
+     */
+    public static void upsertDb(List<UserAccount> userAccounts) {
+        if (userAccounts.isEmpty()) {
+            return;
+        }
+        if (!useMongoDB) {
+            userAccounts.forEach(userAccount -> virtualDB.put(userAccount.getUserId(), userAccount));
+            return;
+        }
+        if (db == null) {
+            try {
+                connect();
+            } catch (ParseException e) {
+                LOGGER.error("Error connecting to MongoDB", e);
+            }
+        }
+        var requests = new ArrayList<UpdateOneModel<Document>>(userAccounts.size());
+        for (var userAccount : userAccounts) {
+            requests.add(new UpdateOneModel<>(
+                    new Document(CachingConstants.USER_ID, userAccount.getUserId()),
+                    new Document("$set",
+                            new Document(CachingConstants.USER_ID, userAccount.getUserId())
+                                    .append(CachingConstants.USER_NAME, userAccount.getUserName())
+                                    .append(CachingConstants.ADD_INFO, userAccount.getAdditionalInfo())
+                    ),
+                    new UpdateOptions().upsert(true)
+            ));
+        }
+        db.getCollection(CachingConstants.USER_ACCOUNT)
+                .bulkWrite(requests, new BulkWriteOptions().ordered(false));
+    }
 }
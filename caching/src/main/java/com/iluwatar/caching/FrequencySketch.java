@@ -0,0 +1,147 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.caching;
+
+/**
+ * Count-min sketch of 4-bit counters estimating how often a key was accessed recently. The sketch
+ * has four rows of counters, a key maps to one counter in every row and its frequency is the
+ * smallest of them. Every row hashes the key on its own, so two keys sharing a counter in one row
+ * are unlikely to share one in the others.
+ *
+ * <p>Once the number of recorded accesses reaches ten times the cache capacity, every counter is
+ * halved so that old popularity fades away.
+ *
+ * <p>The sketch is not thread-safe; {@link TinyLfuCache} guards it with the segment lock.
+ */
+final class FrequencySketch {
+
+    private static final int ROWS = 4;
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final int MAX_FREQUENCY = 15;
+    /**
+     * Odd constant (the golden ratio) telling the hashes of the rows apart.
+     */
+    private static final int ROW_SALT = 0x9e3779b9;
+    /**
+     * Clears the bit every counter receives from its upper neighbour when a word is shifted right.
+     */
+    private static final long HALVING_MASK = 0x7777777777777777L;
+
+    // ROWS rows of rowWidth counters, packed 16 to a word
+    private long[] words;
+    private int rowWidth;
+    private int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maximumSize) {
+        ensureCapacity(maximumSize);
+    }
+
+    /**
+     * Resizes the sketch for the given cache capacity, dropping all recorded frequencies.
+     */
+    void ensureCapacity(int maximumSize) {
+        // keeps the ROWS * rowWidth counters within the int range
+        var maximum = Math.max(1, Math.min(maximumSize, 1 << 26));
+        // four counters a row per entry, one word per entry overall; a power of two, so that a
+        // position in the row is a mask away from the hash
+        rowWidth = Math.max(COUNTERS_PER_WORD, Integer.highestOneBit(maximum - 1) << 3);
+        words = new long[ROWS * rowWidth / COUNTERS_PER_WORD];
+        sampleSize = 10 * maximum;
+        additions = 0;
+    }
+
+    /**
+     * Returns the estimated number of recent accesses of the key, at most 15.
+     */
+    int frequency(String key) {
+        var hash = key.hashCode();
+        var frequency = MAX_FREQUENCY;
+        for (var row = 0; row < ROWS; row++) {
+            frequency = Math.min(frequency, count(counterOf(row, hash)));
+        }
+        return frequency;
+    }
+
+    /**
+     * Records one access of the key. Only the counters holding the current estimate are raised
+     * (conservative update), the others already count more than this key's accesses, which keeps
+     * keys sharing counters with popular ones from being overestimated.
+     */
+    void increment(String key) {
+        var hash = key.hashCode();
+        var frequency = MAX_FREQUENCY;
+        for (var row = 0; row < ROWS; row++) {
+            frequency = Math.min(frequency, count(counterOf(row, hash)));
+        }
+        if (frequency == MAX_FREQUENCY) {
+            return;
+        }
+        for (var row = 0; row < ROWS; row++) {
+            var counter = counterOf(row, hash);
+            if (count(counter) == frequency) {
+                words[counter / COUNTERS_PER_WORD] += 1L << shiftOf(counter);
+            }
+        }
+        if (++additions >= sampleSize) {
+            halve();
+        }
+    }
+
+    private int counterOf(int row, int hash) {
+        return row * rowWidth + (mix(hash + ROW_SALT * row) & (rowWidth - 1));
+    }
+
+    private int count(int counter) {
+        return (int) (words[counter / COUNTERS_PER_WORD] >>> shiftOf(counter)) & MAX_FREQUENCY;
+    }
+
+    private static int shiftOf(int counter) {
+        return (counter % COUNTERS_PER_WORD) * 4;
+    }
+
+    /**
+     * Halves every counter, all sixteen of a word with a single shift.
+     */
+    private void halve() {
+        for (var i = 0; i < words.length; i++) {
+            words[i] = (words[i] >>> 1) & HALVING_MASK;
+        }
+        additions /= 2;
+    }
+
+    /**
+     * Finalizer of MurmurHash3, so that similar hash codes land on unrelated counters.
+     */
+    private static int mix(int hash) {
+        var h = hash;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-threaded throughput benchmark comparing {@link ConcurrentLruCache} with {@link LruCache}.
+ * The plain {@link LruCache} is not thread-safe, so it is measured behind a single global lock,
+ * which is what callers had to do before.
+ *
+ * <p>Usage: {@code LruCacheBenchmark [capacity] [millisPerRun]}. Each run mixes 90% reads and
+ * 10% writes over a key space twice the size of the cache.
+ */
+@Slf4j
+public final class LruCacheBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+    private static final int READ_PERCENTAGE = 90;
+
+    /**
+     * Minimal view of a cache used by the benchmark.
+     */
+    interface BenchmarkedCache {
+        UserAccount get(String userId);
+
+        void set(String userId, UserAccount userAccount);
+    }
+
+    private LruCacheBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional capacity and duration of a single run in milliseconds
+     */
+    public static void main(String[] args) throws InterruptedException {
+        var capacity = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        var millis = args.length > 1 ? Long.parseLong(args[1]) : 1_000L;
+        var keys = keys(capacity * 2);
+        quietCacheLogging();
+
+        for (var threads : THREAD_COUNTS) {
+            var lru = new LruCache(capacity);
+            var lock = new Object();
+            var global = run(new BenchmarkedCache() {
+                @Override
+                public UserAccount get(String userId) {
+                    synchronized (lock) {
+                        return lru.get(userId);
+                    }
+                }
+
+                @Override
+                public void set(String userId, UserAccount userAccount) {
+                    synchronized (lock) {
+                        lru.set(userId, userAccount);
+                    }
+                }
+            }, keys, threads, millis);
+
+            var concurrent = new ConcurrentLruCache(capacity);
+            var striped = run(new BenchmarkedCache() {
+                @Override
+                public UserAccount get(String userId) {
+                    return concurrent.get(userId);
+                }
+
+                @Override
+                public void set(String userId, UserAccount userAccount) {
+                    concurrent.set(userId, userAccount);
+                }
+            }, keys, threads, millis);
+
+            LOGGER.info("threads={} LruCache+lock={} ops/s ConcurrentLruCache={} ops/s",
+                    threads, global, striped);
+        }
+    }
+
+    /**
+     * Runs the read/write mix on the given number of threads and returns the throughput in
+     * operations per second.
+     */
+    static long run(BenchmarkedCache cache, String[] keys, int threads, long millis)
+            throws InterruptedException {
+        for (var key : keys) {
+            cache.set(key, account(key));
+        }
+        var operations = new LongAdder();
+        var start = new CountDownLatch(1);
+        var done = new CountDownLatch(threads);
+        var deadline = new long[1];
+        for (var i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    var random = ThreadLocalRandom.current();
+                    var count = 0L;
+                    while (System.nanoTime() < deadline[0]) {
+                        var key = keys[random.nextInt(keys.length)];
+                        if (random.nextInt(100) < READ_PERCENTAGE) {
+                            if (cache.get(key) == null) {
+                                cache.set(key, account(key));
+                            }
+                        } else {
+                            cache.set(key, account(key));
+                        }
+                        count++;
+                    }
+                    operations.add(count);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        deadline[0] = System.nanoTime() + millis * 1_000_000L;
+        start.countDown();
+        done.await();
+        return operations.sum() * 1_000L / millis;
+    }
+
+    /**
+     * The caches log every eviction, which would otherwise dominate the measurement.
+     */
+    static void quietCacheLogging() {
+        ((Logger) LoggerFactory.getLogger(LruCache.class)).setLevel(Level.WARN);
+        ((Logger) LoggerFactory.getLogger(ConcurrentLruCache.class)).setLevel(Level.WARN);
+        ((Logger) LoggerFactory.getLogger(TinyLfuCache.class)).setLevel(Level.WARN);
+    }
+
+    private static String[] keys(int count) {
+        var keys = new String[count];
+        for (var i = 0; i < count; i++) {
+            keys[i] = String.format("%06d", i);
+        }
+        return keys;
+    }
+
+    private static UserAccount account(String userId) {
+        return new UserAccount(userId, "user" + userId, "benchmark");
+    }
+}
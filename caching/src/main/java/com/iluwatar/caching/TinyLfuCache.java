@@ -0,0 +1,430 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.caching;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache with a W-TinyLFU eviction policy. New entries land in a small LRU window (1% of the
+ * capacity). When the window overflows, its LRU entry only enters the main space if a
+ * {@link FrequencySketch} says it was accessed more often than the entry it would push out. Keys
+ * seen once, such as the ids touched by a batch scan, therefore cannot flush the popular entries.
+ *
+ * <p>The main space is a segmented LRU: entries start in the probation queue and are promoted to
+ * the protected queue (80% of the main space) on their next hit. Like {@link ConcurrentLruCache}
+ * the key space is lock-striped and lookups never block: a hit updates the sketch and the queues
+ * only if the segment lock is free, so under contention some hits are not recorded.
+ */
+@Slf4j
+public class TinyLfuCache implements UserAccountCache {
+
+    /**
+     * Segments are only split further when each one can still hold this many entries.
+     */
+    static final int MIN_SEGMENT_CAPACITY = 128;
+    static final int WINDOW_PERCENTAGE = 1;
+    static final int PROTECTED_PERCENTAGE = 80;
+
+    enum Queue {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    static final class Node {
+        final String userId;
+        volatile UserAccount userAccount;
+        Queue queue;
+        Node previous;
+        Node next;
+
+        Node(String userId, UserAccount userAccount) {
+            this.userId = userId;
+            this.userAccount = userAccount;
+        }
+    }
+
+    /**
+     * Doubly linked-list with the most-recently-used node at the head.
+     */
+    static final class AccessOrderList {
+        Node head;
+        Node end;
+        int size;
+
+        void addFirst(Node node) {
+            node.next = head;
+            node.previous = null;
+            if (head != null) {
+                head.previous = node;
+            }
+            head = node;
+            if (end == null) {
+                end = head;
+            }
+            size++;
+        }
+
+        void remove(Node node) {
+            if (node.previous != null) {
+                node.previous.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.previous = node.previous;
+            } else {
+                end = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            size--;
+        }
+
+        Node removeLast() {
+            var last = end;
+            if (last != null) {
+                remove(last);
+            }
+            return last;
+        }
+
+        void moveToFront(Node node) {
+            remove(node);
+            addFirst(node);
+        }
+
+        void collect(List<UserAccount> listOfCacheData) {
+            var temp = head;
+            while (temp != null) {
+                listOfCacheData.add(temp.userAccount);
+                temp = temp.next;
+            }
+        }
+
+        void clear() {
+            head = null;
+            end = null;
+            size = 0;
+        }
+    }
+
+    static final class Segment extends ReentrantLock {
+        final ConcurrentHashMap<String, Node> cache = new ConcurrentHashMap<>();
+        final AccessOrderList window = new AccessOrderList();
+        final AccessOrderList probation = new AccessOrderList();
+        final AccessOrderList protectedQueue = new AccessOrderList();
+        final FrequencySketch sketch;
+        int capacity;
+        int windowCapacity;
+        int protectedCapacity;
+
+        Segment(int capacity) {
+            this.sketch = new FrequencySketch(capacity);
+            setCapacities(capacity);
+        }
+
+        void onHit(String userId, Node node) {
+            if (!tryLock()) {
+                return;
+            }
+            try {
+                if (cache.get(userId) == node) {
+                    recordHit(node);
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        UserAccount set(String userId, UserAccount userAccount) {
+            lock();
+            try {
+                var old = cache.get(userId);
+                if (old != null) {
+                    old.userAccount = userAccount;
+                    recordHit(old);
+                    return null;
+                }
+                sketch.increment(userId);
+                var newNode = new Node(userId, userAccount);
+                newNode.queue = Queue.WINDOW;
+                window.addFirst(newNode);
+                cache.put(userId, newNode);
+                return window.size > windowCapacity ? evictFromWindow() : null;
+            } finally {
+                unlock();
+            }
+        }
+
+        Node invalidate(String userId) {
+            lock();
+            try {
+                var toBeRemoved = cache.remove(userId);
+                if (toBeRemoved != null) {
+                    queueOf(toBeRemoved).remove(toBeRemoved);
+                }
+                return toBeRemoved;
+            } finally {
+                unlock();
+            }
+        }
+
+        void resize(int newCapacity) {
+            lock();
+            try {
+                setCapacities(newCapacity);
+                sketch.ensureCapacity(newCapacity);
+                while (cache.size() > capacity) {
+                    var victim = probation.size > 0 ? probation.removeLast()
+                            : protectedQueue.size > 0 ? protectedQueue.removeLast() : window.removeLast();
+                    cache.remove(victim.userId);
+                }
+                demoteOverflow();
+                while (window.size > windowCapacity) {
+                    var node = window.removeLast();
+                    node.queue = Queue.PROBATION;
+                    probation.addFirst(node);
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        void clear() {
+            lock();
+            try {
+                cache.clear();
+                window.clear();
+                probation.clear();
+                protectedQueue.clear();
+            } finally {
+                unlock();
+            }
+        }
+
+        void collect(List<UserAccount> listOfCacheData) {
+            lock();
+            try {
+                window.collect(listOfCacheData);
+                protectedQueue.collect(listOfCacheData);
+                probation.collect(listOfCacheData);
+            } finally {
+                unlock();
+            }
+        }
+
+        private void setCapacities(int newCapacity) {
+            capacity = newCapacity;
+            windowCapacity = Math.max(1, newCapacity * WINDOW_PERCENTAGE / 100);
+            protectedCapacity = (newCapacity - windowCapacity) * PROTECTED_PERCENTAGE / 100;
+        }
+
+        private void recordHit(Node node) {
+            sketch.increment(node.userId);
+            switch (node.queue) {
+                case WINDOW:
+                    window.moveToFront(node);
+                    break;
+                case PROBATION:
+                    probation.remove(node);
+                    node.queue = Queue.PROTECTED;
+                    protectedQueue.addFirst(node);
+                    demoteOverflow();
+                    break;
+                default:
+                    protectedQueue.moveToFront(node);
+                    break;
+            }
+        }
+
+        private void demoteOverflow() {
+            while (protectedQueue.size > protectedCapacity) {
+                var demoted = protectedQueue.removeLast();
+                demoted.queue = Queue.PROBATION;
+                probation.addFirst(demoted);
+            }
+        }
+
+        /**
+         * Moves the LRU entry of the window into the main space, or evicts it if the main space is
+         * full and the entry is not more popular than the main space's own LRU entry.
+         */
+        private UserAccount evictFromWindow() {
+            var candidate = window.removeLast();
+            var mainCapacity = capacity - windowCapacity;
+            if (probation.size + protectedQueue.size < mainCapacity) {
+                candidate.queue = Queue.PROBATION;
+                probation.addFirst(candidate);
+                return null;
+            }
+            var victimQueue = probation.size > 0 ? probation : protectedQueue;
+            var victim = victimQueue.end;
+            var evicted = candidate;
+            if (victim != null
+                    && sketch.frequency(candidate.userId) > sketch.frequency(victim.userId)) {
+                victimQueue.remove(victim);
+                candidate.queue = Queue.PROBATION;
+                probation.addFirst(candidate);
+                evicted = victim;
+            }
+            LOGGER.debug("# Cache is FULL! Removing {} from cache...", evicted.userId);
+            cache.remove(evicted.userId);
+            return evicted.userAccount;
+        }
+
+        private AccessOrderList queueOf(Node node) {
+            switch (node.queue) {
+                case WINDOW:
+                    return window;
+                case PROBATION:
+                    return probation;
+                default:
+                    return protectedQueue;
+            }
+        }
+    }
+
+    private final Segment[] segments;
+    private volatile int capacity;
+
+    /**
+     * Creates a cache striped for the number of available processors.
+     */
+    public TinyLfuCache(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a cache with at most {@code concurrencyLevel} segments.
+     */
+    public TinyLfuCache(int capacity, int concurrencyLevel) {
+        if (capacity <= 0 || concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("capacity and concurrencyLevel must be positive");
+        }
+        var limit = Math.max(1, Math.min(concurrencyLevel, capacity / MIN_SEGMENT_CAPACITY));
+        var segmentCount = Integer.highestOneBit(limit);
+        this.segments = new Segment[segmentCount];
+        this.capacity = capacity;
+        for (var i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentCapacity(capacity, i));
+        }
+    }
+
+    @Override
+    public UserAccount get(String userId) {
+        var segment = segmentFor(userId);
+        var node = segment.cache.get(userId);
+        if (node == null) {
+            return null;
+        }
+        segment.onHit(userId, node);
+        return node.userAccount;
+    }
+
+    @Override
+    public UserAccount set(String userId, UserAccount userAccount) {
+        return segmentFor(userId).set(userId, userAccount);
+    }
+
+    @Override
+    public boolean contains(String userId) {
+        return segmentFor(userId).cache.containsKey(userId);
+    }
+
+    @Override
+    public void invalidate(String userId) {
+        if (segmentFor(userId).invalidate(userId) != null) {
+            LOGGER.debug("# {} has been updated! Removing older version from cache...", userId);
+        }
+    }
+
+    @Override
+    public int size() {
+        var size = 0;
+        for (var segment : segments) {
+            size += segment.cache.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isFull() {
+        return size() >= capacity;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void clear() {
+        for (var segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Returns cache data in list form: per segment the window first, then the protected and the
+     * probation queue, each most-recently-used first.
+     */
+    @Override
+    public List<UserAccount> getCacheDataInListForm() {
+        var listOfCacheData = new ArrayList<UserAccount>();
+        for (var segment : segments) {
+            segment.collect(listOfCacheData);
+        }
+        return listOfCacheData;
+    }
+
+    /**
+     * Set cache capacity. Shrinking the cache evicts entries from every segment until it fits. The
+     * recorded frequencies are forgotten, as the sketch is resized with the cache.
+     */
+    @Override
+    public synchronized void setCapacity(int newCapacity) {
+        if (newCapacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = newCapacity;
+        for (var i = 0; i < segments.length; i++) {
+            segments[i].resize(segmentCapacity(newCapacity, i));
+        }
+    }
+
+    private int segmentCapacity(int totalCapacity, int index) {
+        var base = totalCapacity / segments.length;
+        return Math.max(1, index < totalCapacity % segments.length ? base + 1 : base);
+    }
+
+    private Segment segmentFor(String userId) {
+        var h = userId.hashCode();
+        return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+    }
+}
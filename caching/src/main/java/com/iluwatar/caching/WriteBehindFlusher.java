@@ -0,0 +1,316 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.caching;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Background writer for the write-behind strategy. Dirty user accounts are queued instead of being
+ * written on the caller's thread, and a daemon thread writes them to the DB in batches once
+ * {@code batchSize} entries are pending or the oldest pending entry has waited {@code maxDelay}.
+ *
+ * <p>Repeated updates of the same user id are coalesced into the pending entry, so only the
+ * latest version is written. The queue is bounded: when {@code capacity} distinct user ids are
+ * pending, {@link #enqueue(UserAccount)} blocks until the flusher makes room.
+ */
+@Slf4j
+public class WriteBehindFlusher implements AutoCloseable {
+
+    private final Consumer<List<UserAccount>> writer;
+    private final int capacity;
+    private final int batchSize;
+    private final long maxDelayNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushNeeded = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    private final LinkedHashMap<String, UserAccount> pending = new LinkedHashMap<>();
+    private final Map<String, UserAccount> inFlight = new HashMap<>();
+    // enqueue times of the pending user ids in the same order, oldest at enqueueTimesHead
+    private final long[] enqueueTimes;
+    private int enqueueTimesHead;
+    private boolean flushRequested;
+    private boolean running = true;
+
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private final Thread thread;
+
+    /**
+     * Creates and starts a flusher.
+     *
+     * @param writer         bulk writer called with each batch on the flusher thread
+     * @param capacity       maximum number of distinct pending user ids
+     * @param batchSize      maximum number of user accounts per batch
+     * @param maxDelayMillis maximum time an entry waits before a partial batch is written
+     */
+    public WriteBehindFlusher(Consumer<List<UserAccount>> writer, int capacity, int batchSize,
+                              long maxDelayMillis) {
+        if (capacity <= 0 || batchSize <= 0 || maxDelayMillis < 0) {
+            throw new IllegalArgumentException(
+                    "capacity and batchSize must be positive, maxDelayMillis non-negative");
+        }
+        this.writer = writer;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.enqueueTimes = new long[capacity];
+        this.thread = new Thread(this::run, "write-behind-flusher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a dirty user account. Blocks while the queue is full. If the flusher is closed or the
+     * caller is interrupted while waiting, the user account is written on the caller's thread.
+     */
+    public void enqueue(UserAccount userAccount) {
+        lock.lock();
+        try {
+            queued.increment();
+            var userId = userAccount.getUserId();
+            if (pending.containsKey(userId)) {
+                pending.put(userId, userAccount);
+                coalesced.increment();
+                return;
+            }
+            while (running && pending.size() >= capacity) {
+                notFull.await();
+            }
+            if (running) {
+                // coalescing keeps the position of the first update, so the order of the pending
+                // user ids is the order of their enqueue times
+                enqueueTimes[(enqueueTimesHead + pending.size()) % capacity] = System.nanoTime();
+                pending.put(userId, userAccount);
+                // the flusher waits without a timeout while nothing is pending
+                if (pending.size() == 1 || pending.size() >= batchSize) {
+                    flushNeeded.signal();
+                }
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+        write(List.of(userAccount));
+    }
+
+    /**
+     * Returns the queued or currently written version of the user account, or {@code null}. Readers
+     * check it before the DB, which may not have seen the latest version yet.
+     */
+    public UserAccount getPending(String userId) {
+        lock.lock();
+        try {
+            var userAccount = pending.get(userId);
+            return userAccount != null ? userAccount : inFlight.get(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes every queued user account and waits until the DB has received them.
+     */
+    public void flushAll() {
+        lock.lock();
+        try {
+            if (!running) {
+                return;
+            }
+            flushRequested = true;
+            flushNeeded.signal();
+            while (!pending.isEmpty() || !inFlight.isEmpty()) {
+                drained.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the queue and stops the flusher thread.
+     */
+    @Override
+    public void close() {
+        flushAll();
+        lock.lock();
+        try {
+            running = false;
+            flushNeeded.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Number of user accounts handed to {@link #enqueue(UserAccount)}.
+     */
+    public long getQueuedCount() {
+        return queued.sum();
+    }
+
+    /**
+     * Number of user accounts that replaced an already pending version of the same user id.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Number of user accounts written to the DB.
+     */
+    public long getFlushedCount() {
+        return flushed.sum();
+    }
+
+    /**
+     * Number of bulk writes issued.
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Number of user accounts whose bulk write failed.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Number of distinct user ids waiting to be written.
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            List<UserAccount> batch;
+            lock.lock();
+            try {
+                if (!awaitBatch()) {
+                    return;
+                }
+                batch = takeBatch();
+            } catch (InterruptedException e) {
+                LOGGER.warn("Write-behind flusher interrupted with {} pending writes", pending.size());
+                return;
+            } finally {
+                lock.unlock();
+            }
+            write(batch);
+            lock.lock();
+            try {
+                batch.forEach(userAccount -> inFlight.remove(userAccount.getUserId(), userAccount));
+                if (pending.isEmpty() && inFlight.isEmpty()) {
+                    flushRequested = false;
+                    drained.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Waits until a batch is due. Returns {@code false} once the flusher is closed and drained.
+     */
+    private boolean awaitBatch() throws InterruptedException {
+        while (true) {
+            if (pending.size() >= batchSize || (flushRequested && !pending.isEmpty())) {
+                return true;
+            }
+            if (pending.isEmpty()) {
+                if (!running) {
+                    return false;
+                }
+                flushNeeded.await();
+                continue;
+            }
+            var remaining = enqueueTimes[enqueueTimesHead] + maxDelayNanos - System.nanoTime();
+            if (remaining <= 0 || !running) {
+                return true;
+            }
+            flushNeeded.awaitNanos(remaining);
+        }
+    }
+
+    private List<UserAccount> takeBatch() {
+        var batch = new ArrayList<UserAccount>(Math.min(batchSize, pending.size()));
+        var iterator = pending.values().iterator();
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            var userAccount = iterator.next();
+            iterator.remove();
+            inFlight.put(userAccount.getUserId(), userAccount);
+            batch.add(userAccount);
+        }
+        enqueueTimesHead = (enqueueTimesHead + batch.size()) % capacity;
+        notFull.signalAll();
+        return batch;
+    }
+
+    private void write(List<UserAccount> batch) {
+        try {
+            writer.accept(batch);
+            flushed.add(batch.size());
+            batches.increment();
+        } catch (RuntimeException e) {
+            failed.add(batch.size());
+            LOGGER.error("Error writing {} user accounts to DB", batch.size(), e);
+        }
+    }
+}
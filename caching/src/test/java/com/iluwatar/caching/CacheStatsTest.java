@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.caching;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheStatsTest {
+
+    @BeforeEach
+    void setUp() {
+        AppManager.initDb(false);
+        AppManager.initCacheCapacity(3);
+        AppManager.initCachingPolicy(CachingPolicy.THROUGH);
+        CacheStore.resetStats();
+    }
+
+    @Test
+    void recordsHitsMissesLoadsAndEvictions() {
+        for (var i = 1; i <= 4; i++) {
+            DbManager.writeToDb(new UserAccount("00" + i, "name", "info"));
+        }
+        AppManager.find("001");
+        AppManager.find("001");
+        AppManager.find("002");
+        AppManager.find("003");
+        AppManager.find("004");
+
+        var stats = AppManager.getCacheStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(4, stats.getMissCount());
+        assertEquals(4, stats.getLoadSuccessCount());
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(0.2, stats.hitRate(), 1e-9);
+        assertTrue(stats.loadLatencyPercentileNanos(0.99) > 0);
+    }
+
+    @Test
+    void histogramPercentiles() {
+        var stats = new CacheStats();
+        for (var i = 0; i < 99; i++) {
+            stats.recordLoad(1_000, true);
+        }
+        stats.recordLoad(1_000_000, false);
+
+        var snapshot = stats.snapshot();
+        assertEquals(1_024, snapshot.loadLatencyPercentileNanos(0.5));
+        assertEquals(1 << 20, snapshot.loadLatencyPercentileNanos(1.0));
+        assertEquals(1, snapshot.getLoadFailureCount());
+        assertEquals(9, CacheStats.bucketOf(1_000));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentLruCacheTest {
+
+    private static UserAccount account(String userId) {
+        return new UserAccount(userId, "name" + userId, "info");
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        var cache = new ConcurrentLruCache(3);
+        cache.set("003", account("003"));
+        cache.set("004", account("004"));
+        cache.set("005", account("005"));
+        cache.get("003");
+
+        var evicted = cache.set("006", account("006"));
+
+        assertEquals("004", evicted.getUserId());
+        assertFalse(cache.contains("004"));
+        assertTrue(cache.contains("003"));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void updateDoesNotEvict() {
+        var cache = new ConcurrentLruCache(2);
+        cache.set("001", account("001"));
+        cache.set("002", account("002"));
+        var updated = account("001");
+
+        assertNull(cache.set("001", updated));
+        assertSame(updated, cache.get("001"));
+    }
+
+    @Test
+    void invalidateAndShrink() {
+        var cache = new ConcurrentLruCache(4);
+        for (var i = 0; i < 4; i++) {
+            cache.set("00" + i, account("00" + i));
+        }
+        cache.invalidate("000");
+        assertFalse(cache.contains("000"));
+
+        cache.setCapacity(2);
+        assertEquals(2, cache.size());
+        assertTrue(cache.isFull());
+    }
+
+    @Test
+    void concurrentWritersNeverExceedCapacity() throws Exception {
+        var capacity = 256;
+        var cache = new ConcurrentLruCache(capacity, 8);
+        var executor = Executors.newFixedThreadPool(8);
+        var futures = new ArrayList<Future<?>>();
+        for (var t = 0; t < 8; t++) {
+            var offset = t * 10_000;
+            futures.add(executor.submit(() -> {
+                for (var i = 0; i < 2_000; i++) {
+                    var userId = String.valueOf(offset + i);
+                    cache.set(userId, account(userId));
+                    cache.get(String.valueOf(offset + i / 2));
+                }
+            }));
+        }
+        for (var future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(capacity, cache.size());
+        assertEquals(capacity, cache.getCacheDataInListForm().size());
+    }
+}
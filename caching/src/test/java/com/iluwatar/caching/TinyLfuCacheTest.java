@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.caching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TinyLfuCacheTest {
+
+    private static UserAccount account(String userId) {
+        return new UserAccount(userId, "name" + userId, "info");
+    }
+
+    @Test
+    void sketchCountsAccesses() {
+        var sketch = new FrequencySketch(64);
+        for (var i = 0; i < 5; i++) {
+            sketch.increment("hot");
+        }
+        sketch.increment("cold");
+
+        assertTrue(sketch.frequency("hot") >= 5);
+        assertTrue(sketch.frequency("cold") >= 1);
+        assertTrue(sketch.frequency("hot") > sketch.frequency("cold"));
+    }
+
+    @Test
+    void sketchAgesCounters() {
+        var sketch = new FrequencySketch(8);
+        for (var i = 0; i < 10; i++) {
+            sketch.increment("hot");
+        }
+        var before = sketch.frequency("hot");
+        for (var i = 0; i < 100; i++) {
+            sketch.increment("other" + i);
+        }
+
+        assertTrue(sketch.frequency("hot") < before);
+    }
+
+    @Test
+    void scanDoesNotFlushPopularEntries() {
+        var cache = new TinyLfuCache(100);
+        for (var round = 0; round < 5; round++) {
+            for (var i = 0; i < 50; i++) {
+                var userId = "hot" + i;
+                if (cache.get(userId) == null) {
+                    cache.set(userId, account(userId));
+                }
+            }
+        }
+        for (var i = 0; i < 1_000; i++) {
+            var userId = "scan" + i;
+            cache.set(userId, account(userId));
+        }
+
+        var retained = 0;
+        for (var i = 0; i < 50; i++) {
+            if (cache.contains("hot" + i)) {
+                retained++;
+            }
+        }
+        assertEquals(50, retained);
+        assertEquals(100, cache.size());
+    }
+
+    @Test
+    void invalidateUpdateAndShrink() {
+        var cache = new TinyLfuCache(10);
+        for (var i = 0; i < 10; i++) {
+            assertNull(cache.set("00" + i, account("00" + i)));
+        }
+        assertTrue(cache.isFull());
+
+        cache.invalidate("003");
+        assertFalse(cache.contains("003"));
+        assertEquals(9, cache.size());
+
+        cache.setCapacity(4);
+        assertEquals(4, cache.size());
+        assertEquals(4, cache.getCacheDataInListForm().size());
+    }
+
+    @Test
+    void cacheStoreUsesConfiguredEvictionPolicy() {
+        AppManager.initDb(false);
+        AppManager.initCacheCapacity(3);
+        AppManager.initEvictionPolicy(EvictionPolicy.TINY_LFU);
+        try {
+            AppManager.initCachingPolicy(CachingPolicy.THROUGH);
+            AppManager.save(account("001"));
+
+            assertEquals("001", AppManager.find("001").getUserId());
+        } finally {
+            AppManager.initEvictionPolicy(EvictionPolicy.LRU);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.caching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindFlusherTest {
+
+    private final List<List<UserAccount>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private static UserAccount account(String userId, String userName) {
+        return new UserAccount(userId, userName, "info");
+    }
+
+    @Test
+    void coalescesRepeatedUpdates() {
+        try (var flusher = new WriteBehindFlusher(batches::add, 10, 10, 10_000)) {
+            flusher.enqueue(account("001", "John"));
+            var latest = account("001", "John G.");
+            flusher.enqueue(latest);
+            assertSame(latest, flusher.getPending("001"));
+
+            flusher.flushAll();
+
+            assertEquals(1, batches.size());
+            assertEquals(List.of(latest), batches.get(0));
+            assertEquals(2, flusher.getQueuedCount());
+            assertEquals(1, flusher.getCoalescedCount());
+            assertEquals(1, flusher.getFlushedCount());
+        }
+    }
+
+    @Test
+    void writesFullBatchesWithoutWaitingForTheDelay() throws InterruptedException {
+        var written = new CountDownLatch(2);
+        try (var flusher = new WriteBehindFlusher(batch -> {
+            batches.add(batch);
+            written.countDown();
+        }, 100, 5, 10_000)) {
+            for (var i = 0; i < 10; i++) {
+                flusher.enqueue(account("00" + i, "name"));
+            }
+
+            assertTrue(written.await(5, TimeUnit.SECONDS));
+            assertEquals(5, batches.get(0).size());
+            assertEquals(5, batches.get(1).size());
+        }
+    }
+
+    @Test
+    void writesPartialBatchAfterDelay() throws InterruptedException {
+        var written = new CountDownLatch(1);
+        try (var flusher = new WriteBehindFlusher(batch -> written.countDown(), 100, 50, 20)) {
+            flusher.enqueue(account("001", "John"));
+
+            assertTrue(written.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void leftoverEntryKeepsItsOwnDelay() throws InterruptedException {
+        var firstBatch = new CountDownLatch(1);
+        var lastWritten = new CountDownLatch(1);
+        try (var flusher = new WriteBehindFlusher(batch -> {
+            if (firstBatch.getCount() > 0) {
+                firstBatch.countDown();
+                sleep(1_000);
+            }
+            if (batch.size() == 1) {
+                lastWritten.countDown();
+            }
+        }, 10, 2, 2_000)) {
+            var start = System.nanoTime();
+            flusher.enqueue(account("001", "John"));
+            flusher.enqueue(account("002", "Jane"));
+            assertTrue(firstBatch.await(5, TimeUnit.SECONDS));
+            flusher.enqueue(account("003", "Adam"));
+            flusher.enqueue(account("004", "Eve"));
+            flusher.enqueue(account("005", "Mary"));
+
+            // 005 is due 2 s after it was queued, not 2 s after 003 and 004 were taken
+            assertTrue(lastWritten.await(5, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(2_600));
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void blocksProducersWhenFull() throws InterruptedException {
+        var release = new CountDownLatch(1);
+        try (var flusher = new WriteBehindFlusher(batch -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 1, 1, 0)) {
+            flusher.enqueue(account("001", "John"));
+            flusher.enqueue(account("002", "Jane"));
+            var producer = new Thread(() -> flusher.enqueue(account("003", "Adam")));
+            producer.start();
+            producer.join(200);
+            assertTrue(producer.isAlive());
+
+            release.countDown();
+            producer.join(5_000);
+            assertFalse(producer.isAlive());
+            flusher.flushAll();
+            assertEquals(3, flusher.getFlushedCount());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.circuitbreaker;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Contention benchmark of {@link SlidingWindowCircuitBreaker} against {@link
+ * DefaultCircuitBreaker}.
+ *
+ * <p>The first part measures the throughput of threads calling a quick service through a shared
+ * breaker, with one call in a hundred failing. The second part lets all the threads hit a HALF_OPEN
+ * breaker at once while the service is still down, and counts the probes that reach the service.
+ *
+ * <p>Usage: {@code CircuitBreakerBenchmark [millisPerRun]}.
+ */
+@Slf4j
+public final class CircuitBreakerBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+    private static final int FAILURE_PERCENTAGE = 1;
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private CircuitBreakerBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional duration of a throughput run in milliseconds
+     */
+    public static void main(String[] args) throws InterruptedException {
+        var millis = args.length > 0 ? Long.parseLong(args[0]) : 1_000L;
+        RemoteService flakyService = () -> {
+            if (ThreadLocalRandom.current().nextInt(100) < FAILURE_PERCENTAGE) {
+                throw new RemoteServiceException("Service is down");
+            }
+            return "Service is working";
+        };
+        Function<RemoteService, CircuitBreaker> defaultBreaker =
+                service -> new DefaultCircuitBreaker(service, 3000, 5, RETRY_NANOS);
+        Function<RemoteService, CircuitBreaker> slidingBreaker =
+                service -> SlidingWindowCircuitBreaker.builder(service)
+                        .openDuration(RETRY_NANOS, TimeUnit.NANOSECONDS)
+                        .build();
+
+        for (var threads : THREAD_COUNTS) {
+            var plain = throughput(defaultBreaker.apply(flakyService), threads, millis);
+            var sliding = throughput(slidingBreaker.apply(flakyService), threads, millis);
+            LOGGER.info("threads={} DefaultCircuitBreaker={} calls/s "
+                    + "SlidingWindowCircuitBreaker={} calls/s", threads, plain, sliding);
+        }
+
+        for (var threads : THREAD_COUNTS) {
+            var plain = probes(defaultBreaker, threads);
+            var sliding = probes(slidingBreaker, threads);
+            LOGGER.info("threads={} probes let through while HALF_OPEN: "
+                    + "DefaultCircuitBreaker={} SlidingWindowCircuitBreaker={}", threads, plain,
+                    sliding);
+        }
+    }
+
+    /**
+     * Runs the threads against the breaker for the given time and returns the calls per second.
+     */
+    static long throughput(CircuitBreaker circuitBreaker, int threads, long millis)
+            throws InterruptedException {
+        var calls = new LongAdder();
+        var done = new CountDownLatch(threads);
+        var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        for (var i = 0; i < threads; i++) {
+            new Thread(() -> {
+                var count = 0L;
+                while (System.nanoTime() < deadline) {
+                    try {
+                        circuitBreaker.attemptRequest();
+                    } catch (RemoteServiceException e) {
+                        // counted as a call like the others
+                    }
+                    count++;
+                }
+                calls.add(count);
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        return calls.sum() * 1_000L / millis;
+    }
+
+    /**
+     * Releases the threads at once against a HALF_OPEN breaker of a service that is still down, and
+     * returns how many calls reached the service.
+     */
+    static int probes(Function<RemoteService, CircuitBreaker> factory, int threads)
+            throws InterruptedException {
+        var serviceCalls = new AtomicInteger();
+        var circuitBreaker = factory.apply(() -> {
+            serviceCalls.incrementAndGet();
+            try {
+                // a probe of a service that is down takes a while to fail
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RemoteServiceException("Service is down");
+        });
+        circuitBreaker.setState(State.HALF_OPEN);
+        var start = new CountDownLatch(1);
+        var done = new CountDownLatch(threads);
+        for (var i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    circuitBreaker.attemptRequest();
+                } catch (RemoteServiceException e) {
+                    // the service is down
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        return serviceCalls.get();
+    }
+}
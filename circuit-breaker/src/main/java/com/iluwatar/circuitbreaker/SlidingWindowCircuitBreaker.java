@@ -0,0 +1,456 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.circuitbreaker;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe circuit breaker deciding on the failure rate and the slow call rate of the calls in a
+ * sliding time window, instead of on a count of consecutive failures.
+ *
+ * <p>The window is a ring of time buckets. A call adds its outcome to the bucket of the current
+ * time slice, and a bucket that has fallen out of the window is replaced by a fresh one with a
+ * compare-and-set, so that recording never takes a lock. Once the window holds enough calls and
+ * either rate reaches its threshold the circuit opens. After the open duration it turns HALF_OPEN
+ * and lets exactly the permitted number of probe calls through: a failed or slow probe opens the
+ * circuit again, and when all of them succeed it closes.
+ *
+ * <p>Every state is an immutable phase object swapped with a compare-and-set, so concurrent callers
+ * agree on one transition, and only the thread making it publishes the {@link
+ * StateTransitionEvent}.
+ */
+@Slf4j
+public class SlidingWindowCircuitBreaker implements CircuitBreaker {
+
+    /**
+     * A state together with when it was entered and, when HALF_OPEN, its probe accounting.
+     */
+    private static final class Phase {
+        final State state;
+        final long since;
+        final AtomicInteger probePermits;
+        final AtomicInteger probeSuccesses = new AtomicInteger();
+
+        Phase(State state, long since, int permittedProbes) {
+            this.state = state;
+            this.since = since;
+            this.probePermits = new AtomicInteger(permittedProbes);
+        }
+
+        boolean tryAcquireProbe() {
+            var permits = probePermits.get();
+            while (permits > 0) {
+                if (probePermits.compareAndSet(permits, permits - 1)) {
+                    return true;
+                }
+                permits = probePermits.get();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Outcomes of the calls completed in one time slice.
+     */
+    private static final class Bucket {
+        final long epoch;
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder slowCalls = new LongAdder();
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    private final RemoteService service;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final long bucketNanos;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int permittedProbes;
+    private final LongSupplier clock;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final AtomicReference<Phase> phase;
+    private final List<Consumer<StateTransitionEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder notPermittedCalls = new LongAdder();
+    private volatile String lastFailureResponse;
+    // whether the window held fewer than the minimum calls when it was last evaluated
+    private volatile boolean belowMinimumCalls = true;
+
+    private SlidingWindowCircuitBreaker(Builder builder) {
+        this.service = builder.service;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallDurationNanos = builder.slowCallDurationNanos;
+        this.bucketNanos = Math.max(1, builder.windowNanos / builder.buckets);
+        this.minimumCalls = builder.minimumCalls;
+        this.openNanos = builder.openNanos;
+        this.permittedProbes = builder.permittedProbes;
+        this.clock = builder.clock;
+        this.buckets = new AtomicReferenceArray<>(builder.buckets);
+        // We start in a closed state hoping that everything is fine
+        this.phase = new AtomicReference<>(new Phase(State.CLOSED, clock.getAsLong(), 0));
+    }
+
+    /**
+     * Returns a builder for a circuit breaker protecting calls to {@code service}.
+     */
+    public static Builder builder(RemoteService service) {
+        return new Builder(service);
+    }
+
+    /**
+     * Registers a listener for the state transitions. Listeners are called by the thread making the
+     * transition and should return quickly.
+     */
+    public void addListener(Consumer<StateTransitionEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Records a successful call that completed just now, outside of {@link #attemptRequest()}.
+     */
+    @Override
+    public void recordSuccess() {
+        var now = clock.getAsLong();
+        onResult(phase.get(), now, now, true);
+    }
+
+    /**
+     * Records a failed call that completed just now, outside of {@link #attemptRequest()}.
+     */
+    @Override
+    public void recordFailure(String response) {
+        lastFailureResponse = response;
+        var now = clock.getAsLong();
+        onResult(phase.get(), now, now, false);
+    }
+
+    @Override
+    public String getState() {
+        var current = phase.get();
+        if (current.state == State.OPEN && clock.getAsLong() - current.since >= openNanos) {
+            transition(current, State.HALF_OPEN);
+        }
+        return phase.get().state.name();
+    }
+
+    /**
+     * Break the circuit beforehand if it is known service is down Or connect the circuit manually if
+     * service comes online before expected.
+     *
+     * @param state State at which circuit is in
+     */
+    @Override
+    public void setState(State state) {
+        while (!transition(phase.get(), state)) {
+            // lost against a concurrent transition, force the state on top of it
+        }
+    }
+
+    /**
+     * Executes service call if the circuit lets it through.
+     *
+     * @return Value from the remote resource, stale response or a custom exception
+     */
+    @Override
+    public String attemptRequest() throws RemoteServiceException {
+        var admittedBy = acquirePermission();
+        if (admittedBy == null) {
+            // return cached response if the circuit does not let the call through
+            notPermittedCalls.increment();
+            return lastFailureResponse;
+        }
+        var start = clock.getAsLong();
+        try {
+            var response = service.call();
+            onResult(admittedBy, start, clock.getAsLong(), true);
+            return response;
+        } catch (RemoteServiceException ex) {
+            lastFailureResponse = ex.getMessage();
+            onResult(admittedBy, start, clock.getAsLong(), false);
+            throw ex;
+        } catch (RuntimeException | Error ex) {
+            // any other failure must be counted too, or a probe would never give its permit back
+            onResult(admittedBy, start, clock.getAsLong(), false);
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the percentage of failed calls in the window, or -1 while the window holds fewer than
+     * the minimum number of calls.
+     */
+    public float getFailureRate() {
+        var window = window(clock.getAsLong());
+        return window[0] < minimumCalls ? -1 : 100f * window[1] / window[0];
+    }
+
+    /**
+     * Returns the percentage of slow calls in the window, or -1 while the window holds fewer than
+     * the minimum number of calls.
+     */
+    public float getSlowCallRate() {
+        var window = window(clock.getAsLong());
+        return window[0] < minimumCalls ? -1 : 100f * window[2] / window[0];
+    }
+
+    /**
+     * Returns the number of calls answered with the cached response because the circuit was open
+     * or all the probes were taken.
+     */
+    public long getNotPermittedCalls() {
+        return notPermittedCalls.sum();
+    }
+
+    /**
+     * Returns the phase the call is made in, or null when the call is not permitted.
+     */
+    private Phase acquirePermission() {
+        while (true) {
+            var current = phase.get();
+            switch (current.state) {
+                case CLOSED:
+                    return current;
+                case OPEN:
+                    if (clock.getAsLong() - current.since < openNanos) {
+                        return null;
+                    }
+                    //We have waited long enough and should try checking if service is up
+                    transition(current, State.HALF_OPEN);
+                    break;
+                default:
+                    return current.tryAcquireProbe() ? current : null;
+            }
+        }
+    }
+
+    private void onResult(Phase admittedBy, long start, long end, boolean success) {
+        var slow = end - start > slowCallDurationNanos;
+        if (admittedBy.state == State.HALF_OPEN) {
+            if (!success || slow) {
+                transition(admittedBy, State.OPEN);
+            } else if (admittedBy.probeSuccesses.incrementAndGet() >= permittedProbes) {
+                transition(admittedBy, State.CLOSED);
+            }
+            return;
+        }
+        var bucket = bucket(end);
+        bucket.calls.increment();
+        if (!success) {
+            bucket.failures.increment();
+        }
+        if (slow) {
+            bucket.slowCalls.increment();
+        }
+        // A good call only lowers the rates, it can trip the circuit only by bringing the window to
+        // the minimum calls. Summing up the window is left out for the others.
+        if (success && !slow && !belowMinimumCalls) {
+            return;
+        }
+        var current = phase.get();
+        if (current.state == State.CLOSED && thresholdReached(end)) {
+            //Then something is wrong with remote service
+            transition(current, State.OPEN);
+        }
+    }
+
+    private boolean thresholdReached(long now) {
+        var window = window(now);
+        var calls = window[0];
+        belowMinimumCalls = calls < minimumCalls;
+        return calls >= minimumCalls && (100f * window[1] >= failureRateThreshold * calls
+                || 100f * window[2] >= slowCallRateThreshold * calls);
+    }
+
+    /**
+     * Returns the calls, failures and slow calls of the buckets still in the window.
+     */
+    private long[] window(long now) {
+        var oldest = Math.floorDiv(now, bucketNanos) - buckets.length();
+        var totals = new long[3];
+        for (var i = 0; i < buckets.length(); i++) {
+            var bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch > oldest) {
+                totals[0] += bucket.calls.sum();
+                totals[1] += bucket.failures.sum();
+                totals[2] += bucket.slowCalls.sum();
+            }
+        }
+        return totals;
+    }
+
+    private Bucket bucket(long now) {
+        var epoch = Math.floorDiv(now, bucketNanos);
+        var index = (int) Math.floorMod(epoch, (long) buckets.length());
+        while (true) {
+            var bucket = buckets.get(index);
+            if (bucket != null && bucket.epoch >= epoch) {
+                // a newer bucket only shows up when this thread was delayed, count the call there
+                return bucket;
+            }
+            var fresh = new Bucket(epoch);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * Moves from the given phase to a new one in the given state. Returns false when another thread
+     * already moved away from that phase.
+     */
+    private boolean transition(Phase from, State to) {
+        var now = clock.getAsLong();
+        if (!phase.compareAndSet(from, new Phase(to, now, permittedProbes))) {
+            return false;
+        }
+        if (to == State.CLOSED) {
+            // start over, the failures that opened the circuit are history
+            for (var i = 0; i < buckets.length(); i++) {
+                buckets.set(i, null);
+            }
+        }
+        if (from.state != to) {
+            var event = new StateTransitionEvent(from.state, to, now);
+            for (var listener : listeners) {
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Error in the listener of " + event, e);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builder of {@link SlidingWindowCircuitBreaker}.
+     */
+    public static final class Builder {
+        private final RemoteService service;
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 100;
+        private long slowCallDurationNanos = TimeUnit.SECONDS.toNanos(1);
+        private long windowNanos = TimeUnit.SECONDS.toNanos(10);
+        private int buckets = 10;
+        private int minimumCalls = 10;
+        private long openNanos = TimeUnit.SECONDS.toNanos(2);
+        private int permittedProbes = 3;
+        private LongSupplier clock = System::nanoTime;
+
+        private Builder(RemoteService service) {
+            this.service = service;
+        }
+
+        /**
+         * Percentage of failed calls in the window at which the circuit opens. Defaults to 50.
+         */
+        public Builder failureRateThreshold(float percentage) {
+            this.failureRateThreshold = percentage;
+            return this;
+        }
+
+        /**
+         * Percentage of slow calls in the window at which the circuit opens. Defaults to 100.
+         */
+        public Builder slowCallRateThreshold(float percentage) {
+            this.slowCallRateThreshold = percentage;
+            return this;
+        }
+
+        /**
+         * Duration above which a call counts as slow. Defaults to one second.
+         */
+        public Builder slowCallDuration(long duration, TimeUnit unit) {
+            this.slowCallDurationNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Length of the sliding window and the number of buckets it is made of. Defaults to 10
+         * seconds in 10 buckets.
+         */
+        public Builder slidingWindow(long duration, TimeUnit unit, int buckets) {
+            this.windowNanos = unit.toNanos(duration);
+            this.buckets = buckets;
+            return this;
+        }
+
+        /**
+         * Number of calls the window must hold before the rates are considered. Defaults to 10.
+         */
+        public Builder minimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Time the circuit stays open before probing the service. Defaults to two seconds.
+         */
+        public Builder openDuration(long duration, TimeUnit unit) {
+            this.openNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Number of probe calls let through while HALF_OPEN. Defaults to 3.
+         */
+        public Builder permittedProbes(int permittedProbes) {
+            this.permittedProbes = permittedProbes;
+            return this;
+        }
+
+        // Visible only for testing purposes
+        Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Creates the circuit breaker.
+         */
+        public SlidingWindowCircuitBreaker build() {
+            if (buckets <= 0 || permittedProbes <= 0 || minimumCalls <= 0) {
+                throw new IllegalArgumentException(
+                        "buckets, permittedProbes and minimumCalls must be positive");
+            }
+            return new SlidingWindowCircuitBreaker(this);
+        }
+    }
+}
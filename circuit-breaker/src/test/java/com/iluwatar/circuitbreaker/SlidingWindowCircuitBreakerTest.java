@@ -0,0 +1,232 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.circuitbreaker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Sliding window circuit breaker test
+ */
+class SlidingWindowCircuitBreakerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicBoolean serviceDown = new AtomicBoolean();
+    private final AtomicInteger serviceCalls = new AtomicInteger();
+    private final List<StateTransitionEvent> events = new CopyOnWriteArrayList<>();
+
+    private final RemoteService service = () -> {
+        serviceCalls.incrementAndGet();
+        if (serviceDown.get()) {
+            throw new RemoteServiceException("Service is down");
+        }
+        return "Service is working";
+    };
+
+    private SlidingWindowCircuitBreaker circuitBreaker(RemoteService remoteService) {
+        var circuitBreaker = SlidingWindowCircuitBreaker.builder(remoteService)
+                .failureRateThreshold(50)
+                .slidingWindow(10, TimeUnit.SECONDS, 10)
+                .minimumCalls(4)
+                .openDuration(5, TimeUnit.SECONDS)
+                .permittedProbes(2)
+                .clock(now::get)
+                .build();
+        circuitBreaker.addListener(events::add);
+        return circuitBreaker;
+    }
+
+    private void call(SlidingWindowCircuitBreaker circuitBreaker, boolean fail) {
+        serviceDown.set(fail);
+        try {
+            circuitBreaker.attemptRequest();
+        } catch (RemoteServiceException e) {
+            // counted by the breaker
+        }
+    }
+
+    @Test
+    void testOpensOnFailureRateOnceTheWindowHoldsEnoughCalls() throws RemoteServiceException {
+        var circuitBreaker = circuitBreaker(service);
+        call(circuitBreaker, true);
+        call(circuitBreaker, true);
+        call(circuitBreaker, true);
+        assertEquals("CLOSED", circuitBreaker.getState());
+        assertEquals(-1, circuitBreaker.getFailureRate());
+
+        call(circuitBreaker, false);
+
+        assertEquals("OPEN", circuitBreaker.getState());
+        assertEquals(75, circuitBreaker.getFailureRate());
+        var callsSoFar = serviceCalls.get();
+        assertEquals("Service is down", circuitBreaker.attemptRequest());
+        assertEquals(callsSoFar, serviceCalls.get());
+        assertEquals(1, circuitBreaker.getNotPermittedCalls());
+    }
+
+    @Test
+    void testFailuresSlideOutOfTheWindow() {
+        var circuitBreaker = circuitBreaker(service);
+        call(circuitBreaker, true);
+        call(circuitBreaker, true);
+        now.addAndGet(10 * SECOND);
+
+        call(circuitBreaker, true);
+        call(circuitBreaker, false);
+        call(circuitBreaker, false);
+        call(circuitBreaker, false);
+
+        assertEquals("CLOSED", circuitBreaker.getState());
+        assertEquals(25, circuitBreaker.getFailureRate());
+    }
+
+    @Test
+    void testOpensOnSlowCallRate() throws RemoteServiceException {
+        var circuitBreaker = SlidingWindowCircuitBreaker.builder(() -> {
+            now.addAndGet(2 * SECOND);
+            return "Slow but working";
+        })
+                .slowCallDuration(1, TimeUnit.SECONDS)
+                .slowCallRateThreshold(50)
+                .slidingWindow(60, TimeUnit.SECONDS, 6)
+                .minimumCalls(2)
+                .clock(now::get)
+                .build();
+        circuitBreaker.attemptRequest();
+        assertEquals("CLOSED", circuitBreaker.getState());
+
+        circuitBreaker.attemptRequest();
+
+        assertEquals("OPEN", circuitBreaker.getState());
+        assertEquals(100, circuitBreaker.getSlowCallRate());
+        assertEquals(0, circuitBreaker.getFailureRate());
+    }
+
+    @Test
+    void testHalfOpenClosesAfterThePermittedProbesSucceed() {
+        var circuitBreaker = circuitBreaker(service);
+        circuitBreaker.setState(State.OPEN);
+        now.addAndGet(5 * SECOND);
+        assertEquals("HALF_OPEN", circuitBreaker.getState());
+
+        call(circuitBreaker, false);
+        assertEquals("HALF_OPEN", circuitBreaker.getState());
+        call(circuitBreaker, false);
+
+        assertEquals("CLOSED", circuitBreaker.getState());
+        assertEquals(List.of("CLOSED -> OPEN", "OPEN -> HALF_OPEN", "HALF_OPEN -> CLOSED"),
+                eventNames());
+    }
+
+    @Test
+    void testFailedProbeOpensTheCircuitAgain() {
+        var circuitBreaker = circuitBreaker(service);
+        circuitBreaker.setState(State.HALF_OPEN);
+
+        assertThrows(RemoteServiceException.class, () -> {
+            serviceDown.set(true);
+            circuitBreaker.attemptRequest();
+        });
+
+        assertEquals("OPEN", circuitBreaker.getState());
+        assertEquals(List.of("CLOSED -> HALF_OPEN", "HALF_OPEN -> OPEN"), eventNames());
+    }
+
+    @Test
+    void testUncheckedExceptionCountsAsFailedProbe() {
+        var broken = new AtomicBoolean(true);
+        var circuitBreaker = circuitBreaker(() -> {
+            if (broken.get()) {
+                throw new IllegalStateException("Unexpected failure");
+            }
+            return "Service is working";
+        });
+        circuitBreaker.setState(State.HALF_OPEN);
+
+        assertThrows(IllegalStateException.class, circuitBreaker::attemptRequest);
+
+        assertEquals("OPEN", circuitBreaker.getState());
+        // the probe permit is not lost, the circuit recovers once the service does
+        broken.set(false);
+        now.addAndGet(5 * SECOND);
+        call(circuitBreaker, false);
+        call(circuitBreaker, false);
+        assertEquals("CLOSED", circuitBreaker.getState());
+    }
+
+    @Test
+    void testHalfOpenAdmitsOnlyThePermittedProbes() throws Exception {
+        var release = new CountDownLatch(1);
+        var circuitBreaker = circuitBreaker(() -> {
+            serviceCalls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RemoteServiceException("Interrupted");
+            }
+            return "Service is working";
+        });
+        circuitBreaker.setState(State.HALF_OPEN);
+        var executor = Executors.newFixedThreadPool(16);
+        try {
+            var futures = new ArrayList<Future<String>>();
+            for (var i = 0; i < 16; i++) {
+                futures.add(executor.submit(circuitBreaker::attemptRequest));
+            }
+            while (circuitBreaker.getNotPermittedCalls() < 14) {
+                Thread.sleep(1);
+            }
+            assertEquals(2, serviceCalls.get());
+            release.countDown();
+            for (var future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("CLOSED", circuitBreaker.getState());
+        assertEquals(List.of("CLOSED -> HALF_OPEN", "HALF_OPEN -> CLOSED"), eventNames());
+    }
+
+    private List<String> eventNames() {
+        var names = new ArrayList<String>();
+        events.forEach(event -> names.add(event.toString()));
+        return names;
+    }
+}
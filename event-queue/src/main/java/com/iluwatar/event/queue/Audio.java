@@ -43,17 +43,18 @@ public class Audio {
 
     private static final int MAX_PENDING = 16;
 
-    private int headIndex;
-
-    private int tailIndex;
-
     private volatile Thread updateThread = null;
 
-    private final PlayMessage[] pendingAudio = new PlayMessage[MAX_PENDING];
+    private final PlayMessageQueue pendingAudio;
 
     // Visible only for testing purposes
     Audio() {
+        this(MAX_PENDING, PlayMessageQueue.OverflowPolicy.DROP_OLDEST);
+    }
 
+    // Visible only for testing purposes
+    Audio(int maxPending, PlayMessageQueue.OverflowPolicy overflowPolicy) {
+        pendingAudio = new PlayMessageQueue(maxPending, overflowPolicy);
     }
 
     public static Audio getInstance() {
@@ -66,8 +67,8 @@ public class Audio {
     public synchronized void stopService() throws InterruptedException {
         if (updateThread != null) {
             updateThread.interrupt();
+            updateThread.join();
         }
-        updateThread.join();
         updateThread = null;
     }
 
@@ -81,65 +82,62 @@ public class Audio {
     }
 
     /**
-     * Starts the thread for the Update Method pattern if it was not started previously. Also when the
-     * thread is is ready initializes the indexes of the queue
+     * Starts the thread for the Update Method pattern if it was not started previously. Once the
+     * thread is running this does not take any lock, so producers do not contend on it.
      */
     public void init() {
-        if (updateThread == null) {
-            updateThread = new Thread(() -> {
-                while (!Thread.currentThread().isInterrupted()) {
-                    update();
-                }
-            });
+        var thread = updateThread;
+        if (thread == null || !thread.isAlive()) {
+            startThread();
         }
-        startThread();
     }
 
     /**
      * This is a synchronized thread starter.
      */
     private synchronized void startThread() {
-        if (!updateThread.isAlive()) {
+        if (updateThread == null) {
+            updateThread = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        update();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        if (updateThread.getState() == Thread.State.NEW) {
             updateThread.start();
-            headIndex = 0;
-            tailIndex = 0;
         }
     }
 
     /**
-     * This method adds a new audio into the queue.
+     * This method adds a new audio into the queue. A stream that is already pending is not queued
+     * twice, the pending request plays with the larger of the two volumes. It is safe to call from
+     * any number of threads.
      *
      * @param stream is the AudioInputStream for the method
      * @param volume is the level of the audio's volume
      */
     public void playSound(AudioInputStream stream, float volume) {
         init();
-        // Walk the pending requests.
-        for (var i = headIndex; i != tailIndex; i = (i + 1) % MAX_PENDING) {
-            var playMessage = getPendingAudio()[i];
-            if (playMessage.getStream() == stream) {
-                // Use the larger of the two volumes.
-                playMessage.setVolume(Math.max(volume, playMessage.getVolume()));
-
-                // Don't need to enqueue.
-                return;
+        try {
+            if (!pendingAudio.offer(stream, volume)) {
+                LOGGER.trace("The queue is full, dropping the audio");
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        getPendingAudio()[tailIndex] = new PlayMessage(stream, volume);
-        tailIndex = (tailIndex + 1) % MAX_PENDING;
     }
 
     /**
-     * This method uses the Update Method pattern. It takes the audio from the queue and plays it
+     * This method uses the Update Method pattern. It takes the audio from the queue and plays it. If
+     * there are no pending requests the thread parks until a request arrives.
      */
-    private void update() {
-        // If there are no pending requests, do nothing.
-        if (headIndex == tailIndex) {
-            return;
-        }
+    private void update() throws InterruptedException {
+        var audioStream = pendingAudio.take().getStream();
         try {
-            var audioStream = getPendingAudio()[headIndex].getStream();
-            headIndex++;
             var clip = AudioSystem.getClip();
             clip.open(audioStream);
             clip.start();
@@ -166,12 +164,12 @@ public class Audio {
     }
 
     /**
-     * Returns with the message array of the queue.
+     * Returns with a copy of the message array of the queue.
      *
      * @return PlayMessage[]
      */
     public PlayMessage[] getPendingAudio() {
-        return pendingAudio;
+        return pendingAudio.snapshot();
     }
 
 }
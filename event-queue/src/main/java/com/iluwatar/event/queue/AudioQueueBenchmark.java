@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.queue;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput benchmark of {@link PlayMessageQueue} with many producer threads and one consumer.
+ * The baseline is the previous algorithm made thread-safe: a ring of pending messages behind a
+ * single lock, where every request walks the pending messages to find a duplicate stream.
+ *
+ * <p>Usage: {@code AudioQueueBenchmark [capacity] [streams] [millisPerRun]}. Producers pick a
+ * random stream out of a fixed set, so part of the requests are merged.
+ */
+@Slf4j
+public final class AudioQueueBenchmark {
+
+    private static final int[] PRODUCER_COUNTS = {1, 2, 4, 8, 16};
+
+    /**
+     * Minimal view of a queue used by the benchmark.
+     */
+    interface BenchmarkedQueue {
+        void offer(AudioInputStream stream, float volume) throws InterruptedException;
+
+        PlayMessage take() throws InterruptedException;
+    }
+
+    /**
+     * The linear duplicate scan of the original {@link Audio#playSound}, guarded by a monitor.
+     */
+    static final class LockedScanQueue implements BenchmarkedQueue {
+        private final ArrayDeque<PlayMessage> pending = new ArrayDeque<>();
+        private final int capacity;
+
+        LockedScanQueue(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public synchronized void offer(AudioInputStream stream, float volume) {
+            for (var playMessage : pending) {
+                if (playMessage.getStream() == stream) {
+                    playMessage.setVolume(Math.max(volume, playMessage.getVolume()));
+                    return;
+                }
+            }
+            if (pending.size() == capacity) {
+                pending.poll();
+            }
+            pending.add(new PlayMessage(stream, volume));
+            notifyAll();
+        }
+
+        @Override
+        public synchronized PlayMessage take() throws InterruptedException {
+            while (pending.isEmpty()) {
+                wait();
+            }
+            return pending.poll();
+        }
+    }
+
+    private AudioQueueBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional capacity, number of distinct streams and duration of a run in millis
+     */
+    public static void main(String[] args) throws InterruptedException {
+        var capacity = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        var streamCount = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        var millis = args.length > 2 ? Long.parseLong(args[2]) : 1_000L;
+        var format = new AudioFormat(44_100f, 16, 1, true, false);
+        var streams = new AudioInputStream[streamCount];
+        for (var i = 0; i < streamCount; i++) {
+            streams[i] = new AudioInputStream(new ByteArrayInputStream(new byte[0]), format, 0);
+        }
+
+        for (var producers : PRODUCER_COUNTS) {
+            var locked = run(new LockedScanQueue(capacity), streams, producers, millis);
+            var queue = new PlayMessageQueue(capacity, PlayMessageQueue.OverflowPolicy.DROP_OLDEST);
+            var lockFree = run(new BenchmarkedQueue() {
+                @Override
+                public void offer(AudioInputStream stream, float volume)
+                        throws InterruptedException {
+                    queue.offer(stream, volume);
+                }
+
+                @Override
+                public PlayMessage take() throws InterruptedException {
+                    return queue.take();
+                }
+            }, streams, producers, millis);
+            LOGGER.info("producers={} locked scan={} PlayMessageQueue={} (merged={} dropped={})",
+                    producers, locked, lockFree, queue.getMergedCount(), queue.getDroppedCount());
+        }
+    }
+
+    /**
+     * Runs the producers and the consumer for the given time and returns the requests offered and
+     * taken per second.
+     */
+    static String run(BenchmarkedQueue queue, AudioInputStream[] streams, int producers,
+                      long millis) throws InterruptedException {
+        var offered = new LongAdder();
+        var taken = new LongAdder();
+        var done = new CountDownLatch(producers);
+        var deadline = System.nanoTime() + millis * 1_000_000L;
+        var consumer = new Thread(() -> {
+            try {
+                while (true) {
+                    queue.take();
+                    taken.increment();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        for (var i = 0; i < producers; i++) {
+            new Thread(() -> {
+                try {
+                    var random = ThreadLocalRandom.current();
+                    var count = 0L;
+                    while (System.nanoTime() < deadline) {
+                        queue.offer(streams[random.nextInt(streams.length)], random.nextFloat());
+                        count++;
+                    }
+                    offered.add(count);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        consumer.interrupt();
+        consumer.join();
+        return String.format("%,d offers/s %,d takes/s", offered.sum() * 1_000L / millis,
+                taken.sum() * 1_000L / millis);
+    }
+}
@@ -41,6 +41,16 @@ public class PlayMessage {
     private final AudioInputStream stream;
 
     @Setter
-    private float volume;
+    private volatile float volume;
+
+    /**
+     * Raises the volume to the given level if that is louder, so that concurrent merges of the same
+     * stream keep the loudest request.
+     */
+    public synchronized void raiseVolume(float newVolume) {
+        if (newVolume > volume) {
+            volume = newVolume;
+        }
+    }
 
 }
@@ -0,0 +1,273 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.queue;
+
+import javax.sound.sampled.AudioInputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded, lock-free queue of pending {@link PlayMessage}s written by any number of game threads
+ * and drained by the single audio thread.
+ *
+ * <p>Requests for a stream that is already pending are merged into the pending message in O(1)
+ * through an index keyed by stream, instead of walking the queue. When the queue is full the
+ * {@link OverflowPolicy} decides what happens to a new request. The consumer parks in {@link
+ * #take()} while the queue is empty and is unparked by the next producer.
+ *
+ * <p>The slots are claimed with a compare-and-set on both ends, because {@link
+ * OverflowPolicy#DROP_OLDEST} lets producers evict from the head as well.
+ */
+public class PlayMessageQueue {
+
+    /**
+     * What a producer does with a new request when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Evicts the oldest pending request to make room for the new one.
+         */
+        DROP_OLDEST,
+        /**
+         * Keeps the pending requests. Only requests that merge into a pending one get through, a new
+         * stream is discarded.
+         */
+        MERGE,
+        /**
+         * Waits until the audio thread has made room.
+         */
+        BLOCK
+    }
+
+    private static final int SPINS = 64;
+    private static final long MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final PlayMessage[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final ConcurrentHashMap<AudioInputStream, PlayMessage> pendingByStream =
+            new ConcurrentHashMap<>();
+    private final OverflowPolicy policy;
+    private final LongAdder merged = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile Thread waitingConsumer;
+
+    /**
+     * Creates a queue that holds at least {@code capacity} requests, rounded up to a power of two.
+     */
+    public PlayMessageQueue(int capacity, OverflowPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        var size = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        this.buffer = new PlayMessage[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.policy = policy;
+        for (var i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds a request to play the stream, or raises the volume of the pending request for the same
+     * stream.
+     *
+     * @return false when the request was discarded because the queue was full
+     * @throws InterruptedException when interrupted while waiting for room with {@link
+     *                              OverflowPolicy#BLOCK}
+     */
+    public boolean offer(AudioInputStream stream, float volume) throws InterruptedException {
+        var message = new PlayMessage(stream, volume);
+        var pending = pendingByStream.putIfAbsent(stream, message);
+        if (pending != null) {
+            // Use the larger of the two volumes, don't need to enqueue.
+            pending.raiseVolume(volume);
+            merged.increment();
+            return true;
+        }
+        var attempts = 0;
+        while (!tryEnqueue(message)) {
+            switch (policy) {
+                case DROP_OLDEST:
+                    var oldest = tryDequeue();
+                    if (oldest != null) {
+                        pendingByStream.remove(oldest.getStream(), oldest);
+                        dropped.increment();
+                    }
+                    break;
+                case MERGE:
+                    pendingByStream.remove(stream, message);
+                    dropped.increment();
+                    return false;
+                default:
+                    try {
+                        idle(++attempts);
+                    } catch (InterruptedException e) {
+                        pendingByStream.remove(stream, message);
+                        throw e;
+                    }
+            }
+        }
+        var consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the oldest pending request.
+     *
+     * @return the request, or null when the queue is empty
+     */
+    public PlayMessage poll() {
+        var message = tryDequeue();
+        if (message != null) {
+            pendingByStream.remove(message.getStream(), message);
+        }
+        return message;
+    }
+
+    /**
+     * Removes the oldest pending request, parking the calling thread until there is one. Only one
+     * thread may wait in this method at a time.
+     *
+     * @throws InterruptedException when the waiting thread is interrupted
+     */
+    public PlayMessage take() throws InterruptedException {
+        var message = poll();
+        while (message == null) {
+            waitingConsumer = Thread.currentThread();
+            try {
+                // re-check after publishing the waiter, so that no producer's signal is missed
+                message = poll();
+                if (message == null) {
+                    LockSupport.park(this);
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                    message = poll();
+                }
+            } finally {
+                waitingConsumer = null;
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Returns the number of pending requests.
+     */
+    public int size() {
+        var size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, buffer.length));
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Returns the number of requests that were merged into a pending request for the same stream.
+     */
+    public long getMergedCount() {
+        return merged.sum();
+    }
+
+    /**
+     * Returns the number of requests that were lost because the queue was full.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns a copy of the slots, with null in the free ones. The copy is not atomic and only meant
+     * for diagnostics.
+     */
+    public PlayMessage[] snapshot() {
+        return buffer.clone();
+    }
+
+    private boolean tryEnqueue(PlayMessage message) {
+        var position = tail.get();
+        while (true) {
+            var index = (int) position & mask;
+            var difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[index] = message;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    private PlayMessage tryDequeue() {
+        var position = head.get();
+        while (true) {
+            var index = (int) position & mask;
+            var difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    var message = buffer[index];
+                    buffer[index] = null;
+                    sequences.set(index, position + mask + 1);
+                    return message;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    private static void idle(int attempts) throws InterruptedException {
+        if (attempts < SPINS) {
+            Thread.onSpinWait();
+        } else if (attempts < 2 * SPINS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(MAX_PARK_NANOS);
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.queue;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the merging, overflow policies and parking of the {@link PlayMessageQueue}.
+ */
+class PlayMessageQueueTest {
+
+    private static final AudioFormat FORMAT = new AudioFormat(44_100f, 16, 1, true, false);
+
+    private static AudioInputStream stream() {
+        return new AudioInputStream(new ByteArrayInputStream(new byte[0]), FORMAT, 0);
+    }
+
+    @Test
+    void testDuplicateStreamIsMergedWithTheLargerVolume() throws Exception {
+        var queue = new PlayMessageQueue(4, PlayMessageQueue.OverflowPolicy.BLOCK);
+        var drum = stream();
+        var hiHat = stream();
+
+        queue.offer(drum, -10.0f);
+        queue.offer(hiHat, -8.0f);
+        queue.offer(drum, -2.0f);
+        queue.offer(drum, -20.0f);
+
+        assertEquals(2, queue.size());
+        assertEquals(2, queue.getMergedCount());
+        var first = queue.poll();
+        assertSame(drum, first.getStream());
+        assertEquals(-2.0f, first.getVolume());
+        assertSame(hiHat, queue.poll().getStream());
+        assertNull(queue.poll());
+
+        // once taken the stream can be queued again
+        queue.offer(drum, -10.0f);
+        assertEquals(-10.0f, queue.poll().getVolume());
+    }
+
+    @Test
+    void testDropOldestKeepsTheNewestRequests() throws Exception {
+        var queue = new PlayMessageQueue(2, PlayMessageQueue.OverflowPolicy.DROP_OLDEST);
+        var streams = new AudioInputStream[]{stream(), stream(), stream()};
+        for (var stream : streams) {
+            assertTrue(queue.offer(stream, 0.0f));
+        }
+
+        assertEquals(1, queue.getDroppedCount());
+        assertSame(streams[1], queue.poll().getStream());
+        assertSame(streams[2], queue.poll().getStream());
+        // the dropped stream is no longer indexed as pending
+        queue.offer(streams[0], 0.0f);
+        assertSame(streams[0], queue.poll().getStream());
+    }
+
+    @Test
+    void testMergeDiscardsNewStreamsWhenFull() throws Exception {
+        var queue = new PlayMessageQueue(2, PlayMessageQueue.OverflowPolicy.MERGE);
+        var first = stream();
+        queue.offer(first, 0.0f);
+        queue.offer(stream(), 0.0f);
+
+        assertFalse(queue.offer(stream(), 0.0f));
+        assertTrue(queue.offer(first, 1.0f));
+
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals(1.0f, queue.poll().getVolume());
+    }
+
+    @Test
+    void testBlockWaitsForRoomAndTakeWaitsForRequests() throws Exception {
+        var queue = new PlayMessageQueue(2, PlayMessageQueue.OverflowPolicy.BLOCK);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var taken = executor.submit(queue::take);
+            Thread.sleep(20);
+            assertFalse(taken.isDone());
+            var first = stream();
+            queue.offer(first, 0.0f);
+            assertSame(first, taken.get(5, TimeUnit.SECONDS).getStream());
+
+            queue.offer(stream(), 0.0f);
+            queue.offer(stream(), 0.0f);
+            var third = stream();
+            var blocked = executor.submit(() -> queue.offer(third, 0.0f));
+            Thread.sleep(20);
+            assertFalse(blocked.isDone());
+            queue.take();
+            assertTrue(blocked.get(5, TimeUnit.SECONDS));
+            assertEquals(2, queue.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testManyProducersWithOneParkedConsumer() throws Exception {
+        final var producers = 8;
+        final var perProducer = 5_000;
+        var queue = new PlayMessageQueue(16, PlayMessageQueue.OverflowPolicy.BLOCK);
+        var executor = Executors.newFixedThreadPool(producers + 1);
+        var received = Collections.newSetFromMap(new IdentityHashMap<AudioInputStream, Boolean>());
+        try {
+            var consumer = executor.submit(() -> {
+                while (received.size() < producers * perProducer) {
+                    assertTrue(received.add(queue.take().getStream()));
+                }
+                return null;
+            });
+            var futures = new ArrayList<Future<?>>();
+            for (var p = 0; p < producers; p++) {
+                futures.add(executor.submit(() -> {
+                    for (var i = 0; i < perProducer; i++) {
+                        queue.offer(stream(), 0.0f);
+                    }
+                    return null;
+                }));
+            }
+            for (var future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            consumer.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(producers * perProducer, received.size());
+        assertEquals(0, queue.size());
+        assertEquals(0, queue.getDroppedCount());
+    }
+
+    @Test
+    void testInterruptedTakeThrows() throws Exception {
+        var queue = new PlayMessageQueue(2, PlayMessageQueue.OverflowPolicy.BLOCK);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var taken = executor.submit(queue::take);
+            Thread.sleep(20);
+            executor.shutdownNow();
+            var thrown = assertThrows(Exception.class, () -> taken.get(5, TimeUnit.SECONDS));
+            assertTrue(thrown.getCause() instanceof InterruptedException);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
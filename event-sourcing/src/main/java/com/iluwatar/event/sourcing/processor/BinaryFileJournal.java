@@ -0,0 +1,522 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.DomainEvent;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+/**
+ * This is an append-only, binary implementation of event journal. Events are stored in segment
+ * files of a fixed size in a Journal directory at the working directory. Every record is prefixed
+ * with the length of the encoded event and its CRC, so that a record torn by a crash is detected and
+ * ignored on recovery.
+ *
+ * <p>Segments are memory-mapped, so writing an event only copies it into the page cache, where it
+ * is immediately visible to readers. Flushing to disk is done in groups by a committer thread: the
+ * first event written after the last flush starts the clock and all events written within the
+ * commit delay are flushed together. {@link #flush()} waits until every event written so far is on
+ * disk. Recovery maps one segment at a time instead of loading the journal onto the heap.
+ */
+public class BinaryFileJournal implements EventJournal, AutoCloseable {
+
+    static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    static final Duration DEFAULT_COMMIT_DELAY = Duration.ofMillis(5);
+
+    private static final int MAGIC = 0x45564A31;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    // releases a mapping without waiting for the garbage collector, null where the JDK hides it
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            var unsafeClass = Class.forName("sun.misc.Unsafe");
+            var field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long commitDelayNanos;
+
+    // writer state, guarded by the lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private final Condition committed = lock.newCondition();
+    private MappedByteBuffer segment;
+    private int segmentNumber;
+    private final List<MappedByteBuffer> rolledSegments = new ArrayList<>();
+    private long writtenCount;
+    private long committedCount;
+    private boolean pending;
+    private long pendingSince;
+    private boolean flushRequested;
+    private boolean forcing;
+    private boolean closed;
+    private Thread committer;
+
+    // reader state
+    private List<Path> readSegments;
+    private int readIndex;
+    private MappedByteBuffer readBuffer;
+
+    /**
+     * Instantiates a new binary file journal with the default segment size and commit delay.
+     */
+    public BinaryFileJournal() {
+        this(Path.of("Journal"), DEFAULT_SEGMENT_SIZE, DEFAULT_COMMIT_DELAY);
+    }
+
+    /**
+     * Instantiates a new binary file journal.
+     *
+     * @param directory   the directory holding the segment files
+     * @param segmentSize the size of a segment file in bytes
+     * @param commitDelay the longest time a written event may wait before being flushed to disk
+     */
+    public BinaryFileJournal(Path directory, int segmentSize, Duration commitDelay) {
+        if (segmentSize < 2 * (SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE)) {
+            throw new IllegalArgumentException("segmentSize is too small");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.commitDelayNanos = commitDelay.toNanos();
+    }
+
+    /**
+     * Write. The event is visible to readers on return and flushed to disk within the commit delay.
+     *
+     * @param domainEvent the domain event
+     */
+    @Override
+    public void write(DomainEvent domainEvent) {
+        var payload = EventCodec.encode(domainEvent);
+        if (payload.length > segmentSize - SEGMENT_HEADER_SIZE - RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Event does not fit in a segment");
+        }
+        var crc = new CRC32C();
+        crc.update(payload);
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (segment == null) {
+                openWriter();
+            }
+            if (segment.remaining() < RECORD_HEADER_SIZE + payload.length) {
+                rolledSegments.add(segment);
+                segment = createSegment(segmentNumber + 1);
+            }
+            // the length is written last, so that a reader never sees a record without its payload
+            var start = segment.position();
+            segment.position(start + RECORD_HEADER_SIZE);
+            segment.put(payload);
+            segment.putInt(start + Integer.BYTES, (int) crc.getValue());
+            segment.putInt(start, payload.length);
+            writtenCount++;
+            if (!pending) {
+                pending = true;
+                pendingSince = System.nanoTime();
+                written.signal();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every event written so far has been flushed to disk. Callers flushing at the same
+     * time share a single flush.
+     */
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            var target = writtenCount;
+            if (committedCount < target) {
+                flushRequested = true;
+                written.signal();
+            }
+            while (committedCount < target) {
+                committed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the written events, stops the committer thread and releases the mapped segments.
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        lock.lock();
+        try {
+            closed = true;
+            written.signal();
+            thread = committer;
+        } finally {
+            lock.unlock();
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        lock.lock();
+        try {
+            unmapSegments();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reset. Deletes all segments, events not flushed yet are dropped.
+     */
+    @Override
+    public void reset() {
+        lock.lock();
+        try {
+            // the committer forces the segments outside the lock, they must not be unmapped under it
+            while (forcing) {
+                committed.await();
+            }
+            unmapSegments();
+            pending = false;
+            committedCount = writtenCount;
+            committed.signalAll();
+            readSegments = null;
+            readIndex = 0;
+            for (var path : segments()) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Unmaps the writer and reader segments, so that their files can be deleted. Must be called with
+     * the lock held while the committer is not forcing.
+     */
+    private void unmapSegments() {
+        rolledSegments.forEach(BinaryFileJournal::unmap);
+        rolledSegments.clear();
+        unmap(segment);
+        segment = null;
+        unmap(readBuffer);
+        readBuffer = null;
+    }
+
+    /**
+     * Read next domain event. Segments are mapped one at a time and the reading stops at the first
+     * torn record of the last segment.
+     *
+     * @return the domain event or null if all events have been read
+     */
+    @Override
+    public DomainEvent readNext() {
+        try {
+            while (true) {
+                if (readBuffer == null && !openNextReadSegment()) {
+                    return null;
+                }
+                var position = readBuffer.position();
+                var end = recordEnd(readBuffer, position);
+                if (end < 0) {
+                    if (readIndex < readSegments.size() && readBuffer.remaining() >= Integer.BYTES
+                            && readBuffer.getInt(position) != 0) {
+                        throw new RuntimeException("Corrupt journal record in "
+                                + readSegments.get(readIndex - 1) + " at " + position);
+                    }
+                    unmap(readBuffer);
+                    readBuffer = null;
+                    continue;
+                }
+                var record = readBuffer.duplicate();
+                record.position(position + RECORD_HEADER_SIZE);
+                record.limit(end);
+                readBuffer.position(end);
+                var domainEvent = EventCodec.decode(record);
+                domainEvent.setRealTime(false);
+                return domainEvent;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * The offset of an event is the number of its segment in the high half and its position in the
+     * segment in the low half.
+     */
+    @Override
+    public long writeOffset() {
+        lock.lock();
+        try {
+            if (segment == null) {
+                openWriter();
+            }
+            return (long) segmentNumber << Integer.SIZE | segment.position();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void seek(long offset) {
+        try {
+            readSegments = segments();
+            unmap(readBuffer);
+            readBuffer = null;
+            for (readIndex = 0; readIndex < readSegments.size(); readIndex++) {
+                if (segmentNumber(readSegments.get(readIndex)) == (int) (offset >>> Integer.SIZE)) {
+                    openNextReadSegment();
+                    readBuffer.position((int) offset);
+                    return;
+                }
+            }
+            throw new IllegalArgumentException("No journal segment at offset " + offset);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private boolean openNextReadSegment() throws IOException {
+        if (readSegments == null) {
+            readSegments = segments();
+        }
+        if (readIndex >= readSegments.size()) {
+            return false;
+        }
+        readBuffer = map(readSegments.get(readIndex++), FileChannel.MapMode.READ_ONLY);
+        return true;
+    }
+
+    /**
+     * Maps the last segment for writing, continuing after its last valid record, or creates the
+     * first segment. Must be called with the lock held.
+     */
+    private void openWriter() throws IOException {
+        Files.createDirectories(directory);
+        var existing = segments();
+        if (existing.isEmpty()) {
+            segment = createSegment(0);
+        } else {
+            var last = existing.get(existing.size() - 1);
+            segment = map(last, FileChannel.MapMode.READ_WRITE);
+            segmentNumber = segmentNumber(last);
+            int end;
+            while ((end = recordEnd(segment, segment.position())) >= 0) {
+                segment.position(end);
+            }
+        }
+        if (committer == null) {
+            committer = new Thread(this::commitLoop, "journal-committer");
+            committer.setDaemon(true);
+            committer.start();
+        }
+    }
+
+    private MappedByteBuffer createSegment(int number) throws IOException {
+        var path = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, number,
+                SEGMENT_SUFFIX));
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            segmentNumber = number;
+            return buffer;
+        }
+    }
+
+    private static MappedByteBuffer map(Path path, FileChannel.MapMode mode) throws IOException {
+        var options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE};
+        try (var channel = FileChannel.open(path, options)) {
+            var buffer = channel.map(mode, 0, channel.size());
+            if (buffer.remaining() < SEGMENT_HEADER_SIZE || buffer.getInt() != MAGIC
+                    || buffer.getInt() != VERSION) {
+                throw new IOException("Not a journal segment: " + path);
+            }
+            return buffer;
+        }
+    }
+
+    private static void unmap(MappedByteBuffer buffer) {
+        if (buffer == null || INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // left to the garbage collector
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (var files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int segmentNumber(Path path) {
+        var name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Checks the record at the position.
+     *
+     * @return the end of the record or -1 if there is no valid record at the position
+     */
+    private static int recordEnd(ByteBuffer buffer, int position) {
+        if (buffer.limit() - position < RECORD_HEADER_SIZE) {
+            return -1;
+        }
+        var length = buffer.getInt(position);
+        if (length <= 0 || length > buffer.limit() - position - RECORD_HEADER_SIZE) {
+            return -1;
+        }
+        var payload = buffer.duplicate();
+        payload.position(position + RECORD_HEADER_SIZE);
+        payload.limit(position + RECORD_HEADER_SIZE + length);
+        var crc = new CRC32C();
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+            return -1;
+        }
+        return position + RECORD_HEADER_SIZE + length;
+    }
+
+    /**
+     * Flushes the written events in groups, at the latest once the oldest of them has waited for
+     * the commit delay.
+     */
+    private void commitLoop() {
+        while (true) {
+            long target;
+            var toFlush = new ArrayList<MappedByteBuffer>();
+            lock.lock();
+            try {
+                while (true) {
+                    if (!pending) {
+                        if (closed) {
+                            return;
+                        }
+                        written.await();
+                        continue;
+                    }
+                    var wait = commitDelayNanos - (System.nanoTime() - pendingSince);
+                    if (flushRequested || closed || wait <= 0) {
+                        break;
+                    }
+                    written.awaitNanos(wait);
+                }
+                target = writtenCount;
+                pending = false;
+                flushRequested = false;
+                toFlush.addAll(rolledSegments);
+                rolledSegments.clear();
+                if (segment != null) {
+                    toFlush.add(segment);
+                }
+                forcing = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            // writers keep appending to the mapped segment while it is being flushed
+            toFlush.forEach(MappedByteBuffer::force);
+            lock.lock();
+            try {
+                forcing = false;
+                committedCount = Math.max(committedCount, target);
+                committed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -24,16 +24,69 @@
 package com.iluwatar.event.sourcing.processor;
 
 import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.state.AccountAggregate;
+
+import java.util.Optional;
 
 /**
  * This is the implementation of event processor. All events are processed by this class. This
- * processor uses processorJournal to persist and recover events.
+ * processor uses processorJournal to persist and recover events, a {@link BinaryFileJournal} unless
+ * another journal is given.
+ *
+ * <p>Every snapshotInterval events the state of the accounts is saved to the snapshot store, keyed
+ * by the journal offset. Recovery then starts from the latest snapshot and only replays the events
+ * written after it, partitioned by account over several threads.
  *
  * <p>Created by Serdar Hamzaogullari on 06.08.2017.
  */
 public class DomainEventProcessor {
 
-    private final JsonFileJournal processorJournal = new JsonFileJournal();
+    static final int DEFAULT_SNAPSHOT_INTERVAL = 10_000;
+
+    private final EventJournal processorJournal;
+    private final SnapshotStore snapshotStore;
+    private final int snapshotInterval;
+    private final int replayThreads;
+    private long eventsSinceSnapshot;
+
+    /**
+     * Instantiates a new Domain event processor using a {@link BinaryFileJournal} and a
+     * {@link SnapshotStore} at the working directory.
+     */
+    public DomainEventProcessor() {
+        this(new BinaryFileJournal(), new SnapshotStore(), DEFAULT_SNAPSHOT_INTERVAL,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Instantiates a new Domain event processor without snapshots.
+     *
+     * @param processorJournal the journal persisting the events
+     */
+    public DomainEventProcessor(EventJournal processorJournal) {
+        this(processorJournal, null, DEFAULT_SNAPSHOT_INTERVAL,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Instantiates a new Domain event processor.
+     *
+     * @param processorJournal the journal persisting the events
+     * @param snapshotStore    the store of the snapshots or null to disable snapshots
+     * @param snapshotInterval the number of events between two snapshots
+     * @param replayThreads    the number of threads replaying events on recovery
+     */
+    public DomainEventProcessor(EventJournal processorJournal, SnapshotStore snapshotStore,
+                                int snapshotInterval, int replayThreads) {
+        if (snapshotInterval <= 0 || replayThreads <= 0) {
+            throw new IllegalArgumentException(
+                    "snapshotInterval and replayThreads must be positive");
+        }
+        this.processorJournal = processorJournal;
+        this.snapshotStore = snapshotStore;
+        this.snapshotInterval = snapshotInterval;
+        this.replayThreads = replayThreads;
+    }
 
     /**
      * Process.
@@ -43,6 +96,22 @@ public class DomainEventProcessor {
     public void process(DomainEvent domainEvent) {
         domainEvent.process();
         processorJournal.write(domainEvent);
+        if (snapshotStore != null && ++eventsSinceSnapshot >= snapshotInterval) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Saves a snapshot of the accounts.
+     */
+    public void snapshot() {
+        if (snapshotStore == null) {
+            throw new IllegalStateException("Snapshots are disabled");
+        }
+        // a snapshot must never be ahead of the events on disk
+        processorJournal.flush();
+        snapshotStore.save(processorJournal.writeOffset(), AccountAggregate.getAccounts());
+        eventsSinceSnapshot = 0;
     }
 
     /**
@@ -50,15 +119,37 @@ public class DomainEventProcessor {
      */
     public void reset() {
         processorJournal.reset();
+        if (snapshotStore != null) {
+            snapshotStore.reset();
+        }
+        eventsSinceSnapshot = 0;
     }
 
     /**
      * Recover.
      */
     public void recover() {
+        Optional.ofNullable(snapshotStore)
+                .flatMap(SnapshotStore::loadLatest)
+                .ifPresent(snapshot -> {
+                    snapshot.getAccounts().forEach(AccountAggregate::putAccount);
+                    processorJournal.seek(snapshot.getJournalOffset());
+                });
+        eventsSinceSnapshot = 0;
         DomainEvent domainEvent;
-        while ((domainEvent = processorJournal.readNext()) != null) {
-            domainEvent.process();
+        if (replayThreads == 1) {
+            while ((domainEvent = processorJournal.readNext()) != null) {
+                domainEvent.process();
+                eventsSinceSnapshot++;
+            }
+            return;
+        }
+        try (var replay = new ParallelReplay(replayThreads)) {
+            while ((domainEvent = processorJournal.readNext()) != null) {
+                replay.submit(domainEvent);
+                eventsSinceSnapshot++;
+            }
+            replay.await();
         }
     }
 }
@@ -0,0 +1,144 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary encoding of the domain events stored by {@link BinaryFileJournal}. Every event starts with
+ * a type byte, its sequence id and its creation time, followed by the fields of its type.
+ */
+final class EventCodec {
+
+    private static final byte ACCOUNT_CREATE = 1;
+    private static final byte MONEY_DEPOSIT = 2;
+    private static final byte MONEY_TRANSFER = 3;
+
+    private EventCodec() {
+    }
+
+    /**
+     * Encodes an event.
+     *
+     * @param domainEvent the domain event
+     * @return the encoded event
+     */
+    static byte[] encode(DomainEvent domainEvent) {
+        var bytes = new ByteArrayOutputStream(64);
+        try (var output = new DataOutputStream(bytes)) {
+            if (domainEvent instanceof AccountCreateEvent) {
+                var event = (AccountCreateEvent) domainEvent;
+                writeHeader(output, ACCOUNT_CREATE, event);
+                output.writeInt(event.getAccountNo());
+                writeString(output, event.getOwner());
+            } else if (domainEvent instanceof MoneyDepositEvent) {
+                var event = (MoneyDepositEvent) domainEvent;
+                writeHeader(output, MONEY_DEPOSIT, event);
+                output.writeInt(event.getAccountNo());
+                writeDecimal(output, event.getMoney());
+            } else if (domainEvent instanceof MoneyTransferEvent) {
+                var event = (MoneyTransferEvent) domainEvent;
+                writeHeader(output, MONEY_TRANSFER, event);
+                writeDecimal(output, event.getMoney());
+                output.writeInt(event.getAccountNoFrom());
+                output.writeInt(event.getAccountNoTo());
+            } else {
+                throw new RuntimeException("Journal Event not recegnized");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes an event from the remaining bytes of the buffer.
+     *
+     * @param buffer the encoded event
+     * @return the domain event
+     */
+    static DomainEvent decode(ByteBuffer buffer) {
+        var type = buffer.get();
+        var sequenceId = buffer.getLong();
+        var createdTime = buffer.getLong();
+        switch (type) {
+            case ACCOUNT_CREATE:
+                return new AccountCreateEvent(sequenceId, createdTime, buffer.getInt(),
+                        readString(buffer));
+            case MONEY_DEPOSIT:
+                return new MoneyDepositEvent(sequenceId, createdTime, buffer.getInt(),
+                        readDecimal(buffer));
+            case MONEY_TRANSFER:
+                return new MoneyTransferEvent(sequenceId, createdTime, readDecimal(buffer),
+                        buffer.getInt(), buffer.getInt());
+            default:
+                throw new RuntimeException("Journal Event not recegnized");
+        }
+    }
+
+    private static void writeHeader(DataOutputStream output, byte type, DomainEvent event)
+            throws IOException {
+        output.writeByte(type);
+        output.writeLong(event.getSequenceId());
+        output.writeLong(event.getCreatedTime());
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        var bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDecimal(DataOutputStream output, BigDecimal value)
+            throws IOException {
+        var unscaled = value.unscaledValue().toByteArray();
+        output.writeInt(value.scale());
+        output.writeInt(unscaled.length);
+        output.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer buffer) {
+        var scale = buffer.getInt();
+        var unscaled = new byte[buffer.getInt()];
+        buffer.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
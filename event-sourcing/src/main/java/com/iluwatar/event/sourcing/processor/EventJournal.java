@@ -0,0 +1,73 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.DomainEvent;
+
+/**
+ * This is the interface of the event journals used by {@link DomainEventProcessor} to persist and
+ * recover events.
+ */
+public interface EventJournal {
+
+    /**
+     * Write.
+     *
+     * @param domainEvent the domain event
+     */
+    void write(DomainEvent domainEvent);
+
+    /**
+     * Reset.
+     */
+    void reset();
+
+    /**
+     * Read next domain event.
+     *
+     * @return the domain event or null if all events have been read
+     */
+    DomainEvent readNext();
+
+    /**
+     * Offset of the journal just after the last written event. Offsets only grow until the journal
+     * is reset.
+     *
+     * @return the offset
+     */
+    long writeOffset();
+
+    /**
+     * Moves the reader, so that the next event read is the one written at the offset.
+     *
+     * @param offset an offset returned by {@link #writeOffset()}
+     */
+    void seek(long offset);
+
+    /**
+     * Waits until the written events are durable. Journals writing synchronously do nothing.
+     */
+    default void flush() {
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.Duration;
+
+/**
+ * Compares writing and recovering events with {@link JsonFileJournal} and {@link BinaryFileJournal}
+ * in a temporary directory.
+ *
+ * <p>Usage: {@code JournalBenchmark [events]}.
+ */
+@Slf4j
+public final class JournalBenchmark {
+
+    private JournalBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional number of events
+     */
+    public static void main(String[] args) throws IOException {
+        var count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        var directory = Files.createTempDirectory("journal-benchmark");
+
+        var json = new JsonFileJournal(directory.resolve("Journal.json").toFile());
+        var jsonWrite = time(() -> writeEvents(json, count));
+        var jsonRead = time(() -> readEvents(new JsonFileJournal(
+                directory.resolve("Journal.json").toFile()), count));
+        json.reset();
+
+        var binary = new BinaryFileJournal(directory.resolve("Journal"),
+                BinaryFileJournal.DEFAULT_SEGMENT_SIZE, BinaryFileJournal.DEFAULT_COMMIT_DELAY);
+        var binaryWrite = time(() -> {
+            writeEvents(binary, count);
+            binary.flush();
+        });
+        var binaryRead = time(() -> readEvents(new BinaryFileJournal(directory.resolve("Journal"),
+                BinaryFileJournal.DEFAULT_SEGMENT_SIZE, Duration.ZERO), count));
+        binary.reset();
+        binary.close();
+        Files.delete(directory.resolve("Journal"));
+        Files.delete(directory);
+
+        LOGGER.info("{} events: JsonFileJournal writes {} events/s and recovers in {} ms, "
+                        + "BinaryFileJournal writes {} events/s (flushed) and recovers in {} ms",
+                count, count * 1_000_000_000L / jsonWrite, jsonRead / 1_000_000,
+                count * 1_000_000_000L / binaryWrite, binaryRead / 1_000_000);
+    }
+
+    private static long time(Runnable runnable) {
+        var start = System.nanoTime();
+        runnable.run();
+        return System.nanoTime() - start;
+    }
+
+    private static void writeEvents(EventJournal journal, int count) {
+        for (var i = 0; i < count; i++) {
+            journal.write(new MoneyDepositEvent(i, System.currentTimeMillis(), i % 100,
+                    new BigDecimal(i)));
+        }
+    }
+
+    private static void readEvents(EventJournal journal, int count) {
+        var read = 0;
+        while (journal.readNext() != null) {
+            read++;
+        }
+        if (read != count) {
+            throw new IllegalStateException("Recovered " + read + " of " + count + " events");
+        }
+    }
+}
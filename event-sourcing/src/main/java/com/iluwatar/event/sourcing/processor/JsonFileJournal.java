@@ -42,17 +42,29 @@ import java.util.List;
  *
  * <p>Created by Serdar Hamzaogullari on 06.08.2017.
  */
-public class JsonFileJournal {
+public class JsonFileJournal implements EventJournal {
+
+    private static final Gson GSON = new Gson();
 
     private final File file;
     private final List<String> events = new ArrayList<>();
     private int index = 0;
+    private long written = 0;
 
     /**
      * Instantiates a new Json file journal.
      */
     public JsonFileJournal() {
-        file = new File("Journal.json");
+        this(new File("Journal.json"));
+    }
+
+    /**
+     * Instantiates a new Json file journal.
+     *
+     * @param file the journal file
+     */
+    public JsonFileJournal(File file) {
+        this.file = file;
         if (file.exists()) {
             try (var input = new BufferedReader(
                     new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
@@ -74,15 +86,15 @@ public class JsonFileJournal {
      *
      * @param domainEvent the domain event
      */
+    @Override
     public void write(DomainEvent domainEvent) {
-        var gson = new Gson();
         JsonElement jsonElement;
         if (domainEvent instanceof AccountCreateEvent) {
-            jsonElement = gson.toJsonTree(domainEvent, AccountCreateEvent.class);
+            jsonElement = GSON.toJsonTree(domainEvent, AccountCreateEvent.class);
         } else if (domainEvent instanceof MoneyDepositEvent) {
-            jsonElement = gson.toJsonTree(domainEvent, MoneyDepositEvent.class);
+            jsonElement = GSON.toJsonTree(domainEvent, MoneyDepositEvent.class);
         } else if (domainEvent instanceof MoneyTransferEvent) {
-            jsonElement = gson.toJsonTree(domainEvent, MoneyTransferEvent.class);
+            jsonElement = GSON.toJsonTree(domainEvent, MoneyTransferEvent.class);
         } else {
             throw new RuntimeException("Journal Event not recegnized");
         }
@@ -91,6 +103,7 @@ public class JsonFileJournal {
                 new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
             var eventString = jsonElement.toString();
             output.write(eventString + "\r\n");
+            written++;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -100,8 +113,25 @@ public class JsonFileJournal {
     /**
      * Reset.
      */
+    @Override
     public void reset() {
         file.delete();
+        events.clear();
+        index = 0;
+        written = 0;
+    }
+
+    /**
+     * Offsets of this journal are line numbers.
+     */
+    @Override
+    public long writeOffset() {
+        return events.size() + written;
+    }
+
+    @Override
+    public void seek(long offset) {
+        index = (int) offset;
     }
 
 
@@ -110,6 +140,7 @@ public class JsonFileJournal {
      *
      * @return the domain event
      */
+    @Override
     public DomainEvent readNext() {
         if (index >= events.size()) {
             return null;
@@ -120,14 +151,13 @@ public class JsonFileJournal {
         var parser = new JsonParser();
         var jsonElement = parser.parse(event);
         var eventClassName = jsonElement.getAsJsonObject().get("eventClassName").getAsString();
-        var gson = new Gson();
         DomainEvent domainEvent;
         if (eventClassName.equals("AccountCreateEvent")) {
-            domainEvent = gson.fromJson(jsonElement, AccountCreateEvent.class);
+            domainEvent = GSON.fromJson(jsonElement, AccountCreateEvent.class);
         } else if (eventClassName.equals("MoneyDepositEvent")) {
-            domainEvent = gson.fromJson(jsonElement, MoneyDepositEvent.class);
+            domainEvent = GSON.fromJson(jsonElement, MoneyDepositEvent.class);
         } else if (eventClassName.equals("MoneyTransferEvent")) {
-            domainEvent = gson.fromJson(jsonElement, MoneyTransferEvent.class);
+            domainEvent = GSON.fromJson(jsonElement, MoneyTransferEvent.class);
         } else {
             throw new RuntimeException("Journal Event not recegnized");
         }
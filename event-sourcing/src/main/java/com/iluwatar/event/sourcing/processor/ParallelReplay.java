@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import com.iluwatar.event.sourcing.state.AccountAggregate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Replays recovered events on several threads, partitioned by account number. Every partition
+ * replays its events on a single thread in journal order, so the events of an account are applied
+ * in the order they were written.
+ *
+ * <p>A {@link MoneyTransferEvent} between two accounts is split into its withdrawal, replayed by the
+ * partition of the source account, and its deposit, replayed by the partition of the target account.
+ * Each half only touches its own account and sees it in the same state as when the event was first
+ * processed, so the transfer stays ordered with all other events of both accounts. Events of unknown
+ * types wait for every partition to catch up and are then replayed alone.
+ */
+final class ParallelReplay implements AutoCloseable {
+
+    private static final int BATCH_SIZE = 256;
+
+    private final ExecutorService[] partitions;
+    private final List<List<Runnable>> batches = new ArrayList<>();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    ParallelReplay(int partitionCount) {
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("partitionCount must be positive");
+        }
+        partitions = new ExecutorService[partitionCount];
+        for (var i = 0; i < partitionCount; i++) {
+            partitions[i] = Executors.newSingleThreadExecutor(runnable -> {
+                var thread = new Thread(runnable, "replay-partition");
+                thread.setDaemon(true);
+                return thread;
+            });
+            batches.add(new ArrayList<>(BATCH_SIZE));
+        }
+    }
+
+    /**
+     * Schedules the replay of an event after all events submitted before it.
+     *
+     * @param domainEvent the recovered domain event
+     */
+    void submit(DomainEvent domainEvent) {
+        if (domainEvent instanceof MoneyTransferEvent) {
+            var transfer = (MoneyTransferEvent) domainEvent;
+            var from = transfer.getAccountNoFrom();
+            var to = transfer.getAccountNoTo();
+            if (from == to) {
+                add(from, transfer::process);
+            } else {
+                add(from, () -> account(from).handleTransferFromEvent(transfer));
+                add(to, () -> account(to).handleTransferToEvent(transfer));
+            }
+        } else if (domainEvent instanceof AccountCreateEvent) {
+            add(((AccountCreateEvent) domainEvent).getAccountNo(), domainEvent::process);
+        } else if (domainEvent instanceof MoneyDepositEvent) {
+            add(((MoneyDepositEvent) domainEvent).getAccountNo(), domainEvent::process);
+        } else {
+            await();
+            domainEvent.process();
+        }
+    }
+
+    /**
+     * Waits until all submitted events have been replayed.
+     *
+     * @throws RuntimeException the first failure of a replayed event
+     */
+    void await() {
+        for (var i = 0; i < partitions.length; i++) {
+            submitBatch(i);
+        }
+        try {
+            for (var partition : partitions) {
+                partition.submit(() -> { }).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        var error = failure.get();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (var partition : partitions) {
+            partition.shutdownNow();
+        }
+    }
+
+    private void add(int accountNo, Runnable step) {
+        var index = Math.floorMod(accountNo, partitions.length);
+        var batch = batches.get(index);
+        batch.add(step);
+        if (batch.size() == BATCH_SIZE) {
+            submitBatch(index);
+        }
+    }
+
+    private void submitBatch(int index) {
+        var batch = batches.get(index);
+        if (batch.isEmpty()) {
+            return;
+        }
+        batches.set(index, new ArrayList<>(BATCH_SIZE));
+        partitions[index].execute(() -> {
+            // once an event failed, the state is inconsistent and the rest is skipped
+            if (failure.get() != null) {
+                return;
+            }
+            try {
+                batch.forEach(Runnable::run);
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+    }
+
+    private static Account account(int accountNo) {
+        return Optional.ofNullable(AccountAggregate.getAccount(accountNo))
+                .orElseThrow(() -> new RuntimeException("Account not found " + accountNo));
+    }
+}
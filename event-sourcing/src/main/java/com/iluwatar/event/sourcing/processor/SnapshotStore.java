@@ -0,0 +1,210 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Stores snapshots of the accounts, keyed by the journal offset of the first event they do not
+ * include. A snapshot is written to a temporary file and renamed once it is complete, and carries a
+ * CRC, so recovery falls back to an older snapshot if the latest one is damaged. Only the latest
+ * few snapshots are kept.
+ */
+public class SnapshotStore {
+
+    /**
+     * A snapshot of the accounts.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Snapshot {
+        private final long journalOffset;
+        private final List<Account> accounts;
+    }
+
+    private static final int MAGIC = 0x45565331;
+    private static final int RETAINED_SNAPSHOTS = 2;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private final Path directory;
+
+    /**
+     * Instantiates a new snapshot store in a Snapshots directory at the working directory.
+     */
+    public SnapshotStore() {
+        this(Path.of("Snapshots"));
+    }
+
+    /**
+     * Instantiates a new snapshot store.
+     *
+     * @param directory the directory holding the snapshot files
+     */
+    public SnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Saves a snapshot and deletes the snapshots older than the retained ones.
+     *
+     * @param journalOffset the journal offset of the first event not included in the accounts
+     * @param accounts      the accounts
+     */
+    public void save(long journalOffset, Collection<Account> accounts) {
+        try {
+            Files.createDirectories(directory);
+            var temporary = Files.createTempFile(directory, SNAPSHOT_PREFIX, ".tmp");
+            var crc = new CRC32C();
+            try (var output = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary)), crc))) {
+                output.writeInt(MAGIC);
+                output.writeLong(journalOffset);
+                output.writeInt(accounts.size());
+                for (var account : accounts) {
+                    output.writeInt(account.getAccountNo());
+                    output.writeUTF(account.getOwner());
+                    output.writeInt(account.getMoney().scale());
+                    var unscaled = account.getMoney().unscaledValue().toByteArray();
+                    output.writeInt(unscaled.length);
+                    output.write(unscaled);
+                }
+                // the checksum covers everything written before it
+                output.writeInt((int) crc.getValue());
+            }
+            try (var channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temporary, directory.resolve(String.format("%s%016x%s", SNAPSHOT_PREFIX,
+                    journalOffset, SNAPSHOT_SUFFIX)), StandardCopyOption.ATOMIC_MOVE);
+            var snapshots = snapshots();
+            for (var i = RETAINED_SNAPSHOTS; i < snapshots.size(); i++) {
+                Files.delete(snapshots.get(i));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Loads the latest readable snapshot.
+     *
+     * @return the snapshot or empty if there is none
+     */
+    public Optional<Snapshot> loadLatest() {
+        try {
+            for (var path : snapshots()) {
+                var snapshot = load(path);
+                if (snapshot.isPresent()) {
+                    return snapshot;
+                }
+            }
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Deletes all snapshots.
+     */
+    public void reset() {
+        try {
+            for (var path : snapshots()) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Optional<Snapshot> load(Path path) {
+        var crc = new CRC32C();
+        try (var input = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path)), crc))) {
+            if (input.readInt() != MAGIC) {
+                return Optional.empty();
+            }
+            var journalOffset = input.readLong();
+            var count = input.readInt();
+            var accounts = new ArrayList<Account>(count);
+            for (var i = 0; i < count; i++) {
+                var account = new Account(input.readInt(), input.readUTF());
+                var scale = input.readInt();
+                var unscaled = new byte[input.readInt()];
+                input.readFully(unscaled);
+                account.setMoney(new BigDecimal(new BigInteger(unscaled), scale));
+                accounts.add(account);
+            }
+            var expected = (int) crc.getValue();
+            if (input.readInt() != expected) {
+                return Optional.empty();
+            }
+            return Optional.of(new Snapshot(journalOffset, accounts));
+        } catch (IOException | RuntimeException e) {
+            // a damaged snapshot is skipped
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Lists the snapshots, latest first.
+     */
+    private List<Path> snapshots() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (var files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().startsWith(SNAPSHOT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList());
+        }
+    }
+}
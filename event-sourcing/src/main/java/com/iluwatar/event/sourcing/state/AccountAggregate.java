@@ -25,18 +25,21 @@ package com.iluwatar.event.sourcing.state;
 
 import com.iluwatar.event.sourcing.domain.Account;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
- * This is the static accounts map holder class. This class holds the state of the accounts.
+ * This is the static accounts map holder class. This class holds the state of the accounts. Accounts
+ * may be updated from several threads, as long as each account is only updated by one of them.
  *
  * <p>Created by Serdar Hamzaogullari on 06.08.2017.
  */
 public class AccountAggregate {
 
-    private static Map<Integer, Account> accounts = new HashMap<>();
+    private static Map<Integer, Account> accounts = new ConcurrentHashMap<>();
 
     private AccountAggregate() {
     }
@@ -63,10 +66,19 @@ public class AccountAggregate {
                 .orElse(null);
     }
 
+    /**
+     * Gets all accounts.
+     *
+     * @return the copies of the accounts
+     */
+    public static List<Account> getAccounts() {
+        return accounts.values().stream().map(Account::copy).collect(Collectors.toList());
+    }
+
     /**
      * Reset state.
      */
     public static void resetState() {
-        accounts = new HashMap<>();
+        accounts = new ConcurrentHashMap<>();
     }
 }
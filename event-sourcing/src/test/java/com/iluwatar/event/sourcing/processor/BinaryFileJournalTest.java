@@ -0,0 +1,196 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link BinaryFileJournal}.
+ */
+class BinaryFileJournalTest {
+
+    private static final int SEGMENT_SIZE = 512;
+
+    @TempDir
+    Path directory;
+
+    private final List<BinaryFileJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() {
+        journals.forEach(BinaryFileJournal::close);
+    }
+
+    private BinaryFileJournal journal() {
+        return journal(SEGMENT_SIZE, Duration.ofMillis(1));
+    }
+
+    private BinaryFileJournal journal(int segmentSize, Duration commitDelay) {
+        var journal = new BinaryFileJournal(directory, segmentSize, commitDelay);
+        journals.add(journal);
+        return journal;
+    }
+
+    private static DomainEvent event(long sequenceId) {
+        switch ((int) (sequenceId % 3)) {
+            case 0:
+                return new AccountCreateEvent(sequenceId, 1000 + sequenceId, (int) sequenceId,
+                        "Owner " + sequenceId);
+            case 1:
+                return new MoneyDepositEvent(sequenceId, 1000 + sequenceId, 1,
+                        new BigDecimal("100.5" + sequenceId));
+            default:
+                return new MoneyTransferEvent(sequenceId, 1000 + sequenceId,
+                        new BigDecimal(sequenceId).negate(), 1, 2);
+        }
+    }
+
+    private static List<DomainEvent> readAll(EventJournal journal) {
+        var events = new ArrayList<DomainEvent>();
+        DomainEvent event;
+        while ((event = journal.readNext()) != null) {
+            events.add(event);
+        }
+        return events;
+    }
+
+    @Test
+    void eventsAreRecoveredAcrossSegments() {
+        var journal = journal();
+        for (var i = 0; i < 100; i++) {
+            journal.write(event(i));
+        }
+        journal.close();
+
+        var events = readAll(journal());
+        assertEquals(100, events.size());
+        for (var i = 0; i < 100; i++) {
+            var expected = event(i);
+            var actual = events.get(i);
+            assertEquals(expected.getClass(), actual.getClass());
+            assertEquals(expected.getSequenceId(), actual.getSequenceId());
+            assertEquals(expected.getCreatedTime(), actual.getCreatedTime());
+            assertFalse(actual.isRealTime());
+        }
+        assertEquals("Owner 99", ((AccountCreateEvent) events.get(99)).getOwner());
+        assertEquals(new BigDecimal(-98), ((MoneyTransferEvent) events.get(98)).getMoney());
+        assertEquals(new BigDecimal("100.597"), ((MoneyDepositEvent) events.get(97)).getMoney());
+        assertTrue(segments().size() > 1);
+    }
+
+    @Test
+    void tornRecordIsIgnoredAndOverwritten() throws IOException {
+        var journal = journal();
+        for (var i = 0; i < 5; i++) {
+            journal.write(event(i));
+        }
+        journal.close();
+        // corrupt the payload of the last record, as a crash in the middle of a write would
+        var last = segments().get(segments().size() - 1);
+        var bytes = Files.readAllBytes(last);
+        var buffer = ByteBuffer.wrap(bytes);
+        var position = 8;
+        var lastRecord = position;
+        while (buffer.getInt(position) != 0) {
+            lastRecord = position;
+            position += 8 + buffer.getInt(position);
+        }
+        bytes[lastRecord + 9] ^= 1;
+        Files.write(last, bytes);
+
+        assertEquals(4, readAll(journal()).size());
+
+        journal = journal();
+        journal.write(event(5));
+        journal.close();
+        var events = readAll(journal());
+        assertEquals(5, events.size());
+        assertEquals(5, events.get(4).getSequenceId());
+    }
+
+    @Test
+    void concurrentWritersShareFlushes() throws Exception {
+        var journal = journal(64 * 1024, Duration.ofMillis(20));
+        var executor = Executors.newFixedThreadPool(4);
+        var futures = new ArrayList<Future<?>>();
+        for (var t = 0; t < 4; t++) {
+            var offset = t * 1_000;
+            futures.add(executor.submit(() -> {
+                for (var i = 0; i < 1_000; i++) {
+                    journal.write(event(offset + i));
+                    if (i % 100 == 99) {
+                        journal.flush();
+                    }
+                }
+            }));
+        }
+        for (var future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        var sequenceIds = new HashSet<Long>();
+        var reader = journal();
+        readAll(reader).forEach(event -> assertTrue(sequenceIds.add(event.getSequenceId())));
+        assertEquals(4_000, sequenceIds.size());
+
+        reader.reset();
+        assertTrue(segments().isEmpty());
+        assertNull(journal().readNext());
+        journal.close();
+    }
+
+    private List<Path> segments() {
+        try (var files = Files.list(directory)) {
+            var segments = new ArrayList<Path>();
+            files.sorted().forEach(segments::add);
+            return segments;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import com.iluwatar.event.sourcing.state.AccountAggregate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for snapshots and parallel replay in {@link DomainEventProcessor}.
+ */
+class DomainEventProcessorTest {
+
+    private static final int ACCOUNTS = 30;
+    private static final int OPERATIONS = 1_000;
+
+    @TempDir
+    Path directory;
+
+    private final List<BinaryFileJournal> journals = new ArrayList<>();
+
+    /**
+     * Counts the events read from a journal.
+     */
+    private static final class CountingJournal implements EventJournal {
+        private final EventJournal journal;
+        private int read;
+
+        CountingJournal(EventJournal journal) {
+            this.journal = journal;
+        }
+
+        @Override
+        public void write(DomainEvent domainEvent) {
+            journal.write(domainEvent);
+        }
+
+        @Override
+        public void reset() {
+            journal.reset();
+        }
+
+        @Override
+        public DomainEvent readNext() {
+            var event = journal.readNext();
+            if (event != null) {
+                read++;
+            }
+            return event;
+        }
+
+        @Override
+        public long writeOffset() {
+            return journal.writeOffset();
+        }
+
+        @Override
+        public void seek(long offset) {
+            journal.seek(offset);
+        }
+    }
+
+    @BeforeEach
+    @AfterEach
+    void resetState() {
+        AccountAggregate.resetState();
+    }
+
+    @AfterEach
+    void closeJournals() {
+        journals.forEach(BinaryFileJournal::close);
+    }
+
+    private BinaryFileJournal journal() {
+        var journal = new BinaryFileJournal(directory.resolve("journal"), 4096,
+                Duration.ofMillis(1));
+        journals.add(journal);
+        return journal;
+    }
+
+    /**
+     * Creates the accounts and processes random deposits and transfers between them.
+     */
+    private static void processHistory(DomainEventProcessor processor) {
+        var rand = new Random(7);
+        var sequenceId = 0L;
+        for (var i = 0; i < ACCOUNTS; i++) {
+            processor.process(new AccountCreateEvent(sequenceId++, 0, i, "Owner " + i));
+        }
+        for (var i = 0; i < OPERATIONS; i++) {
+            var from = rand.nextInt(ACCOUNTS);
+            var money = new BigDecimal(rand.nextInt(100));
+            if (AccountAggregate.getAccount(from).getMoney().compareTo(money) < 0) {
+                processor.process(new MoneyDepositEvent(sequenceId++, 0, from, money));
+            } else {
+                processor.process(new MoneyTransferEvent(sequenceId++, 0, money, from,
+                        rand.nextInt(ACCOUNTS)));
+            }
+        }
+    }
+
+    private static Map<Integer, BigDecimal> balances() {
+        var balances = new TreeMap<Integer, BigDecimal>();
+        AccountAggregate.getAccounts().forEach(a -> balances.put(a.getAccountNo(), a.getMoney()));
+        return balances;
+    }
+
+    @Test
+    void recoveryReplaysOnlyTheTailAfterTheLatestSnapshot() {
+        var snapshots = new SnapshotStore(directory.resolve("snapshots"));
+        var journal = journal();
+        processHistory(new DomainEventProcessor(journal, snapshots, 100, 4));
+        journal.close();
+        var expected = balances();
+
+        AccountAggregate.resetState();
+        var recoveryJournal = new CountingJournal(journal());
+        new DomainEventProcessor(recoveryJournal, snapshots, 100, 4).recover();
+
+        assertEquals(expected, balances());
+        assertEquals((ACCOUNTS + OPERATIONS) % 100, recoveryJournal.read);
+    }
+
+    @Test
+    void parallelReplayMatchesSequentialReplay() {
+        var journal = journal();
+        processHistory(new DomainEventProcessor(journal, null, 100, 1));
+        journal.close();
+        var expected = balances();
+
+        AccountAggregate.resetState();
+        new DomainEventProcessor(journal(), null, 100, 1).recover();
+        assertEquals(expected, balances());
+
+        AccountAggregate.resetState();
+        new DomainEventProcessor(journal(), null, 100, 4).recover();
+        assertEquals(expected, balances());
+    }
+
+    @Test
+    void damagedSnapshotFallsBackToTheOlderOne() throws IOException {
+        var snapshots = new SnapshotStore(directory.resolve("snapshots"));
+        var journal = journal();
+        processHistory(new DomainEventProcessor(journal, snapshots, 100, 4));
+        journal.close();
+        var expected = balances();
+        try (var files = Files.list(directory.resolve("snapshots"))) {
+            var latest = files.max(Path::compareTo).orElseThrow();
+            var bytes = Files.readAllBytes(latest);
+            bytes[bytes.length / 2] ^= 1;
+            Files.write(latest, bytes);
+        }
+
+        AccountAggregate.resetState();
+        var recoveryJournal = new CountingJournal(journal());
+        new DomainEventProcessor(recoveryJournal, snapshots, 100, 4).recover();
+
+        assertEquals(expected, balances());
+        assertTrue(recoveryJournal.read > 100);
+    }
+}
@@ -25,8 +25,6 @@ package com.iluwatar.halfsynchalfasync;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.concurrent.LinkedBlockingQueue;
-
 /**
  * This application demonstrates Half-Sync/Half-Async pattern. Key parts of the pattern are {@link
  * AsyncTask} and {@link AsynchronousService}.
@@ -84,7 +82,8 @@ public class App {
      * @param args command line args
      */
     public static void main(String[] args) {
-        var service = new AsynchronousService(new LinkedBlockingQueue<>());
+        // the tasks mostly sleep, so each of them gets its own virtual thread
+        var service = AsynchronousService.virtualThreadPerTask();
         /*
          * A new task to calculate sum is received but as this is main thread, it should not block. So
          * it passes it to the asynchronous task layer to compute and proceeds with handling other
@@ -103,6 +102,7 @@ public class App {
         service.execute(new ArithmeticSumTask(1));
 
         service.close();
+        LOGGER.info("Task latencies: {}", service.getMetrics());
     }
 
     /**
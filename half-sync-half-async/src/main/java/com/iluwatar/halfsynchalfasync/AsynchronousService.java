@@ -25,7 +25,14 @@ package com.iluwatar.halfsynchalfasync;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.concurrent.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This is the asynchronous layer which does not block when a new request arrives. It just passes
@@ -33,9 +40,31 @@ import java.util.concurrent.*;
  * pool of threads i.e. {@link ThreadPoolExecutor}. Out of this pool of worker threads one of the
  * thread picks up the task and executes it synchronously in background and the result is posted
  * back to the caller via callback.
+ *
+ * <p>Besides the pool over a caller supplied queue, the service can run every task in its own
+ * virtual thread ({@link #virtualThreadPerTask()}), or in a pool over a bounded queue that pushes
+ * back on the callers when it is full ({@link #boundedPool(int, int, Backpressure)}).
  */
 @Slf4j
 public class AsynchronousService {
+
+    /**
+     * What {@link #execute(AsyncTask)} does with a task when the bounded queue is full.
+     */
+    public enum Backpressure {
+        /**
+         * Runs the task in the calling thread, which slows the caller down to the pace of the pool.
+         */
+        CALLER_RUNS,
+        /**
+         * Refuses the task, posting a {@link RejectedExecutionException} to {@link
+         * AsyncTask#onError(Throwable)}.
+         */
+        REJECT
+    }
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
     /*
      * This represents the queuing layer as well as synchronous layer of the pattern. The thread pool
      * contains worker threads which execute the tasks in blocking/synchronous manner. Long running
@@ -44,15 +73,61 @@ public class AsynchronousService {
      */
     private final ExecutorService service;
 
+    private final TaskMetrics metrics;
+
     /**
      * Creates an asynchronous service using {@code workQueue} as communication channel between
      * asynchronous layer and synchronous layer. Different types of queues such as Priority queue, can
      * be used to control the pattern of communication between the layers.
      */
     public AsynchronousService(BlockingQueue<Runnable> workQueue) {
-        service = new ThreadPoolExecutor(10, 10, 10, TimeUnit.SECONDS, workQueue);
+        this(new ThreadPoolExecutor(DEFAULT_POOL_SIZE, DEFAULT_POOL_SIZE, 10, TimeUnit.SECONDS,
+                workQueue), new TaskMetrics());
     }
 
+    private AsynchronousService(ExecutorService service, TaskMetrics metrics) {
+        this.service = service;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates a service that starts a virtual thread for every task, so that tasks blocked on I/O
+     * do not hold a platform thread. On runtimes without virtual threads every task gets a new
+     * platform thread instead.
+     */
+    public static AsynchronousService virtualThreadPerTask() {
+        ExecutorService executor;
+        try {
+            var factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            executor = (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.debug("Virtual threads are not supported, using a thread per task");
+            executor = Executors.newCachedThreadPool();
+        }
+        return new AsynchronousService(executor, new TaskMetrics());
+    }
+
+    /**
+     * Creates a service with a pool of {@code threads} over a queue holding at most {@code
+     * queueCapacity} tasks. When the queue is full new tasks are handled by {@code backpressure}.
+     */
+    public static AsynchronousService boundedPool(int threads, int queueCapacity,
+                                                  Backpressure backpressure) {
+        var metrics = new TaskMetrics();
+        RejectedExecutionHandler handler = backpressure == Backpressure.CALLER_RUNS
+                ? (task, executor) -> {
+                    if (executor.isShutdown()) {
+                        // reported to the task like any other rejection
+                        throw new RejectedExecutionException("The service is closed");
+                    }
+                    metrics.ranByCaller();
+                    task.run();
+                }
+                : new ThreadPoolExecutor.AbortPolicy();
+        var executor = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), handler);
+        return new AsynchronousService(executor, metrics);
+    }
 
     /**
      * A non-blocking method which performs the task provided in background and returns immediately.
@@ -63,7 +138,7 @@ public class AsynchronousService {
      * AsyncTask#onError(Throwable)}.
      *
      * <p>NOTE: The results are posted back in the context of background thread in this
-     * implementation.
+     * implementation, unless a full bounded queue makes the caller run the task.
      */
     public <T> void execute(final AsyncTask<T> task) {
         try {
@@ -74,25 +149,50 @@ public class AsynchronousService {
             return;
         }
 
-        service.submit(new FutureTask<T>(task) {
-            @Override
-            protected void done() {
-                super.done();
-                try {
-                    /*
-                     * called in context of background thread. There is other variant possible where result is
-                     * posted back and sits in the queue of caller thread which then picks it up for
-                     * processing. An example of such a system is Android OS, where the UI elements can only
-                     * be updated using UI thread. So result must be posted back in UI thread.
-                     */
-                    task.onPostCall(get());
-                } catch (InterruptedException e) {
-                    // should not occur
-                } catch (ExecutionException e) {
-                    task.onError(e.getCause());
-                }
+        var submittedAt = System.nanoTime();
+        metrics.submitted();
+        try {
+            service.execute(() -> run(task, submittedAt));
+        } catch (RejectedExecutionException e) {
+            metrics.rejected();
+            task.onError(e);
+        }
+    }
+
+    /*
+     * Runs the task and posts the result back directly from the worker thread, without a future to
+     * block on. There is other variant possible where result is posted back and sits in the queue
+     * of caller thread which then picks it up for processing. An example of such a system is Android
+     * OS, where the UI elements can only be updated using UI thread. So result must be posted back
+     * in UI thread.
+     */
+    private <T> void run(AsyncTask<T> task, long submittedAt) {
+        var startedAt = System.nanoTime();
+        var success = false;
+        try {
+            T result;
+            try {
+                result = task.call();
+            } catch (Throwable e) {
+                // errors such as an AssertionError are posted back as well, not lost in the worker
+                task.onError(e);
+                return;
             }
-        });
+            task.onPostCall(result);
+            success = true;
+        } catch (RuntimeException e) {
+            // a failing callback must not take the worker thread down
+            LOGGER.error("Error in the completion callback of the task", e);
+        } finally {
+            metrics.finished(startedAt - submittedAt, System.nanoTime() - startedAt, success);
+        }
+    }
+
+    /**
+     * Returns the latencies of the tasks executed so far.
+     */
+    public TaskMetrics getMetrics() {
+        return metrics;
     }
 
     /**
@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.halfsynchalfasync;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark of the execution modes of {@link AsynchronousService} with mostly I/O-bound tasks. Every
+ * task sleeps to simulate a blocking call and then does a little computation.
+ *
+ * <p>Usage: {@code HalfSyncHalfAsyncBenchmark [tasks] [blockingMillis]}.
+ */
+@Slf4j
+public final class HalfSyncHalfAsyncBenchmark {
+
+    private static final int POOL_SIZE = 64;
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private HalfSyncHalfAsyncBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional number of tasks and time every task blocks in milliseconds
+     */
+    public static void main(String[] args) throws InterruptedException {
+        var tasks = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        var blockingMillis = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+
+        run("pool of 10 over unbounded queue", () -> new AsynchronousService(
+                new LinkedBlockingQueue<>()), tasks, blockingMillis);
+        run("bounded pool, caller runs", () -> AsynchronousService.boundedPool(POOL_SIZE,
+                QUEUE_CAPACITY, AsynchronousService.Backpressure.CALLER_RUNS), tasks, blockingMillis);
+        run("bounded pool, reject", () -> AsynchronousService.boundedPool(POOL_SIZE,
+                QUEUE_CAPACITY, AsynchronousService.Backpressure.REJECT), tasks, blockingMillis);
+        run("thread per task", AsynchronousService::virtualThreadPerTask, tasks, blockingMillis);
+    }
+
+    private static void run(String mode, Supplier<AsynchronousService> factory, int tasks,
+                            long blockingMillis) throws InterruptedException {
+        var service = factory.get();
+        var completed = new CountDownLatch(tasks);
+        var start = System.nanoTime();
+        for (var i = 0; i < tasks; i++) {
+            service.execute(new IoBoundTask(i, blockingMillis, completed));
+        }
+        completed.await();
+        var elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        service.close();
+        LOGGER.info("{}: {} tasks in {} ms ({} tasks/s), {}", mode, tasks, elapsedMillis,
+                tasks * 1_000L / Math.max(1, elapsedMillis), service.getMetrics());
+    }
+
+    /**
+     * Blocks for a while and then sums a few numbers.
+     */
+    private static class IoBoundTask implements AsyncTask<Long> {
+        private final long seed;
+        private final long blockingMillis;
+        private final CountDownLatch completed;
+
+        IoBoundTask(long seed, long blockingMillis, CountDownLatch completed) {
+            this.seed = seed;
+            this.blockingMillis = blockingMillis;
+            this.completed = completed;
+        }
+
+        @Override
+        public void onPreCall() {
+            // nothing to validate
+        }
+
+        @Override
+        public Long call() throws Exception {
+            Thread.sleep(blockingMillis);
+            var sum = seed;
+            for (var i = 0; i < 1_000; i++) {
+                sum += i * seed;
+            }
+            return sum;
+        }
+
+        @Override
+        public void onPostCall(Long result) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.halfsynchalfasync;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies of the tasks run by an {@link AsynchronousService}: how long they waited in the queuing
+ * layer and ran in the synchronous layer, and how many of them were pushed back to their callers.
+ */
+public class TaskMetrics {
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Long::max, 0L);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder ranByCaller = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    void submitted() {
+        inFlight.incrementAndGet();
+    }
+
+    void finished(long waitNanos, long runNanos, boolean success) {
+        this.waitNanos.add(waitNanos);
+        this.runNanos.add(runNanos);
+        maxLatencyNanos.accumulate(waitNanos + runNanos);
+        if (!success) {
+            failed.increment();
+        }
+        completed.increment();
+        inFlight.decrementAndGet();
+    }
+
+    void ranByCaller() {
+        ranByCaller.increment();
+    }
+
+    void rejected() {
+        inFlight.decrementAndGet();
+        rejected.increment();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * Returns the number of completed tasks that were posted to {@link AsyncTask#onError(Throwable)}
+     * or whose completion callback failed.
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Returns the mean time in microseconds a task waited in the queue before it started.
+     */
+    public long getMeanWaitMicros() {
+        var tasks = completed.sum();
+        return tasks == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(waitNanos.sum() / tasks);
+    }
+
+    /**
+     * Returns the mean time in microseconds a task spent in its call and completion callback.
+     */
+    public long getMeanRunMicros() {
+        var tasks = completed.sum();
+        return tasks == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(runNanos.sum() / tasks);
+    }
+
+    /**
+     * Returns the longest time in microseconds from {@link AsynchronousService#execute(AsyncTask)}
+     * to the end of the completion callback.
+     */
+    public long getMaxLatencyMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxLatencyNanos.get());
+    }
+
+    /**
+     * Returns the number of tasks submitted and not completed yet.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns the number of tasks run by the submitting thread because the queue was full.
+     */
+    public long getRanByCaller() {
+        return ranByCaller.sum();
+    }
+
+    /**
+     * Returns the number of tasks refused because the queue was full.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("completed=%d failed=%d wait=%d us run=%d us latency max %d us"
+                        + " ranByCaller=%d rejected=%d", getCompleted(), getFailed(),
+                getMeanWaitMicros(), getMeanRunMicros(), getMaxLatencyMicros(), getRanByCaller(),
+                getRejected());
+    }
+}
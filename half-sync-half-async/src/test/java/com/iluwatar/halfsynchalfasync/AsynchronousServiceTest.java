@@ -27,8 +27,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -94,4 +101,117 @@ public class AsynchronousServiceTest {
         verifyNoMoreInteractions(task);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testMetricsRecordCompletedTasks() throws Exception {
+        when(task.call()).thenReturn(new Object()).thenThrow(new IOException());
+        service.execute(task);
+        service.execute(task);
+        service.close();
+
+        final var metrics = service.getMetrics();
+        assertEquals(0, metrics.getInFlight());
+        assertEquals(2, metrics.getCompleted());
+        assertEquals(1, metrics.getFailed());
+    }
+
+    @Test
+    void testErrorInCallIsPostedBack() throws Exception {
+        final var error = new AssertionError();
+        when(task.call()).thenThrow(error);
+        service.execute(task);
+
+        verify(task, timeout(2000)).onError(eq(error));
+        verify(task, never()).onPostCall(any());
+    }
+
+    @Test
+    void testVirtualThreadPerTask() throws Exception {
+        final var virtual = AsynchronousService.virtualThreadPerTask();
+        final var result = new Object();
+        when(task.call()).thenReturn(result);
+        virtual.execute(task);
+
+        verify(task, timeout(2000)).onPostCall(eq(result));
+        virtual.close();
+    }
+
+    @Test
+    void testBoundedPoolRejectsWhenFull() throws Exception {
+        final var bounded = AsynchronousService.boundedPool(1, 1,
+                AsynchronousService.Backpressure.REJECT);
+        final var release = new CountDownLatch(1);
+        bounded.execute(new BlockingTask(release));
+        bounded.execute(new BlockingTask(release));
+
+        bounded.execute(task);
+
+        verify(task).onError(any(RejectedExecutionException.class));
+        verify(task, never()).call();
+        release.countDown();
+        bounded.close();
+        assertEquals(1, bounded.getMetrics().getRejected());
+    }
+
+    @Test
+    void testBoundedPoolRunsInCallerWhenFull() throws Exception {
+        final var bounded = AsynchronousService.boundedPool(1, 1,
+                AsynchronousService.Backpressure.CALLER_RUNS);
+        final var release = new CountDownLatch(1);
+        bounded.execute(new BlockingTask(release));
+        bounded.execute(new BlockingTask(release));
+        final var caller = Thread.currentThread();
+        final var ranIn = new Thread[1];
+        when(task.call()).then(invocation -> {
+            ranIn[0] = Thread.currentThread();
+            return null;
+        });
+
+        bounded.execute(task);
+
+        assertSame(caller, ranIn[0]);
+        release.countDown();
+        bounded.close();
+        assertEquals(1, bounded.getMetrics().getRanByCaller());
+        assertEquals(0, bounded.getMetrics().getInFlight());
+    }
+
+    @Test
+    void testClosedBoundedPoolReportsRejectionWhenCallerRuns() throws Exception {
+        final var bounded = AsynchronousService.boundedPool(1, 1,
+                AsynchronousService.Backpressure.CALLER_RUNS);
+        bounded.close();
+
+        bounded.execute(task);
+
+        verify(task).onError(any(RejectedExecutionException.class));
+        verify(task, never()).call();
+        assertEquals(1, bounded.getMetrics().getRejected());
+        assertEquals(0, bounded.getMetrics().getInFlight());
+    }
+
+    private static class BlockingTask implements AsyncTask<Boolean> {
+        private final CountDownLatch release;
+
+        BlockingTask(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onPreCall() {
+        }
+
+        @Override
+        public void onPostCall(Boolean result) {
+            assertTrue(result);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public Boolean call() throws Exception {
+            return release.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
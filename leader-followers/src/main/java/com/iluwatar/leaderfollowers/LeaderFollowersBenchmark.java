@@ -0,0 +1,199 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.leaderfollowers;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput benchmark of the {@link WorkCenter} against the previous one, which kept the idle
+ * workers in a {@link CopyOnWriteArrayList} and woke all of them with {@code notifyAll} on every
+ * promotion. The tasks take no time, so the measurement is dominated by the handoffs. The previous
+ * work center can lose a wakeup and leave every worker waiting, such a run is reported as stalled.
+ *
+ * <p>Usage: {@code LeaderFollowersBenchmark [tasks]}. The workers' logging is turned off.
+ */
+@Slf4j
+public final class LeaderFollowersBenchmark {
+
+    private static final int[] WORKER_COUNTS = {1, 4, 16, 64};
+    private static final long TIMEOUT_SECONDS = 20;
+
+    /**
+     * Counts the handled tasks instead of sleeping.
+     */
+    private static final class CountingTaskHandler extends TaskHandler {
+        private final CountDownLatch handled;
+
+        CountingTaskHandler(CountDownLatch handled) {
+            this.handled = handled;
+        }
+
+        @Override
+        public void handleTask(Task task) {
+            task.setFinished();
+            handled.countDown();
+        }
+    }
+
+    /**
+     * The previous work center, kept for comparison.
+     */
+    private static final class MonitorWorkCenter {
+        private volatile MonitorWorker leader;
+        private final List<MonitorWorker> workers = new CopyOnWriteArrayList<>();
+
+        void promoteLeader() {
+            leader = workers.isEmpty() ? null : workers.get(0);
+        }
+    }
+
+    /**
+     * The previous worker, kept for comparison.
+     */
+    private static final class MonitorWorker implements Runnable {
+        private final MonitorWorkCenter workCenter;
+        private final TaskSet taskSet;
+        private final TaskHandler taskHandler;
+
+        MonitorWorker(MonitorWorkCenter workCenter, TaskSet taskSet, TaskHandler taskHandler) {
+            this.workCenter = workCenter;
+            this.taskSet = taskSet;
+            this.taskHandler = taskHandler;
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.interrupted()) {
+                try {
+                    if (workCenter.leader != null && workCenter.leader != this) {
+                        synchronized (workCenter) {
+                            workCenter.wait();
+                        }
+                        continue;
+                    }
+                    var task = taskSet.getTask();
+                    synchronized (workCenter) {
+                        workCenter.workers.remove(this);
+                        workCenter.promoteLeader();
+                        workCenter.notifyAll();
+                    }
+                    taskHandler.handleTask(task);
+                    workCenter.workers.add(this);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private LeaderFollowersBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional number of tasks per run
+     */
+    public static void main(String[] args) throws InterruptedException {
+        var tasks = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        ((Logger) LoggerFactory.getLogger(Worker.class)).setLevel(Level.ERROR);
+
+        for (var workers : WORKER_COUNTS) {
+            var monitor = runMonitor(workers, tasks);
+            var stack = runStack(workers, tasks);
+            LOGGER.info("workers={} monitor+notifyAll: {}, follower stack: {}",
+                    workers, monitor, stack);
+        }
+    }
+
+    private static String runStack(int workers, int tasks) throws InterruptedException {
+        var taskSet = new TaskSet();
+        var handled = new CountDownLatch(tasks);
+        var workCenter = new WorkCenter();
+        workCenter.createWorkers(workers, taskSet, new CountingTaskHandler(handled));
+        var runnables = new ArrayList<Runnable>(workCenter.getWorkers());
+        return run(runnables, taskSet, handled, tasks);
+    }
+
+    private static String runMonitor(int workers, int tasks) throws InterruptedException {
+        var taskSet = new TaskSet();
+        var handled = new CountDownLatch(tasks);
+        var workCenter = new MonitorWorkCenter();
+        var runnables = new ArrayList<Runnable>();
+        for (var i = 0; i < workers; i++) {
+            var worker = new MonitorWorker(workCenter, taskSet, new CountingTaskHandler(handled));
+            workCenter.workers.add(worker);
+            runnables.add(worker);
+        }
+        workCenter.promoteLeader();
+        return run(runnables, taskSet, handled, tasks);
+    }
+
+    /**
+     * Starts the workers, feeds them the tasks and returns the throughput.
+     */
+    private static String run(List<Runnable> workers, TaskSet taskSet, CountDownLatch handled,
+                              int tasks) throws InterruptedException {
+        var threads = new ArrayList<Thread>();
+        for (var worker : workers) {
+            var thread = new Thread(worker);
+            threads.add(thread);
+            thread.start();
+        }
+        // fed from another thread, so that a stalled run cannot block the benchmark on a full set
+        var feeder = new Thread(() -> {
+            try {
+                for (var i = 0; i < tasks; i++) {
+                    taskSet.addTask(new Task(0));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        threads.add(feeder);
+        var start = System.nanoTime();
+        feeder.start();
+        var completed = handled.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        var elapsed = System.nanoTime() - start;
+        for (var thread : threads) {
+            thread.interrupt();
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+        if (!completed) {
+            return "stalled after " + (tasks - handled.getCount()) + " tasks";
+        }
+        return String.format("%,d tasks/s", tasks * 1_000_000_000L / elapsed);
+    }
+}
@@ -23,18 +23,37 @@
 
 package com.iluwatar.leaderfollowers;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * A WorkCenter contains a leader and a list of idle workers. The leader is responsible for
+ * A WorkCenter contains a leader and a stack of idle followers. The leader is responsible for
  * receiving work when it arrives. This class also provides a mechanism to promote a new leader. A
  * worker once he completes his task will add himself back to the center.
+ *
+ * <p>The followers wait on a lock-free LIFO stack, each parked on its own. A promotion pops one
+ * follower and unparks only that one, instead of waking every worker to elect a new leader. The
+ * follower that waited the least is promoted, as it is the most likely to still be in the caches.
  */
 public class WorkCenter {
 
-    private Worker leader;
-    private final List<Worker> workers = new CopyOnWriteArrayList<>();
+    /**
+     * A follower on the stack. Removed followers stay on the stack until they are popped.
+     */
+    private static final class Node {
+        final Worker worker;
+        Node next;
+        volatile boolean removed;
+
+        Node(Worker worker) {
+            this.worker = worker;
+        }
+    }
+
+    private final AtomicReference<Worker> leader = new AtomicReference<>();
+    private final AtomicReference<Node> followers = new AtomicReference<>();
 
     /**
      * Create workers and set leader.
@@ -42,35 +61,110 @@ public class WorkCenter {
     public void createWorkers(int numberOfWorkers, TaskSet taskSet, TaskHandler taskHandler) {
         for (var id = 1; id <= numberOfWorkers; id++) {
             var worker = new Worker(id, this, taskSet, taskHandler);
-            workers.add(worker);
+            push(new Node(worker));
         }
         promoteLeader();
     }
 
+    /**
+     * Adds the worker to the followers, and promotes it right away if there is no leader.
+     */
     public void addWorker(Worker worker) {
-        workers.add(worker);
+        push(new Node(worker));
+        promoteLeader();
     }
 
+    /**
+     * Removes the worker from the center. A leader removing itself leaves the center without a
+     * leader until {@link #promoteLeader()} is called.
+     */
     public void removeWorker(Worker worker) {
-        workers.remove(worker);
+        if (leader.compareAndSet(worker, null)) {
+            return;
+        }
+        for (var node = followers.get(); node != null; node = node.next) {
+            if (!node.removed && node.worker.equals(worker)) {
+                node.removed = true;
+                return;
+            }
+        }
     }
 
     public Worker getLeader() {
-        return leader;
+        return leader.get();
     }
 
     /**
-     * Promote a leader.
+     * Promote a leader, if there is none. Exactly one follower is woken up.
      */
     public void promoteLeader() {
-        Worker leader = null;
-        if (workers.size() > 0) {
-            leader = workers.get(0);
+        // Every thread that pushes a follower or clears the leader comes through here afterwards,
+        // so a follower is never left waiting while the center has no leader.
+        while (leader.get() == null) {
+            var node = pop();
+            if (node == null) {
+                return;
+            }
+            if (leader.compareAndSet(null, node.worker)) {
+                var thread = node.worker.getThread();
+                if (thread != Thread.currentThread()) {
+                    LockSupport.unpark(thread);
+                }
+                return;
+            }
+            // nodes are never pushed twice, which keeps the stack free of ABA races
+            push(new Node(node.worker));
         }
-        this.leader = leader;
     }
 
+    /**
+     * Parks the calling worker until it is promoted to leader.
+     *
+     * @throws InterruptedException when the worker is interrupted while waiting
+     */
+    void awaitLeadership(Worker worker) throws InterruptedException {
+        while (leader.get() != worker) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Returns the idle workers, the leader first and then the followers from the most recent.
+     */
     public List<Worker> getWorkers() {
+        var workers = new ArrayList<Worker>();
+        var current = leader.get();
+        if (current != null) {
+            workers.add(current);
+        }
+        for (var node = followers.get(); node != null; node = node.next) {
+            if (!node.removed) {
+                workers.add(node.worker);
+            }
+        }
         return workers;
     }
+
+    private void push(Node node) {
+        Node top;
+        do {
+            top = followers.get();
+            node.next = top;
+        } while (!followers.compareAndSet(top, node));
+    }
+
+    private Node pop() {
+        while (true) {
+            var top = followers.get();
+            if (top == null) {
+                return null;
+            }
+            if (followers.compareAndSet(top, top.next) && !top.removed) {
+                return top;
+            }
+        }
+    }
 }
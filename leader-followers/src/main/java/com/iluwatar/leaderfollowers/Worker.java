@@ -35,6 +35,7 @@ public class Worker implements Runnable {
     private final WorkCenter workCenter;
     private final TaskSet taskSet;
     private final TaskHandler taskHandler;
+    private volatile Thread thread;
 
     /**
      * Constructor to create a worker which will take work from the work center.
@@ -49,24 +50,18 @@ public class Worker implements Runnable {
 
     /**
      * The leader thread listens for task. When task arrives, it promotes one of the followers to be
-     * the new leader. Then it handles the task and add himself back to work center.
+     * the new leader. Then it handles the task and add himself back to work center. A follower waits
+     * until it is promoted.
      */
     @Override
     public void run() {
+        thread = Thread.currentThread();
         while (!Thread.interrupted()) {
             try {
-                if (workCenter.getLeader() != null && !workCenter.getLeader().equals(this)) {
-                    synchronized (workCenter) {
-                        workCenter.wait();
-                    }
-                    continue;
-                }
+                workCenter.awaitLeadership(this);
                 final Task task = taskSet.getTask();
-                synchronized (workCenter) {
-                    workCenter.removeWorker(this);
-                    workCenter.promoteLeader();
-                    workCenter.notifyAll();
-                }
+                workCenter.removeWorker(this);
+                workCenter.promoteLeader();
                 taskHandler.handleTask(task);
                 LOGGER.info("The Worker with the ID " + id + " completed the task");
                 workCenter.addWorker(this);
@@ -78,4 +73,11 @@ public class Worker implements Runnable {
         }
     }
 
+    /**
+     * Returns the thread running this worker, or null when it has not started yet.
+     */
+    Thread getThread() {
+        return thread;
+    }
+
 }
@@ -23,13 +23,20 @@
 
 package com;
 
+import com.iluwatar.leaderfollowers.Task;
 import com.iluwatar.leaderfollowers.TaskHandler;
 import com.iluwatar.leaderfollowers.TaskSet;
 import com.iluwatar.leaderfollowers.WorkCenter;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Tests for WorkCenter
@@ -64,4 +71,33 @@ class WorkCenterTest {
         assertEquals(4, workCenter.getWorkers().size());
         assertEquals(workCenter.getWorkers().get(0), workCenter.getLeader());
     }
+
+    @Test
+    void testLeadershipIsHandedOffUntilAllTasksAreDone() throws InterruptedException {
+        var taskSet = new TaskSet();
+        var workCenter = new WorkCenter();
+        workCenter.createWorkers(8, taskSet, new TaskHandler() {
+            @Override
+            public void handleTask(Task task) {
+                task.setFinished();
+            }
+        });
+        var exec = Executors.newFixedThreadPool(8);
+        workCenter.getWorkers().forEach(exec::submit);
+        var tasks = new ArrayList<Task>();
+        for (var i = 0; i < 1_000; i++) {
+            var task = new Task(0);
+            tasks.add(task);
+            taskSet.addTask(task);
+        }
+        while (taskSet.getSize() > 0 || workCenter.getWorkers().size() < 8) {
+            Thread.sleep(10);
+        }
+        exec.shutdownNow();
+        assertTrue(exec.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertTrue(tasks.stream().allMatch(Task::isFinished));
+        assertNotNull(workCenter.getLeader());
+        assertEquals(8, workCenter.getWorkers().size());
+    }
 }
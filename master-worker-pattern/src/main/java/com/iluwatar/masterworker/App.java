@@ -44,9 +44,9 @@ import lombok.extern.slf4j.Slf4j;
  * hand (in this case finding transpose of matrix, done by {@link ArrayTransposeMasterWorker},
  * {@link ArrayTransposeMaster} and {@link ArrayTransposeWorker}). The Master class divides the work
  * into parts to be given to the workers, collects the results from the workers and aggregates it
- * when all workers have responded before returning the solution. The Worker class extends the
- * Thread class to enable parallel processing, and does the work once the data has been received
- * from the Master. The MasterWorker contains a reference to the Master class, gets the input from
+ * when all workers have responded before returning the solution. The Worker class is a Runnable
+ * the Master runs on a pool to enable parallel processing, and does the work once the data has
+ * been received from the Master. The MasterWorker contains a reference to the Master class, gets the input from
  * the App and passes it on to the Master. These 3 classes define the system which computes the
  * result. We also have 2 abstract classes {@link Input} and {@link Result}, which contain the input
  * data and result data respectively. The Input class also has an abstract method divideData which
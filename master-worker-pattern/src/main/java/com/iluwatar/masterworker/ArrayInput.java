@@ -69,7 +69,8 @@ public class ArrayInput extends Input<int[][]> {
             for (var i = 0; i < num; i++) {
                 var rows = divisions[i];
                 if (rows != 0) {
-                    var divided = new int[rows][this.data[0].length];
+                    // the rows are shared with the input, only the references are copied
+                    var divided = new int[rows][];
                     System.arraycopy(this.data, rowsDone, divided, 0, rows);
                     rowsDone += rows;
                     var dividedInput = new ArrayInput(divided);
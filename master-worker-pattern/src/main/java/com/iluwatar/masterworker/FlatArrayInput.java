@@ -0,0 +1,55 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.masterworker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class FlatArrayInput extends abstract class {@link Input} and contains data of type {@link
+ * FlatMatrix}.
+ */
+
+public class FlatArrayInput extends Input<FlatMatrix> {
+
+    public FlatArrayInput(FlatMatrix data) {
+        super(data);
+    }
+
+    @Override
+    public List<Input<FlatMatrix>> divideData(int num) {
+        if (this.data == null) {
+            return null;
+        }
+        var result = new ArrayList<Input<FlatMatrix>>(num);
+        var rowsDone = 0; //number of rows divided so far
+        for (var i = 0; i < num && rowsDone < this.data.getRows(); i++) {
+            //equally dividing, the first parts getting the extra rows
+            var rows = this.data.getRows() / num + (i < this.data.getRows() % num ? 1 : 0);
+            result.add(new FlatArrayInput(this.data.rows(rowsDone, rowsDone + rows)));
+            rowsDone += rows;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.masterworker;
+
+/**
+ * A matrix of ints stored row after row in a single array. Unlike an {@code int[][]} its rows are
+ * contiguous in memory and there is no array object per row.
+ */
+
+public final class FlatMatrix {
+
+    /**
+     * Side of the square tiles the matrix is transposed in. A tile of the source and one of the
+     * target (2 x 4 KB) stay in the L1 cache together.
+     */
+    static final int TILE = 32;
+
+    private final int rows;
+    private final int columns;
+    private final int[] values;
+
+    /**
+     * Creates a matrix of zeros.
+     */
+    public FlatMatrix(int rows, int columns) {
+        this(rows, columns, new int[Math.multiplyExact(rows, columns)]);
+    }
+
+    /**
+     * Creates a matrix over the given values, row after row.
+     */
+    public FlatMatrix(int rows, int columns, int[] values) {
+        var size = Math.multiplyExact(rows, columns);
+        if (values.length != size) {
+            throw new IllegalArgumentException("expected " + size + " values");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * Copies a matrix in {@code int[][]} form.
+     */
+    public static FlatMatrix of(int[][] matrix) {
+        var columns = matrix.length == 0 ? 0 : matrix[0].length;
+        var flat = new FlatMatrix(matrix.length, columns);
+        for (var i = 0; i < matrix.length; i++) {
+            System.arraycopy(matrix[i], 0, flat.values, i * columns, columns);
+        }
+        return flat;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int get(int row, int column) {
+        return values[row * columns + column];
+    }
+
+    /**
+     * Returns a copy of the rows from {@code fromRow} (inclusive) to {@code toRow} (exclusive).
+     */
+    public FlatMatrix rows(int fromRow, int toRow) {
+        var slice = new FlatMatrix(toRow - fromRow, columns);
+        System.arraycopy(values, fromRow * columns, slice.values, 0, slice.values.length);
+        return slice;
+    }
+
+    /**
+     * Returns the matrix in {@code int[][]} form.
+     */
+    public int[][] toArray() {
+        var matrix = new int[rows][columns];
+        for (var i = 0; i < rows; i++) {
+            System.arraycopy(values, i * columns, matrix[i], 0, columns);
+        }
+        return matrix;
+    }
+
+    /**
+     * Writes the transpose of the rows from {@code fromRow} (inclusive) to {@code toRow} (exclusive)
+     * into the columns of {@code target} with the same indexes. The rows are read and the target
+     * written tile by tile, so that both stay in the cache, which going row by row would not do for
+     * the target's columns.
+     */
+    public void transposeInto(FlatMatrix target, int fromRow, int toRow) {
+        if (target.rows != columns || target.columns != rows) {
+            throw new IllegalArgumentException("target must be " + columns + "x" + rows);
+        }
+        var source = values;
+        var destination = target.values;
+        for (var tileRow = fromRow; tileRow < toRow; tileRow += TILE) {
+            var endRow = Math.min(tileRow + TILE, toRow);
+            for (var tileColumn = 0; tileColumn < columns; tileColumn += TILE) {
+                var endColumn = Math.min(tileColumn + TILE, columns);
+                for (var i = tileRow; i < endRow; i++) {
+                    var from = i * columns;
+                    for (var j = tileColumn; j < endColumn; j++) {
+                        destination[j * rows + i] = source[from + j];
+                    }
+                }
+            }
+        }
+    }
+}
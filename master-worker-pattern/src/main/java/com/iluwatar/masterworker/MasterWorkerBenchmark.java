@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.masterworker;
+
+import com.iluwatar.masterworker.system.ArrayTransposeMasterWorker;
+import com.iluwatar.masterworker.system.ForkJoinArrayTransposeMasterWorker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Random;
+
+/**
+ * Benchmark of the matrix transposes. It compares the row by row loop the workers used to run,
+ * {@link ArrayTransposeMasterWorker} with its tiled workers over {@code int[][]}, and {@link
+ * ForkJoinArrayTransposeMasterWorker} over a {@link FlatMatrix}.
+ *
+ * <p>Usage: {@code MasterWorkerBenchmark [maxSide] [maxArraySide]}. The sides double from 1024 up to
+ * {@code maxSide}; the {@code int[][]} variants need about twice the memory of the flat one and stop
+ * at {@code maxArraySide}. A 16k x 16k run needs a heap of about 4.5 GB.
+ */
+@Slf4j
+public final class MasterWorkerBenchmark {
+
+    private static final int ROUNDS = 3;
+
+    private MasterWorkerBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional largest side of the matrices, and largest side for {@code int[][]}
+     */
+    public static void main(String[] args) {
+        var maxSide = args.length > 0 ? Integer.parseInt(args[0]) : 16_384;
+        var maxArraySide = args.length > 1 ? Integer.parseInt(args[1]) : 8_192;
+        var arrayMasterWorker = new ArrayTransposeMasterWorker();
+        var forkJoinMasterWorker = new ForkJoinArrayTransposeMasterWorker();
+
+        for (var side = 1_024; side <= maxSide; side *= 2) {
+            var flat = randomMatrix(side);
+            String naive = "skipped";
+            String tiled = "skipped";
+            if (side <= maxArraySide) {
+                var array = flat.toArray();
+                naive = time(() -> naiveTranspose(array));
+                tiled = time(() -> arrayMasterWorker.getResult(new ArrayInput(array)));
+            }
+            var forkJoin = time(() -> forkJoinMasterWorker.getResult(new FlatArrayInput(flat)));
+            LOGGER.info("{}x{}: row by row {}, tiled int[][] workers {}, fork/join flat {}", side,
+                    side, naive, tiled, forkJoin);
+        }
+    }
+
+    private static FlatMatrix randomMatrix(int side) {
+        var random = new Random(side);
+        var values = new int[side * side];
+        for (var i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(10);
+        }
+        return new FlatMatrix(side, side, values);
+    }
+
+    /**
+     * The loop of the previous workers, writing one element per row of the result.
+     */
+    private static int[][] naiveTranspose(int[][] matrix) {
+        var result = new int[matrix[0].length][matrix.length];
+        for (var i = 0; i < matrix.length; i++) {
+            for (var j = 0; j < matrix[0].length; j++) {
+                result[j][i] = matrix[i][j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the best of a few runs, in milliseconds.
+     */
+    private static String time(Runnable transpose) {
+        var best = Long.MAX_VALUE;
+        for (var round = 0; round < ROUNDS; round++) {
+            var start = System.nanoTime();
+            transpose.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000 + " ms";
+    }
+}
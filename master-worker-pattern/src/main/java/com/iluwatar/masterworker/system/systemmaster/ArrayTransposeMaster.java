@@ -53,20 +53,16 @@ public class ArrayTransposeMaster extends Master {
     ArrayResult aggregateData() {
         // number of rows in final result is number of rows in any of obtained results from workers
         var allResultData = this.getAllResultData();
-        var rows = ((ArrayResult) allResultData.elements().nextElement()).data.length;
-        var elements = allResultData.elements();
+        var rows = ((ArrayResult) allResultData.get(0)).data.length;
         var columns = 0; // columns = sum of number of columns in all results obtained from workers
-        while (elements.hasMoreElements()) {
-            columns += ((ArrayResult) elements.nextElement()).data[0].length;
+        for (var result : allResultData) {
+            columns += ((ArrayResult) result).data[0].length;
         }
         var resultData = new int[rows][columns];
         var columnsDone = 0; //columns aggregated so far
-        var workers = this.getWorkers();
-        for (var i = 0; i < this.getExpectedNumResults(); i++) {
+        for (var result : allResultData) {
             //result obtained from ith worker
-            var worker = workers.get(i);
-            var workerId = worker.getWorkerId();
-            var work = ((ArrayResult) allResultData.get(workerId)).data;
+            var work = ((ArrayResult) result).data;
             for (var m = 0; m < work.length; m++) {
                 //m = row number, n = columns number
                 System.arraycopy(work[m], 0, resultData[m], columnsDone, work[0].length);
@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.masterworker.system.systemmaster;
+
+import com.iluwatar.masterworker.FlatArrayInput;
+import com.iluwatar.masterworker.FlatArrayResult;
+import com.iluwatar.masterworker.FlatMatrix;
+import com.iluwatar.masterworker.Input;
+import com.iluwatar.masterworker.system.systemworkers.TransposeTask;
+import com.iluwatar.masterworker.system.systemworkers.Worker;
+
+import java.util.List;
+
+/**
+ * Class ForkJoinTransposeMaster extends abstract class {@link Master} and transposes a {@link
+ * FlatMatrix} with {@link TransposeTask}s instead of a fixed set of {@link Worker}s. The matrix is
+ * split recursively into about four ranges of rows per worker, which the pool balances among its
+ * threads, and the tasks write straight into the result.
+ */
+
+public class ForkJoinTransposeMaster extends Master {
+
+    /**
+     * Ranges of rows per worker, so that a slow thread can be helped by the others.
+     */
+    private static final int RANGES_PER_WORKER = 4;
+
+    public ForkJoinTransposeMaster(int numOfWorkers) {
+        super(numOfWorkers);
+    }
+
+    @Override
+    List<Worker> setWorkers(int num) {
+        // the work is done by fork/join tasks created for every input
+        return List.of();
+    }
+
+    @Override
+    void divideWork(Input<?> input) {
+        // let the previous result be collected before allocating the next one
+        setFinalResult(null);
+        var matrix = ((FlatArrayInput) input).data;
+        if (matrix == null) {
+            return;
+        }
+        var transposed = new FlatMatrix(matrix.getColumns(), matrix.getRows());
+        var threshold = Math.max(1, matrix.getRows() / (getNumOfWorkers() * RANGES_PER_WORKER));
+        getPool().invoke(new TransposeTask(matrix, transposed, 0, matrix.getRows(), threshold));
+        setFinalResult(new FlatArrayResult(transposed));
+    }
+
+    @Override
+    FlatArrayResult aggregateData() {
+        // the tasks write straight into the final result, there is nothing to aggregate
+        return (FlatArrayResult) getFinalResult();
+    }
+}
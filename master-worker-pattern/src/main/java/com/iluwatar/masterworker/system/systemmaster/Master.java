@@ -27,28 +27,37 @@ import com.iluwatar.masterworker.Input;
 import com.iluwatar.masterworker.Result;
 import com.iluwatar.masterworker.system.systemworkers.Worker;
 
-import java.util.Hashtable;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * The abstract Master class which contains private fields numOfWorkers (number of workers), workers
  * (arraylist of workers), expectedNumResults (number of divisions of input data, same as expected
- * number of results), allResultData (hashtable of results obtained from workers, mapped by their
- * ids) and finalResult (aggregated from allResultData).
+ * number of results), allResultData (results obtained from workers, in the order of the workers)
+ * and finalResult (aggregated from allResultData).
+ *
+ * <p>The workers run on a shared {@link ForkJoinPool} rather than on threads of their own, so a
+ * master can do work any number of times without starting threads. Workers report their results
+ * into slots of an atomic array and the last one to report aggregates them, so no lock is taken.
  */
 
 public abstract class Master {
     private final int numOfWorkers;
     private final List<Worker> workers;
-    private final Hashtable<Integer, Result<?>> allResultData;
-    private int expectedNumResults;
-    private Result<?> finalResult;
+    private final AtomicReferenceArray<Result<?>> allResultData;
+    private final AtomicInteger receivedResults = new AtomicInteger();
+    private volatile int expectedNumResults;
+    private volatile Result<?> finalResult;
 
     Master(int numOfWorkers) {
         this.numOfWorkers = numOfWorkers;
         this.workers = setWorkers(numOfWorkers);
         this.expectedNumResults = 0;
-        this.allResultData = new Hashtable<>(numOfWorkers);
+        this.allResultData = new AtomicReferenceArray<>(numOfWorkers);
         this.finalResult = null;
     }
 
@@ -56,8 +65,23 @@ public abstract class Master {
         return this.finalResult;
     }
 
-    Hashtable<Integer, Result<?>> getAllResultData() {
-        return this.allResultData;
+    void setFinalResult(Result<?> finalResult) {
+        this.finalResult = finalResult;
+    }
+
+    /**
+     * Returns the results of the last work, in the order of the workers that computed them.
+     */
+    List<Result<?>> getAllResultData() {
+        var results = new ArrayList<Result<?>>(this.expectedNumResults);
+        for (var i = 0; i < this.expectedNumResults; i++) {
+            results.add(this.allResultData.get(i));
+        }
+        return results;
+    }
+
+    int getNumOfWorkers() {
+        return this.numOfWorkers;
     }
 
     int getExpectedNumResults() {
@@ -68,39 +92,45 @@ public abstract class Master {
         return this.workers;
     }
 
+    /**
+     * Returns the pool the work is done in.
+     */
+    ForkJoinPool getPool() {
+        return ForkJoinPool.commonPool();
+    }
+
     abstract List<Worker> setWorkers(int num);
 
     public void doWork(Input<?> input) {
         divideWork(input);
     }
 
-    private void divideWork(Input<?> input) {
+    void divideWork(Input<?> input) {
+        this.finalResult = null;
         var dividedInput = input.divideData(numOfWorkers);
         if (dividedInput != null) {
             this.expectedNumResults = dividedInput.size();
+            this.receivedResults.set(0);
+            var tasks = new ArrayList<ForkJoinTask<?>>(this.expectedNumResults);
             for (var i = 0; i < this.expectedNumResults; i++) {
                 //ith division given to ith worker in this.workers
                 this.workers.get(i).setReceivedData(this, dividedInput.get(i));
-                this.workers.get(i).start();
+                tasks.add(getPool().submit(this.workers.get(i)));
             }
-            for (var i = 0; i < this.expectedNumResults; i++) {
-                try {
-                    this.workers.get(i).join();
-                } catch (InterruptedException e) {
-                    System.err.println("Error while executing thread");
-                }
+            for (var task : tasks) {
+                task.join();
             }
         }
     }
 
     public void receiveData(Result<?> data, Worker w) {
         //check if can receive..if yes:
-        collectResult(data, w.getWorkerId());
+        collectResult(data, this.workers.indexOf(w));
     }
 
-    private void collectResult(Result<?> data, int workerId) {
-        this.allResultData.put(workerId, data);
-        if (this.allResultData.size() == this.expectedNumResults) {
+    private void collectResult(Result<?> data, int workerIndex) {
+        this.allResultData.set(workerIndex, data);
+        if (this.receivedResults.incrementAndGet() == this.expectedNumResults) {
             //all data received
             this.finalResult = aggregateData();
         }
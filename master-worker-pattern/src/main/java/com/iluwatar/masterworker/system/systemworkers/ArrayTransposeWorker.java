@@ -34,6 +34,11 @@ import com.iluwatar.masterworker.system.systemmaster.Master;
 
 public class ArrayTransposeWorker extends Worker {
 
+    /**
+     * Side of the square tiles the matrix is transposed in.
+     */
+    static final int TILE = 32;
+
     public ArrayTransposeWorker(Master master, int id) {
         super(master, id);
     }
@@ -45,10 +50,19 @@ public class ArrayTransposeWorker extends Worker {
         final var rows = arrayInput.data[0].length;
         final var cols = arrayInput.data.length;
         var resultData = new int[rows][cols];
-        for (var i = 0; i < cols; i++) {
-            for (var j = 0; j < rows; j++) {
-                //flipping element positions along diagonal
-                resultData[j][i] = arrayInput.data[i][j];
+        // going tile by tile keeps the rows written to in the cache, instead of touching a new row
+        // of the result for every element read
+        for (var tileI = 0; tileI < cols; tileI += TILE) {
+            var endI = Math.min(tileI + TILE, cols);
+            for (var tileJ = 0; tileJ < rows; tileJ += TILE) {
+                var endJ = Math.min(tileJ + TILE, rows);
+                for (var i = tileI; i < endI; i++) {
+                    var row = arrayInput.data[i];
+                    for (var j = tileJ; j < endJ; j++) {
+                        //flipping element positions along diagonal
+                        resultData[j][i] = row[j];
+                    }
+                }
             }
         }
         return new ArrayResult(resultData);
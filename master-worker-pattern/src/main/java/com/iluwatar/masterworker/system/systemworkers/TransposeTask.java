@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.masterworker.system.systemworkers;
+
+import com.iluwatar.masterworker.FlatMatrix;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Transposes a range of rows of a {@link FlatMatrix}. Ranges larger than the threshold are split in
+ * halves that are forked, so idle threads of the pool can steal them. Every task writes its own
+ * columns of the target, so the results need no collecting.
+ */
+
+public class TransposeTask extends RecursiveAction {
+
+    private final FlatMatrix source;
+    private final FlatMatrix target;
+    private final int fromRow;
+    private final int toRow;
+    private final int threshold;
+
+    /**
+     * Creates a task transposing the rows from {@code fromRow} (inclusive) to {@code toRow}
+     * (exclusive) of {@code source} into {@code target}, splitting while there are more than {@code
+     * threshold} rows.
+     */
+    public TransposeTask(FlatMatrix source, FlatMatrix target, int fromRow, int toRow,
+                         int threshold) {
+        this.source = source;
+        this.target = target;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        this.threshold = Math.max(1, threshold);
+    }
+
+    @Override
+    protected void compute() {
+        if (toRow - fromRow <= threshold) {
+            source.transposeInto(target, fromRow, toRow);
+            return;
+        }
+        var middle = (fromRow + toRow) >>> 1;
+        invokeAll(new TransposeTask(source, target, fromRow, middle, threshold),
+                new TransposeTask(source, target, middle, toRow, threshold));
+    }
+}
@@ -28,11 +28,12 @@ import com.iluwatar.masterworker.Result;
 import com.iluwatar.masterworker.system.systemmaster.Master;
 
 /**
- * The abstract Worker class which extends Thread class to enable parallel processing. Contains
- * fields master(holding reference to master), workerId (unique id) and receivedData(from master).
+ * The abstract Worker class, a {@link Runnable} the master hands to a shared pool to enable parallel
+ * processing. Contains fields master(holding reference to master), workerId (unique id) and
+ * receivedData(from master). A worker can be run more than once.
  */
 
-public abstract class Worker extends Thread {
+public abstract class Worker implements Runnable {
     private final Master master;
     private final int workerId;
     private Input<?> receivedData;
@@ -62,7 +63,8 @@ public abstract class Worker extends Thread {
         this.master.receiveData(data, this);
     }
 
-    public void run() { //from Thread class
+    @Override
+    public void run() {
         var work = executeOperation();
         sendToMaster(work);
     }
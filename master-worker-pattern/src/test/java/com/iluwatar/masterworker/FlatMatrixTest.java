@@ -0,0 +1,75 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.masterworker;
+
+import org.junit.jupiter.api.Test;
+
+import static com.iluwatar.masterworker.ArrayUtilityMethods.matricesSame;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing the {@link FlatMatrix} class.
+ */
+
+class FlatMatrixTest {
+
+    @Test
+    void conversionTest() {
+        var matrix = new int[][]{{1, 2, 3}, {4, 5, 6}};
+        var flat = FlatMatrix.of(matrix);
+        assertEquals(2, flat.getRows());
+        assertEquals(3, flat.getColumns());
+        assertEquals(6, flat.get(1, 2));
+        assertTrue(matricesSame(matrix, flat.toArray()));
+        assertTrue(matricesSame(new int[][]{{4, 5, 6}}, flat.rows(1, 2).toArray()));
+    }
+
+    @Test
+    void transposeIntoTest() {
+        // sides that are not multiples of the tile size
+        var matrix = ArrayUtilityMethods.createRandomIntMatrix(FlatMatrix.TILE + 7,
+                2 * FlatMatrix.TILE + 3);
+        var flat = FlatMatrix.of(matrix);
+        var transposed = new FlatMatrix(flat.getColumns(), flat.getRows());
+
+        flat.transposeInto(transposed, 0, 10);
+        flat.transposeInto(transposed, 10, flat.getRows());
+
+        for (var i = 0; i < flat.getRows(); i++) {
+            for (var j = 0; j < flat.getColumns(); j++) {
+                assertEquals(matrix[i][j], transposed.get(j, i));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> flat.transposeInto(flat, 0, 1));
+    }
+
+    @Test
+    void sizeThatOverflowsIsRejected() {
+        // 2^16 * 2^16 wraps around to 0
+        assertThrows(ArithmeticException.class, () -> new FlatMatrix(1 << 16, 1 << 16, new int[0]));
+    }
+
+}
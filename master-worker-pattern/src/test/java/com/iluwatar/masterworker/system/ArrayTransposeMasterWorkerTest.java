@@ -28,6 +28,7 @@ import com.iluwatar.masterworker.ArrayResult;
 import com.iluwatar.masterworker.ArrayUtilityMethods;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -57,4 +58,18 @@ class ArrayTransposeMasterWorkerTest {
         var r = (ArrayResult) atmw.getResult(i);
         assertTrue(ArrayUtilityMethods.matricesSame(r.data, matrixTranspose));
     }
+
+    @Test
+    void getResultTwiceTest() {
+        var atmw = new ArrayTransposeMasterWorker();
+        var matrix = ArrayUtilityMethods.createRandomIntMatrix(70, 45);
+        var first = (ArrayResult) atmw.getResult(new ArrayInput(matrix));
+        var second = (ArrayResult) atmw.getResult(new ArrayInput(matrix));
+        for (var i = 0; i < matrix.length; i++) {
+            for (var j = 0; j < matrix[0].length; j++) {
+                assertEquals(matrix[i][j], second.data[j][i]);
+            }
+        }
+        assertTrue(ArrayUtilityMethods.matricesSame(first.data, second.data));
+    }
 }
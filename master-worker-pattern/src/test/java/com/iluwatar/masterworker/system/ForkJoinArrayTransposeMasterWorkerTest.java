@@ -0,0 +1,55 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.masterworker.system;
+
+import com.iluwatar.masterworker.ArrayInput;
+import com.iluwatar.masterworker.ArrayResult;
+import com.iluwatar.masterworker.ArrayUtilityMethods;
+import com.iluwatar.masterworker.FlatArrayInput;
+import com.iluwatar.masterworker.FlatArrayResult;
+import com.iluwatar.masterworker.FlatMatrix;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing getResult method in {@link ForkJoinArrayTransposeMasterWorker} class.
+ */
+
+class ForkJoinArrayTransposeMasterWorkerTest {
+
+    @Test
+    void getResultTest() {
+        var fjmw = new ForkJoinArrayTransposeMasterWorker();
+        var atmw = new ArrayTransposeMasterWorker();
+        for (var size : new int[]{1, 5, 130}) {
+            var matrix = ArrayUtilityMethods.createRandomIntMatrix(size, size + 61);
+            var expected = (ArrayResult) atmw.getResult(new ArrayInput(matrix));
+
+            var r = (FlatArrayResult) fjmw.getResult(new FlatArrayInput(FlatMatrix.of(matrix)));
+
+            assertTrue(ArrayUtilityMethods.matricesSame(r.data.toArray(), expected.data));
+        }
+    }
+}
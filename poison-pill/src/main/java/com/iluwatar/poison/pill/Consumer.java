@@ -27,7 +27,8 @@ import com.iluwatar.poison.pill.Message.Headers;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Class responsible for receiving and handling submitted to the queue messages.
+ * Class responsible for receiving and handling submitted to the queue messages. It stops at the
+ * first {@link Message#POISON_PILL}; see {@link MessageQueue} for how many consumers one pill stops.
  */
 @Slf4j
 public class Consumer {
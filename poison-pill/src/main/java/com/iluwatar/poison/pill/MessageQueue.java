@@ -25,6 +25,11 @@ package com.iluwatar.poison.pill;
 
 /**
  * Represents abstraction of channel (or pipe) that bounds {@link Producer} and {@link Consumer}.
+ *
+ * <p>How many consumers a {@link Message#POISON_PILL} stops depends on the queue. In a {@link
+ * SimpleMessageQueue} the pill is an ordinary message taken by one consumer, so one pill has to be
+ * put for every consumer. A {@link RingMessageQueue} hands the pill to every consumer that takes
+ * from it afterwards, so one pill stops all of them, and it refuses messages put after the pill.
  */
 public interface MessageQueue extends MqPublishPoint, MqSubscribePoint {
 
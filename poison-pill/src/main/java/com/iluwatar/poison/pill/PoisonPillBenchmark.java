@@ -0,0 +1,118 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.poison.pill;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Throughput benchmark of {@link RingMessageQueue} against {@link SimpleMessageQueue}, with one
+ * {@link Producer} and several {@link Consumer}s. Besides the throughput it reports the bytes the
+ * producer and consumer threads allocated per message, which is what ends up as garbage.
+ *
+ * <p>Usage: {@code PoisonPillBenchmark [messages] [bound]}. The consumers' logging is turned off, so
+ * that only the exchange is measured.
+ */
+@Slf4j
+public final class PoisonPillBenchmark {
+
+    private static final int[] CONSUMER_COUNTS = {1, 2, 4};
+    private static final int ROUNDS = 3;
+
+    private PoisonPillBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional number of messages per run and bound of the queues
+     */
+    public static void main(String[] args) throws InterruptedException {
+        var messages = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        var bound = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        ((Logger) LoggerFactory.getLogger(Consumer.class)).setLevel(Level.WARN);
+
+        for (var consumers : CONSUMER_COUNTS) {
+            for (var round = 0; round < ROUNDS; round++) {
+                var simple = run(SimpleMessageQueue::new, bound, messages, consumers, consumers);
+                // a single pill is a barrier for all the consumers of the ring
+                var ring = run(RingMessageQueue::new, bound, messages, consumers, 1);
+                LOGGER.info("consumers={} round={}: SimpleMessageQueue {}, RingMessageQueue {}",
+                        consumers, round, simple, ring);
+            }
+        }
+    }
+
+    /**
+     * Sends the messages through a new queue and returns the throughput and allocation rate.
+     */
+    static String run(IntFunction<MessageQueue> queueFactory, int bound, int messages,
+                      int consumers, int pills) throws InterruptedException {
+        var queue = queueFactory.apply(bound);
+        var allocated = new LongAdder();
+        var done = new CountDownLatch(consumers + 1);
+        var start = System.nanoTime();
+        for (var i = 0; i < consumers; i++) {
+            var consumer = new Consumer("CONSUMER_" + i, queue);
+            new Thread(() -> measured(consumer::consume, allocated, done)).start();
+        }
+        new Thread(() -> measured(() -> {
+            var producer = new Producer("PRODUCER", queue);
+            for (var i = 0; i < messages; i++) {
+                producer.send("message");
+            }
+            producer.stop();
+            for (var i = 1; i < pills; i++) {
+                try {
+                    queue.put(Message.POISON_PILL);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, allocated, done)).start();
+        done.await();
+        var elapsed = System.nanoTime() - start;
+        return String.format("%,d msg/s %d B/msg", messages * 1_000_000_000L / elapsed,
+                allocated.sum() / messages);
+    }
+
+    private static void measured(Runnable body, LongAdder allocated, CountDownLatch done) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var id = Thread.currentThread().getId();
+        var before = threads.getThreadAllocatedBytes(id);
+        try {
+            body.run();
+        } finally {
+            allocated.add(threads.getThreadAllocatedBytes(id) - before);
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.poison.pill;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * {@link Message} implementation meant to be allocated once and reused. The headers are kept in an
+ * array indexed by the ordinal of the header, so adding and reading them allocates nothing.
+ */
+public class PooledMessage implements Message {
+
+    private static final Headers[] HEADERS = Headers.values();
+
+    private final String[] headers = new String[HEADERS.length];
+    private String body;
+
+    @Override
+    public void addHeader(Headers header, String value) {
+        headers[header.ordinal()] = value;
+    }
+
+    @Override
+    public String getHeader(Headers header) {
+        return headers[header.ordinal()];
+    }
+
+    /**
+     * Returns a snapshot of the headers. Unlike the other accessors this allocates, so it is meant
+     * for diagnostics rather than for the message path.
+     */
+    @Override
+    public Map<Headers, String> getHeaders() {
+        var map = new EnumMap<Headers, String>(Headers.class);
+        for (var header : HEADERS) {
+            var value = headers[header.ordinal()];
+            if (value != null) {
+                map.put(header, value);
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    @Override
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Replaces the headers and the body with those of the other message.
+     */
+    public void copyFrom(Message other) {
+        if (other instanceof PooledMessage) {
+            var pooled = (PooledMessage) other;
+            System.arraycopy(pooled.headers, 0, headers, 0, headers.length);
+        } else {
+            for (var header : HEADERS) {
+                headers[header.ordinal()] = other.getHeader(header);
+            }
+        }
+        body = other.getBody();
+    }
+
+    /**
+     * Removes the headers and the body, so that the message holds no references.
+     */
+    public void clear() {
+        for (var i = 0; i < headers.length; i++) {
+            headers[i] = null;
+        }
+        body = null;
+    }
+}
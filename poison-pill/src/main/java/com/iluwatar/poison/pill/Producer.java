@@ -39,6 +39,13 @@ public class Producer {
     private final String name;
     private boolean isStopped;
 
+    // a queue copying the messages put lets the producer reuse a single message
+    private final PooledMessage reusableMessage;
+
+    // Date#toString has a resolution of one second, so it is only formatted once a second
+    private long dateSecond = -1;
+    private String date;
+
     /**
      * Constructor.
      */
@@ -46,6 +53,7 @@ public class Producer {
         this.name = name;
         this.queue = queue;
         this.isStopped = false;
+        this.reusableMessage = queue instanceof RingMessageQueue ? new PooledMessage() : null;
     }
 
     /**
@@ -56,8 +64,8 @@ public class Producer {
             throw new IllegalStateException(String.format(
                     "Producer %s was stopped and fail to deliver requested message [%s].", body, name));
         }
-        var msg = new SimpleMessage();
-        msg.addHeader(Headers.DATE, new Date().toString());
+        var msg = reusableMessage != null ? reusableMessage : new SimpleMessage();
+        msg.addHeader(Headers.DATE, currentDate());
         msg.addHeader(Headers.SENDER, name);
         msg.setBody(body);
 
@@ -69,6 +77,16 @@ public class Producer {
         }
     }
 
+    private String currentDate() {
+        var now = System.currentTimeMillis();
+        var second = now / 1000;
+        if (second != dateSecond) {
+            dateSecond = second;
+            date = new Date(now).toString();
+        }
+        return date;
+    }
+
     /**
      * Stop system by sending poison pill.
      */
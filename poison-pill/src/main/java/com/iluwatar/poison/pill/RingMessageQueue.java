@@ -0,0 +1,184 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.poison.pill;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded queue on a ring of preallocated {@link PooledMessage} slots, for any number of producers
+ * and consumers. {@link #put(Message)} copies the message into a slot, so the producer may reuse
+ * its message right away, and {@link #take()} copies the slot into a message owned by the calling
+ * thread, so the slot is free again at once. Neither allocates.
+ *
+ * <p>The message returned by {@link #take()} is reused by the next call from the same thread; a
+ * consumer that keeps messages around must copy them.
+ *
+ * <p>Putting {@link Message#POISON_PILL} sets a sequence barrier instead of filling a slot: every
+ * message put before the pill is still taken, and from then on every consumer taking from the
+ * queue gets the pill, so a single pill stops all of them. Messages put after the pill would never
+ * be read, so {@link #put(Message)} refuses them with an {@link IllegalStateException}, as it does
+ * for producers still waiting for room when the pill arrives. Further pills are ignored.
+ *
+ * <p>Threads finding the queue full or empty spin briefly, then yield, then park for short periods.
+ */
+public class RingMessageQueue implements MessageQueue {
+
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int SPIN_TRIES = 64;
+    private static final int YIELD_TRIES = 64;
+    private static final long PARK_NANOS = 50_000L;
+
+    // set in the tail by the poison pill, so that no message can be put after it
+    private static final long POISONED = Long.MIN_VALUE;
+
+    private final PooledMessage[] slots;
+    private final long[] sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final ThreadLocal<PooledMessage> taken = ThreadLocal.withInitial(PooledMessage::new);
+
+    // position of the poison pill: consumers stop there
+    private volatile long barrier = Long.MAX_VALUE;
+
+    /**
+     * Creates a queue of at least {@code bound} slots, rounded up to a power of two.
+     */
+    public RingMessageQueue(int bound) {
+        if (bound <= 0 || bound > 1 << 30) {
+            throw new IllegalArgumentException("bound must be between 1 and 2^30");
+        }
+        var size = bound <= 2 ? 2 : Integer.highestOneBit(bound - 1) << 1;
+        slots = new PooledMessage[size];
+        sequences = new long[size];
+        mask = size - 1;
+        for (var i = 0; i < size; i++) {
+            slots[i] = new PooledMessage();
+            sequences[i] = i;
+        }
+    }
+
+    /**
+     * Puts the message, waiting for room if the queue is full.
+     *
+     * @throws IllegalStateException if the poison pill has been put, as the message would be lost
+     */
+    @Override
+    public void put(Message msg) throws InterruptedException {
+        if (Message.POISON_PILL.equals(msg)) {
+            poison();
+            return;
+        }
+        var tries = 0;
+        while (true) {
+            var position = tail.get();
+            if ((position & POISONED) != 0) {
+                throw new IllegalStateException("Message put after the poison pill");
+            }
+            var index = (int) position & mask;
+            var difference = sequence(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index].copyFrom(msg);
+                    SEQUENCES.setRelease(sequences, index, position + 1);
+                    return;
+                }
+            } else if (difference < 0) {
+                tries = idle(tries);
+            }
+        }
+    }
+
+    @Override
+    public Message take() throws InterruptedException {
+        var tries = 0;
+        while (true) {
+            var position = head.get();
+            if (position >= barrier) {
+                return Message.POISON_PILL;
+            }
+            var index = (int) position & mask;
+            var difference = sequence(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    var msg = taken.get();
+                    var slot = slots[index];
+                    msg.copyFrom(slot);
+                    slot.clear();
+                    SEQUENCES.setRelease(sequences, index, position + slots.length);
+                    return msg;
+                }
+            } else if (difference < 0) {
+                tries = idle(tries);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of slots.
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Marks the tail as poisoned without filling a slot, so that producers can no longer claim a
+     * position and consumers reaching the tail find the barrier. Every message claimed before the
+     * mark is still taken.
+     */
+    private void poison() {
+        while (true) {
+            var position = tail.get();
+            if ((position & POISONED) != 0) {
+                return;
+            }
+            if (tail.compareAndSet(position, position | POISONED)) {
+                barrier = position;
+                return;
+            }
+        }
+    }
+
+    private long sequence(int index) {
+        return (long) SEQUENCES.getAcquire(sequences, index);
+    }
+
+    private static int idle(int tries) throws InterruptedException {
+        if (tries < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        return tries + 1;
+    }
+}
@@ -24,7 +24,7 @@
 package com.iluwatar.poison.pill;
 
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 /**
@@ -32,7 +32,8 @@ import java.util.Map;
  */
 public class SimpleMessage implements Message {
 
-    private final Map<Headers, String> headers = new HashMap<>();
+    private final Map<Headers, String> headers = new EnumMap<>(Headers.class);
+    private final Map<Headers, String> unmodifiableHeaders = Collections.unmodifiableMap(headers);
     private String body;
 
     @Override
@@ -47,7 +48,7 @@ public class SimpleMessage implements Message {
 
     @Override
     public Map<Headers, String> getHeaders() {
-        return Collections.unmodifiableMap(headers);
+        return unmodifiableHeaders;
     }
 
     @Override
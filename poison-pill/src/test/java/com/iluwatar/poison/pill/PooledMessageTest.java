@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.poison.pill;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the array backed header table of {@link PooledMessage}.
+ */
+public class PooledMessageTest {
+
+    @Test
+    void testHeadersAndBody() {
+        final var message = new PooledMessage();
+        assertTrue(message.getHeaders().isEmpty());
+
+        message.addHeader(Message.Headers.SENDER, "sender");
+        message.setBody("body");
+
+        assertEquals("sender", message.getHeader(Message.Headers.SENDER));
+        assertNull(message.getHeader(Message.Headers.DATE));
+        assertEquals(1, message.getHeaders().size());
+        assertEquals("body", message.getBody());
+        assertThrows(UnsupportedOperationException.class,
+                () -> message.getHeaders().put(Message.Headers.DATE, "now"));
+    }
+
+    @Test
+    void testCopyFromAndClear() {
+        final var original = new SimpleMessage();
+        original.addHeader(Message.Headers.SENDER, "sender");
+        original.setBody("body");
+
+        final var copy = new PooledMessage();
+        copy.addHeader(Message.Headers.DATE, "stale");
+        copy.copyFrom(original);
+        assertEquals("sender", copy.getHeader(Message.Headers.SENDER));
+        assertNull(copy.getHeader(Message.Headers.DATE));
+        assertEquals("body", copy.getBody());
+
+        final var second = new PooledMessage();
+        second.copyFrom(copy);
+        copy.clear();
+        assertNull(copy.getHeader(Message.Headers.SENDER));
+        assertNull(copy.getBody());
+        assertEquals("sender", second.getHeader(Message.Headers.SENDER));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.poison.pill;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@link RingMessageQueue} and its poison pill barrier.
+ */
+public class RingMessageQueueTest {
+
+    private static Message message(String sender, String body) {
+        final var msg = new PooledMessage();
+        msg.addHeader(Message.Headers.SENDER, sender);
+        msg.setBody(body);
+        return msg;
+    }
+
+    @Test
+    void testPutCopiesTheMessage() throws Exception {
+        final var queue = new RingMessageQueue(4);
+        final var msg = new PooledMessage();
+        msg.setBody("first");
+        queue.put(msg);
+        msg.setBody("second");
+        queue.put(msg);
+
+        assertEquals("first", queue.take().getBody());
+        assertEquals("second", queue.take().getBody());
+        assertEquals(4, queue.capacity());
+    }
+
+    @Test
+    void testPoisonPillStopsEveryConsumerAfterTheEarlierMessages() throws Exception {
+        final var queue = new RingMessageQueue(4);
+        queue.put(message("you", "Hello!"));
+        queue.put(Message.POISON_PILL);
+        assertThrows(IllegalStateException.class,
+                () -> queue.put(message("late_for_the_party", "Hello? Anyone here?")));
+        queue.put(Message.POISON_PILL);
+
+        assertEquals("Hello!", queue.take().getBody());
+        assertSame(Message.POISON_PILL, queue.take());
+        assertSame(Message.POISON_PILL, queue.take());
+    }
+
+    @Test
+    void testPoisonPillReleasesProducersWaitingForRoom() throws Exception {
+        final var queue = new RingMessageQueue(2);
+        queue.put(message("me", "1"));
+        queue.put(message("me", "2"));
+        final var executor = Executors.newSingleThreadExecutor();
+        try {
+            final var blocked = executor.submit(() -> {
+                queue.put(message("me", "3"));
+                return null;
+            });
+            Thread.sleep(20);
+            assertFalse(blocked.isDone());
+
+            queue.put(Message.POISON_PILL);
+
+            final var failure = assertThrows(ExecutionException.class,
+                    () -> blocked.get(5, TimeUnit.SECONDS));
+            assertTrue(failure.getCause() instanceof IllegalStateException);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testEveryMessageIsTakenOnceByConcurrentConsumers() throws Exception {
+        final var queue = new RingMessageQueue(16);
+        final var received = ConcurrentHashMap.<String>newKeySet();
+        final var executor = Executors.newFixedThreadPool(6);
+        try {
+            final var producers = new ArrayList<Future<?>>();
+            for (var p = 0; p < 2; p++) {
+                final var sender = "producer" + p;
+                producers.add(executor.submit(() -> {
+                    final var msg = new PooledMessage();
+                    msg.addHeader(Message.Headers.SENDER, sender);
+                    for (var i = 0; i < 10_000; i++) {
+                        msg.setBody(String.valueOf(i));
+                        queue.put(msg);
+                    }
+                    return null;
+                }));
+            }
+            final var consumers = new ArrayList<Future<?>>();
+            for (var c = 0; c < 4; c++) {
+                consumers.add(executor.submit(() -> {
+                    while (true) {
+                        final var msg = queue.take();
+                        if (Message.POISON_PILL.equals(msg)) {
+                            return null;
+                        }
+                        assertTrue(received.add(msg.getHeader(Message.Headers.SENDER) + "/"
+                                + msg.getBody()));
+                    }
+                }));
+            }
+            for (final var producer : producers) {
+                producer.get(30, TimeUnit.SECONDS);
+            }
+            queue.put(Message.POISON_PILL);
+            for (final var consumer : consumers) {
+                consumer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(20_000, received.size());
+    }
+}
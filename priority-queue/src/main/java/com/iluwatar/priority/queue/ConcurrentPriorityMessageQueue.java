@@ -0,0 +1,215 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.priority.queue;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+/**
+ * Thread-safe priority queue keeping one lock-free FIFO queue per priority band, and a bitmap of the
+ * bands that are not empty so that the highest one is found with a single instruction.
+ *
+ * <p>Priorities are clamped to the {@value #BANDS} bands from 0 to {@value #MAX_PRIORITY}. Within a
+ * band elements leave in arrival order. To keep low priority elements from starving, an element
+ * gains one priority level for every aging interval it has waited: the oldest element of a lower
+ * band is taken before the higher bands once it has waited long enough to catch up with them. The
+ * ages are only compared on a sample of the removals, so aging is approximate.
+ *
+ * <p>{@link #poll()} never blocks. {@link #poll(long, TimeUnit)} and {@link #take()} wait for an
+ * element to arrive.
+ *
+ * @param <T> type of the elements
+ */
+public class ConcurrentPriorityMessageQueue<T> {
+
+    static final int BANDS = Long.SIZE;
+
+    static final int MAX_PRIORITY = BANDS - 1;
+
+    // one removal in this many looks at the age of the lower bands
+    private static final int AGING_CHECK_PERIOD = 32;
+
+    private static final class Entry<T> {
+        private final T element;
+        private final long enqueuedAt;
+
+        private Entry(T element, long enqueuedAt) {
+            this.element = element;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private final ToIntFunction<? super T> priorityOf;
+    private final long agingNanos;
+    private final ConcurrentLinkedQueue<Entry<T>>[] bands;
+    private final AtomicLong nonEmptyBands = new AtomicLong();
+
+    // one permit per element, so that waiting for an element is waiting for a permit
+    private final Semaphore available = new Semaphore(0);
+
+    /**
+     * Creates a queue.
+     *
+     * @param priorityOf    returns the priority of an element, the higher the sooner it is taken
+     * @param agingInterval how long an element waits to gain one priority level
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentPriorityMessageQueue(ToIntFunction<? super T> priorityOf,
+                                          Duration agingInterval) {
+        if (agingInterval.isNegative() || agingInterval.isZero()) {
+            throw new IllegalArgumentException("agingInterval must be positive");
+        }
+        this.priorityOf = priorityOf;
+        this.agingNanos = agingInterval.toNanos();
+        this.bands = new ConcurrentLinkedQueue[BANDS];
+        for (var i = 0; i < BANDS; i++) {
+            bands[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Add element to queue.
+     */
+    public void add(T element) {
+        var band = Math.max(0, Math.min(MAX_PRIORITY, priorityOf.applyAsInt(element)));
+        bands[band].offer(new Entry<>(element, System.nanoTime()));
+        var bit = 1L << band;
+        if ((nonEmptyBands.get() & bit) == 0) {
+            nonEmptyBands.getAndUpdate(bits -> bits | bit);
+        }
+        available.release();
+    }
+
+    /**
+     * Remove top element from queue.
+     *
+     * @return the element, or null if the queue is empty
+     */
+    public T poll() {
+        return available.tryAcquire() ? removeTop() : null;
+    }
+
+    /**
+     * Remove top element from queue, waiting for one if the queue is empty.
+     *
+     * @param timeout how long to wait
+     * @param unit    unit of the timeout
+     * @return the element, or null if none arrived in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return available.tryAcquire(timeout, unit) ? removeTop() : null;
+    }
+
+    /**
+     * Remove top element from queue, waiting for one as long as it takes.
+     *
+     * @return the element
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public T take() throws InterruptedException {
+        available.acquire();
+        return removeTop();
+    }
+
+    /**
+     * Check queue size.
+     */
+    public boolean isEmpty() {
+        return available.availablePermits() == 0;
+    }
+
+    /**
+     * Returns the number of elements in the queue.
+     */
+    public int size() {
+        return available.availablePermits();
+    }
+
+    /**
+     * Removes the top element. The caller holds a permit, so there is an element to remove, though
+     * it may take another look if a concurrent removal took the one it found.
+     */
+    private T removeTop() {
+        while (true) {
+            var bits = nonEmptyBands.get();
+            if (bits == 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            var band = selectBand(bits);
+            var entry = bands[band].poll();
+            if (entry != null) {
+                return entry.element;
+            }
+            clear(band);
+        }
+    }
+
+    /**
+     * Returns the band whose oldest element has the highest priority once aged, preferring the
+     * higher band on a tie. Looking at every band on every removal would cost more than the
+     * removal, so for a random sample of the removals it returns the highest band right away;
+     * under load an aged element is still taken within a few dozen removals.
+     */
+    private int selectBand(long bits) {
+        var selected = MAX_PRIORITY - Long.numberOfLeadingZeros(bits);
+        if (Long.bitCount(bits) == 1
+                || ThreadLocalRandom.current().nextInt(AGING_CHECK_PERIOD) != 0) {
+            return selected;
+        }
+        var now = System.nanoTime();
+        var selectedPriority = Long.MIN_VALUE;
+        for (var remaining = bits; remaining != 0; ) {
+            var band = MAX_PRIORITY - Long.numberOfLeadingZeros(remaining);
+            remaining &= ~(1L << band);
+            var head = bands[band].peek();
+            if (head != null) {
+                var priority = band + (now - head.enqueuedAt) / agingNanos;
+                if (priority > selectedPriority) {
+                    selected = band;
+                    selectedPriority = priority;
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Clears the bit of a band found empty. An element added meanwhile may have seen the bit still
+     * set and left it alone, so the band is looked at again after clearing.
+     */
+    private void clear(int band) {
+        var bit = 1L << band;
+        nonEmptyBands.getAndUpdate(bits -> bits & ~bit);
+        if (!bands[band].isEmpty()) {
+            nonEmptyBands.getAndUpdate(bits -> bits | bit);
+        }
+    }
+}
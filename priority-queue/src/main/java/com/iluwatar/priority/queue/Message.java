@@ -36,6 +36,10 @@ public class Message implements Comparable<Message> {
         this.priority = priority;
     }
 
+    public int getPriority() {
+        return priority;
+    }
+
     @Override
     public int compareTo(Message o) {
         return priority - o.priority;
@@ -0,0 +1,144 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.priority.queue;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention benchmark of {@link ConcurrentPriorityMessageQueue} against the binary heap of
+ * {@link PriorityMessageQueue}. The heap is not thread-safe, so it is measured behind a single
+ * lock, which is what concurrent callers of it need.
+ *
+ * <p>Usage: {@code PriorityQueueBenchmark [priorities] [millisPerRun]}. Every thread publishes a
+ * message of random priority and then receives one, over a queue holding 10,000 messages.
+ */
+@Slf4j
+public final class PriorityQueueBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+    private static final int QUEUED_MESSAGES = 10_000;
+
+    /**
+     * Minimal view of a queue used by the benchmark.
+     */
+    interface BenchmarkedQueue {
+        void add(Message message);
+
+        Message poll();
+    }
+
+    private PriorityQueueBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional number of priorities and duration of a run in milliseconds
+     */
+    public static void main(String[] args) throws InterruptedException {
+        var priorities = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        var millis = args.length > 1 ? Long.parseLong(args[1]) : 1_000L;
+
+        for (var threads : THREAD_COUNTS) {
+            var heap = new PriorityMessageQueue<>(new Message[QUEUED_MESSAGES]);
+            var lock = new Object();
+            var locked = run(new BenchmarkedQueue() {
+                @Override
+                public void add(Message message) {
+                    synchronized (lock) {
+                        heap.add(message);
+                    }
+                }
+
+                @Override
+                public Message poll() {
+                    synchronized (lock) {
+                        return heap.remove();
+                    }
+                }
+            }, priorities, threads, millis);
+
+            var banded = new ConcurrentPriorityMessageQueue<Message>(Message::getPriority,
+                    Duration.ofSeconds(1));
+            var concurrent = run(new BenchmarkedQueue() {
+                @Override
+                public void add(Message message) {
+                    banded.add(message);
+                }
+
+                @Override
+                public Message poll() {
+                    return banded.poll();
+                }
+            }, priorities, threads, millis);
+
+            LOGGER.info("threads={} PriorityMessageQueue+lock={} ops/s "
+                    + "ConcurrentPriorityMessageQueue={} ops/s", threads, locked, concurrent);
+        }
+    }
+
+    /**
+     * Runs the publish/receive pairs on the given number of threads and returns the throughput in
+     * operations per second.
+     */
+    static long run(BenchmarkedQueue queue, int priorities, int threads, long millis)
+            throws InterruptedException {
+        var random = ThreadLocalRandom.current();
+        for (var i = 0; i < QUEUED_MESSAGES; i++) {
+            queue.add(new Message("queued", random.nextInt(priorities)));
+        }
+        var operations = new LongAdder();
+        var start = new CountDownLatch(1);
+        var done = new CountDownLatch(threads);
+        var deadline = new long[1];
+        for (var i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    var threadRandom = ThreadLocalRandom.current();
+                    var count = 0L;
+                    while (System.nanoTime() < deadline[0]) {
+                        queue.add(new Message("benchmark", threadRandom.nextInt(priorities)));
+                        queue.poll();
+                        count += 2;
+                    }
+                    operations.add(count);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        deadline[0] = System.nanoTime() + millis * 1_000_000L;
+        start.countDown();
+        done.await();
+        return operations.sum() * 1_000L / millis;
+    }
+}
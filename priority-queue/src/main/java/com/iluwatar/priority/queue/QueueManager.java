@@ -23,17 +23,38 @@
 
 package com.iluwatar.priority.queue;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 /**
- * Manage priority queue.
+ * Manage priority queue. Messages may be published and received from any number of threads.
  */
 public class QueueManager {
+
+    /**
+     * How long a message waits to gain one priority level.
+     */
+    static final Duration DEFAULT_AGING_INTERVAL = Duration.ofSeconds(1);
+
     /*
        Priority message
      */
-    private final PriorityMessageQueue<Message> messagePriorityMessageQueue;
+    private final ConcurrentPriorityMessageQueue<Message> messagePriorityMessageQueue;
 
+    /**
+     * Creates a queue manager. The queue grows as needed, so the capacity is only kept for
+     * compatibility.
+     */
     public QueueManager(int initialCapacity) {
-        messagePriorityMessageQueue = new PriorityMessageQueue<>(new Message[initialCapacity]);
+        this(DEFAULT_AGING_INTERVAL);
+    }
+
+    /**
+     * Creates a queue manager whose messages gain one priority level per aging interval waited.
+     */
+    public QueueManager(Duration agingInterval) {
+        messagePriorityMessageQueue =
+                new ConcurrentPriorityMessageQueue<>(Message::getPriority, agingInterval);
     }
 
     /**
@@ -46,12 +67,20 @@ public class QueueManager {
 
     /**
      * Receive message from queue.
+     *
+     * @return the message, or null if the queue is empty
      */
     public Message receiveMessage() {
-        if (messagePriorityMessageQueue.isEmpty()) {
-            return null;
-        }
-        return messagePriorityMessageQueue.remove();
+        return messagePriorityMessageQueue.poll();
+    }
+
+    /**
+     * Receive message from queue, waiting for one to be published if the queue is empty.
+     *
+     * @return the message, or null if none was published in time
+     */
+    public Message receiveMessage(long timeout, TimeUnit unit) throws InterruptedException {
+        return messagePriorityMessageQueue.poll(timeout, unit);
     }
 
 
@@ -25,6 +25,8 @@ package com.iluwatar.priority.queue;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Message Worker.
  */
@@ -38,15 +40,14 @@ public class Worker {
     }
 
     /**
-     * Keep checking queue for message.
+     * Keep waiting on queue for message.
      */
     @SuppressWarnings("squid:S2189")
     public void run() throws Exception {
         while (true) {
-            var message = queueManager.receiveMessage();
+            var message = queueManager.receiveMessage(200, TimeUnit.MILLISECONDS);
             if (message == null) {
                 LOGGER.info("No Message ... waiting");
-                Thread.sleep(200);
             } else {
                 processMessage(message);
             }
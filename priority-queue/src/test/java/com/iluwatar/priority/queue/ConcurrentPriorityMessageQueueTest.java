@@ -0,0 +1,139 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.priority.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for order of messages in the concurrent queue
+ */
+public class ConcurrentPriorityMessageQueueTest {
+
+    private static ConcurrentPriorityMessageQueue<Integer> queue(Duration agingInterval) {
+        return new ConcurrentPriorityMessageQueue<>(value -> value / 100, agingInterval);
+    }
+
+    @Test
+    void higherPriorityFirstAndFifoWithinPriority() {
+        var queue = queue(Duration.ofHours(1));
+        queue.add(101);
+        queue.add(500);
+        queue.add(102);
+        queue.add(-7);
+        queue.add(99_999);
+
+        assertEquals(5, queue.size());
+        assertEquals(99_999, queue.poll());
+        assertEquals(500, queue.poll());
+        assertEquals(101, queue.poll());
+        assertEquals(102, queue.poll());
+        assertEquals(-7, queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void waitingMessagesAgeIntoHigherPriorities() throws InterruptedException {
+        var queue = queue(Duration.ofMillis(10));
+        queue.add(0);
+        Thread.sleep(50);
+        for (var i = 0; i < 1_000; i++) {
+            queue.add(200);
+        }
+
+        // the low priority message has waited for more than two levels, so it does not have to
+        // wait for all the fresh higher priority messages; ages are compared on 1 in 32 removals
+        var position = 0;
+        while (queue.poll() != 0) {
+            position++;
+        }
+        assertTrue(position < 1_000);
+        assertEquals(1_000 - position, queue.size());
+    }
+
+    @Test
+    void pollWithTimeoutWaitsForAMessage() throws Exception {
+        var queue = queue(Duration.ofSeconds(1));
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var taken = executor.submit(queue::take);
+            Thread.sleep(20);
+            assertFalse(taken.isDone());
+
+            queue.add(300);
+
+            assertEquals(300, taken.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void everyMessageIsReceivedExactlyOnceUnderContention() throws Exception {
+        var queue = new ConcurrentPriorityMessageQueue<Message>(Message::getPriority,
+                Duration.ofSeconds(1));
+        var received = ConcurrentHashMap.<Message>newKeySet();
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (var t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (var i = 0; i < 10_000; i++) {
+                        queue.add(new Message("message", i % 70));
+                    }
+                }));
+                futures.add(executor.submit(() -> {
+                    for (var i = 0; i < 10_000; i++) {
+                        assertTrue(received.add(queue.take()));
+                    }
+                    return null;
+                }));
+            }
+            for (var future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(40_000, received.size());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void agingIntervalMustBePositive() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConcurrentPriorityMessageQueue<Integer>(value -> value, Duration.ZERO));
+    }
+}
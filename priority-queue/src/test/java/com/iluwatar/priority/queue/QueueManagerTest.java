@@ -25,7 +25,10 @@ package com.iluwatar.priority.queue;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
  * Check queue manager
@@ -51,4 +54,13 @@ public class QueueManagerTest {
         var recivedMessage = queueManager.receiveMessage();
         assertEquals(testMessage2, recivedMessage);
     }
-}
\ No newline at end of file
+
+    @Test
+    void receiveMessageWithTimeout() throws InterruptedException {
+        var queueManager = new QueueManager(2);
+        assertNull(queueManager.receiveMessage(10, TimeUnit.MILLISECONDS));
+        var testMessage = new Message("Test Message", 1);
+        queueManager.publishMessage(testMessage);
+        assertEquals(testMessage, queueManager.receiveMessage(10, TimeUnit.MILLISECONDS));
+    }
+}
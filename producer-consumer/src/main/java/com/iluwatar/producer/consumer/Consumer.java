@@ -25,6 +25,8 @@ package com.iluwatar.producer.consumer;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+
 /**
  * Class responsible for consume the {@link Item} produced by {@link Producer}.
  */
@@ -49,4 +51,20 @@ public class Consumer {
                 item.getId(), item.getProducer());
 
     }
+
+    /**
+     * Consume all the items available in the queue, up to {@code maxItems}, taking them from the
+     * queue at once. Waits only while the queue is empty.
+     *
+     * @return the number of items consumed
+     */
+    public int consumeBatch(int maxItems) throws InterruptedException {
+        var items = new ArrayList<Item>(maxItems);
+        var count = queue.takeBatch(items, maxItems);
+        for (var item : items) {
+            LOGGER.info("Consumer [{}] consume item [{}] produced by [{}]", name,
+                    item.getId(), item.getProducer());
+        }
+        return count;
+    }
 }
@@ -23,29 +23,69 @@
 
 package com.iluwatar.producer.consumer;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Collection;
 
 /**
  * Class as a channel for {@link Producer}-{@link Consumer} exchange.
+ *
+ * <p>The items are stored in a {@link QueueBackend} and threads finding it full or empty wait
+ * according to a {@link WaitStrategy}. By default a {@link LinkedQueueBackend} of capacity 5 with
+ * {@link WaitStrategy#blocking() blocking} waits is used.
  */
 public class ItemQueue {
 
-    private final BlockingQueue<Item> queue;
+    private static final int DEFAULT_CAPACITY = 5;
+
+    private final QueueBackend backend;
+
+    private final WaitStrategy waitStrategy;
 
     public ItemQueue() {
 
-        queue = new LinkedBlockingQueue<>(5);
+        this(new LinkedQueueBackend(DEFAULT_CAPACITY), WaitStrategy.blocking());
+    }
+
+    public ItemQueue(QueueBackend backend, WaitStrategy waitStrategy) {
+        this.backend = backend;
+        this.waitStrategy = waitStrategy;
     }
 
     public void put(Item item) throws InterruptedException {
 
-        queue.put(item);
+        if (!backend.offer(item)) {
+            waitStrategy.await(() -> backend.offer(item) ? Boolean.TRUE : null);
+        }
+        waitStrategy.signal();
     }
 
     public Item take() throws InterruptedException {
 
-        return queue.take();
+        var item = backend.poll();
+        if (item == null) {
+            item = waitStrategy.await(backend::poll);
+        }
+        waitStrategy.signal();
+        return item;
+    }
+
+    /**
+     * Takes up to {@code maxItems} items at once, waiting only while the queue is empty.
+     *
+     * @param sink     the collection receiving the items, in order
+     * @param maxItems the maximum number of items to take
+     * @return the number of items taken, at least one
+     */
+    public int takeBatch(Collection<? super Item> sink, int maxItems) throws InterruptedException {
+
+        var count = backend.drainTo(sink, maxItems);
+        if (count == 0) {
+            count = waitStrategy.await(() -> {
+                var drained = backend.drainTo(sink, maxItems);
+                return drained > 0 ? drained : null;
+            });
+        }
+        waitStrategy.signal();
+        return count;
     }
 
 }
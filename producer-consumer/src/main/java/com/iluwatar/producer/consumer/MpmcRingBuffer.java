@@ -0,0 +1,139 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.producer.consumer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+
+/**
+ * Array ring buffer for any number of producers and consumers. Every slot carries a sequence number
+ * telling whose turn it is: a producer may fill slot {@code i} of lap {@code n} when its sequence is
+ * the position, and a consumer may empty it once the sequence is the position plus one. Producers
+ * and consumers claim positions with a CAS on their own padded index, so the two sides never
+ * contend with each other.
+ */
+public final class MpmcRingBuffer implements QueueBackend {
+
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final Item[] items;
+    private final long[] sequences;
+    private final int mask;
+    private final PaddedSequence head = new PaddedSequence();
+    private final PaddedSequence tail = new PaddedSequence();
+
+    /**
+     * Creates a ring buffer holding at least {@code capacity} items, rounded up to a power of two.
+     */
+    public MpmcRingBuffer(int capacity) {
+        var slots = RingBuffers.slots(capacity);
+        this.items = new Item[slots];
+        this.sequences = new long[slots];
+        this.mask = slots - 1;
+        for (var i = 0; i < slots; i++) {
+            sequences[i] = i;
+        }
+    }
+
+    @Override
+    public boolean offer(Item item) {
+        var position = tail.get();
+        while (true) {
+            var index = (int) position & mask;
+            var difference = sequence(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items[index] = item;
+                    SEQUENCES.setRelease(sequences, index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+            position = tail.get();
+        }
+    }
+
+    @Override
+    public Item poll() {
+        var position = head.get();
+        while (true) {
+            var index = (int) position & mask;
+            var difference = sequence(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    return release(index, position);
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+            position = head.get();
+        }
+    }
+
+    /**
+     * Claims the longest run of filled slots from the head with a single CAS.
+     */
+    @Override
+    public int drainTo(Collection<? super Item> sink, int maxItems) {
+        while (true) {
+            var position = head.get();
+            var count = 0;
+            while (count < maxItems && count < items.length
+                    && sequence((int) (position + count) & mask) == position + count + 1) {
+                count++;
+            }
+            if (count == 0) {
+                if (head.get() == position) {
+                    return 0;
+                }
+            } else if (head.compareAndSet(position, position + count)) {
+                for (var i = 0; i < count; i++) {
+                    sink.add(release((int) (position + i) & mask, position + i));
+                }
+                return count;
+            }
+        }
+    }
+
+    @Override
+    public int capacity() {
+        return items.length;
+    }
+
+    private long sequence(int index) {
+        return (long) SEQUENCES.getAcquire(sequences, index);
+    }
+
+    /**
+     * Takes the item out of a claimed slot and hands the slot to the producer of the next lap.
+     */
+    private Item release(int index, long position) {
+        var item = items[index];
+        items[index] = null;
+        SEQUENCES.setRelease(sequences, index, position + items.length);
+        return item;
+    }
+}
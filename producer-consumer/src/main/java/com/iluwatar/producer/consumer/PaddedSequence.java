@@ -0,0 +1,62 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.producer.consumer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A counter alone on its cache lines, so that the producer and the consumer index of a ring buffer
+ * do not invalidate each other's cache line on every update. The value sits in the middle of an
+ * array, as the layout of array elements, unlike the layout of fields, is fixed.
+ */
+final class PaddedSequence {
+
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // 8 longs are 64 bytes, the common cache line size
+    private static final int PADDING = 8;
+
+    private final long[] values = new long[2 * PADDING + 1];
+
+    long get() {
+        return (long) VALUES.getVolatile(values, PADDING);
+    }
+
+    long getAcquire() {
+        return (long) VALUES.getAcquire(values, PADDING);
+    }
+
+    long getPlain() {
+        return values[PADDING];
+    }
+
+    void setRelease(long value) {
+        VALUES.setRelease(values, PADDING, value);
+    }
+
+    boolean compareAndSet(long expected, long value) {
+        return VALUES.compareAndSet(values, PADDING, expected, value);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.producer.consumer;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking storage behind an {@link ItemQueue}. Waiting for room or for items is left to the
+ * {@link WaitStrategy} of the queue, so any backend can be combined with any strategy.
+ */
+public interface QueueBackend {
+
+    /**
+     * Inserts the item if there is room for it.
+     *
+     * @param item the item
+     * @return whether the item was inserted
+     */
+    boolean offer(Item item);
+
+    /**
+     * Removes the oldest item.
+     *
+     * @return the item, or null if the backend is empty
+     */
+    Item poll();
+
+    /**
+     * Removes up to {@code maxItems} of the oldest items and adds them to the sink, in order.
+     *
+     * @param sink     the collection receiving the items
+     * @param maxItems the maximum number of items to move
+     * @return the number of items moved
+     */
+    int drainTo(Collection<? super Item> sink, int maxItems);
+
+    /**
+     * Returns the maximum number of items the backend holds.
+     *
+     * @return the capacity
+     */
+    int capacity();
+}
@@ -0,0 +1,211 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.producer.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Throughput and latency benchmark of the {@link ItemQueue} backends and wait strategies. Producers
+ * put items as fast as they can for a fixed time, and consumers take them in batches with
+ * {@link ItemQueue#takeBatch}. The latency of an item is the time from just before its
+ * {@link ItemQueue#put} to the end of the batch taking it.
+ *
+ * <p>Usage: {@code QueueBenchmark [consumers] [capacity] [millisPerRun]}. The {@link SpscRingBuffer}
+ * only supports one producer and one consumer, so it is compared with the others in a separate
+ * one-to-one run.
+ */
+@Slf4j
+public final class QueueBenchmark {
+
+    private static final int[] PRODUCER_COUNTS = {1, 4, 16};
+    private static final int BATCH_SIZE = 64;
+    private static final int HISTOGRAM_MICROS = 10_000;
+    private static final Item POISON = new Item("poison", -1);
+
+    /**
+     * Item stamped with the time it was produced.
+     */
+    private static final class TimedItem extends Item {
+        private final long producedAt;
+
+        private TimedItem(String producer, int id, long producedAt) {
+            super(producer, id);
+            this.producedAt = producedAt;
+        }
+    }
+
+    private QueueBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional number of consumers, queue capacity and duration of a run in milliseconds
+     */
+    public static void main(String[] args) throws InterruptedException {
+        var consumers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        var capacity = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        var millis = args.length > 2 ? Long.parseLong(args[2]) : 1_000L;
+
+        var backends = new LinkedHashMap<String, IntFunction<QueueBackend>>();
+        backends.put("linked", LinkedQueueBackend::new);
+        backends.put("mpmc", MpmcRingBuffer::new);
+        var strategies = new LinkedHashMap<String, Supplier<WaitStrategy>>();
+        strategies.put("block", WaitStrategy::blocking);
+        strategies.put("spin-park", WaitStrategy::spinThenPark);
+        strategies.put("yield", WaitStrategy::yielding);
+
+        for (var producers : PRODUCER_COUNTS) {
+            runAll(backends, strategies, producers, consumers, capacity, millis);
+        }
+        backends.put("spsc", SpscRingBuffer::new);
+        runAll(backends, strategies, 1, 1, capacity, millis);
+    }
+
+    private static void runAll(Map<String, IntFunction<QueueBackend>> backends,
+                               Map<String, Supplier<WaitStrategy>> strategies,
+                               int producers, int consumers, int capacity, long millis)
+            throws InterruptedException {
+        for (var backend : backends.entrySet()) {
+            for (var strategy : strategies.entrySet()) {
+                var queue = new ItemQueue(backend.getValue().apply(capacity),
+                        strategy.getValue().get());
+                var histogram = new AtomicLongArray(HISTOGRAM_MICROS + 1);
+                var throughput = run(queue, producers, consumers, millis, histogram);
+                LOGGER.info("producers={} consumers={} {}/{}: {} items/s, p50={} us, p99={} us",
+                        producers, consumers, backend.getKey(), strategy.getKey(), throughput,
+                        percentile(histogram, 0.5), percentile(histogram, 0.99));
+            }
+        }
+    }
+
+    /**
+     * Runs the producers and consumers on the queue and returns the throughput in items per second.
+     * The latencies are recorded in the histogram, in microseconds.
+     */
+    static long run(ItemQueue queue, int producers, int consumers, long millis,
+                    AtomicLongArray histogram) throws InterruptedException {
+        var consumed = new LongAdder();
+        var start = new CountDownLatch(1);
+        var producersDone = new CountDownLatch(producers);
+        var consumersDone = new CountDownLatch(consumers);
+        var deadline = System.nanoTime() + millis * 1_000_000L;
+        for (var i = 0; i < producers; i++) {
+            var name = "Producer_" + i;
+            new Thread(() -> {
+                try {
+                    start.await();
+                    var id = 0;
+                    while (System.nanoTime() < deadline) {
+                        queue.put(new TimedItem(name, id++, System.nanoTime()));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    producersDone.countDown();
+                }
+            }).start();
+        }
+        for (var i = 0; i < consumers; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    consumed.add(consume(queue, histogram));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    consumersDone.countDown();
+                }
+            }).start();
+        }
+        var begin = System.nanoTime();
+        start.countDown();
+        producersDone.await();
+        for (var i = 0; i < consumers; i++) {
+            queue.put(POISON);
+        }
+        consumersDone.await();
+        return consumed.sum() * 1_000_000_000L / (System.nanoTime() - begin);
+    }
+
+    /**
+     * Takes batches until a poison item shows up, and passes on the poison items meant for the
+     * other consumers.
+     */
+    private static long consume(ItemQueue queue, AtomicLongArray histogram)
+            throws InterruptedException {
+        var batch = new ArrayList<Item>(BATCH_SIZE);
+        var latencies = new long[HISTOGRAM_MICROS + 1];
+        var consumed = 0L;
+        var poisons = 0;
+        while (poisons == 0) {
+            queue.takeBatch(batch, BATCH_SIZE);
+            var now = System.nanoTime();
+            for (var item : batch) {
+                if (item == POISON) {
+                    poisons++;
+                } else {
+                    var micros = (now - ((TimedItem) item).producedAt) / 1_000L;
+                    latencies[(int) Math.min(micros, HISTOGRAM_MICROS)]++;
+                    consumed++;
+                }
+            }
+            batch.clear();
+        }
+        for (var i = 1; i < poisons; i++) {
+            queue.put(POISON);
+        }
+        for (var i = 0; i < latencies.length; i++) {
+            if (latencies[i] > 0) {
+                histogram.addAndGet(i, latencies[i]);
+            }
+        }
+        return consumed;
+    }
+
+    private static String percentile(AtomicLongArray histogram, double fraction) {
+        var total = 0L;
+        for (var i = 0; i < histogram.length(); i++) {
+            total += histogram.get(i);
+        }
+        var rank = (long) Math.ceil(total * fraction);
+        var seen = 0L;
+        for (var i = 0; i < histogram.length(); i++) {
+            seen += histogram.get(i);
+            if (seen >= rank && seen > 0) {
+                return i < HISTOGRAM_MICROS ? String.valueOf(i) : ">" + HISTOGRAM_MICROS;
+            }
+        }
+        return "-";
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.producer.consumer;
+
+import java.util.Collection;
+
+/**
+ * Array ring buffer for exactly one producer thread and one consumer thread. Each side owns its
+ * index and only publishes it with a release store, and keeps a cached copy of the other side's
+ * index, so that most operations touch no shared cache line besides the slot itself.
+ *
+ * <p>Using it with more than one producer or more than one consumer loses or duplicates items.
+ */
+public final class SpscRingBuffer implements QueueBackend {
+
+    private final Item[] items;
+    private final int mask;
+    private final PaddedSequence head = new PaddedSequence();
+    private final PaddedSequence tail = new PaddedSequence();
+
+    // only read and written by the producer
+    private long cachedHead;
+
+    // only read and written by the consumer
+    private long cachedTail;
+
+    /**
+     * Creates a ring buffer holding at least {@code capacity} items, rounded up to a power of two.
+     */
+    public SpscRingBuffer(int capacity) {
+        this.items = new Item[RingBuffers.slots(capacity)];
+        this.mask = items.length - 1;
+    }
+
+    @Override
+    public boolean offer(Item item) {
+        var t = tail.getPlain();
+        if (t - cachedHead >= items.length) {
+            cachedHead = head.getAcquire();
+            if (t - cachedHead >= items.length) {
+                return false;
+            }
+        }
+        items[(int) t & mask] = item;
+        tail.setRelease(t + 1);
+        return true;
+    }
+
+    @Override
+    public Item poll() {
+        var h = head.getPlain();
+        if (h >= cachedTail) {
+            cachedTail = tail.getAcquire();
+            if (h >= cachedTail) {
+                return null;
+            }
+        }
+        var index = (int) h & mask;
+        var item = items[index];
+        items[index] = null;
+        head.setRelease(h + 1);
+        return item;
+    }
+
+    @Override
+    public int drainTo(Collection<? super Item> sink, int maxItems) {
+        var h = head.getPlain();
+        if (h + maxItems > cachedTail) {
+            cachedTail = tail.getAcquire();
+        }
+        var count = (int) Math.min(maxItems, cachedTail - h);
+        for (var i = 0; i < count; i++) {
+            var index = (int) (h + i) & mask;
+            sink.add(items[index]);
+            items[index] = null;
+        }
+        if (count > 0) {
+            head.setRelease(h + count);
+        }
+        return count;
+    }
+
+    @Override
+    public int capacity() {
+        return items.length;
+    }
+}
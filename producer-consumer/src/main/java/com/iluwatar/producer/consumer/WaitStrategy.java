@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.producer.consumer;
+
+import java.util.function.Supplier;
+
+/**
+ * How a thread waits for an {@link ItemQueue} to have room or items. The backend of the queue never
+ * blocks, so waiting means retrying an attempt until it succeeds.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Retries the attempt until it returns a result.
+     *
+     * @param attempt the attempt, returning null while the thread has to wait
+     * @param <T>     type of result
+     * @return the first result of the attempt
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    <T> T await(Supplier<T> attempt) throws InterruptedException;
+
+    /**
+     * Tells the waiting threads that the queue changed. Called after every successful insertion and
+     * removal.
+     */
+    void signal();
+
+    /**
+     * Returns a strategy parking waiting threads on a condition until they are signalled. Waiting
+     * costs no CPU, but every hand-off to a waiting thread goes through a lock.
+     *
+     * @return a new strategy for one queue
+     */
+    static WaitStrategy blocking() {
+        return new BlockingWaitStrategy();
+    }
+
+    /**
+     * Returns a strategy spinning, then yielding, then parking for short periods. Signalling is
+     * free, and a thread that has to wait a long time soon stops burning CPU.
+     *
+     * @return a new strategy for one queue
+     */
+    static WaitStrategy spinThenPark() {
+        return new SpinThenParkWaitStrategy();
+    }
+
+    /**
+     * Returns a strategy spinning briefly and then yielding the processor between attempts. It has
+     * the lowest hand-off latency as long as there are more cores than busy threads.
+     *
+     * @return a new strategy for one queue
+     */
+    static WaitStrategy yielding() {
+        return new YieldingWaitStrategy();
+    }
+}
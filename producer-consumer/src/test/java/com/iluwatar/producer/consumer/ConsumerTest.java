@@ -25,6 +25,7 @@ package com.iluwatar.producer.consumer;
 
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 /**
@@ -53,4 +54,20 @@ public class ConsumerTest {
         verify(queue, times(ITEM_COUNT)).take();
     }
 
+    @Test
+    void testConsumeBatch() throws Exception {
+        final var queue = spy(new ItemQueue());
+        for (var id = 0; id < ITEM_COUNT; id++) {
+            queue.put(new Item("producer", id));
+        }
+
+        reset(queue); // Don't count the preparation above as interactions with the queue
+        final var consumer = new Consumer("consumer", queue);
+
+        assertEquals(ITEM_COUNT, consumer.consumeBatch(ITEM_COUNT + 1));
+
+        verify(queue, times(1)).takeBatch(anyCollection(), eq(ITEM_COUNT + 1));
+        verify(queue, never()).take();
+    }
+
 }
@@ -0,0 +1,194 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.producer.consumer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@link ItemQueue} with every {@link QueueBackend} and {@link WaitStrategy}.
+ */
+class ItemQueueTest {
+
+    private static final List<IntFunction<QueueBackend>> MULTI_PRODUCER_BACKENDS =
+            List.of(LinkedQueueBackend::new, MpmcRingBuffer::new);
+
+    private static final List<Supplier<WaitStrategy>> STRATEGIES =
+            List.of(WaitStrategy::blocking, WaitStrategy::spinThenPark, WaitStrategy::yielding);
+
+    @Test
+    void backendsAreBoundedAndFifo() {
+        for (var factory : List.<IntFunction<QueueBackend>>of(LinkedQueueBackend::new,
+                MpmcRingBuffer::new, SpscRingBuffer::new)) {
+            var backend = factory.apply(4);
+            for (var id = 0; id < 4; id++) {
+                assertTrue(backend.offer(new Item("producer", id)));
+            }
+            assertFalse(backend.offer(new Item("producer", 4)));
+
+            assertEquals(0, backend.poll().getId());
+            var drained = new ArrayList<Item>();
+            assertEquals(2, backend.drainTo(drained, 2));
+            assertEquals(1, drained.get(0).getId());
+            assertEquals(2, drained.get(1).getId());
+            assertEquals(3, backend.poll().getId());
+            assertNull(backend.poll());
+            assertEquals(0, backend.drainTo(drained, 2));
+        }
+    }
+
+    @Test
+    void ringBufferCapacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(2, new MpmcRingBuffer(1).capacity());
+        assertEquals(8, new MpmcRingBuffer(5).capacity());
+        assertEquals(8, new SpscRingBuffer(8).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new SpscRingBuffer(0));
+    }
+
+    @Test
+    void everyItemIsTakenExactlyOnceByConcurrentProducersAndConsumers() throws Exception {
+        for (var backend : MULTI_PRODUCER_BACKENDS) {
+            for (var strategy : STRATEGIES) {
+                transfer(new ItemQueue(backend.apply(8), strategy.get()), 4, 4, 5_000);
+            }
+        }
+        for (var strategy : STRATEGIES) {
+            transfer(new ItemQueue(new SpscRingBuffer(8), strategy.get()), 1, 1, 20_000);
+        }
+    }
+
+    @Test
+    void takeWaitsForAnItem() throws Exception {
+        for (var strategy : STRATEGIES) {
+            var queue = new ItemQueue(new MpmcRingBuffer(2), strategy.get());
+            var executor = Executors.newSingleThreadExecutor();
+            try {
+                var taken = executor.submit(queue::take);
+                Thread.sleep(20);
+                assertFalse(taken.isDone());
+
+                queue.put(new Item("producer", 42));
+
+                assertEquals(42, taken.get(5, TimeUnit.SECONDS).getId());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void putWaitsForRoomAndIsInterruptible() throws Exception {
+        for (var strategy : STRATEGIES) {
+            var queue = new ItemQueue(new MpmcRingBuffer(2), strategy.get());
+            queue.put(new Item("producer", 0));
+            queue.put(new Item("producer", 1));
+            var executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> put = executor.submit(() -> {
+                    queue.put(new Item("producer", 2));
+                    return null;
+                });
+                Thread.sleep(20);
+                assertFalse(put.isDone());
+
+                executor.shutdownNow();
+
+                assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+                assertEquals(0, queue.take().getId());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static void transfer(ItemQueue queue, int producers, int consumers, int itemsPerProducer)
+            throws Exception {
+        var total = producers * itemsPerProducer;
+        var taken = ConcurrentHashMap.<String>newKeySet();
+        var finished = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (var p = 0; p < producers; p++) {
+                var name = "producer" + p;
+                futures.add(executor.submit(() -> {
+                    for (var id = 0; id < itemsPerProducer; id++) {
+                        queue.put(new Item(name, id));
+                    }
+                    return null;
+                }));
+            }
+            for (var c = 0; c < consumers; c++) {
+                futures.add(executor.submit(() -> {
+                    var batch = new ArrayList<Item>();
+                    while (taken.size() < total) {
+                        batch.clear();
+                        if (queue.takeBatch(batch, 16) != batch.size()) {
+                            fail("takeBatch miscounted the items taken");
+                        }
+                        var markers = 0;
+                        for (var item : batch) {
+                            if (item.getId() < 0) {
+                                markers++;
+                            } else {
+                                assertTrue(taken.add(item.getProducer() + "/" + item.getId()));
+                            }
+                        }
+                        if (markers > 0) {
+                            // hand the markers meant for the other consumers back
+                            for (var i = 1; i < markers; i++) {
+                                queue.put(new Item("done", -1));
+                            }
+                            return null;
+                        }
+                        if (taken.size() == total && finished.compareAndSet(false, true)) {
+                            for (var i = 0; i < consumers; i++) {
+                                queue.put(new Item("done", -1));
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (var future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(total, taken.size());
+    }
+}
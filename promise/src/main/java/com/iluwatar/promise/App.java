@@ -61,11 +61,9 @@ public class App {
 
     private static final String DEFAULT_URL =
             "https://raw.githubusercontent.com/iluwatar/java-design-patterns/master/promise/README.md";
-    private final ExecutorService executor;
     private final CountDownLatch stopLatch;
 
     private App() {
-        executor = Executors.newFixedThreadPool(2);
         stopLatch = new CountDownLatch(2);
     }
 
@@ -143,12 +141,13 @@ public class App {
 
     /*
      * Return a promise to provide the local absolute path of the file downloaded in background.
-     * This is an async method and does not wait until the file is downloaded.
+     * This is an async method and does not wait until the file is downloaded. The download blocks
+     * on I/O, so it runs in the default executor, which uses a virtual thread when available.
      */
     private Promise<String> download(String urlString) {
         return new Promise<String>()
                 .fulfillInAsync(
-                        () -> Utility.downloadFile(urlString), executor)
+                        () -> Utility.downloadFile(urlString))
                 .onError(
                         throwable -> {
                             throwable.printStackTrace();
@@ -159,7 +158,6 @@ public class App {
 
     private void stop() throws InterruptedException {
         stopLatch.await();
-        executor.shutdownNow();
     }
 
     private void taskCompleted() {
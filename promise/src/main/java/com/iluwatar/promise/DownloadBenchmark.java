@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.promise;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of many concurrent blocking downloads, comparing the {@link Promise#defaultExecutor()
+ * default executor} with a fixed pool of platform threads like the one {@link App} used to have.
+ *
+ * <p>The remote server is stood in for by a local HTTP server answering every request after a
+ * fixed latency. The latency is served from a timer rather than a sleeping thread, so the server
+ * itself does not limit concurrency and only the client side executor is measured.
+ *
+ * <p>Usage: {@code DownloadBenchmark [downloads] [latencyMillis] [fixedPoolSize]}.
+ */
+@Slf4j
+public final class DownloadBenchmark {
+
+    private static final byte[] CONTENT = "Lorem ipsum dolor sit amet\n".repeat(64)
+            .getBytes(StandardCharsets.UTF_8);
+
+    private DownloadBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional number of downloads, server latency and size of the fixed pool
+     */
+    public static void main(String[] args) throws IOException, InterruptedException,
+            ExecutionException {
+        var downloads = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        var latency = args.length > 1 ? Long.parseLong(args[1]) : 50L;
+        var poolSize = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        System.setProperty("http.maxConnections", String.valueOf(downloads));
+        // every download is logged, which would otherwise dominate the measurement
+        ((Logger) LoggerFactory.getLogger(Utility.class)).setLevel(Level.WARN);
+
+        var timer = Executors.newSingleThreadScheduledExecutor();
+        var server = start(timer, latency, downloads);
+        var url = "http://localhost:" + server.getAddress().getPort() + "/file.txt";
+        var fixedPool = Executors.newFixedThreadPool(poolSize);
+        try {
+            var fixed = run(url, downloads, fixedPool);
+            var dflt = run(url, downloads, Promise.defaultExecutor());
+            var executorName = Promise.defaultExecutor().getClass().getSimpleName();
+            LOGGER.info("{} downloads, {} ms latency: fixed pool of {}={} ms, {}={} ms",
+                    downloads, latency, poolSize, fixed, executorName, dflt);
+        } finally {
+            fixedPool.shutdownNow();
+            server.stop(0);
+            ((ExecutorService) server.getExecutor()).shutdownNow();
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Downloads the file concurrently the given number of times and returns the elapsed time in
+     * milliseconds.
+     */
+    static long run(String url, int downloads, Executor executor)
+            throws InterruptedException, ExecutionException {
+        var start = System.nanoTime();
+        var promises = new ArrayList<Promise<Boolean>>(downloads);
+        for (var i = 0; i < downloads; i++) {
+            promises.add(new Promise<String>()
+                    .fulfillInAsync(() -> Utility.downloadFile(url), executor)
+                    .thenApply(path -> new File(path).delete()));
+        }
+        Promise.allOf(promises.toArray(new Promise<?>[0])).get();
+        return (System.nanoTime() - start) / 1_000_000L;
+    }
+
+    private static HttpServer start(ScheduledExecutorService timer, long latency, int backlog)
+            throws IOException {
+        var server = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), backlog);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/", exchange -> timer.schedule(() -> {
+            try {
+                exchange.sendResponseHeaders(200, CONTENT.length);
+                exchange.getResponseBody().write(CONTENT);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to serve download", e);
+            } finally {
+                exchange.close();
+            }
+        }, latency, TimeUnit.MILLISECONDS));
+        server.start();
+        return server;
+    }
+}
@@ -23,9 +23,19 @@
 
 package com.iluwatar.promise;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -36,12 +46,70 @@ import java.util.function.Function;
  * the final value, the asynchronous method returns a promise of having a value at some point in the
  * future.
  *
+ * <p>Any number of dependent actions and error handlers can be attached to a promise. They run on
+ * the thread completing the promise, in the order they were attached, or immediately on the calling
+ * thread if the promise is already completed. The {@code *Async} variants hand the action over to
+ * an executor instead, so that a slow action does not hold up the thread completing the promise.
+ *
  * @param <T> type of result.
  */
 public class Promise<T> extends PromiseSupport<T> {
 
-    private Runnable fulfillmentAction;
-    private Consumer<? super Throwable> exceptionHandler;
+    private static final VarHandle RUNNER;
+
+    static {
+        try {
+            RUNNER = MethodHandles.lookup().findVarHandle(Promise.class, "runner", Thread.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Holds the single daemon thread firing the timeouts of all promises.
+     */
+    private static final class Delayer {
+        private static final ScheduledThreadPoolExecutor EXECUTOR;
+
+        static {
+            EXECUTOR = new ScheduledThreadPoolExecutor(1, runnable -> {
+                var thread = new Thread(runnable, "promise-delayer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            EXECUTOR.setRemoveOnCancelPolicy(true);
+        }
+    }
+
+    /**
+     * Holds the executor used when no executor is given. It starts a virtual thread per task when the
+     * runtime supports them, and falls back to a bounded pool of platform threads otherwise.
+     */
+    private static final class DefaultExecutor {
+        private static final int PLATFORM_POOL_SIZE = 256;
+        private static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            try {
+                var factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (Executor) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                var counter = new AtomicInteger();
+                var pool = new ThreadPoolExecutor(PLATFORM_POOL_SIZE, PLATFORM_POOL_SIZE,
+                        60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                            var name = "promise-async-" + counter.incrementAndGet();
+                            var thread = new Thread(runnable, name);
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+                pool.allowCoreThreadTimeOut(true);
+                return pool;
+            }
+        }
+    }
+
+    // the thread running the task of fulfillInAsync, so that cancel can interrupt it
+    private volatile Thread runner;
 
     /**
      * Creates a promise that will be fulfilled in future.
@@ -51,18 +119,19 @@ public class Promise<T> extends PromiseSupport<T> {
     }
 
     /**
-     * Fulfills the promise with the provided value.
+     * Fulfills the promise with the provided value. Only the first fulfillment of a promise takes
+     * effect.
      *
      * @param value the fulfilled value that can be accessed using {@link #get()}.
      */
     @Override
     public void fulfill(T value) {
         super.fulfill(value);
-        postFulfillment();
     }
 
     /**
-     * Fulfills the promise with exception due to error in execution.
+     * Fulfills the promise with exception due to error in execution. Only the first fulfillment of a
+     * promise takes effect.
      *
      * @param exception the exception will be wrapped in {@link ExecutionException} when accessing the
      *                  value using {@link #get()}.
@@ -70,27 +139,31 @@ public class Promise<T> extends PromiseSupport<T> {
     @Override
     public void fulfillExceptionally(Exception exception) {
         super.fulfillExceptionally(exception);
-        handleException(exception);
-        postFulfillment();
     }
 
-    private void handleException(Exception exception) {
-        if (exceptionHandler == null) {
-            return;
-        }
-        exceptionHandler.accept(exception);
-    }
-
-    private void postFulfillment() {
-        if (fulfillmentAction == null) {
-            return;
+    /**
+     * Cancels the promise, which completes its dependent promises exceptionally as well.
+     *
+     * @param mayInterruptIfRunning whether the thread running the task of
+     *                              {@link #fulfillInAsync(Callable, Executor)} is interrupted
+     * @return whether this call cancelled the promise
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        var cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled && mayInterruptIfRunning) {
+            var thread = (Thread) RUNNER.getAndSet(this, null);
+            if (thread != null) {
+                thread.interrupt();
+            }
         }
-        fulfillmentAction.run();
+        return cancelled;
     }
 
     /**
      * Executes the task using the executor in other thread and fulfills the promise returned once the
-     * task completes either successfully or with an exception.
+     * task completes either successfully or with an exception. The task is skipped if the promise
+     * is done before it starts, or while a task of an earlier call is still running for it.
      *
      * @param task     the task that will provide the value to fulfill the promise.
      * @param executor the executor in which the task should be run.
@@ -98,15 +171,51 @@ public class Promise<T> extends PromiseSupport<T> {
      */
     public Promise<T> fulfillInAsync(final Callable<T> task, Executor executor) {
         executor.execute(() -> {
+            if (isDone()) {
+                return;
+            }
+            var thread = Thread.currentThread();
+            if (!RUNNER.compareAndSet(this, null, thread)) {
+                return;
+            }
             try {
                 fulfill(task.call());
             } catch (Exception ex) {
                 fulfillExceptionally(ex);
+            } finally {
+                if (!RUNNER.compareAndSet(this, thread, null)) {
+                    // only cancel takes the runner away, it is about to interrupt this thread,
+                    // which must not leak to the next task
+                    while (!Thread.interrupted()) {
+                        Thread.onSpinWait();
+                    }
+                }
             }
         });
         return this;
     }
 
+    /**
+     * Executes the task using the {@link #defaultExecutor() default executor}.
+     *
+     * @param task the task that will provide the value to fulfill the promise.
+     * @return a promise that represents the result of running the task provided.
+     */
+    public Promise<T> fulfillInAsync(final Callable<T> task) {
+        return fulfillInAsync(task, DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * Returns the executor used by the methods not taking one. It runs every task in a new virtual
+     * thread when the runtime supports them, so blocking tasks such as downloads are cheap, and in a
+     * pool of daemon platform threads otherwise.
+     *
+     * @return the default executor
+     */
+    public static Executor defaultExecutor() {
+        return DefaultExecutor.INSTANCE;
+    }
+
     /**
      * Returns a new promise that, when this promise is fulfilled normally, is fulfilled with result
      * of this promise as argument to the action provided.
@@ -116,19 +225,47 @@ public class Promise<T> extends PromiseSupport<T> {
      */
     public Promise<Void> thenAccept(Consumer<? super T> action) {
         var dest = new Promise<Void>();
-        fulfillmentAction = new ConsumeAction(this, dest, action);
+        onCompletion(new ConsumeAction(this, dest, action));
+        return dest;
+    }
+
+    /**
+     * Like {@link #thenAccept(Consumer)}, but the action runs in the default executor.
+     *
+     * @param action action to be executed.
+     * @return a new promise.
+     */
+    public Promise<Void> thenAcceptAsync(Consumer<? super T> action) {
+        return thenAcceptAsync(action, DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * Like {@link #thenAccept(Consumer)}, but the action runs in the executor provided.
+     *
+     * @param action   action to be executed.
+     * @param executor the executor in which the action should be run.
+     * @return a new promise.
+     */
+    public Promise<Void> thenAcceptAsync(Consumer<? super T> action, Executor executor) {
+        var dest = new Promise<Void>();
+        onCompletion(async(new ConsumeAction(this, dest, action), dest, executor));
         return dest;
     }
 
     /**
-     * Set the exception handler on this promise.
+     * Adds an exception handler to this promise, called if it is fulfilled exceptionally.
      *
      * @param exceptionHandler a consumer that will handle the exception occurred while fulfilling the
      *                         promise.
      * @return this
      */
     public Promise<T> onError(Consumer<? super Throwable> exceptionHandler) {
-        this.exceptionHandler = exceptionHandler;
+        onCompletion(() -> {
+            var exception = failure();
+            if (exception != null) {
+                exceptionHandler.accept(exception);
+            }
+        });
         return this;
     }
 
@@ -141,10 +278,159 @@ public class Promise<T> extends PromiseSupport<T> {
      */
     public <V> Promise<V> thenApply(Function<? super T, V> func) {
         Promise<V> dest = new Promise<>();
-        fulfillmentAction = new TransformAction<>(this, dest, func);
+        onCompletion(new TransformAction<>(this, dest, func));
+        return dest;
+    }
+
+    /**
+     * Like {@link #thenApply(Function)}, but the function runs in the default executor.
+     *
+     * @param func function to be executed.
+     * @return a new promise.
+     */
+    public <V> Promise<V> thenApplyAsync(Function<? super T, V> func) {
+        return thenApplyAsync(func, DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * Like {@link #thenApply(Function)}, but the function runs in the executor provided.
+     *
+     * @param func     function to be executed.
+     * @param executor the executor in which the function should be run.
+     * @return a new promise.
+     */
+    public <V> Promise<V> thenApplyAsync(Function<? super T, V> func, Executor executor) {
+        Promise<V> dest = new Promise<>();
+        onCompletion(async(new TransformAction<>(this, dest, func), dest, executor));
+        return dest;
+    }
+
+    /**
+     * Returns a new promise that, when this promise is fulfilled normally, is fulfilled with the
+     * outcome of the promise returned by the function provided.
+     *
+     * @param func function returning the next promise.
+     * @return a new promise.
+     */
+    public <V> Promise<V> thenCompose(Function<? super T, ? extends Promise<V>> func) {
+        Promise<V> dest = new Promise<>();
+        onCompletion(new ComposeAction<>(this, dest, func));
+        return dest;
+    }
+
+    /**
+     * Like {@link #thenCompose(Function)}, but the function runs in the default executor.
+     *
+     * @param func function returning the next promise.
+     * @return a new promise.
+     */
+    public <V> Promise<V> thenComposeAsync(Function<? super T, ? extends Promise<V>> func) {
+        return thenComposeAsync(func, DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * Like {@link #thenCompose(Function)}, but the function runs in the executor provided.
+     *
+     * @param func     function returning the next promise.
+     * @param executor the executor in which the function should be run.
+     * @return a new promise.
+     */
+    public <V> Promise<V> thenComposeAsync(Function<? super T, ? extends Promise<V>> func,
+                                           Executor executor) {
+        Promise<V> dest = new Promise<>();
+        onCompletion(async(new ComposeAction<>(this, dest, func), dest, executor));
+        return dest;
+    }
+
+    /**
+     * Fulfills this promise exceptionally with a {@link TimeoutException} if it is not fulfilled
+     * within the timeout.
+     *
+     * @param timeout the timeout
+     * @param unit    the unit of the timeout
+     * @return this
+     */
+    public Promise<T> orTimeout(long timeout, TimeUnit unit) {
+        if (!isDone()) {
+            var timer = Delayer.EXECUTOR.schedule(
+                    () -> completeExceptionally(new TimeoutException()), timeout, unit);
+            onCompletion(() -> timer.cancel(false));
+        }
+        return this;
+    }
+
+    /**
+     * Fulfills this promise with the value if it is not fulfilled within the timeout.
+     *
+     * @param value   the value
+     * @param timeout the timeout
+     * @param unit    the unit of the timeout
+     * @return this
+     */
+    public Promise<T> completeOnTimeout(T value, long timeout, TimeUnit unit) {
+        if (!isDone()) {
+            var timer = Delayer.EXECUTOR.schedule(() -> fulfill(value), timeout, unit);
+            onCompletion(() -> timer.cancel(false));
+        }
+        return this;
+    }
+
+    /**
+     * Returns a new promise that is fulfilled once all the promises are fulfilled normally, or
+     * exceptionally as soon as one of them is.
+     *
+     * @param promises the promises
+     * @return a new promise.
+     */
+    public static Promise<Void> allOf(Promise<?>... promises) {
+        var dest = new Promise<Void>();
+        if (promises.length == 0) {
+            dest.fulfill(null);
+            return dest;
+        }
+        var remaining = new AtomicInteger(promises.length);
+        for (var promise : promises) {
+            promise.onCompletion(() -> {
+                var exception = promise.failure();
+                if (exception != null) {
+                    dest.completeExceptionally(exception);
+                } else if (remaining.decrementAndGet() == 0) {
+                    dest.fulfill(null);
+                }
+            });
+        }
+        return dest;
+    }
+
+    /**
+     * Returns a new promise that is fulfilled with the outcome of the first of the promises to be
+     * fulfilled.
+     *
+     * @param promises the promises
+     * @return a new promise.
+     */
+    public static Promise<Object> anyOf(Promise<?>... promises) {
+        var dest = new Promise<Object>();
+        for (var promise : promises) {
+            promise.onCompletion(() -> dest.completeWith(promise));
+        }
         return dest;
     }
 
+    /**
+     * Wraps the action so that it is submitted to the executor, failing the destination promise if
+     * the executor rejects it.
+     */
+    private static Runnable async(Runnable action, PromiseSupport<?> dest, Executor executor) {
+        return () -> {
+            try {
+                executor.execute(action);
+            } catch (RejectedExecutionException e) {
+                dest.completeExceptionally(e);
+            }
+        };
+    }
+
     /**
      * Accesses the value from source promise and calls the consumer, then fulfills the destination
      * promise.
@@ -163,11 +449,15 @@ public class Promise<T> extends PromiseSupport<T> {
 
         @Override
         public void run() {
+            if (src.failure() != null) {
+                dest.completeWith(src);
+                return;
+            }
             try {
-                action.accept(src.get());
+                action.accept(src.value());
                 dest.fulfill(null);
             } catch (Throwable throwable) {
-                dest.fulfillExceptionally((Exception) throwable.getCause());
+                dest.completeExceptionally(throwable);
             }
         }
     }
@@ -190,11 +480,47 @@ public class Promise<T> extends PromiseSupport<T> {
 
         @Override
         public void run() {
+            if (src.failure() != null) {
+                dest.completeWith(src);
+                return;
+            }
+            try {
+                dest.fulfill(func.apply(src.value()));
+            } catch (Throwable throwable) {
+                dest.completeExceptionally(throwable);
+            }
+        }
+    }
+
+    /**
+     * Accesses the value from source promise, then fulfills the destination promise with the outcome
+     * of the promise the function returns for it.
+     */
+    private class ComposeAction<V> implements Runnable {
+
+        private final Promise<T> src;
+        private final Promise<V> dest;
+        private final Function<? super T, ? extends Promise<V>> func;
+
+        private ComposeAction(Promise<T> src, Promise<V> dest,
+                              Function<? super T, ? extends Promise<V>> func) {
+            this.src = src;
+            this.dest = dest;
+            this.func = func;
+        }
+
+        @Override
+        public void run() {
+            if (src.failure() != null) {
+                dest.completeWith(src);
+                return;
+            }
             try {
-                dest.fulfill(func.apply(src.get()));
+                var next = func.apply(src.value());
+                next.onCompletion(() -> dest.completeWith(next));
             } catch (Throwable throwable) {
-                dest.fulfillExceptionally((Exception) throwable.getCause());
+                dest.completeExceptionally(throwable);
             }
         }
     }
-}
\ No newline at end of file
+}
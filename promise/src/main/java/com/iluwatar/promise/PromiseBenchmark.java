@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.promise;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Single-threaded benchmark comparing {@link Promise} with {@link CompletableFuture} on the two
+ * shapes of dependency graph: a long chain of transformations, and many dependents of one source.
+ *
+ * <p>Usage: {@code PromiseBenchmark [size] [rounds]}. Every round builds the graph, completes the
+ * source and waits for the last dependent; the best round is reported.
+ */
+@Slf4j
+public final class PromiseBenchmark {
+
+    private PromiseBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional graph size and number of rounds
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        var size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        var rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        var promiseChain = Long.MAX_VALUE;
+        var futureChain = Long.MAX_VALUE;
+        var promiseFanOut = Long.MAX_VALUE;
+        var futureFanOut = Long.MAX_VALUE;
+        for (var round = 0; round < rounds; round++) {
+            promiseChain = Math.min(promiseChain, promiseChain(size));
+            futureChain = Math.min(futureChain, futureChain(size));
+            promiseFanOut = Math.min(promiseFanOut, promiseFanOut(size));
+            futureFanOut = Math.min(futureFanOut, futureFanOut(size));
+        }
+        LOGGER.info("chain of {}: Promise={} us CompletableFuture={} us",
+                size, promiseChain / 1_000, futureChain / 1_000);
+        LOGGER.info("fan-out of {}: Promise={} us CompletableFuture={} us",
+                size, promiseFanOut / 1_000, futureFanOut / 1_000);
+    }
+
+    static long promiseChain(int depth) throws InterruptedException, ExecutionException {
+        var start = System.nanoTime();
+        var source = new Promise<Integer>();
+        Promise<Integer> last = source;
+        for (var i = 0; i < depth; i++) {
+            last = last.thenApply(value -> value + 1);
+        }
+        source.fulfill(0);
+        check(depth, last.get());
+        return System.nanoTime() - start;
+    }
+
+    static long futureChain(int depth) throws InterruptedException, ExecutionException {
+        var start = System.nanoTime();
+        var source = new CompletableFuture<Integer>();
+        CompletableFuture<Integer> last = source;
+        for (var i = 0; i < depth; i++) {
+            last = last.thenApply(value -> value + 1);
+        }
+        source.complete(0);
+        check(depth, last.get());
+        return System.nanoTime() - start;
+    }
+
+    static long promiseFanOut(int width) throws InterruptedException, ExecutionException {
+        var start = System.nanoTime();
+        var source = new Promise<Integer>();
+        var dependents = new ArrayList<Promise<Integer>>(width);
+        for (var i = 0; i < width; i++) {
+            dependents.add(source.thenApply(value -> value + 1));
+        }
+        source.fulfill(0);
+        var sum = 0;
+        for (var dependent : dependents) {
+            sum += dependent.get();
+        }
+        check(width, sum);
+        return System.nanoTime() - start;
+    }
+
+    static long futureFanOut(int width) throws InterruptedException, ExecutionException {
+        var start = System.nanoTime();
+        var source = new CompletableFuture<Integer>();
+        var dependents = new ArrayList<CompletableFuture<Integer>>(width);
+        for (var i = 0; i < width; i++) {
+            dependents.add(source.thenApply(value -> value + 1));
+        }
+        source.complete(0);
+        var sum = 0;
+        for (var dependent : dependents) {
+            sum += dependent.get();
+        }
+        check(width, sum);
+        return System.nanoTime() - start;
+    }
+
+    private static void check(int expected, int actual) {
+        if (expected != actual) {
+            throw new IllegalStateException("expected " + expected + " but was " + actual);
+        }
+    }
+}
@@ -26,92 +26,323 @@ package com.iluwatar.promise;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * A really simplified implementation of future that allows completing it successfully with a value
  * or exceptionally with an exception.
+ *
+ * <p>The outcome is published with a single compare-and-set, so only the first completion wins.
+ * Everything that waits for the outcome, dependent actions as well as threads blocked in
+ * {@link #get()}, is pushed onto a lock-free stack. Completing the future closes the stack and runs
+ * its entries in the order they were pushed; entries pushed after that run immediately. Actions
+ * completing further futures are queued and run one after the other by the outermost completion,
+ * so long chains do not grow the call stack.
+ *
+ * <p>A thread that stops waiting, because it timed out or was interrupted, clears its entry and
+ * unlinks the cleared entries from the stack. Entries are only ever pushed on top, so unlinking
+ * the ones below never loses another entry, at worst a cleared one is left for the next sweep.
  */
 class PromiseSupport<T> implements Future<T> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PromiseSupport.class);
 
-    private static final int RUNNING = 1;
-    private static final int FAILED = 2;
-    private static final int COMPLETED = 3;
+    /**
+     * Outcome of a future fulfilled with null.
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    /**
+     * Marks the stack of a completed future.
+     */
+    private static final Node CLOSED = new Node(null);
+
+    /**
+     * Actions queued by completions nested in the completion running on this thread.
+     */
+    private static final ThreadLocal<ArrayDeque<Runnable>> PENDING_ACTIONS = new ThreadLocal<>();
+
+    private static final VarHandle RESULT;
+    private static final VarHandle STACK;
+
+    static {
+        try {
+            var lookup = MethodHandles.lookup();
+            RESULT = lookup.findVarHandle(PromiseSupport.class, "result", Object.class);
+            STACK = lookup.findVarHandle(PromiseSupport.class, "stack", Node.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Outcome of a future completed exceptionally or cancelled.
+     */
+    private static final class Failure {
+        private final Throwable exception;
+
+        private Failure(Throwable exception) {
+            this.exception = exception;
+        }
+    }
+
+    private static final class Node {
+        private final Runnable action;
+        private volatile Node next;
+
+        private Node(Runnable action) {
+            this.action = action;
+        }
+
+        private boolean isCancelled() {
+            return action instanceof Waiter && ((Waiter) action).thread == null;
+        }
+    }
 
-    private final Object lock;
+    /**
+     * Wakes up a thread blocked in {@link #get()}, unless it stopped waiting.
+     */
+    private static final class Waiter implements Runnable {
+        private volatile Thread thread = Thread.currentThread();
+
+        @Override
+        public void run() {
+            var waiting = thread;
+            if (waiting != null) {
+                LockSupport.unpark(waiting);
+            }
+        }
+    }
 
-    private volatile int state = RUNNING;
-    private T value;
-    private Exception exception;
+    // null while running
+    private volatile Object result;
+    private volatile Node stack;
 
     PromiseSupport() {
-        this.lock = new Object();
     }
 
     void fulfill(T value) {
-        this.value = value;
-        this.state = COMPLETED;
-        synchronized (lock) {
-            lock.notifyAll();
-        }
+        complete(value == null ? NULL_VALUE : value);
     }
 
     void fulfillExceptionally(Exception exception) {
-        this.exception = exception;
-        this.state = FAILED;
-        synchronized (lock) {
-            lock.notifyAll();
+        completeExceptionally(exception);
+    }
+
+    /**
+     * Completes the future exceptionally.
+     *
+     * @return whether this call completed the future
+     */
+    boolean completeExceptionally(Throwable exception) {
+        return complete(new Failure(exception));
+    }
+
+    /**
+     * Completes the future with the outcome of another, completed, future.
+     */
+    boolean completeWith(PromiseSupport<?> completed) {
+        return complete(completed.result);
+    }
+
+    /**
+     * Runs the action once the future is completed, immediately if it is already.
+     */
+    void onCompletion(Runnable action) {
+        var node = new Node(action);
+        while (true) {
+            var head = stack;
+            if (head == CLOSED) {
+                run(action);
+                return;
+            }
+            node.next = head;
+            if (STACK.compareAndSet(this, head, node)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The exception of a completed future, or null if it completed normally.
+     */
+    Throwable failure() {
+        var outcome = result;
+        return outcome instanceof Failure ? ((Failure) outcome).exception : null;
+    }
+
+    /**
+     * The value of a future completed normally.
+     */
+    @SuppressWarnings("unchecked")
+    T value() {
+        var outcome = result;
+        return outcome == NULL_VALUE ? null : (T) outcome;
+    }
+
+    private boolean complete(Object outcome) {
+        if (!RESULT.compareAndSet(this, null, outcome)) {
+            return false;
+        }
+        var head = (Node) STACK.getAndSet(this, CLOSED);
+        // the stack holds the latest action first; the nodes are left untouched as waiters that
+        // stop waiting may still be unlinking theirs
+        var actions = new ArrayDeque<Runnable>();
+        for (var node = head; node != null; node = node.next) {
+            actions.addFirst(node.action);
+        }
+        var pending = PENDING_ACTIONS.get();
+        if (pending != null) {
+            pending.addAll(actions);
+            return true;
+        }
+        pending = actions;
+        PENDING_ACTIONS.set(pending);
+        try {
+            Runnable action;
+            while ((action = pending.poll()) != null) {
+                run(action);
+            }
+        } finally {
+            PENDING_ACTIONS.remove();
+        }
+        return true;
+    }
+
+    private static void run(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Action of a completed promise failed", e);
         }
     }
 
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
-        return false;
+        return completeExceptionally(new CancellationException());
     }
 
     @Override
     public boolean isCancelled() {
-        return false;
+        return failure() instanceof CancellationException;
     }
 
     @Override
     public boolean isDone() {
-        return state > RUNNING;
+        return result != null;
     }
 
     @Override
     public T get() throws InterruptedException, ExecutionException {
-        synchronized (lock) {
-            while (state == RUNNING) {
-                lock.wait();
+        var outcome = result;
+        if (outcome == null) {
+            outcome = await(false, 0L);
+        }
+        return report(outcome);
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        var outcome = result;
+        if (outcome == null) {
+            outcome = await(true, unit.toNanos(timeout));
+            if (outcome == null) {
+                throw new TimeoutException();
             }
         }
-        if (state == COMPLETED) {
-            return value;
+        return report(outcome);
+    }
+
+    /**
+     * Parks the current thread until the future is completed.
+     *
+     * @return the outcome or null if the timeout elapsed
+     */
+    private Object await(boolean timed, long nanos) throws InterruptedException {
+        var waiter = new Waiter();
+        onCompletion(waiter);
+        var deadline = System.nanoTime() + nanos;
+        Object outcome;
+        try {
+            while ((outcome = result) == null) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (!timed) {
+                    LockSupport.park(this);
+                } else {
+                    var remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                }
+            }
+        } finally {
+            waiter.thread = null;
+            if (result == null) {
+                removeCancelledWaiters();
+            }
         }
-        throw new ExecutionException(exception);
+        return outcome;
     }
 
-    @Override
-    public T get(long timeout, TimeUnit unit) throws ExecutionException {
-        synchronized (lock) {
-            while (state == RUNNING) {
-                try {
-                    lock.wait(unit.toMillis(timeout));
-                } catch (InterruptedException e) {
-                    LOGGER.warn("Interrupted!", e);
-                    Thread.currentThread().interrupt();
+    /**
+     * Unlinks the entries of threads that stopped waiting. The top of the stack races with pushes
+     * and completion, so it is only ever replaced by compare-and-set.
+     */
+    private void removeCancelledWaiters() {
+        while (true) {
+            var head = stack;
+            if (head == null || head == CLOSED) {
+                return;
+            }
+            if (head.isCancelled()) {
+                STACK.compareAndSet(this, head, head.next);
+                continue;
+            }
+            var node = head;
+            while (node != null) {
+                var next = node.next;
+                if (next != null && next.isCancelled()) {
+                    node.next = next.next;
+                } else {
+                    node = next;
                 }
             }
+            return;
         }
+    }
 
-        if (state == COMPLETED) {
-            return value;
+    /**
+     * Number of entries waiting for the outcome, for tests.
+     */
+    int pendingActions() {
+        var count = 0;
+        var head = stack;
+        for (var node = head == CLOSED ? null : head; node != null; node = node.next) {
+            count++;
+        }
+        return count;
+    }
+
+    private T report(Object outcome) throws ExecutionException {
+        if (outcome instanceof Failure) {
+            var exception = ((Failure) outcome).exception;
+            if (exception instanceof CancellationException) {
+                throw (CancellationException) exception;
+            }
+            throw new ExecutionException(exception);
         }
-        throw new ExecutionException(exception);
+        return value();
     }
 }
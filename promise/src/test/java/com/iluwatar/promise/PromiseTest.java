@@ -26,6 +26,7 @@ package com.iluwatar.promise;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.concurrent.*;
 import java.util.function.Consumer;
 
@@ -60,12 +61,13 @@ class PromiseTest {
 
     @Test
     void promiseIsFulfilledWithAnExceptionIfTaskThrowsAnException()
-            throws InterruptedException {
+            throws InterruptedException, TimeoutException {
         testWaitingForeverForPromiseToBeFulfilled();
         testWaitingSomeTimeForPromiseToBeFulfilled();
     }
 
-    private void testWaitingForeverForPromiseToBeFulfilled() throws InterruptedException {
+    private void testWaitingForeverForPromiseToBeFulfilled()
+            throws InterruptedException, TimeoutException {
         var promise = new Promise<Integer>();
         promise.fulfillInAsync(() -> {
             throw new RuntimeException("Barf!");
@@ -88,7 +90,8 @@ class PromiseTest {
         }
     }
 
-    private void testWaitingSomeTimeForPromiseToBeFulfilled() throws InterruptedException {
+    private void testWaitingSomeTimeForPromiseToBeFulfilled()
+            throws InterruptedException, TimeoutException {
         var promise = new Promise<Integer>();
         promise.fulfillInAsync(() -> {
             throw new RuntimeException("Barf!");
@@ -126,7 +129,7 @@ class PromiseTest {
 
     @Test
     void dependentPromiseIsFulfilledWithAnExceptionIfConsumerThrowsAnException()
-            throws InterruptedException {
+            throws InterruptedException, TimeoutException {
         var dependentPromise = promise
                 .fulfillInAsync(new NumberCrunchingTask(), executor)
                 .thenAccept(value -> {
@@ -170,7 +173,7 @@ class PromiseTest {
 
     @Test
     void dependentPromiseIsFulfilledWithAnExceptionIfTheFunctionThrowsException()
-            throws InterruptedException {
+            throws InterruptedException, TimeoutException {
         var dependentPromise = promise
                 .fulfillInAsync(new NumberCrunchingTask(), executor)
                 .thenApply(value -> {
@@ -198,7 +201,7 @@ class PromiseTest {
 
     @Test
     void fetchingAnAlreadyFulfilledPromiseReturnsTheFulfilledValueImmediately()
-            throws ExecutionException {
+            throws InterruptedException, ExecutionException, TimeoutException {
         var promise = new Promise<Integer>();
         promise.fulfill(NumberCrunchingTask.CRUNCHED_NUMBER);
 
@@ -219,6 +222,228 @@ class PromiseTest {
         verify(exceptionHandler).accept(eq(exception));
     }
 
+    @Test
+    void everyDependentIsNotifiedInRegistrationOrder()
+            throws InterruptedException, ExecutionException {
+        var notified = new CopyOnWriteArrayList<Integer>();
+        var dependents = new ArrayList<Promise<Void>>();
+        for (var i = 0; i < 100; i++) {
+            var index = i;
+            dependents.add(promise.thenAccept(value -> notified.add(index)));
+        }
+
+        promise.fulfill(NumberCrunchingTask.CRUNCHED_NUMBER);
+
+        for (var dependent : dependents) {
+            dependent.get();
+        }
+        assertEquals(100, notified.size());
+        for (var i = 0; i < 100; i++) {
+            assertEquals(i, notified.get(i));
+        }
+    }
+
+    @Test
+    void dependentRegisteredAfterFulfillmentRunsImmediately()
+            throws InterruptedException, ExecutionException {
+        promise.fulfill(NumberCrunchingTask.CRUNCHED_NUMBER);
+
+        var dependentPromise = promise.thenApply(value -> value - 1);
+
+        assertTrue(dependentPromise.isDone());
+        assertEquals(NumberCrunchingTask.CRUNCHED_NUMBER - 1, dependentPromise.get());
+    }
+
+    @Test
+    void longChainDoesNotOverflowTheStack() throws InterruptedException, ExecutionException {
+        Promise<Integer> last = promise;
+        for (var i = 0; i < 100_000; i++) {
+            last = last.thenApply(value -> value + 1);
+        }
+
+        promise.fulfill(0);
+
+        assertEquals(100_000, last.get());
+    }
+
+    @Test
+    void composedPromiseIsFulfilledWithTheOutcomeOfTheReturnedPromise()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        var dependentPromise = promise
+                .fulfillInAsync(new NumberCrunchingTask(), executor)
+                .thenCompose(value -> new Promise<String>()
+                        .fulfillInAsync(() -> String.valueOf(value), executor));
+
+        assertEquals(String.valueOf(NumberCrunchingTask.CRUNCHED_NUMBER),
+                dependentPromise.get(1000, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void allOfIsFulfilledOnceEveryPromiseIsFulfilled()
+            throws InterruptedException, ExecutionException {
+        var first = new Promise<Integer>();
+        var second = new Promise<String>();
+        var all = Promise.allOf(first, second);
+
+        first.fulfill(1);
+        assertFalse(all.isDone());
+        second.fulfill("2");
+
+        assertNull(all.get());
+    }
+
+    @Test
+    void allOfFailsAsSoonAsOnePromiseFails() throws InterruptedException {
+        var first = new Promise<Integer>();
+        var second = new Promise<Integer>();
+        var all = Promise.allOf(first, second);
+
+        var exception = new IllegalStateException("barf!");
+        second.fulfillExceptionally(exception);
+
+        var thrown = assertThrows(ExecutionException.class, all::get);
+        assertSame(exception, thrown.getCause());
+    }
+
+    @Test
+    void anyOfIsFulfilledWithTheFirstOutcome() throws InterruptedException, ExecutionException {
+        var first = new Promise<Integer>();
+        var second = new Promise<String>();
+        var any = Promise.anyOf(first, second);
+
+        second.fulfill("2");
+        first.fulfill(1);
+
+        assertEquals("2", any.get());
+    }
+
+    @Test
+    void promiseTimesOutIfNotFulfilledInTime() throws InterruptedException {
+        promise.orTimeout(10, TimeUnit.MILLISECONDS);
+
+        var thrown = assertThrows(ExecutionException.class, promise::get);
+        assertTrue(thrown.getCause() instanceof TimeoutException);
+    }
+
+    @Test
+    void promiseIsFulfilledWithTheDefaultValueOnTimeout()
+            throws InterruptedException, ExecutionException {
+        promise.completeOnTimeout(42, 10, TimeUnit.MILLISECONDS);
+
+        assertEquals(42, promise.get());
+    }
+
+    @Test
+    void waitingWithTimeoutThrowsTimeoutException() {
+        assertThrows(TimeoutException.class, () -> promise.get(10, TimeUnit.MILLISECONDS));
+        assertFalse(promise.isDone());
+    }
+
+    @Test
+    void waitersThatGaveUpAreRemoved() throws Exception {
+        var consumed = new CountDownLatch(1);
+        promise.thenAccept(value -> consumed.countDown());
+
+        for (var i = 0; i < 1_000; i++) {
+            assertThrows(TimeoutException.class, () -> promise.get(1, TimeUnit.MICROSECONDS));
+        }
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, promise::get);
+
+        assertEquals(1, promise.pendingActions());
+        promise.fulfill(1);
+        assertTrue(consumed.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void cancellingInterruptsTheTaskAndCancelsDependents() throws InterruptedException {
+        var started = new CountDownLatch(1);
+        var interrupted = new CountDownLatch(1);
+        promise.fulfillInAsync(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return NumberCrunchingTask.CRUNCHED_NUMBER;
+        }, executor);
+        var dependentPromise = promise.thenApply(value -> value + 1);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        assertTrue(promise.cancel(true));
+
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        assertTrue(promise.isCancelled());
+        assertTrue(dependentPromise.isCancelled());
+        assertThrows(CancellationException.class, promise::get);
+        assertFalse(promise.cancel(true));
+    }
+
+    @Test
+    void overlappingTasksDoNotHoldOnToTheirThreads() throws Exception {
+        var pool = Executors.newFixedThreadPool(2);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        promise.fulfillInAsync(() -> {
+            started.countDown();
+            release.await();
+            return 1;
+        }, pool);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        promise.fulfillInAsync(() -> 2, pool);
+        release.countDown();
+
+        assertEquals(1, promise.get(1, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void asyncDependentRunsInTheGivenExecutor()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        var dependentExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable,
+                "dependent"));
+        try {
+            var dependentPromise = promise
+                    .fulfillInAsync(new NumberCrunchingTask(), executor)
+                    .thenApplyAsync(value -> Thread.currentThread().getName(), dependentExecutor);
+
+            assertEquals("dependent", dependentPromise.get(1000, TimeUnit.SECONDS));
+        } finally {
+            dependentExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void asyncDependentFailsIfTheExecutorRejectsTheAction() throws InterruptedException {
+        var dependentPromise = promise.thenAcceptAsync(value -> fail("must not run"), action -> {
+            throw new RejectedExecutionException();
+        });
+
+        promise.fulfill(NumberCrunchingTask.CRUNCHED_NUMBER);
+
+        var thrown = assertThrows(ExecutionException.class, dependentPromise::get);
+        assertTrue(thrown.getCause() instanceof RejectedExecutionException);
+    }
+
+    @Test
+    void promiseIsFulfilledInTheDefaultExecutor()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        var caller = Thread.currentThread();
+        var dependentPromise = promise
+                .fulfillInAsync(new NumberCrunchingTask())
+                .thenComposeAsync(value -> {
+                    var next = new Promise<Boolean>();
+                    next.fulfill(Thread.currentThread() != caller);
+                    return next;
+                });
+
+        assertTrue(dependentPromise.get(1000, TimeUnit.SECONDS));
+        assertEquals(NumberCrunchingTask.CRUNCHED_NUMBER, promise.get());
+    }
+
     private static class NumberCrunchingTask implements Callable<Integer> {
 
         private static final Integer CRUNCHED_NUMBER = Integer.MAX_VALUE;
@@ -55,8 +55,9 @@ import java.util.concurrent.TimeUnit;
  *
  * <p>In this example we have a class {@link MessageQueue} to hold the message {@link Message}
  * objects. All the worker threads {@link TaskGenerator} will submit the messages to the
- * MessageQueue. The service executor class {@link ServiceExecutor} will pick up one task at a time
- * from the Queue and execute them.
+ * MessageQueue. The service executor classes {@link ServiceExecutor} will pick up tasks in batches
+ * from the Queue and execute them, at the service rate enforced by the {@link TokenBucket} they
+ * share.
  */
 @Slf4j
 public class App {
@@ -64,6 +65,12 @@ public class App {
     //Executor shut down time limit.
     private static final int SHUTDOWN_TIME = 15;
 
+    //Messages served per second by all the service executors together.
+    private static final double SERVICE_RATE = 2;
+
+    //Largest number of messages a service executor retrieves at once.
+    private static final int BATCH_SIZE = 2;
+
     /**
      * Program entry point.
      *
@@ -86,18 +93,22 @@ public class App {
             final var taskRunnable2 = new TaskGenerator(msgQueue, 1);
             final var taskRunnable3 = new TaskGenerator(msgQueue, 2);
 
-            // Create e service which should process the submitted jobs.
-            final var srvRunnable = new ServiceExecutor(msgQueue);
+            // Create a service of two executors which should process the submitted jobs,
+            // together serving at most SERVICE_RATE messages per second.
+            final var tokenBucket = new TokenBucket(SERVICE_RATE, BATCH_SIZE);
+            final var srvRunnable1 = new ServiceExecutor(msgQueue, tokenBucket, BATCH_SIZE);
+            final var srvRunnable2 = new ServiceExecutor(msgQueue, tokenBucket, BATCH_SIZE);
 
-            // Create a ThreadPool of 2 threads and
+            // Create a ThreadPool of 5 threads and
             // submit all Runnable task for execution to executor..
-            executor = Executors.newFixedThreadPool(2);
+            executor = Executors.newFixedThreadPool(5);
             executor.submit(taskRunnable1);
             executor.submit(taskRunnable2);
             executor.submit(taskRunnable3);
 
-            // submitting serviceExecutor thread to the Executor service.
-            executor.submit(srvRunnable);
+            // submitting serviceExecutor threads to the Executor service.
+            executor.submit(srvRunnable1);
+            executor.submit(srvRunnable2);
 
             // Initiates an orderly shutdown.
             LOGGER.info("Initiating shutdown."
@@ -110,6 +121,11 @@ public class App {
                 LOGGER.info("Executor was shut down and Exiting.");
                 executor.shutdownNow();
             }
+            LOGGER.info("Queue depth: {}, messages served: {}, service rate: {} per second",
+                    msgQueue.getDepth(),
+                    srvRunnable1.getServedCount() + srvRunnable2.getServedCount(),
+                    String.format("%.2f",
+                            srvRunnable1.getServiceRate() + srvRunnable2.getServiceRate()));
         } catch (Exception e) {
             LOGGER.error(e.getMessage());
         }
@@ -25,37 +25,67 @@ package com.iluwatar.queue.load.leveling;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collection;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * MessageQueue class. In this class we will create a Blocking Queue and submit/retrieve all the
  * messages from it.
+ *
+ * <p>A full queue pushes back on the producers: {@link #submitMsg(Message)} waits for room, and
+ * {@link #trySubmitMsg(Message, long, TimeUnit)} tells the producer the message was not accepted
+ * so that it can slow down or shed the load itself.
  */
 @Slf4j
 public class MessageQueue {
 
+    private static final int DEFAULT_CAPACITY = 1024;
+
     private final BlockingQueue<Message> blkQueue;
 
+    private final LongAdder rejected = new LongAdder();
+
     // Default constructor when called creates Blocking Queue object.
     public MessageQueue() {
-        this.blkQueue = new ArrayBlockingQueue<>(1024);
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MessageQueue(int capacity) {
+        this.blkQueue = new ArrayBlockingQueue<>(capacity);
     }
 
     /**
      * All the TaskGenerator threads will call this method to insert the Messages in to the Blocking
-     * Queue.
+     * Queue. Waits for room if the queue is full.
      */
     public void submitMsg(Message msg) {
         try {
             if (null != msg) {
-                blkQueue.add(msg);
+                blkQueue.put(msg);
             }
-        } catch (Exception e) {
-            LOGGER.error(e.getMessage());
+        } catch (InterruptedException e) {
+            LOGGER.error("Interrupted while waiting to submit {}", msg);
+            Thread.currentThread().interrupt();
         }
     }
 
+    /**
+     * Inserts the message, waiting up to the timeout for room if the queue is full.
+     *
+     * @return false if the queue stayed full, in which case the producer should back off
+     */
+    public boolean trySubmitMsg(Message msg, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        if (blkQueue.offer(msg, timeout, unit)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
     /**
      * All the messages will be retrieved by the ServiceExecutor by calling this method and process
      * them. Retrieves and removes the head of this queue, or returns null if this queue is empty.
@@ -68,4 +98,34 @@ public class MessageQueue {
         }
         return null;
     }
+
+    /**
+     * Retrieves up to {@code maxMsgs} messages at once, waiting up to the timeout for the first one
+     * if the queue is empty.
+     *
+     * @return the number of messages added to the sink, 0 if none arrived in time
+     */
+    public int retrieveMsgs(Collection<? super Message> sink, int maxMsgs, long timeout,
+                            TimeUnit unit) throws InterruptedException {
+        var first = blkQueue.poll(timeout, unit);
+        if (first == null) {
+            return 0;
+        }
+        sink.add(first);
+        return 1 + blkQueue.drainTo(sink, maxMsgs - 1);
+    }
+
+    /**
+     * Returns the number of messages waiting to be served.
+     */
+    public int getDepth() {
+        return blkQueue.size();
+    }
+
+    /**
+     * Returns the number of messages {@link #trySubmitMsg} did not accept.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
 }
@@ -25,37 +25,107 @@ package com.iluwatar.queue.load.leveling;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
- * ServiceExecuotr class. This class will pick up Messages one by one from the Blocking Queue and
- * process them.
+ * ServiceExecuotr class. This class will pick up Messages in batches from the Blocking Queue and
+ * process them, no faster than the service rate allowed by its {@link TokenBucket}.
+ *
+ * <p>Several executors may serve the same queue. Sharing one bucket between them limits the rate
+ * of the service as a whole, while giving each its own bucket scales the rate with the number of
+ * executors.
  */
 @Slf4j
 public class ServiceExecutor implements Runnable {
 
+    /**
+     * Messages served per second by an executor with its own bucket.
+     */
+    static final double DEFAULT_SERVICE_RATE = 10;
+
+    /**
+     * Largest number of messages retrieved at once.
+     */
+    static final int DEFAULT_BATCH_SIZE = 10;
+
+    // how long to wait for messages before logging that the queue is empty
+    private static final long IDLE_LOG_MILLIS = 1000;
+
     private final MessageQueue msgQueue;
 
+    private final TokenBucket tokenBucket;
+
+    private final int batchSize;
+
+    private final LongAdder served = new LongAdder();
+
+    private volatile long startedAt;
+
     public ServiceExecutor(MessageQueue msgQueue) {
+        this(msgQueue, new TokenBucket(DEFAULT_SERVICE_RATE, DEFAULT_BATCH_SIZE),
+                DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates an executor.
+     *
+     * @param msgQueue    the queue to serve
+     * @param tokenBucket the bucket limiting the service rate, possibly shared with other executors
+     * @param batchSize   the largest number of messages retrieved at once, at most the bucket size
+     */
+    public ServiceExecutor(MessageQueue msgQueue, TokenBucket tokenBucket, int batchSize) {
+        if (batchSize <= 0 || batchSize > tokenBucket.getSize()) {
+            throw new IllegalArgumentException("batchSize must be between 1 and the bucket size");
+        }
         this.msgQueue = msgQueue;
+        this.tokenBucket = tokenBucket;
+        this.batchSize = batchSize;
     }
 
     /**
-     * The ServiceExecutor thread will retrieve each message and process it.
+     * The ServiceExecutor thread will retrieve the messages in batches and process them. It waits
+     * for messages while the queue is empty, and for tokens when serving faster than the rate.
      */
     public void run() {
+        startedAt = System.nanoTime();
+        var batch = new ArrayList<Message>(batchSize);
         try {
             while (!Thread.currentThread().isInterrupted()) {
-                var msg = msgQueue.retrieveMsg();
-
-                if (null != msg) {
-                    LOGGER.info(msg.toString() + " is served.");
-                } else {
+                batch.clear();
+                var count = msgQueue.retrieveMsgs(batch, batchSize, IDLE_LOG_MILLIS,
+                        TimeUnit.MILLISECONDS);
+                if (count == 0) {
                     LOGGER.info("Service Executor: Waiting for Messages to serve .. ");
+                    continue;
                 }
-
-                Thread.sleep(1000);
+                tokenBucket.acquire(count);
+                for (var msg : batch) {
+                    LOGGER.info(msg.toString() + " is served.");
+                }
+                served.add(count);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             LOGGER.error(e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the number of messages served.
+     */
+    public long getServedCount() {
+        return served.sum();
+    }
+
+    /**
+     * Returns the number of messages served per second since the executor started.
+     */
+    public double getServiceRate() {
+        var started = startedAt;
+        var elapsed = System.nanoTime() - started;
+        return started == 0 || elapsed <= 0 ? 0 : served.sum() * 1e9 / elapsed;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.queue.load.leveling;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket limiting the rate at which messages are served. Tokens are added at a fixed rate up
+ * to the size of the bucket, and serving a message takes one token. One bucket can be shared by
+ * several {@link ServiceExecutor}s, limiting the rate of the service as a whole.
+ *
+ * <p>A request for more tokens than there are reserves them anyway and waits until they have been
+ * added, so that a large batch is not starved by a stream of small ones.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double tokensPerNano;
+    private final int size;
+
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param ratePerSecond the number of tokens added every second
+     * @param size          the maximum number of tokens, which is the largest burst allowed
+     */
+    public TokenBucket(double ratePerSecond, int size) {
+        if (ratePerSecond <= 0 || size <= 0) {
+            throw new IllegalArgumentException("ratePerSecond and size must be positive");
+        }
+        this.tokensPerNano = ratePerSecond / NANOS_PER_SECOND;
+        this.size = size;
+        this.tokens = size;
+        this.refilledAt = System.nanoTime();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Takes the tokens, waiting until they are available.
+     *
+     * @param count the number of tokens, at most the size of the bucket
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire(int count) throws InterruptedException {
+        if (count > size) {
+            throw new IllegalArgumentException("cannot take more than " + size + " tokens at once");
+        }
+        long waitNanos;
+        synchronized (this) {
+            var now = System.nanoTime();
+            tokens = Math.min(size, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            tokens -= count;
+            waitNanos = tokens < 0 ? (long) Math.ceil(-tokens / tokensPerNano) : 0;
+        }
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+}
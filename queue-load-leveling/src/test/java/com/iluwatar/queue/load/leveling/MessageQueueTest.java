@@ -25,7 +25,12 @@ package com.iluwatar.queue.load.leveling;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test case for submitting and retrieving messages from Blocking Queue.
@@ -44,4 +49,33 @@ class MessageQueueTest {
         assertEquals("MessageQueue Test", msgQueue.retrieveMsg().getMsg());
     }
 
+    @Test
+    void fullQueuePushesBack() throws InterruptedException {
+        var msgQueue = new MessageQueue(1);
+        msgQueue.submitMsg(new Message("first"));
+
+        assertFalse(msgQueue.trySubmitMsg(new Message("second"), 10, TimeUnit.MILLISECONDS));
+        assertEquals(1, msgQueue.getRejectedCount());
+        assertEquals(1, msgQueue.getDepth());
+
+        assertEquals("first", msgQueue.retrieveMsg().getMsg());
+        assertTrue(msgQueue.trySubmitMsg(new Message("second"), 10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void messagesAreRetrievedInBatches() throws InterruptedException {
+        var msgQueue = new MessageQueue();
+        var batch = new ArrayList<Message>();
+        assertEquals(0, msgQueue.retrieveMsgs(batch, 2, 10, TimeUnit.MILLISECONDS));
+
+        for (var i = 0; i < 3; i++) {
+            msgQueue.submitMsg(new Message("Message-" + i));
+        }
+
+        assertEquals(2, msgQueue.retrieveMsgs(batch, 2, 10, TimeUnit.MILLISECONDS));
+        assertEquals("Message-0", batch.get(0).getMsg());
+        assertEquals("Message-1", batch.get(1).getMsg());
+        assertEquals(1, msgQueue.getDepth());
+    }
+
 }
@@ -25,7 +25,14 @@ package com.iluwatar.queue.load.leveling;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test case for submitting Message to Blocking Queue by TaskGenerator and retrieve the message by
@@ -52,4 +59,41 @@ class TaskGenSrvExeTest {
         assertNotNull(srvExeThr);
     }
 
+    @Test
+    void serviceExecutorsShareTheServiceRate() throws InterruptedException {
+        var msgQueue = new MessageQueue();
+        for (var i = 0; i < 30; i++) {
+            msgQueue.submitMsg(new Message("Message-" + i));
+        }
+
+        // a bucket of 10 tokens refilled at 20 per second serves the 30 messages in about 1 second
+        var tokenBucket = new TokenBucket(20, 10);
+        var executors = List.of(new ServiceExecutor(msgQueue, tokenBucket, 5),
+                new ServiceExecutor(msgQueue, tokenBucket, 5));
+        var threads = new ArrayList<Thread>();
+        var start = System.nanoTime();
+        for (var executor : executors) {
+            var thread = new Thread(executor);
+            thread.start();
+            threads.add(thread);
+        }
+        while (msgQueue.getDepth() > 0 || served(executors) < 30) {
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+            Thread.sleep(10);
+        }
+        var elapsed = System.nanoTime() - start;
+        for (var thread : threads) {
+            thread.interrupt();
+            thread.join(5000);
+            assertFalse(thread.isAlive());
+        }
+
+        assertEquals(30, served(executors));
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    private static long served(List<ServiceExecutor> executors) {
+        return executors.stream().mapToLong(ServiceExecutor::getServedCount).sum();
+    }
+
 }
@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.queue.load.leveling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test case for limiting the rate with the TokenBucket.
+ */
+class TokenBucketTest {
+
+    @Test
+    void fullBucketServesABurstWithoutWaiting() throws InterruptedException {
+        var tokenBucket = new TokenBucket(1, 10);
+        var start = System.nanoTime();
+
+        tokenBucket.acquire(10);
+
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    void emptyBucketWaitsForTheRefill() throws InterruptedException {
+        var tokenBucket = new TokenBucket(100, 10);
+        tokenBucket.acquire(10);
+        var start = System.nanoTime();
+
+        // 20 tokens at 100 per second take 200 ms
+        tokenBucket.acquire(10);
+        tokenBucket.acquire(10);
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(190));
+    }
+
+    @Test
+    void cannotTakeMoreThanTheBucketHolds() {
+        var tokenBucket = new TokenBucket(1, 10);
+        assertThrows(IllegalArgumentException.class, () -> tokenBucket.acquire(11));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 10));
+    }
+}
@@ -122,6 +122,7 @@ public class App {
     private NioReactor reactor;
     private final List<AbstractNioChannel> channels = new ArrayList<>();
     private final Dispatcher dispatcher;
+    private final int workerCount;
 
     /**
      * Creates an instance of App which will use provided dispatcher for dispatching events on
@@ -130,7 +131,18 @@ public class App {
      * @param dispatcher the dispatcher that will be used to dispatch events.
      */
     public App(Dispatcher dispatcher) {
+        this(dispatcher, 0);
+    }
+
+    /**
+     * Creates an instance of App whose reactor hands accepted TCP connections to worker reactors.
+     *
+     * @param dispatcher  the dispatcher that will be used to dispatch events.
+     * @param workerCount the number of worker reactors, {@code 0} for a single reactor.
+     */
+    public App(Dispatcher dispatcher, int workerCount) {
         this.dispatcher = dispatcher;
+        this.workerCount = workerCount;
     }
 
     /**
@@ -149,7 +161,7 @@ public class App {
         /*
          * The application can customize its event dispatching mechanism.
          */
-        reactor = new NioReactor(dispatcher);
+        reactor = new NioReactor(dispatcher, workerCount);
 
         /*
          * This represents application specific business logic that dispatcher will call on appropriate
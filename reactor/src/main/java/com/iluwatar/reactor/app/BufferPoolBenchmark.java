@@ -0,0 +1,187 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.app;
+
+import com.iluwatar.reactor.framework.AbstractNioChannel;
+import com.iluwatar.reactor.framework.BufferPool;
+import com.iluwatar.reactor.framework.ChannelHandler;
+import com.iluwatar.reactor.framework.NioReactor;
+import com.iluwatar.reactor.framework.NioServerSocketChannel;
+import com.iluwatar.reactor.framework.PooledBuffer;
+import com.iluwatar.reactor.framework.SameThreadDispatcher;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.channels.SelectionKey;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator comparing reads into freshly allocated heap buffers with reads into pooled direct
+ * buffers. Clients keep a connection open and send 4 KiB requests, larger than one chunk, which
+ * an echo handler writes back.
+ *
+ * <p>For each allocator it reports throughput, the 99th percentile round-trip latency and the
+ * bytes allocated per second by the reactor thread.
+ *
+ * <p>Usage: {@code BufferPoolBenchmark [clients] [millisPerRun]}.
+ */
+@Slf4j
+public final class BufferPoolBenchmark {
+
+    private static final int PORT = 16720;
+    private static final int REQUEST_SIZE = 4096;
+    private static final int MAX_SAMPLES_PER_CLIENT = 1 << 16;
+
+    private BufferPoolBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional number of client threads and duration of each run in milliseconds
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        var millis = args.length > 1 ? Long.parseLong(args[1]) : 3_000L;
+        run("unpooled heap", BufferPool.unpooled(BufferPool.DEFAULT_CHUNK_SIZE), PORT, clients,
+                millis);
+        run("pooled direct", new BufferPool(BufferPool.DEFAULT_CHUNK_SIZE, 4096, true), PORT + 1,
+                clients, millis);
+    }
+
+    /**
+     * Writes every request back to its sender, keeping the read buffer alive until it is written.
+     */
+    static class EchoHandler implements ChannelHandler {
+        @Override
+        public void handleChannelRead(AbstractNioChannel channel, Object readObject,
+                                      SelectionKey key) {
+            channel.write(((PooledBuffer) readObject).retain(), key);
+        }
+    }
+
+    private static void run(String name, BufferPool pool, int port, int clients, long millis)
+            throws IOException, InterruptedException {
+        var reactor = new NioReactor(new SameThreadDispatcher());
+        var channel = new NioServerSocketChannel(port, new EchoHandler(), pool);
+        channel.bind();
+        reactor.registerChannel(channel).start();
+        try {
+            var messages = new LongAdder();
+            var samples = new long[clients][];
+            var ready = new CountDownLatch(clients);
+            var finished = new CountDownLatch(1);
+            var done = new CountDownLatch(clients);
+            var deadline = System.nanoTime() + millis * 1_000_000L;
+            for (var i = 0; i < clients; i++) {
+                var index = i;
+                new Thread(() -> {
+                    var latencies = new long[MAX_SAMPLES_PER_CLIENT];
+                    var count = 0;
+                    var connected = false;
+                    try (var socket = new Socket(InetAddress.getLocalHost(), port)) {
+                        socket.setTcpNoDelay(true);
+                        var request = new byte[REQUEST_SIZE];
+                        var reply = new byte[REQUEST_SIZE];
+                        connected = true;
+                        ready.countDown();
+                        while (System.nanoTime() < deadline) {
+                            var start = System.nanoTime();
+                            socket.getOutputStream().write(request);
+                            readFully(socket, reply);
+                            if (count < latencies.length) {
+                                latencies[count++] = System.nanoTime() - start;
+                            }
+                            messages.increment();
+                        }
+                        finished.await();
+                    } catch (IOException e) {
+                        LOGGER.error("client failed", e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        samples[index] = Arrays.copyOf(latencies, count);
+                        if (!connected) {
+                            ready.countDown();
+                        }
+                        done.countDown();
+                    }
+                }).start();
+            }
+            ready.await();
+            var allocatedBefore = allocatedBytes();
+            while (System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            // measured before the clients disconnect, so their threads are still counted
+            var allocated = allocatedBytes() - allocatedBefore;
+            finished.countDown();
+            done.await();
+            LOGGER.info("{}: msgs/s={} p99={}us allocated={} KiB/s chunks allocated={}", name,
+                    messages.sum() * 1_000L / millis, percentile(samples, 0.99) / 1_000,
+                    allocated / 1_024 * 1_000L / millis, pool.getAllocationCount());
+        } finally {
+            reactor.stop();
+            channel.getJavaChannel().close();
+        }
+    }
+
+    private static void readFully(Socket socket, byte[] data) throws IOException {
+        var read = 0;
+        while (read < data.length) {
+            var count = socket.getInputStream().read(data, read, data.length - read);
+            if (count == -1) {
+                throw new IOException("Socket closed");
+            }
+            read += count;
+        }
+    }
+
+    private static long percentile(long[][] samples, double percentile) {
+        var all = Arrays.stream(samples).flatMapToLong(Arrays::stream).sorted().toArray();
+        if (all.length == 0) {
+            return 0;
+        }
+        return all[(int) Math.min(all.length - 1, Math.ceil(all.length * percentile) - 1)];
+    }
+
+    /**
+     * Sum of the bytes allocated by all live threads, as reported by the HotSpot thread bean.
+     */
+    private static long allocatedBytes() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var total = 0L;
+        for (var bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+}
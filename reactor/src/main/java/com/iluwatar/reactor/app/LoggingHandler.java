@@ -26,10 +26,12 @@ package com.iluwatar.reactor.app;
 import com.iluwatar.reactor.framework.AbstractNioChannel;
 import com.iluwatar.reactor.framework.ChannelHandler;
 import com.iluwatar.reactor.framework.NioDatagramChannel.DatagramPacket;
+import com.iluwatar.reactor.framework.PooledBuffer;
 import lombok.extern.slf4j.Slf4j;
 
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Logging server application logic. It logs the incoming requests on standard console and returns a
@@ -47,10 +49,10 @@ public class LoggingHandler implements ChannelHandler {
     public void handleChannelRead(AbstractNioChannel channel, Object readObject, SelectionKey key) {
         /*
          * As this handler is attached with both TCP and UDP channels we need to check whether the data
-         * received is a ByteBuffer (from TCP channel) or a DatagramPacket (from UDP channel).
+         * received is a PooledBuffer (from TCP channel) or a DatagramPacket (from UDP channel).
          */
-        if (readObject instanceof ByteBuffer) {
-            doLogging((ByteBuffer) readObject);
+        if (readObject instanceof PooledBuffer) {
+            doLogging(((PooledBuffer) readObject).nioBuffer());
             sendReply(channel, key);
         } else if (readObject instanceof DatagramPacket) {
             var datagram = (DatagramPacket) readObject;
@@ -83,6 +85,6 @@ public class LoggingHandler implements ChannelHandler {
 
     private static void doLogging(ByteBuffer data) {
         // assuming UTF-8 :(
-        LOGGER.info(new String(data.array(), 0, data.limit()));
+        LOGGER.info(StandardCharsets.UTF_8.decode(data).toString());
     }
 }
@@ -0,0 +1,188 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.reactor.app;
+
+import com.iluwatar.reactor.framework.AbstractNioChannel;
+import com.iluwatar.reactor.framework.ChannelHandler;
+import com.iluwatar.reactor.framework.NioReactor;
+import com.iluwatar.reactor.framework.NioServerSocketChannel;
+import com.iluwatar.reactor.framework.SameThreadDispatcher;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator measuring how the reactor scales with the number of worker reactors. For each
+ * worker count it runs two phases against a TCP echo-style handler: clients that open a
+ * connection, do one request/reply round trip and close it (connections/sec), and clients that
+ * keep a connection open and send requests back to back (msgs/sec).
+ *
+ * <p>Usage: {@code ReactorBenchmark [clients] [millisPerPhase]}.
+ */
+@Slf4j
+public final class ReactorBenchmark {
+
+    private static final int[] WORKER_COUNTS = {0, 1, 2, 4, 8};
+    private static final int BASE_PORT = 16700;
+    private static final byte[] REQUEST = "ping".getBytes();
+    private static final byte[] REPLY = "pong".getBytes();
+
+    private ReactorBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional number of client threads and duration of each phase in milliseconds
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        var millis = args.length > 1 ? Long.parseLong(args[1]) : 2_000L;
+        for (var i = 0; i < WORKER_COUNTS.length; i++) {
+            var workers = WORKER_COUNTS[i];
+            var port = BASE_PORT + i;
+            var reactor = new NioReactor(new SameThreadDispatcher(), workers);
+            var channel = new NioServerSocketChannel(port, new ReplyHandler());
+            channel.bind();
+            reactor.registerChannel(channel).start();
+            try {
+                var connections = run(clients, millis, () -> {
+                    try (var socket = new Socket(InetAddress.getLocalHost(), port)) {
+                        roundTrip(socket);
+                    }
+                    return 1;
+                });
+                var messages = runPersistent(clients, millis, port);
+                LOGGER.info("workers={} connections/s={} msgs/s={}", workers, connections, messages);
+            } finally {
+                reactor.stop();
+                channel.getJavaChannel().close();
+            }
+        }
+    }
+
+    /**
+     * Replies to every request without logging, so that the reactor itself is measured.
+     */
+    static class ReplyHandler implements ChannelHandler {
+        @Override
+        public void handleChannelRead(AbstractNioChannel channel, Object readObject,
+                                      SelectionKey key) {
+            channel.write(ByteBuffer.wrap(REPLY), key);
+        }
+    }
+
+    /**
+     * One unit of client work, returning the number of operations it performed.
+     */
+    interface ClientWork {
+        int call() throws IOException;
+    }
+
+    private static long runPersistent(int clients, long millis, int port)
+            throws InterruptedException {
+        var sockets = ThreadLocal.<Socket>withInitial(() -> null);
+        return run(clients, millis, () -> {
+            var socket = sockets.get();
+            if (socket == null) {
+                socket = new Socket(InetAddress.getLocalHost(), port);
+                socket.setTcpNoDelay(true);
+                sockets.set(socket);
+            }
+            roundTrip(socket);
+            return 1;
+        }, () -> {
+            var socket = sockets.get();
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    LOGGER.error("error closing socket", e);
+                }
+            }
+        });
+    }
+
+    private static long run(int clients, long millis, ClientWork work) throws InterruptedException {
+        return run(clients, millis, work, () -> {
+        });
+    }
+
+    /**
+     * Runs {@code work} in a loop on every client thread and returns operations per second.
+     */
+    private static long run(int clients, long millis, ClientWork work, Runnable cleanup)
+            throws InterruptedException {
+        var operations = new LongAdder();
+        var errors = new LongAdder();
+        var done = new CountDownLatch(clients);
+        var deadline = System.nanoTime() + millis * 1_000_000L;
+        for (var i = 0; i < clients; i++) {
+            new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            operations.add(work.call());
+                        } catch (IOException e) {
+                            errors.increment();
+                        }
+                    }
+                } finally {
+                    cleanup.run();
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        if (errors.sum() > 0) {
+            LOGGER.warn("{} client operations failed", errors.sum());
+        }
+        return operations.sum() * 1_000L / millis;
+    }
+
+    private static void roundTrip(Socket socket) throws IOException {
+        socket.getOutputStream().write(REQUEST);
+        readFully(socket.getInputStream(), REPLY.length);
+    }
+
+    private static void readFully(InputStream inputStream, int length) throws IOException {
+        var data = new byte[length];
+        var read = 0;
+        while (read < length) {
+            var count = inputStream.read(data, read, length - read);
+            if (count == -1) {
+                throw new IOException("Socket closed");
+            }
+            read += count;
+        }
+    }
+}
@@ -24,13 +24,15 @@
 package com.iluwatar.reactor.framework;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * This represents the <i>Handle</i> of Reactor pattern. These are resources managed by OS which can
@@ -41,13 +43,40 @@ import java.util.concurrent.ConcurrentLinkedQueue;
  * the concrete implementation. It provides a block writing mechanism wherein when any {@link
  * ChannelHandler} wants to write data back, it queues the data in pending write queue and clears it
  * in block manner. This provides better throughput.
+ *
+ * <p>The selector is only woken up when the pending write queue of a connection becomes non-empty,
+ * and channels supporting gathering writes drain many queued buffers with a single write. The
+ * queue is bounded by watermarks: once more than the high watermark of bytes is pending, the
+ * channel stops reading from the connection until the queue has drained to the low watermark, so
+ * a peer that does not read its replies cannot make the queue grow without limit.
  */
 public abstract class AbstractNioChannel {
 
+    /**
+     * Default number of pending bytes above which reading from a connection is suspended.
+     */
+    public static final int DEFAULT_HIGH_WATERMARK = 64 * 1024;
+    /**
+     * Default number of pending bytes at or below which reading from a connection is resumed.
+     */
+    public static final int DEFAULT_LOW_WATERMARK = 32 * 1024;
+    /**
+     * Upper bound of writes in one flush, so one connection cannot monopolize the reactor.
+     */
+    private static final int MAX_WRITES_PER_FLUSH = 64;
+    /**
+     * Channels are shared by the reactors serving their connections, so each reactor thread
+     * gathers into its own array.
+     */
+    private static final ThreadLocal<ByteBuffer[]> GATHER_BUFFERS =
+            ThreadLocal.withInitial(() -> new ByteBuffer[PendingWrites.MAX_BUFFERS_PER_WRITE]);
+
     private final SelectableChannel channel;
     private final ChannelHandler handler;
-    private final Map<SelectableChannel, Queue<Object>> channelToPendingWrites;
+    private final Map<SelectableChannel, PendingWrites> channelToPendingWrites;
     private NioReactor reactor;
+    private volatile long lowWatermark = DEFAULT_LOW_WATERMARK;
+    private volatile long highWatermark = DEFAULT_HIGH_WATERMARK;
 
     /**
      * Creates a new channel.
@@ -77,6 +106,31 @@ public abstract class AbstractNioChannel {
         return channel;
     }
 
+    /**
+     * Sets the watermarks bounding the pending write queue of every connection of this channel.
+     *
+     * @param lowWatermark  pending bytes at or below which reading is resumed.
+     * @param highWatermark pending bytes above which reading is suspended.
+     */
+    public void setWriteWatermarks(long lowWatermark, long highWatermark) {
+        if (lowWatermark < 0 || highWatermark < lowWatermark) {
+            throw new IllegalArgumentException("watermarks must satisfy 0 <= low <= high");
+        }
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+    }
+
+    /**
+     * Get pending write bytes.
+     *
+     * @param key the key of a connection of this channel.
+     * @return the number of bytes queued for writing on the connection.
+     */
+    public long getPendingWriteBytes(SelectionKey key) {
+        var pendingWrites = channelToPendingWrites.get(key.channel());
+        return pendingWrites == null ? 0 : pendingWrites.getPendingBytes();
+    }
+
     /**
      * The operation in which the channel is interested, this operation is provided to {@link
      * Selector}.
@@ -112,19 +166,129 @@ public abstract class AbstractNioChannel {
         return handler;
     }
 
+    /**
+     * Passes the read data to the handler of this channel and releases it once the handler
+     * returns. {@link Dispatcher}s call this instead of the handler, so that pooled buffers go back
+     * to their pool no matter which thread handled the event.
+     *
+     * @param readObject the data read.
+     * @param key        the key on which read event occurred.
+     */
+    public void handleRead(Object readObject, SelectionKey key) {
+        try {
+            handler.handleChannelRead(this, readObject, key);
+        } finally {
+            release(readObject);
+        }
+    }
+
+    /**
+     * Drops the reference held by the framework on a read or written message.
+     *
+     * @param message the data read from or written to this channel.
+     */
+    protected void release(Object message) {
+        if (message instanceof PooledBuffer) {
+            ((PooledBuffer) message).release();
+        }
+    }
+
+    /**
+     * Returns the content of a message queued for writing, which is used to account for the
+     * pending bytes and, if the channel supports it, for gathering writes. The buffers are
+     * consumed by writing them.
+     *
+     * @param message the data to be written on channel.
+     * @return the content of the message, or {@code null} if it is unknown.
+     */
+    protected ByteBuffer[] buffersOf(Object message) {
+        if (message instanceof PooledBuffer) {
+            return ((PooledBuffer) message).nioBuffers();
+        }
+        if (message instanceof ByteBuffer) {
+            return new ByteBuffer[]{(ByteBuffer) message};
+        }
+        return null;
+    }
+
+    /**
+     * Whether the pending messages can be written with one gathering write of their {@link
+     * #buffersOf(Object) buffers}. Channels that have to write messages one by one, such as
+     * datagram channels, return {@code false} and are written through {@link #doWrite(Object,
+     * SelectionKey)}.
+     *
+     * @return {@code true} if the underlying channel is a connected {@link GatheringByteChannel}.
+     */
+    protected boolean supportsGatheringWrites() {
+        return false;
+    }
+
     /*
-     * Called from the context of reactor thread when the key becomes writable. The channel writes the
-     * whole pending block of data at once.
+     * Called from the context of reactor thread when the key becomes writable. The channel writes
+     * as much of the pending data as the connection accepts, many buffers at once where possible,
+     * and keeps the write interest until the queue is empty.
      */
     void flush(SelectionKey key) throws IOException {
         var pendingWrites = channelToPendingWrites.get(key.channel());
-        Object pendingWrite;
-        while ((pendingWrite = pendingWrites.poll()) != null) {
-            // ask the concrete channel to make sense of data and write it to java channel
+        if (pendingWrites == null) {
+            key.interestOps(SelectionKey.OP_READ);
+            return;
+        }
+        for (var i = 0; i < MAX_WRITES_PER_FLUSH && !pendingWrites.isEmpty(); i++) {
+            if (!writePending(pendingWrites, key)) {
+                // the socket buffer is full, wait until the key is writable again
+                break;
+            }
+        }
+        // read interest comes back once the queue has drained below the low watermark
+        key.interestOps(pendingWrites.interestOps());
+    }
+
+    /*
+     * Writes the messages at the head of the queue, returning whether everything handed to the
+     * channel was written.
+     */
+    private boolean writePending(PendingWrites pendingWrites, SelectionKey key) throws IOException {
+        if (supportsGatheringWrites()) {
+            var buffers = GATHER_BUFFERS.get();
+            var count = pendingWrites.gather(buffers);
+            if (count > 0) {
+                var expected = 0L;
+                for (var i = 0; i < count; i++) {
+                    expected += buffers[i].remaining();
+                }
+                var written = ((GatheringByteChannel) key.channel()).write(buffers, 0, count);
+                releaseAll(pendingWrites.complete(written, lowWatermark));
+                Arrays.fill(buffers, 0, count, null);
+                return written == expected;
+            }
+        }
+        // ask the concrete channel to make sense of data and write it to java channel
+        var pendingWrite = pendingWrites.peek();
+        try {
             doWrite(pendingWrite, key);
+        } finally {
+            pendingWrites.removeFirst(lowWatermark);
+            release(pendingWrite);
+        }
+        return true;
+    }
+
+    /*
+     * Called from the context of reactor thread when the connection was closed, releasing whatever
+     * could not be written anymore.
+     */
+    void discardPendingWrites(SelectionKey key) {
+        var pendingWrites = channelToPendingWrites.remove(key.channel());
+        if (pendingWrites != null) {
+            releaseAll(pendingWrites.clear());
+        }
+    }
+
+    private void releaseAll(List<Object> messages) {
+        for (var message : messages) {
+            release(message);
         }
-        // We don't have anything more to write so channel is interested in reading more data
-        reactor.changeOps(key, SelectionKey.OP_READ);
     }
 
     /**
@@ -140,14 +304,16 @@ public abstract class AbstractNioChannel {
      * Queues the data for writing. The data is not guaranteed to be written on underlying channel
      * when this method returns. It will be written when the channel is flushed.
      *
-     * <p>This method is used by the {@link ChannelHandler} to send reply back to the client. <br>
+     * <p>This method is used by the {@link ChannelHandler} to send reply back to the client. A
+     * {@link PooledBuffer} passed here is released once it has been written, so a handler echoing
+     * the buffer it received must {@link PooledBuffer#retain() retain} it. <br>
      * Example:
      *
      * <pre>
      * <code>
      * {@literal @}Override
      * public void handleChannelRead(AbstractNioChannel channel, Object readObj, SelectionKey key) {
-     *   byte[] data = ((ByteBuffer)readObj).array();
+     *   byte[] data = ((PooledBuffer)readObj).toByteArray();
      *   ByteBuffer buffer = ByteBuffer.wrap("Server reply".getBytes());
      *   channel.write(buffer, key);
      * }
@@ -158,17 +324,17 @@ public abstract class AbstractNioChannel {
      * @param key  the key which is writable.
      */
     public void write(Object data, SelectionKey key) {
-        var pendingWrites = this.channelToPendingWrites.get(key.channel());
-        if (pendingWrites == null) {
-            synchronized (this.channelToPendingWrites) {
-                pendingWrites = this.channelToPendingWrites.get(key.channel());
-                if (pendingWrites == null) {
-                    pendingWrites = new ConcurrentLinkedQueue<>();
-                    this.channelToPendingWrites.put(key.channel(), pendingWrites);
+        var pendingWrites = channelToPendingWrites.computeIfAbsent(key.channel(),
+                javaChannel -> new PendingWrites());
+        // only wake up the reactor if it is not going to flush this connection anyway
+        if (pendingWrites.add(data, buffersOf(data), highWatermark)) {
+            reactor.execute(key, () -> {
+                if (key.isValid()) {
+                    key.interestOps(pendingWrites.interestOps());
+                } else {
+                    discardPendingWrites(key);
                 }
-            }
+            });
         }
-        pendingWrites.add(data);
-        reactor.changeOps(key, SelectionKey.OP_WRITE);
     }
 }
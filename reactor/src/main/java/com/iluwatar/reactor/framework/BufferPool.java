@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.reactor.framework;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of fixed-size buffer chunks backing {@link PooledBuffer}s. Reading every event into a
+ * freshly allocated buffer makes the reactor the main source of young-generation garbage; the
+ * pool instead hands out direct chunks that return to it once the last reference to the
+ * {@link PooledBuffer} is released.
+ *
+ * <p>The pool is bounded: chunks released while it is full are left to the garbage collector,
+ * and chunks acquired while it is empty are freshly allocated.
+ */
+public class BufferPool {
+
+    /**
+     * Default chunk size, which is also the read size the channels used before pooling.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+    private static final int DEFAULT_MAX_POOLED_CHUNKS = 4096;
+    private static final BufferPool SHARED = new BufferPool(DEFAULT_CHUNK_SIZE,
+            DEFAULT_MAX_POOLED_CHUNKS, true);
+
+    private final int chunkSize;
+    private final int maxPooledChunks;
+    private final boolean direct;
+    private final Queue<ByteBuffer> chunks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledChunks = new AtomicInteger();
+    private final LongAdder allocations = new LongAdder();
+
+    /**
+     * Creates a pool.
+     *
+     * @param chunkSize       size of every chunk in bytes.
+     * @param maxPooledChunks maximum number of idle chunks kept for reuse.
+     * @param direct          whether chunks are direct or heap buffers.
+     */
+    public BufferPool(int chunkSize, int maxPooledChunks, boolean direct) {
+        if (chunkSize <= 0 || maxPooledChunks < 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.maxPooledChunks = maxPooledChunks;
+        this.direct = direct;
+    }
+
+    /**
+     * Get the pool shared by channels that are not given their own pool.
+     *
+     * @return the shared pool of direct chunks.
+     */
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Creates a pool that never reuses chunks and allocates them on the heap, which behaves like
+     * allocating a new buffer for every read.
+     *
+     * @param chunkSize size of every chunk in bytes.
+     * @return an unpooled allocator.
+     */
+    public static BufferPool unpooled(int chunkSize) {
+        return new BufferPool(chunkSize, 0, false);
+    }
+
+    /**
+     * Allocates an empty buffer holding one chunk. The caller owns the single reference to it.
+     *
+     * @return a new buffer with a reference count of one.
+     */
+    public PooledBuffer allocate() {
+        return new PooledBuffer(this);
+    }
+
+    /**
+     * Get chunk size.
+     *
+     * @return the size of every chunk in bytes.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Get allocation count.
+     *
+     * @return the number of chunks that had to be allocated because the pool was empty.
+     */
+    public long getAllocationCount() {
+        return allocations.sum();
+    }
+
+    ByteBuffer acquireChunk() {
+        var chunk = chunks.poll();
+        if (chunk != null) {
+            pooledChunks.decrementAndGet();
+            return chunk;
+        }
+        allocations.increment();
+        return direct ? ByteBuffer.allocateDirect(chunkSize) : ByteBuffer.allocate(chunkSize);
+    }
+
+    void releaseChunk(ByteBuffer chunk) {
+        if (pooledChunks.incrementAndGet() > maxPooledChunks) {
+            pooledChunks.decrementAndGet();
+            return;
+        }
+        chunk.clear();
+        chunks.offer(chunk);
+    }
+}
@@ -42,7 +42,9 @@ public interface Dispatcher {
     /**
      * This hook method is called when read event occurs on particular channel. The data read is
      * provided in <code>readObject</code>. The implementation should dispatch this read event to the
-     * associated {@link ChannelHandler} of <code>channel</code>.
+     * associated {@link ChannelHandler} of <code>channel</code> through {@link
+     * AbstractNioChannel#handleRead(Object, SelectionKey)}, which releases pooled read buffers once
+     * the handler returns.
      *
      * <p>The type of <code>readObject</code> depends on the channel on which data was received.
      *
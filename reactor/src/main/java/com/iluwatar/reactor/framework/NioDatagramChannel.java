@@ -39,7 +39,18 @@ import java.nio.channels.SelectionKey;
 @Slf4j
 public class NioDatagramChannel extends AbstractNioChannel {
 
+    /**
+     * Largest payload of a UDP datagram.
+     */
+    private static final int MAX_DATAGRAM_SIZE = 65_507;
+
     private final int port;
+    private final BufferPool bufferPool;
+    /**
+     * Datagrams have to be received into a single buffer. It is only used by the reactor thread
+     * and the datagram is copied out of it into pooled chunks.
+     */
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(MAX_DATAGRAM_SIZE);
 
     /**
      * Creates a {@link DatagramChannel} which will bind at provided port and use <code>handler</code>
@@ -53,8 +64,22 @@ public class NioDatagramChannel extends AbstractNioChannel {
      * @throws IOException if any I/O error occurs.
      */
     public NioDatagramChannel(int port, ChannelHandler handler) throws IOException {
+        this(port, handler, BufferPool.shared());
+    }
+
+    /**
+     * Creates a {@link DatagramChannel} copying received datagrams into buffers of the given pool.
+     *
+     * @param port       the port to be bound to listen for incoming datagram requests.
+     * @param handler    the handler to be used for handling incoming requests on this channel.
+     * @param bufferPool the pool providing read buffers.
+     * @throws IOException if any I/O error occurs.
+     */
+    public NioDatagramChannel(int port, ChannelHandler handler, BufferPool bufferPool)
+            throws IOException {
         super(handler, DatagramChannel.open());
         this.port = port;
+        this.bufferPool = bufferPool;
     }
 
     @Override
@@ -72,14 +97,16 @@ public class NioDatagramChannel extends AbstractNioChannel {
      */
     @Override
     public DatagramPacket read(SelectionKey key) throws IOException {
-        var buffer = ByteBuffer.allocate(1024);
-        var sender = ((DatagramChannel) key.channel()).receive(buffer);
+        receiveBuffer.clear();
+        var sender = ((DatagramChannel) key.channel()).receive(receiveBuffer);
 
         /*
          * It is required to create a DatagramPacket because we need to preserve which socket address
          * acts as destination for sending reply packets.
          */
-        buffer.flip();
+        receiveBuffer.flip();
+        var buffer = bufferPool.allocate();
+        buffer.write(receiveBuffer);
         var packet = new DatagramPacket(buffer);
         packet.setSender(sender);
 
@@ -128,12 +155,39 @@ public class NioDatagramChannel extends AbstractNioChannel {
         super.write(data, key);
     }
 
+    /**
+     * Datagrams are sent one by one, their data is only used to account for the pending bytes.
+     */
+    @Override
+    protected ByteBuffer[] buffersOf(Object message) {
+        if (message instanceof DatagramPacket) {
+            return new ByteBuffer[]{((DatagramPacket) message).getData()};
+        }
+        return super.buffersOf(message);
+    }
+
+    /**
+     * Releases the pooled buffer of a {@link DatagramPacket}.
+     */
+    @Override
+    protected void release(Object message) {
+        if (message instanceof DatagramPacket) {
+            var buffer = ((DatagramPacket) message).getBuffer();
+            if (buffer != null) {
+                buffer.release();
+            }
+        } else {
+            super.release(message);
+        }
+    }
+
     /**
      * Container of data used for {@link NioDatagramChannel} to communicate with remote peer.
      */
     public static class DatagramPacket {
         private SocketAddress sender;
         private final ByteBuffer data;
+        private final PooledBuffer buffer;
         private SocketAddress receiver;
 
         /**
@@ -143,6 +197,18 @@ public class NioDatagramChannel extends AbstractNioChannel {
          */
         public DatagramPacket(ByteBuffer data) {
             this.data = data;
+            this.buffer = null;
+        }
+
+        /**
+         * Creates a container whose data is held in a pooled buffer. The packet owns one reference
+         * to the buffer, which the channel releases after the packet was handled or written.
+         *
+         * @param buffer the underlying message to be written on channel.
+         */
+        public DatagramPacket(PooledBuffer buffer) {
+            this.data = null;
+            this.buffer = buffer;
         }
 
         /**
@@ -187,7 +253,17 @@ public class NioDatagramChannel extends AbstractNioChannel {
          * @return the underlying message that will be written on channel.
          */
         public ByteBuffer getData() {
-            return data;
+            return buffer != null ? buffer.nioBuffer() : data;
+        }
+
+        /**
+         * Get pooled buffer.
+         *
+         * @return the pooled buffer holding the message, or {@code null} if the packet wraps a plain
+         *     {@link ByteBuffer}.
+         */
+        public PooledBuffer getBuffer() {
+            return buffer;
         }
     }
 }
@@ -29,6 +29,7 @@ import java.io.IOException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
@@ -46,6 +47,12 @@ import java.util.concurrent.TimeUnit;
  * #start()} method. {@link NioReactor} uses {@link Selector} for realizing Synchronous Event
  * De-multiplexing.
  *
+ * <p>A reactor created with {@link #NioReactor(Dispatcher, int)} runs in multi-reactor mode: it
+ * only accepts connections and hands each accepted {@link SocketChannel} round-robin to one of
+ * its worker reactors. Every worker runs its own selector and event loop on its own thread, so
+ * reads and writes of different connections are spread over several cores. Channels registered
+ * directly, such as {@link NioDatagramChannel}s, stay on the accepting reactor.
+ *
  * <p>NOTE: This is one of the ways to implement NIO reactor and it does not take care of all
  * possible edge cases which are required in a real application. This implementation is meant to
  * demonstrate the fundamental concepts that lie behind Reactor pattern.
@@ -63,6 +70,11 @@ public class NioReactor {
      */
     private final Queue<Runnable> pendingCommands = new ConcurrentLinkedQueue<>();
     private final ExecutorService reactorMain = Executors.newSingleThreadExecutor();
+    /**
+     * Worker reactors serving accepted connections. Empty when this reactor serves them itself.
+     */
+    private final NioReactor[] workers;
+    private int nextWorker;
 
     /**
      * Creates a reactor which will use provided {@code dispatcher} to dispatch events. The
@@ -72,14 +84,36 @@ public class NioReactor {
      * @throws IOException if any I/O error occurs.
      */
     public NioReactor(Dispatcher dispatcher) throws IOException {
+        this(dispatcher, 0);
+    }
+
+    /**
+     * Creates an accepting reactor which hands accepted connections to {@code workerCount} worker
+     * reactors. All reactors use the provided {@code dispatcher} to dispatch read events.
+     *
+     * @param dispatcher  a non-null dispatcher used to dispatch events on registered channels.
+     * @param workerCount number of worker reactors, {@code 0} to serve connections on this reactor.
+     * @throws IOException if any I/O error occurs.
+     */
+    public NioReactor(Dispatcher dispatcher, int workerCount) throws IOException {
+        if (workerCount < 0) {
+            throw new IllegalArgumentException("workerCount must not be negative");
+        }
         this.dispatcher = dispatcher;
         this.selector = Selector.open();
+        this.workers = new NioReactor[workerCount];
+        for (var i = 0; i < workerCount; i++) {
+            workers[i] = new NioReactor(dispatcher);
+        }
     }
 
     /**
-     * Starts the reactor event loop in a new thread.
+     * Starts the reactor event loop in a new thread, after the event loops of the worker reactors.
      */
     public void start() {
+        for (var worker : workers) {
+            worker.start();
+        }
         reactorMain.execute(() -> {
             try {
                 LOGGER.info("Reactor started, waiting for events...");
@@ -101,6 +135,9 @@ public class NioReactor {
         selector.wakeup();
         reactorMain.awaitTermination(4, TimeUnit.SECONDS);
         selector.close();
+        for (var worker : workers) {
+            worker.stop();
+        }
         LOGGER.info("Reactor stopped");
     }
 
@@ -174,9 +211,13 @@ public class NioReactor {
         }
     }
 
-    private static void onChannelWritable(SelectionKey key) throws IOException {
-        var channel = (AbstractNioChannel) key.attachment();
-        channel.flush(key);
+    private static void onChannelWritable(SelectionKey key) {
+        try {
+            ((AbstractNioChannel) key.attachment()).flush(key);
+        } catch (IOException e) {
+            // the peer went away, which must not stop the reactor
+            close(key);
+        }
     }
 
     private void onChannelReadable(SelectionKey key) {
@@ -185,11 +226,16 @@ public class NioReactor {
             var readObject = ((AbstractNioChannel) key.attachment()).read(key);
             dispatchReadEvent(key, readObject);
         } catch (IOException e) {
-            try {
-                key.channel().close();
-            } catch (IOException e1) {
-                LOGGER.error("error closing channel", e1);
-            }
+            close(key);
+        }
+    }
+
+    private static void close(SelectionKey key) {
+        ((AbstractNioChannel) key.attachment()).discardPendingWrites(key);
+        try {
+            key.channel().close();
+        } catch (IOException e1) {
+            LOGGER.error("error closing channel", e1);
         }
     }
 
@@ -203,9 +249,39 @@ public class NioReactor {
     private void onChannelAcceptable(SelectionKey key) throws IOException {
         var serverSocketChannel = (ServerSocketChannel) key.channel();
         var socketChannel = serverSocketChannel.accept();
+        if (socketChannel == null) {
+            return;
+        }
         socketChannel.configureBlocking(false);
-        var readKey = socketChannel.register(selector, SelectionKey.OP_READ);
-        readKey.attach(key.attachment());
+        if (workers.length == 0) {
+            var readKey = socketChannel.register(selector, SelectionKey.OP_READ);
+            readKey.attach(key.attachment());
+            return;
+        }
+        // only the accepting reactor thread touches nextWorker
+        var worker = workers[nextWorker];
+        nextWorker = (nextWorker + 1) % workers.length;
+        worker.registerAccepted(socketChannel, (AbstractNioChannel) key.attachment());
+    }
+
+    /*
+     * Registers a connection accepted by another reactor. Registration has to happen on this
+     * reactor's thread, as it would otherwise block while the selector is selecting.
+     */
+    private void registerAccepted(SocketChannel socketChannel, AbstractNioChannel channel) {
+        pendingCommands.add(() -> {
+            try {
+                socketChannel.register(selector, SelectionKey.OP_READ, channel);
+            } catch (IOException e) {
+                LOGGER.error("error registering accepted channel", e);
+                try {
+                    socketChannel.close();
+                } catch (IOException e1) {
+                    LOGGER.error("error closing channel", e1);
+                }
+            }
+        });
+        selector.wakeup();
     }
 
     /**
@@ -219,8 +295,30 @@ public class NioReactor {
      * @param interestedOps the new interest operations.
      */
     public void changeOps(SelectionKey key, int interestedOps) {
-        pendingCommands.add(new ChangeKeyOpsCommand(key, interestedOps));
-        selector.wakeup();
+        execute(key, new ChangeKeyOpsCommand(key, interestedOps));
+    }
+
+    /*
+     * Runs the command on the event loop of the reactor owning the key and wakes it up.
+     */
+    void execute(SelectionKey key, Runnable command) {
+        var owner = ownerOf(key);
+        owner.pendingCommands.add(command);
+        owner.selector.wakeup();
+    }
+
+    /*
+     * Channels only know the accepting reactor, but the key of an accepted connection belongs to
+     * the selector of one of the workers, whose event loop must apply the change.
+     */
+    private NioReactor ownerOf(SelectionKey key) {
+        var keySelector = key.selector();
+        for (var worker : workers) {
+            if (worker.selector == keySelector) {
+                return worker;
+            }
+        }
+        return this;
     }
 
     /**
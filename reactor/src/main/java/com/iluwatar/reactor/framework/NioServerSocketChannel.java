@@ -41,6 +41,7 @@ import java.nio.channels.SocketChannel;
 public class NioServerSocketChannel extends AbstractNioChannel {
 
     private final int port;
+    private final BufferPool bufferPool;
 
     /**
      * Creates a {@link ServerSocketChannel} which will bind at provided port and use
@@ -54,8 +55,23 @@ public class NioServerSocketChannel extends AbstractNioChannel {
      * @throws IOException if any I/O error occurs.
      */
     public NioServerSocketChannel(int port, ChannelHandler handler) throws IOException {
+        this(port, handler, BufferPool.shared());
+    }
+
+    /**
+     * Creates a {@link ServerSocketChannel} reading incoming data into buffers of the given pool.
+     *
+     * @param port       the port on which channel will be bound to accept incoming connection
+     *                   requests.
+     * @param handler    the handler that will handle incoming requests on this channel.
+     * @param bufferPool the pool providing read buffers.
+     * @throws IOException if any I/O error occurs.
+     */
+    public NioServerSocketChannel(int port, ChannelHandler handler, BufferPool bufferPool)
+            throws IOException {
         super(handler, ServerSocketChannel.open());
         this.port = port;
+        this.bufferPool = bufferPool;
     }
 
 
@@ -76,18 +92,22 @@ public class NioServerSocketChannel extends AbstractNioChannel {
     }
 
     /**
-     * Reads and returns {@link ByteBuffer} from the underlying {@link SocketChannel} represented by
-     * the <code>key</code>. Due to the fact that there is a dedicated channel for each client
-     * connection we don't need to store the sender.
+     * Reads and returns a {@link PooledBuffer} from the underlying {@link SocketChannel} represented
+     * by the <code>key</code>. Due to the fact that there is a dedicated channel for each client
+     * connection we don't need to store the sender. The buffer grows beyond one chunk for larger
+     * messages and is released once the handler returns.
      */
     @Override
-    public ByteBuffer read(SelectionKey key) throws IOException {
+    public PooledBuffer read(SelectionKey key) throws IOException {
         var socketChannel = (SocketChannel) key.channel();
-        var buffer = ByteBuffer.allocate(1024);
-        var read = socketChannel.read(buffer);
-        buffer.flip();
-        if (read == -1) {
-            throw new IOException("Socket closed");
+        var buffer = bufferPool.allocate();
+        try {
+            if (buffer.readFrom(socketChannel) == -1) {
+                throw new IOException("Socket closed");
+            }
+        } catch (IOException e) {
+            buffer.release();
+            throw e;
         }
         return buffer;
     }
@@ -106,12 +126,25 @@ public class NioServerSocketChannel extends AbstractNioChannel {
     }
 
     /**
-     * Writes the pending {@link ByteBuffer} to the underlying channel sending data to the intended
-     * receiver of the packet.
+     * Pending writes of a connection are drained with gathering writes.
+     */
+    @Override
+    protected boolean supportsGatheringWrites() {
+        return true;
+    }
+
+    /**
+     * Writes the pending {@link ByteBuffer} or {@link PooledBuffer} to the underlying channel
+     * sending data to the intended receiver of the packet. The chunks of a {@link PooledBuffer} are
+     * sent with one gathering write.
      */
     @Override
     protected void doWrite(Object pendingWrite, SelectionKey key) throws IOException {
-        var pendingBuffer = (ByteBuffer) pendingWrite;
-        ((SocketChannel) key.channel()).write(pendingBuffer);
+        var socketChannel = (SocketChannel) key.channel();
+        if (pendingWrite instanceof PooledBuffer) {
+            socketChannel.write(((PooledBuffer) pendingWrite).nioBuffers());
+        } else {
+            socketChannel.write((ByteBuffer) pendingWrite);
+        }
     }
 }
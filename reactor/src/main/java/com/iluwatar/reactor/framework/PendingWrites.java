@@ -0,0 +1,205 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Messages queued for writing on one connection. Besides the messages it keeps the number of
+ * bytes they hold, so that the channel can stop reading from a peer that does not read its
+ * replies: reading is suspended once the pending bytes exceed the high watermark and resumed
+ * once they drop to the low watermark.
+ *
+ * <p>Messages are queued by handler threads and written by the reactor thread, all access goes
+ * through the monitor of this object.
+ */
+final class PendingWrites {
+
+    /**
+     * Upper bound of buffers passed to one gathering write, the usual {@code IOV_MAX}.
+     */
+    static final int MAX_BUFFERS_PER_WRITE = 1024;
+
+    private static final class Entry {
+        private final Object message;
+        private final ByteBuffer[] buffers;
+        private long remaining;
+
+        private Entry(Object message, ByteBuffer[] buffers, long remaining) {
+            this.message = message;
+            this.buffers = buffers;
+            this.remaining = remaining;
+        }
+    }
+
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private long pendingBytes;
+    private boolean readSuspended;
+
+    /**
+     * Queues a message.
+     *
+     * @param message       the message to be written.
+     * @param buffers       the content of the message, {@code null} if it is not known.
+     * @param highWatermark pending bytes above which reading is suspended.
+     * @return {@code true} if the interest operations of the key have to be updated, which is the
+     *     case when the queue was empty or reading has just been suspended.
+     */
+    synchronized boolean add(Object message, ByteBuffer[] buffers, long highWatermark) {
+        var bytes = 0L;
+        if (buffers != null) {
+            for (var buffer : buffers) {
+                bytes += buffer.remaining();
+            }
+        }
+        var wasEmpty = entries.isEmpty();
+        entries.add(new Entry(message, buffers, bytes));
+        pendingBytes += bytes;
+        if (!readSuspended && pendingBytes > highWatermark) {
+            readSuspended = true;
+            return true;
+        }
+        return wasEmpty;
+    }
+
+    /**
+     * Collects the buffers of the messages at the head of the queue for one gathering write,
+     * skipping the parts already written.
+     *
+     * @param target the array to fill.
+     * @return the number of buffers collected, {@code 0} if the head message has no buffers.
+     */
+    synchronized int gather(ByteBuffer[] target) {
+        var count = 0;
+        for (var entry : entries) {
+            if (entry.buffers == null) {
+                break;
+            }
+            for (var buffer : entry.buffers) {
+                if (count == target.length) {
+                    return count;
+                }
+                if (buffer.hasRemaining()) {
+                    target[count++] = buffer;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Accounts for {@code written} bytes of a gathering write and removes the messages that have
+     * been written completely.
+     *
+     * @param written      the number of bytes written.
+     * @param lowWatermark pending bytes at or below which reading is resumed.
+     * @return the messages written completely.
+     */
+    synchronized List<Object> complete(long written, long lowWatermark) {
+        var done = new ArrayList<>();
+        pendingBytes -= written;
+        while (!entries.isEmpty()) {
+            var entry = entries.peekFirst();
+            if (entry.buffers == null || written < entry.remaining) {
+                entry.remaining -= written;
+                break;
+            }
+            written -= entry.remaining;
+            entries.removeFirst();
+            done.add(entry.message);
+        }
+        resumeReadingIfDrained(lowWatermark);
+        return done;
+    }
+
+    /**
+     * Get the head message.
+     *
+     * @return the message, {@code null} if the queue is empty.
+     */
+    synchronized Object peek() {
+        var entry = entries.peekFirst();
+        return entry == null ? null : entry.message;
+    }
+
+    /**
+     * Removes the head message after it has been written.
+     *
+     * @param lowWatermark pending bytes at or below which reading is resumed.
+     */
+    synchronized void removeFirst(long lowWatermark) {
+        pendingBytes -= entries.removeFirst().remaining;
+        resumeReadingIfDrained(lowWatermark);
+    }
+
+    /**
+     * Removes all messages, for example when the connection was closed.
+     *
+     * @return the removed messages.
+     */
+    synchronized List<Object> clear() {
+        var removed = new ArrayList<>();
+        for (var entry : entries) {
+            removed.add(entry.message);
+        }
+        entries.clear();
+        pendingBytes = 0;
+        readSuspended = false;
+        return removed;
+    }
+
+    /**
+     * Get the interest operations matching the state of the queue.
+     *
+     * @return {@link SelectionKey#OP_READ} unless reading is suspended, plus {@link
+     *     SelectionKey#OP_WRITE} while messages are pending.
+     */
+    synchronized int interestOps() {
+        var ops = readSuspended ? 0 : SelectionKey.OP_READ;
+        return entries.isEmpty() ? ops : ops | SelectionKey.OP_WRITE;
+    }
+
+    synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    synchronized boolean isReadSuspended() {
+        return readSuspended;
+    }
+
+    private void resumeReadingIfDrained(long lowWatermark) {
+        if (readSuspended && pendingBytes <= lowWatermark) {
+            readSuspended = false;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.reactor.framework;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference-counted, growable buffer made of {@link BufferPool} chunks. A message larger than one
+ * chunk is read into several chunks instead of being truncated, and the chunks can be written
+ * back with a single gathering write.
+ *
+ * <p>The reactor creates the buffer with one reference and releases it once the
+ * {@link ChannelHandler} has returned, so the chunks go back to the pool. A handler that keeps
+ * the buffer longer, for example to {@link AbstractNioChannel#write(Object, java.nio.channels.SelectionKey)
+ * write}
+ * it back, has to {@link #retain()} it first; the channel releases it after writing.
+ */
+public final class PooledBuffer {
+
+    /**
+     * Upper bound of a single read, so one busy connection cannot monopolize the reactor.
+     */
+    static final int MAX_CHUNKS_PER_READ = 64;
+
+    private final BufferPool pool;
+    private final AtomicInteger refCount = new AtomicInteger(1);
+    private ByteBuffer[] chunks;
+    private int chunkCount;
+
+    PooledBuffer(BufferPool pool) {
+        this.pool = pool;
+        this.chunks = new ByteBuffer[1];
+        this.chunks[0] = pool.acquireChunk();
+        this.chunkCount = 1;
+    }
+
+    /**
+     * Reads whatever the channel has available, adding chunks as they fill up.
+     *
+     * @param channel the channel to read from.
+     * @return the number of bytes read, or -1 if the channel reached end-of-stream.
+     * @throws IOException if any I/O error occurs.
+     */
+    int readFrom(ReadableByteChannel channel) throws IOException {
+        var total = 0;
+        while (true) {
+            var last = chunks[chunkCount - 1];
+            if (!last.hasRemaining()) {
+                if (chunkCount == MAX_CHUNKS_PER_READ) {
+                    return total;
+                }
+                last = addChunk();
+            }
+            var remaining = last.remaining();
+            var read = channel.read(last);
+            if (read == -1) {
+                return total == 0 ? -1 : total;
+            }
+            total += read;
+            if (read < remaining) {
+                return total;
+            }
+        }
+    }
+
+    /**
+     * Appends the remaining bytes of {@code source}.
+     */
+    void write(ByteBuffer source) {
+        while (source.hasRemaining()) {
+            var last = chunks[chunkCount - 1];
+            if (!last.hasRemaining()) {
+                last = addChunk();
+            }
+            var count = Math.min(last.remaining(), source.remaining());
+            var slice = source.duplicate();
+            slice.limit(slice.position() + count);
+            last.put(slice);
+            source.position(source.position() + count);
+        }
+    }
+
+    /**
+     * Get readable bytes.
+     *
+     * @return the number of bytes held by this buffer.
+     */
+    public int readableBytes() {
+        var bytes = 0;
+        for (var i = 0; i < chunkCount; i++) {
+            bytes += chunks[i].position();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns independent views of the chunks, positioned for reading. Writing them with a
+     * gathering write sends the whole buffer without copying it.
+     *
+     * @return one view per chunk.
+     */
+    public ByteBuffer[] nioBuffers() {
+        ensureAccessible();
+        var views = new ByteBuffer[chunkCount];
+        for (var i = 0; i < chunkCount; i++) {
+            views[i] = chunks[i].duplicate().flip();
+        }
+        return views;
+    }
+
+    /**
+     * Returns the content as a single buffer positioned for reading. This is a view of the chunk
+     * when the content fits into one chunk and a heap copy otherwise.
+     *
+     * @return the content of this buffer.
+     */
+    public ByteBuffer nioBuffer() {
+        ensureAccessible();
+        if (chunkCount == 1) {
+            return chunks[0].duplicate().flip();
+        }
+        var copy = ByteBuffer.allocate(readableBytes());
+        for (var view : nioBuffers()) {
+            copy.put(view);
+        }
+        return copy.flip();
+    }
+
+    /**
+     * Copies the content into a new array.
+     *
+     * @return the content of this buffer.
+     */
+    public byte[] toByteArray() {
+        var bytes = new byte[readableBytes()];
+        nioBuffer().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Decodes the content.
+     *
+     * @param charset the charset used to decode the content.
+     * @return the decoded content.
+     */
+    public String toString(Charset charset) {
+        return charset.decode(nioBuffer()).toString();
+    }
+
+    /**
+     * Adds a reference to this buffer.
+     *
+     * @return this
+     * @throws IllegalStateException if the buffer was already released.
+     */
+    public PooledBuffer retain() {
+        while (true) {
+            var count = refCount.get();
+            if (count <= 0) {
+                throw new IllegalStateException("buffer already released");
+            }
+            if (refCount.compareAndSet(count, count + 1)) {
+                return this;
+            }
+        }
+    }
+
+    /**
+     * Drops a reference to this buffer. The chunks return to the pool when the last reference is
+     * dropped, after which the buffer must not be used anymore.
+     *
+     * @return {@code true} if this call dropped the last reference.
+     * @throws IllegalStateException if the buffer was already released.
+     */
+    public boolean release() {
+        var count = refCount.decrementAndGet();
+        if (count > 0) {
+            return false;
+        }
+        if (count < 0) {
+            throw new IllegalStateException("buffer already released");
+        }
+        for (var i = 0; i < chunkCount; i++) {
+            pool.releaseChunk(chunks[i]);
+            chunks[i] = null;
+        }
+        chunkCount = 0;
+        return true;
+    }
+
+    /**
+     * Get reference count.
+     *
+     * @return the number of references held to this buffer.
+     */
+    public int refCount() {
+        return refCount.get();
+    }
+
+    private ByteBuffer addChunk() {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        var chunk = pool.acquireChunk();
+        chunks[chunkCount++] = chunk;
+        return chunk;
+    }
+
+    private void ensureAccessible() {
+        if (refCount.get() <= 0) {
+            throw new IllegalStateException("buffer already released");
+        }
+    }
+}
@@ -46,7 +46,7 @@ public class SameThreadDispatcher implements Dispatcher {
          * Calls the associated handler to notify the read event where application specific code
          * resides.
          */
-        channel.getHandler().handleChannelRead(channel, readObject, key);
+        channel.handleRead(readObject, key);
     }
 
     /**
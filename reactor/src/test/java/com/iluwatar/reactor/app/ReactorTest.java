@@ -102,4 +102,36 @@ class ReactorTest {
         app.stop();
         LOGGER.info("testAppUsingSameThreadDispatcher stop");
     }
+
+    /**
+     * Test the application with an accepting reactor handing connections to worker reactors.
+     *
+     * @throws IOException          if any I/O error occurs.
+     * @throws InterruptedException if interrupted while stopping the application.
+     */
+    @Test
+    void testAppUsingWorkerReactors() throws IOException, InterruptedException {
+        LOGGER.info("testAppUsingWorkerReactors start");
+        var app = new App(new ThreadPoolDispatcher(2), 2);
+        app.start();
+
+        assertNotNull(app);
+
+        var client = new AppClient();
+        client.start();
+
+        assertNotNull(client);
+
+        // allow clients to send requests. Artificial delay.
+        try {
+            Thread.sleep(2000);
+        } catch (InterruptedException e) {
+            LOGGER.error("sleep interrupted", e);
+        }
+
+        client.stop();
+
+        app.stop();
+        LOGGER.info("testAppUsingWorkerReactors stop");
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link PendingWrites}.
+ */
+class PendingWritesTest {
+
+    private static ByteBuffer[] bytes(int count) {
+        return new ByteBuffer[]{ByteBuffer.allocate(count)};
+    }
+
+    @Test
+    void onlyFirstMessageRequestsWakeup() {
+        var pendingWrites = new PendingWrites();
+
+        assertTrue(pendingWrites.add("first", bytes(10), 100));
+        assertFalse(pendingWrites.add("second", bytes(10), 100));
+        assertEquals(20, pendingWrites.getPendingBytes());
+        assertEquals(SelectionKey.OP_READ | SelectionKey.OP_WRITE, pendingWrites.interestOps());
+    }
+
+    @Test
+    void watermarksSuspendAndResumeReading() {
+        var pendingWrites = new PendingWrites();
+        pendingWrites.add("a", bytes(60), 100);
+
+        assertTrue(pendingWrites.add("b", bytes(60), 100));
+        assertTrue(pendingWrites.isReadSuspended());
+        assertEquals(SelectionKey.OP_WRITE, pendingWrites.interestOps());
+
+        pendingWrites.complete(60, 50);
+        assertTrue(pendingWrites.isReadSuspended());
+        pendingWrites.complete(10, 50);
+        assertFalse(pendingWrites.isReadSuspended());
+        assertEquals(SelectionKey.OP_READ | SelectionKey.OP_WRITE, pendingWrites.interestOps());
+    }
+
+    @Test
+    void partialGatheringWriteKeepsUnwrittenMessages() {
+        var pendingWrites = new PendingWrites();
+        var first = bytes(10);
+        var second = bytes(10);
+        pendingWrites.add("first", first, 100);
+        pendingWrites.add("second", second, 100);
+        var target = new ByteBuffer[4];
+
+        assertEquals(2, pendingWrites.gather(target));
+        // a write consumes the buffers it handed to the channel
+        first[0].position(10);
+        second[0].position(5);
+        assertEquals(List.of("first"), pendingWrites.complete(15, 0));
+        assertEquals(5, pendingWrites.getPendingBytes());
+
+        assertEquals(1, pendingWrites.gather(target));
+        assertEquals(5, target[0].remaining());
+        second[0].position(10);
+        assertEquals(List.of("second"), pendingWrites.complete(5, 0));
+        assertTrue(pendingWrites.isEmpty());
+        assertEquals(SelectionKey.OP_READ, pendingWrites.interestOps());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link PooledBuffer} and {@link BufferPool}.
+ */
+class PooledBufferTest {
+
+    @Test
+    void readsMessagesLargerThanOneChunk() throws Exception {
+        var pool = new BufferPool(16, 8, true);
+        var message = new byte[100];
+        Arrays.fill(message, (byte) 'x');
+        var buffer = pool.allocate();
+
+        var read = buffer.readFrom(Channels.newChannel(new ByteArrayInputStream(message)));
+
+        assertEquals(100, read);
+        assertEquals(100, buffer.readableBytes());
+        assertEquals(7, buffer.nioBuffers().length);
+        assertArrayEquals(message, buffer.toByteArray());
+        assertEquals(-1, pool.allocate().readFrom(
+                Channels.newChannel(new ByteArrayInputStream(new byte[0]))));
+    }
+
+    @Test
+    void releasingLastReferenceReturnsChunksToPool() {
+        var pool = new BufferPool(16, 8, true);
+        var buffer = pool.allocate();
+        buffer.write(ByteBuffer.wrap(new byte[40]));
+        assertEquals(3, pool.getAllocationCount());
+
+        buffer.retain();
+        assertFalse(buffer.release());
+        assertTrue(buffer.release());
+
+        var reused = pool.allocate();
+        reused.write(ByteBuffer.wrap(new byte[40]));
+        assertEquals(3, pool.getAllocationCount());
+        assertEquals(40, reused.readableBytes());
+    }
+
+    @Test
+    void releasedBufferCannotBeUsed() {
+        var buffer = BufferPool.unpooled(16).allocate();
+        assertTrue(buffer.release());
+
+        assertThrows(IllegalStateException.class, buffer::release);
+        assertThrows(IllegalStateException.class, buffer::retain);
+        assertThrows(IllegalStateException.class, buffer::nioBuffer);
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * ShardManager with consistent hashing strategy. Every shard is placed on a hash ring at a number
+ * of virtual nodes and a key belongs to the shard at the first virtual node following the hash of
+ * the key. Adding or removing a shard therefore only reassigns the keys next to its virtual nodes,
+ * about {@code 1 / shardCount} of them, where {@link HashShardManager} remaps almost every key.
+ *
+ * <p>Adding or removing a shard publishes the new ring first and then moves the affected data.
+ * Writers always store into the owner according to the current ring, so {@link #storeData(Data)}
+ * keeps working while data moves, and {@link #getData(int)} also looks at the previous owner until
+ * the move has finished.
+ */
+@Slf4j
+public class ConsistentHashShardManager extends ShardManager {
+
+    /**
+     * Default number of virtual nodes per shard, which keeps the shard sizes within a few percent.
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final int virtualNodes;
+    private volatile Ring ring = Ring.EMPTY;
+    /**
+     * The ring data is moved away from, {@code null} when no data is moving.
+     */
+    private volatile Ring previousRing;
+
+    public ConsistentHashShardManager() {
+        this(DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Constructor of ConsistentHashShardManager class.
+     *
+     * @param virtualNodes number of virtual nodes per shard
+     */
+    public ConsistentHashShardManager(final int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * Add a shard and move the data it takes over from its neighbours on the ring.
+     */
+    @Override
+    public synchronized boolean addNewShard(final Shard shard) {
+        if (!super.addNewShard(shard)) {
+            return false;
+        }
+        var oldRing = ring;
+        var newRing = Ring.of(shardMap.values(), virtualNodes);
+        // only the shards following the new virtual nodes lose keys
+        var sources = new HashSet<Shard>();
+        for (var replica = 0; replica < virtualNodes; replica++) {
+            var source = oldRing.shardAt(Ring.point(shard.getId(), replica));
+            if (source != null) {
+                sources.add(source);
+            }
+        }
+        var moved = rebalance(oldRing, newRing, sources);
+        LOGGER.info("Shard " + shard.getId() + " is added, " + moved + " entries moved");
+        return true;
+    }
+
+    /**
+     * Remove a shard after moving its data to the shards that take over its keys. The last shard
+     * has nowhere to move its data to, so its data is dropped together with it.
+     */
+    @Override
+    public synchronized boolean removeShardById(final int shardId) {
+        var shard = shardMap.get(shardId);
+        if (shard == null) {
+            return false;
+        }
+        if (shardMap.size() == 1) {
+            var dropped = shard.size();
+            super.removeShardById(shardId);
+            ring = Ring.EMPTY;
+            shard.clearData();
+            LOGGER.info("Shard " + shardId + " is removed, " + dropped + " entries dropped");
+            return true;
+        }
+        super.removeShardById(shardId);
+        var oldRing = ring;
+        var newRing = Ring.of(shardMap.values(), virtualNodes);
+        var moved = rebalance(oldRing, newRing, Set.of(shard));
+        LOGGER.info("Shard " + shardId + " is removed, " + moved + " entries moved");
+        return true;
+    }
+
+    /**
+     * Move every entry that is not stored in the shard owning its key. Adding and removing shards
+     * already does this, so it is only needed after shards were filled directly.
+     *
+     * @return number of entries moved
+     */
+    public synchronized int rebalance() {
+        var current = ring;
+        return rebalance(current, current, shardMap.values());
+    }
+
+    @Override
+    public int storeData(Data data) {
+        var shardId = store(data);
+        LOGGER.info(data.toString() + " is stored in Shard " + shardId);
+        return shardId;
+    }
+
+    /**
+     * Stores every entry with the owner according to the current ring, as the ring may have
+     * changed since the group was allocated.
+     */
+    @Override
+    protected void storeGroup(int shardId, List<Data> group) {
+        for (var data : group) {
+            store(data);
+        }
+    }
+
+    /**
+     * Get data by key from the shard owning it.
+     *
+     * @param key data key
+     * @return the data, {@code null} if there is no data stored for the key
+     */
+    public Data getData(final int key) {
+        var current = ring;
+        var data = current.shardFor(key).getDataById(key);
+        if (data != null) {
+            return data;
+        }
+        var previous = previousRing;
+        if (previous == null) {
+            return null;
+        }
+        data = previous.shardFor(key).getDataById(key);
+        // the data may have moved between the two lookups
+        return data != null ? data : current.shardFor(key).getDataById(key);
+    }
+
+    @Override
+    protected int allocateShard(Data data) {
+        return ring.shardFor(data.getKey()).getId();
+    }
+
+    private int store(Data data) {
+        while (true) {
+            var current = ring;
+            var shard = current.shardFor(data.getKey());
+            shard.storeData(data);
+            var latest = ring;
+            if (latest == current || latest.shardFor(data.getKey()) == shard) {
+                return shard.getId();
+            }
+            // the ring changed while storing, the data may have been missed by the move
+            shard.removeData(data);
+        }
+    }
+
+    private int rebalance(Ring oldRing, Ring newRing, Collection<Shard> sources) {
+        previousRing = oldRing;
+        ring = newRing;
+        var moved = 0;
+        try {
+            for (var source : sources) {
+                for (var data : source.getAllData()) {
+                    var owner = newRing.shardFor(data.getKey());
+                    if (owner == source) {
+                        continue;
+                    }
+                    // data stored by a writer in the meantime is newer than the moved one
+                    owner.storeDataIfAbsent(data);
+                    source.removeData(data);
+                    moved++;
+                }
+            }
+        } finally {
+            previousRing = null;
+        }
+        return moved;
+    }
+
+    /**
+     * Immutable hash ring, sorted by the position of the virtual nodes. Instead of a binary search
+     * over all virtual nodes, a lookup jumps to the first node of the bucket holding the hash,
+     * indexed by its top bits, and usually finds the owner within one or two steps.
+     */
+    static final class Ring {
+
+        static final Ring EMPTY = new Ring(new long[0], new Shard[0]);
+
+        private final long[] points;
+        private final Shard[] shards;
+        private final int bucketShift;
+        private final int[] bucketStarts;
+
+        private Ring(long[] points, Shard[] shards) {
+            this.points = points;
+            this.shards = shards;
+            var bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(points.length));
+            this.bucketShift = 64 - bits;
+            this.bucketStarts = new int[(1 << bits) + 1];
+            var index = 0;
+            for (var bucket = 0; bucket < bucketStarts.length; bucket++) {
+                while (index < points.length && bucketOf(points[index]) < bucket) {
+                    index++;
+                }
+                bucketStarts[bucket] = index;
+            }
+        }
+
+        static Ring of(Collection<Shard> shards, int virtualNodes) {
+            var nodes = new TreeMap<Long, Shard>();
+            for (var shard : shards) {
+                for (var replica = 0; replica < virtualNodes; replica++) {
+                    nodes.put(point(shard.getId(), replica), shard);
+                }
+            }
+            var points = new long[nodes.size()];
+            var owners = new Shard[nodes.size()];
+            var i = 0;
+            for (var node : nodes.entrySet()) {
+                points[i] = node.getKey();
+                owners[i++] = node.getValue();
+            }
+            return new Ring(points, owners);
+        }
+
+        static long point(int shardId, int replica) {
+            return hash(((long) shardId << 32) | replica);
+        }
+
+        Shard shardFor(int key) {
+            var shard = shardAt(hash(key));
+            if (shard == null) {
+                throw new IllegalStateException("No shard available");
+            }
+            return shard;
+        }
+
+        /**
+         * Returns the shard of the first virtual node at or after the point, wrapping around.
+         */
+        Shard shardAt(long point) {
+            if (points.length == 0) {
+                return null;
+            }
+            var index = bucketStarts[bucketOf(point)];
+            while (index < points.length && points[index] < point) {
+                index++;
+            }
+            return shards[index == points.length ? 0 : index];
+        }
+
+        /**
+         * Top bits of the point, with the sign flipped so that buckets follow the order of the
+         * points.
+         */
+        private int bucketOf(long point) {
+            return (int) ((point ^ Long.MIN_VALUE) >>> bucketShift);
+        }
+
+        /**
+         * Finalizer of MurmurHash3, spreading consecutive keys over the whole ring.
+         */
+        private static long hash(long value) {
+            var h = value;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
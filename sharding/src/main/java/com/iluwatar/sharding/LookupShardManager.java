@@ -25,9 +25,9 @@ package com.iluwatar.sharding;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.security.SecureRandom;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * ShardManager with lookup strategy. In this strategy the sharding logic implements
@@ -37,27 +37,27 @@ import java.util.Map;
 @Slf4j
 public class LookupShardManager extends ShardManager {
 
-    private final Map<Integer, Integer> lookupMap = new HashMap<>();
+    private final Map<Integer, Integer> lookupMap = new ConcurrentHashMap<>();
 
     @Override
     public int storeData(Data data) {
         var shardId = allocateShard(data);
-        lookupMap.put(data.getKey(), shardId);
         var shard = shardMap.get(shardId);
         shard.storeData(data);
         LOGGER.info(data.toString() + " is stored in Shard " + shardId);
         return shardId;
     }
 
+    /**
+     * Returns the shard the key is mapped to, mapping an unknown key to a random shard. Concurrent
+     * writers of the same key agree on one shard.
+     */
     @Override
     protected int allocateShard(Data data) {
-        var key = data.getKey();
-        if (lookupMap.containsKey(key)) {
-            return lookupMap.get(key);
-        } else {
-            var shardCount = shardMap.size();
-            return new SecureRandom().nextInt(shardCount - 1) + 1;
-        }
+        return lookupMap.computeIfAbsent(data.getKey(), key -> {
+            var shardIds = shardMap.keySet().toArray(new Integer[0]);
+            return shardIds[ThreadLocalRandom.current().nextInt(shardIds.length)];
+        });
     }
 
 }
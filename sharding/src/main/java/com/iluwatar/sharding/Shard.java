@@ -23,11 +23,17 @@
 
 package com.iluwatar.sharding;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
- * The Shard class stored data in a HashMap.
+ * The Shard class stored data in a ConcurrentHashMap, so that data can be moved between shards
+ * while it is being written.
  */
 public class Shard {
 
@@ -37,13 +43,70 @@ public class Shard {
 
     public Shard(final int id) {
         this.id = id;
-        this.dataStore = new HashMap<>();
+        this.dataStore = new ConcurrentHashMap<>();
     }
 
     public void storeData(Data data) {
         dataStore.put(data.getKey(), data);
     }
 
+    /**
+     * Store a batch of data.
+     *
+     * @param data data to store
+     */
+    public void storeAll(Collection<Data> data) {
+        for (var item : data) {
+            dataStore.put(item.getKey(), item);
+        }
+    }
+
+    /**
+     * Find the stored data matching the filter.
+     *
+     * @param filter condition the data has to match
+     * @return the matching data, ordered by key
+     */
+    public List<Data> findData(Predicate<Data> filter) {
+        return dataStore.values().stream()
+                .filter(filter)
+                .sorted(Comparator.comparingInt(Data::getKey))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Store data unless data with the same key is already stored.
+     *
+     * @param data data to store
+     * @return {@code true} if the data was stored
+     */
+    public boolean storeDataIfAbsent(Data data) {
+        return dataStore.putIfAbsent(data.getKey(), data) == null;
+    }
+
+    /**
+     * Remove the provided data instance, unless it has been replaced in the meantime.
+     *
+     * @param data data to remove
+     * @return {@code true} if the data was removed
+     */
+    public boolean removeData(Data data) {
+        return dataStore.remove(data.getKey(), data);
+    }
+
+    /**
+     * Get a snapshot of the stored data.
+     *
+     * @return all data stored in this shard
+     */
+    public List<Data> getAllData() {
+        return List.copyOf(dataStore.values());
+    }
+
+    public int size() {
+        return dataStore.size();
+    }
+
     public void clearData() {
         dataStore.clear();
     }
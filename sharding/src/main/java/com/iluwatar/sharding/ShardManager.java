@@ -25,19 +25,44 @@ package com.iluwatar.sharding;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 
 /**
  * Abstract class for ShardManager.
+ *
+ * <p>Shards can be added, removed and written concurrently. Bulk writes and queries fan out to
+ * the shards on an {@link Executor}, the common fork-join pool unless another one is set.
  */
 @Slf4j
 public abstract class ShardManager {
 
     protected Map<Integer, Shard> shardMap;
 
+    private volatile Executor executor = ForkJoinPool.commonPool();
+
     public ShardManager() {
-        shardMap = new HashMap<>();
+        shardMap = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Set the executor used to write and query the shards in parallel.
+     *
+     * @param executor executor running one task per shard
+     */
+    public void setExecutor(final Executor executor) {
+        this.executor = executor;
     }
 
     /**
@@ -48,13 +73,7 @@ public abstract class ShardManager {
      * {@code false} if the shardId is already existed.
      */
     public boolean addNewShard(final Shard shard) {
-        var shardId = shard.getId();
-        if (!shardMap.containsKey(shardId)) {
-            shardMap.put(shardId, shard);
-            return true;
-        } else {
-            return false;
-        }
+        return shardMap.putIfAbsent(shard.getId(), shard) == null;
     }
 
     /**
@@ -64,12 +83,7 @@ public abstract class ShardManager {
      * @return {@code true} if removed. {@code false} if the shardId is not existed.
      */
     public boolean removeShardById(final int shardId) {
-        if (shardMap.containsKey(shardId)) {
-            shardMap.remove(shardId);
-            return true;
-        } else {
-            return false;
-        }
+        return shardMap.remove(shardId) != null;
     }
 
     /**
@@ -90,6 +104,97 @@ public abstract class ShardManager {
      */
     public abstract int storeData(final Data data);
 
+    /**
+     * Store a batch of data. The data is grouped by shard and the groups are written in parallel.
+     *
+     * @param data new data
+     * @return number of entries stored per shard id
+     */
+    public Map<Integer, Integer> storeAll(final Collection<Data> data) {
+        var groups = new HashMap<Integer, List<Data>>();
+        for (var item : data) {
+            groups.computeIfAbsent(allocateShard(item), shardId -> new ArrayList<>()).add(item);
+        }
+        var writes = new ArrayList<CompletableFuture<Void>>();
+        for (var group : groups.entrySet()) {
+            writes.add(CompletableFuture.runAsync(
+                    () -> storeGroup(group.getKey(), group.getValue()), executor));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+        var counts = new HashMap<Integer, Integer>();
+        for (var group : groups.entrySet()) {
+            LOGGER.info(group.getValue().size() + " entries are stored in Shard " + group.getKey());
+            counts.put(group.getKey(), group.getValue().size());
+        }
+        return counts;
+    }
+
+    /**
+     * Find the data of the provided type in all shards.
+     *
+     * @param type data type
+     * @return the matching data, ordered by key
+     */
+    public List<Data> findByType(final Data.DataType type) {
+        return scatterGather(data -> data.getType() == type);
+    }
+
+    /**
+     * Find the data with keys in the provided range in all shards.
+     *
+     * @param fromKey lowest key, inclusive
+     * @param toKey   highest key, exclusive
+     * @return the matching data, ordered by key
+     */
+    public List<Data> findByKeyRange(final int fromKey, final int toKey) {
+        return scatterGather(data -> data.getKey() >= fromKey && data.getKey() < toKey);
+    }
+
+    /**
+     * Write a group of data allocated to the same shard.
+     *
+     * @param shardId id of the shard the data was allocated to
+     * @param group   data to store
+     */
+    protected void storeGroup(final int shardId, final List<Data> group) {
+        shardMap.get(shardId).storeAll(group);
+    }
+
+    /**
+     * Query every shard in parallel and merge the per-shard results, which are ordered by key.
+     * Data seen in two shards while it moves between them is only returned once.
+     *
+     * @param filter condition the data has to match
+     * @return the matching data, ordered by key
+     */
+    protected List<Data> scatterGather(final Predicate<Data> filter) {
+        var queries = new ArrayList<CompletableFuture<List<Data>>>();
+        for (var shard : shardMap.values()) {
+            queries.add(CompletableFuture.supplyAsync(() -> shard.findData(filter), executor));
+        }
+        var heads = new PriorityQueue<Map.Entry<Data, Iterator<Data>>>(
+                Comparator.comparingInt(head -> head.getKey().getKey()));
+        for (var query : queries) {
+            var iterator = query.join().iterator();
+            if (iterator.hasNext()) {
+                heads.add(Map.entry(iterator.next(), iterator));
+            }
+        }
+        var result = new ArrayList<Data>();
+        while (!heads.isEmpty()) {
+            var head = heads.poll();
+            var data = head.getKey();
+            if (result.isEmpty() || result.get(result.size() - 1).getKey() != data.getKey()) {
+                result.add(data);
+            }
+            var iterator = head.getValue();
+            if (iterator.hasNext()) {
+                heads.add(Map.entry(iterator.next(), iterator));
+            }
+        }
+        return result;
+    }
+
     /**
      * Allocate proper shard to provided data.
      *
@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Compares the shard managers when a shard is added: the share of keys whose shard changes and
+ * the cost of looking up the shard of a key.
+ *
+ * <p>Usage: {@code ShardingBenchmark [keys] [shards]}.
+ */
+@Slf4j
+public final class ShardingBenchmark {
+
+    private static final int LOOKUP_ROUNDS = 20;
+
+    private ShardingBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional number of keys and of shards before one is added
+     */
+    public static void main(String[] args) {
+        var keys = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        var shards = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        var data = data(keys);
+        quietManagerLogging();
+
+        run("hash", HashShardManager::new, data, shards);
+        run("lookup", LookupShardManager::new, data, shards);
+        run("range", RangeShardManager::new, data, shards);
+        run("consistent-hash", ConsistentHashShardManager::new, data, shards);
+    }
+
+    private static void run(String name, Supplier<ShardManager> factory, Data[] data, int shards) {
+        var manager = factory.get();
+        for (var id = 1; id <= shards; id++) {
+            manager.addNewShard(new Shard(id));
+        }
+        var before = new int[data.length];
+        for (var i = 0; i < data.length; i++) {
+            // storing fills the lookup table of the lookup strategy
+            before[i] = manager.storeData(data[i]);
+        }
+        var nanos = lookupNanos(manager, data);
+
+        manager.addNewShard(new Shard(shards + 1));
+        var moved = 0;
+        for (var i = 0; i < data.length; i++) {
+            if (manager.allocateShard(data[i]) != before[i]) {
+                moved++;
+            }
+        }
+        LOGGER.info("{}: keys moved when adding shard {} = {}%, lookup = {} ns/key", name,
+                shards + 1, String.format("%.1f", moved * 100.0 / data.length),
+                String.format("%.1f", nanos));
+    }
+
+    private static double lookupNanos(ShardManager manager, Data[] data) {
+        var sink = 0L;
+        var best = Long.MAX_VALUE;
+        for (var round = 0; round < LOOKUP_ROUNDS; round++) {
+            var start = System.nanoTime();
+            for (var item : data) {
+                sink += manager.allocateShard(item);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        if (sink == 42) {
+            LOGGER.debug("unlikely");
+        }
+        return (double) best / data.length;
+    }
+
+    private static Data[] data(int count) {
+        var random = new Random(42);
+        var types = Data.DataType.values();
+        var data = new Data[count];
+        for (var i = 0; i < count; i++) {
+            var key = random.nextInt(Integer.MAX_VALUE);
+            data[i] = new Data(key, "data" + key, types[random.nextInt(types.length)]);
+        }
+        return data;
+    }
+
+    /**
+     * The managers log every stored entry, which would otherwise dominate the measurement.
+     */
+    private static void quietManagerLogging() {
+        ((Logger) LoggerFactory.getLogger(HashShardManager.class)).setLevel(Level.WARN);
+        ((Logger) LoggerFactory.getLogger(LookupShardManager.class)).setLevel(Level.WARN);
+        ((Logger) LoggerFactory.getLogger(RangeShardManager.class)).setLevel(Level.WARN);
+        ((Logger) LoggerFactory.getLogger(ConsistentHashShardManager.class)).setLevel(Level.WARN);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for ConsistentHashShardManager class.
+ */
+class ConsistentHashShardManagerTest {
+
+    private static final int KEY_COUNT = 2_000;
+
+    private ConsistentHashShardManager manager;
+
+    /**
+     * Initialize manager instance with four shards.
+     */
+    @BeforeEach
+    public void setup() {
+        manager = new ConsistentHashShardManager();
+        for (var id = 1; id <= 4; id++) {
+            manager.addNewShard(new Shard(id));
+        }
+    }
+
+    private static Data data(int key) {
+        return new Data(key, "data" + key, Data.DataType.TYPE_1);
+    }
+
+    @Test
+    void testStoreData() {
+        var data = data(1);
+        var shardId = manager.storeData(data);
+        assertSame(data, manager.getShardById(shardId).getDataById(1));
+        assertSame(data, manager.getData(1));
+    }
+
+    @Test
+    void testAddShardMovesOnlyAffectedData() {
+        var owners = new HashMap<Integer, Integer>();
+        for (var key = 0; key < KEY_COUNT; key++) {
+            owners.put(key, manager.storeData(data(key)));
+        }
+
+        manager.addNewShard(new Shard(5));
+
+        var moved = 0;
+        for (var key = 0; key < KEY_COUNT; key++) {
+            var owner = manager.allocateShard(data(key));
+            if (owner != owners.get(key)) {
+                assertEquals(5, owner);
+                moved++;
+            }
+            assertEquals(key, manager.getShardById(owner).getDataById(key).getKey());
+        }
+        assertEquals(moved, manager.getShardById(5).size());
+        // about a fifth of the keys move to the new shard
+        assertTrue(moved > KEY_COUNT / 10 && moved < KEY_COUNT * 3 / 10, "moved " + moved);
+    }
+
+    @Test
+    void testRemoveShardKeepsData() {
+        for (var key = 0; key < KEY_COUNT; key++) {
+            manager.storeData(data(key));
+        }
+
+        assertTrue(manager.removeShardById(2));
+        assertFalse(manager.removeShardById(2));
+
+        var total = 0;
+        for (var id : new int[]{1, 3, 4}) {
+            total += manager.getShardById(id).size();
+        }
+        assertEquals(KEY_COUNT, total);
+        for (var key = 0; key < KEY_COUNT; key++) {
+            assertEquals(key, manager.getData(key).getKey());
+        }
+    }
+
+    @Test
+    void testRemoveLastShardDropsData() {
+        var single = new ConsistentHashShardManager();
+        var shard = new Shard(1);
+        single.addNewShard(shard);
+        single.storeData(data(1));
+
+        assertTrue(single.removeShardById(1));
+
+        assertNull(single.getShardById(1));
+        assertEquals(0, shard.size());
+        assertThrows(IllegalStateException.class, () -> single.getData(1));
+        // the manager is still usable once a shard is added again
+        single.addNewShard(new Shard(2));
+        assertEquals(2, single.storeData(data(1)));
+        assertEquals(1, single.getData(1).getKey());
+    }
+
+    @Test
+    void testStoreDataWhileRebalancing() throws Exception {
+        var executor = Executors.newFixedThreadPool(4);
+        var futures = new ArrayList<Future<?>>();
+        for (var t = 0; t < 4; t++) {
+            var offset = t * KEY_COUNT;
+            futures.add(executor.submit(() -> {
+                for (var key = offset; key < offset + KEY_COUNT; key++) {
+                    manager.storeData(data(key));
+                }
+            }));
+        }
+        for (var id = 5; id <= 8; id++) {
+            manager.addNewShard(new Shard(id));
+        }
+        manager.removeShardById(1);
+        for (var future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        var total = 0;
+        for (var id = 2; id <= 8; id++) {
+            total += manager.getShardById(id).size();
+        }
+        assertEquals(4 * KEY_COUNT, total);
+        for (var key = 0; key < 4 * KEY_COUNT; key++) {
+            assertEquals(key, manager.getData(key).getKey());
+        }
+    }
+}
@@ -26,6 +26,9 @@ package com.iluwatar.sharding;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
@@ -56,4 +59,24 @@ class HashShardManagerTest {
         assertEquals(data, hashShardManager.getShardById(1).getDataById(1));
     }
 
+    @Test
+    void testStoreAllAndScatterGather() {
+        var data = new ArrayList<Data>();
+        var types = Data.DataType.values();
+        for (var key = 1; key <= 30; key++) {
+            data.add(new Data(key, "data" + key, types[key % types.length]));
+        }
+
+        var counts = hashShardManager.storeAll(data);
+
+        assertEquals(Map.of(1, 10, 2, 10, 3, 10), counts);
+        assertEquals(data.get(3), hashShardManager.getShardById(1).getDataById(4));
+        var type1 = hashShardManager.findByType(Data.DataType.TYPE_1);
+        assertEquals(10, type1.size());
+        assertEquals(3, type1.get(0).getKey());
+        assertEquals(30, type1.get(9).getKey());
+        var range = hashShardManager.findByKeyRange(10, 20);
+        assertEquals(data.subList(9, 19), range);
+    }
+
 }
@@ -26,9 +26,14 @@ package com.iluwatar.sharding;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 /**
@@ -67,4 +72,29 @@ class LookupShardManagerTest {
             fail("Fail to modify field access.");
         }
     }
+
+    @Test
+    void testConcurrentStoreDataKeepsOneShardPerKey() throws Exception {
+        var executor = Executors.newFixedThreadPool(4);
+        var futures = new ArrayList<Future<?>>();
+        for (var t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                for (var key = 0; key < 500; key++) {
+                    lookupShardManager.storeData(new Data(key, "data" + key, Data.DataType.TYPE_1));
+                }
+            }));
+        }
+        for (var future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        var total = 0;
+        for (var id = 1; id <= 3; id++) {
+            total += lookupShardManager.getShardById(id).size();
+        }
+        assertEquals(500, total);
+        assertEquals(500, lookupShardManager.findByKeyRange(0, 500).size());
+    }
 }
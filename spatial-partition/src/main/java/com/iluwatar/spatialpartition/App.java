@@ -26,7 +26,9 @@ package com.iluwatar.spatialpartition;
 import lombok.extern.slf4j.Slf4j;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * <p>The idea behind the <b>Spatial Partition</b> design pattern is to enable efficient location
@@ -103,6 +105,47 @@ public class App {
         bubbles.keySet().stream().map(key -> BUBBLE + key + " not popped").forEach(LOGGER::info);
     }
 
+    static void withParallelSpatialPartition(
+            int height, int width, int numOfMovements, HashMap<Integer, Bubble> bubbles) {
+        var rect = new Rect(width / 2D, height / 2D, width, height);
+
+        //will run numOfMovement times or till all bubbles have popped
+        while (numOfMovements > 0 && !bubbles.isEmpty()) {
+            //all bubbles move first, then the collisions of the frame are looked up in parallel
+            bubbles.values().forEach(Bubble::move);
+            var quadTree = new QuadTree(rect, 4);
+            bubbles.values().forEach(quadTree::insert);
+            var sp = new SpatialPartitionBubbles(bubbles, quadTree);
+            sp.handleCollisionsInParallel(ForkJoinPool.commonPool());
+            numOfMovements--;
+        }
+        //bubbles not popped
+        bubbles.keySet().stream().map(key -> BUBBLE + key + " not popped").forEach(LOGGER::info);
+    }
+
+    static void withFlatSpatialPartition(
+            int height, int width, int numOfMovements, HashMap<Integer, Bubble> bubbles) {
+        //the flat quadtree keeps its arrays from one frame to the next
+        var tree = new FlatQuadTree(new Rect(width / 2D, height / 2D, width, height), 4);
+        var sp = new FlatQuadTreeBubbles(bubbles, tree);
+
+        //will run numOfMovement times or till all bubbles have popped
+        while (numOfMovements > 0 && !bubbles.isEmpty()) {
+            //quadtree bulk-loaded each time
+            tree.rebuild(bubbles.values());
+            for (var bubble : new ArrayList<>(bubbles.values())) {
+                //bubbles popped earlier in the frame are skipped
+                if (bubbles.containsKey(bubble.id)) {
+                    bubble.move();
+                    sp.handleCollisionsUsingQt(bubble);
+                }
+            }
+            numOfMovements--;
+        }
+        //bubbles not popped
+        bubbles.keySet().stream().map(key -> BUBBLE + key + " not popped").forEach(LOGGER::info);
+    }
+
     /**
      * Program entry point.
      *
@@ -112,11 +155,15 @@ public class App {
     public static void main(String[] args) {
         var bubbles1 = new HashMap<Integer, Bubble>();
         var bubbles2 = new HashMap<Integer, Bubble>();
+        var bubbles3 = new HashMap<Integer, Bubble>();
+        var bubbles4 = new HashMap<Integer, Bubble>();
         var rand = new SecureRandom();
         for (int i = 0; i < 10000; i++) {
             var b = new Bubble(rand.nextInt(300), rand.nextInt(300), i, rand.nextInt(2) + 1);
             bubbles1.put(i, b);
             bubbles2.put(i, b);
+            bubbles3.put(i, b);
+            bubbles4.put(i, b);
             LOGGER.info(BUBBLE, i, " with radius ", b.radius,
                     " added at (", b.coordinateX, ",", b.coordinateY + ")");
         }
@@ -127,8 +174,16 @@ public class App {
         var start2 = System.currentTimeMillis();
         App.withSpatialPartition(300, 300, 20, bubbles2);
         var end2 = System.currentTimeMillis();
+        var start3 = System.currentTimeMillis();
+        App.withParallelSpatialPartition(300, 300, 20, bubbles3);
+        var end3 = System.currentTimeMillis();
+        var start4 = System.currentTimeMillis();
+        App.withFlatSpatialPartition(300, 300, 20, bubbles4);
+        var end4 = System.currentTimeMillis();
         LOGGER.info("Without spatial partition takes ", (end1 - start1), "ms");
         LOGGER.info("With spatial partition takes ", (end2 - start2), "ms");
+        LOGGER.info("With parallel spatial partition takes ", (end3 - start3), "ms");
+        LOGGER.info("With flat spatial partition takes ", (end4 - start4), "ms");
     }
 }
 
@@ -26,8 +26,11 @@ package com.iluwatar.spatialpartition;
 import lombok.extern.slf4j.Slf4j;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Bubble class extends Point. In this example, we create several bubbles in the field, let them
@@ -79,4 +82,42 @@ public class Bubble extends Point<Bubble> {
             this.pop(allBubbles);
         }
     }
+
+    /**
+     * Read-only counterpart of {@link #handleCollision}: finds the bubbles among toCheck that this
+     * bubble touches without popping anything, so that it can run on several threads at once.
+     */
+    List<Point> touching(Collection<? extends Point> toCheck, Map<Integer, Bubble> allBubbles) {
+        List<Point> touching = null;
+        for (var point : toCheck) {
+            var other = allBubbles.get(point.id);
+            if (other != null && this.id != point.id && this.touches(other)) {
+                if (touching == null) {
+                    touching = new ArrayList<>();
+                }
+                touching.add(point);
+            }
+        }
+        return touching == null ? List.of() : touching;
+    }
+
+    /**
+     * Pops the bubbles found by {@link #touching}. Bubbles are handled in ascending id order and
+     * only while they are still on the field, so the outcome does not depend on the order in which
+     * the collisions were found.
+     */
+    static void resolveCollisions(Map<Integer, List<Point>> touching,
+                                  HashMap<Integer, Bubble> allBubbles) {
+        var ids = touching.entrySet().stream()
+                .filter(e -> !e.getValue().isEmpty())
+                .mapToInt(Map.Entry::getKey)
+                .sorted()
+                .toArray();
+        for (var id : ids) {
+            var bubble = allBubbles.get(id);
+            if (bubble != null) {
+                bubble.handleCollision(touching.get(id), allBubbles);
+            }
+        }
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Compares the per-frame cost of popping colliding bubbles with {@link SpatialPartitionBubbles},
+ * {@link FlatQuadTreeBubbles} and {@link UniformGridBubbles}, both sequentially and with the parallel broad phase on pools of
+ * increasing size. Every frame starts from the same field, builds the partition and handles all
+ * collisions; the number of popped bubbles is logged to check that all variants agree.
+ *
+ * <p>Usage: {@code CollisionBenchmark [bubbles] [frames]}.
+ */
+@Slf4j
+public final class CollisionBenchmark {
+
+    private static final int CAPACITY = 4;
+    private static final int CELL_SIZE = 10;
+    private static final int WARM_UP_FRAMES = 3;
+
+    private CollisionBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional number of bubbles and of measured frames
+     */
+    public static void main(String[] args) {
+        var count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        var frames = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        // every pop is logged, which would otherwise dominate the measurement
+        ((Logger) LoggerFactory.getLogger(Bubble.class)).setLevel(Level.WARN);
+
+        // constant density of one bubble per 10 x 10 units
+        var side = (int) Math.sqrt(count) * 10;
+        var field = new Rect(side / 2D, side / 2D, side, side);
+        var rand = new Random(count);
+        var bubbles = new ArrayList<Bubble>(count);
+        for (var i = 0; i < count; i++) {
+            bubbles.add(new Bubble(rand.nextInt(side), rand.nextInt(side), i, rand.nextInt(2) + 1));
+        }
+        Function<HashMap<Integer, Bubble>, SpatialPartitionGeneric<Bubble>> quadTree = all -> {
+            var tree = new QuadTree(field, CAPACITY);
+            all.values().forEach(tree::insert);
+            return new SpatialPartitionBubbles(all, tree);
+        };
+        var flatTree = new FlatQuadTree(field, CAPACITY);
+        Function<HashMap<Integer, Bubble>, SpatialPartitionGeneric<Bubble>> flatQuadTree = all -> {
+            flatTree.rebuild(all.values());
+            return new FlatQuadTreeBubbles(all, flatTree);
+        };
+        Function<HashMap<Integer, Bubble>, SpatialPartitionGeneric<Bubble>> grid = all -> {
+            var cells = new UniformGrid(field, CELL_SIZE);
+            all.values().forEach(cells::insert);
+            return new UniformGridBubbles(all, cells);
+        };
+
+        report("QuadTree", bubbles, frames, quadTree, null);
+        report("FlatQuadTree", bubbles, frames, flatQuadTree, null);
+        report("UniformGrid", bubbles, frames, grid, null);
+        for (var parallelism : parallelisms()) {
+            var pool = new ForkJoinPool(parallelism);
+            report("QuadTree on " + parallelism + " threads", bubbles, frames, quadTree, pool);
+            report("FlatQuadTree on " + parallelism + " threads", bubbles, frames, flatQuadTree,
+                    pool);
+            report("UniformGrid on " + parallelism + " threads", bubbles, frames, grid, pool);
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs the frames, sequentially in ascending id order if no pool is given.
+     */
+    private static void report(String name, List<Bubble> bubbles, int frames,
+                               Function<HashMap<Integer, Bubble>, SpatialPartitionGeneric<Bubble>> partition,
+                               ForkJoinPool pool) {
+        var nanos = 0L;
+        var popped = 0;
+        for (var f = 0; f < WARM_UP_FRAMES + frames; f++) {
+            var all = new HashMap<Integer, Bubble>();
+            bubbles.forEach(b -> all.put(b.id, b));
+            var start = System.nanoTime();
+            var sp = partition.apply(all);
+            if (pool != null) {
+                sp.handleCollisionsInParallel(pool);
+            } else {
+                for (var b : bubbles) {
+                    if (all.containsKey(b.id)) {
+                        sp.handleCollisionsUsingQt(b);
+                    }
+                }
+            }
+            if (f >= WARM_UP_FRAMES) {
+                nanos += System.nanoTime() - start;
+            }
+            popped = bubbles.size() - all.size();
+        }
+        LOGGER.info("{}: {} ms/frame, {} of {} bubbles popped", name,
+                String.format("%.2f", nanos / frames / 1_000_000D), popped, bubbles.size());
+    }
+
+    private static TreeSet<Integer> parallelisms() {
+        var parallelisms = new TreeSet<Integer>();
+        for (var parallelism = 1; parallelism < Runtime.getRuntime().availableProcessors();
+             parallelism *= 2) {
+            parallelisms.add(parallelism);
+        }
+        parallelisms.add(Runtime.getRuntime().availableProcessors());
+        return parallelisms;
+    }
+}
@@ -0,0 +1,489 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Array-backed variant of {@link QuadTree} for fields with many moving objects. Instead of a node
+ * object with a hashtable per quadrant, the whole tree lives in primitive arrays: the points are
+ * reordered so that every leaf owns a contiguous range of slots, and the nodes only store their
+ * bounds, their slot range and the index of their first child. The fields of a node, as well as
+ * the coordinates of a point, are stored next to each other so that a lookup touches few cache
+ * lines.
+ *
+ * <p>The tree is bulk-loaded with {@link #rebuild(Collection)}, typically once per frame, which
+ * reuses the arrays of the previous frame. Queries report matching points to a {@link Visitor}
+ * instead of collecting them, so neither building nor querying allocates once the arrays are
+ * large enough. Between rebuilds single points can be {@link #remove(int) removed} and
+ * {@link #relocate(Point) relocated}: a point moving out of its leaf goes to a free slot of the
+ * target leaf, or else to an overflow area that every query scans. Once the overflow area holds
+ * more than a small share of the points, the tree rebuilds itself from its own arrays.
+ *
+ * <p>Queries only read the tree, so any number of threads may query it at the same time and a
+ * visitor may run nested queries: every query takes its traversal stack from a per-thread pool
+ * holding one stack per nesting level. Rebuilding, removing and relocating must not overlap with
+ * anything else.
+ */
+public class FlatQuadTree {
+
+    /**
+     * Receives the points found by a query.
+     */
+    interface Visitor {
+        void visit(Point point);
+    }
+
+    /**
+     * Limits splitting when many points share the same position.
+     */
+    private static final int MAX_DEPTH = 16;
+    private static final int NO_CHILD = -1;
+    /**
+     * The overflow area may hold up to one point in this many before the tree is rebuilt.
+     */
+    private static final int OVERFLOW_RATIO = 32;
+    private static final int MIN_OVERFLOW = 64;
+
+    private static final ThreadLocal<TraversalStacks> STACKS =
+            ThreadLocal.withInitial(TraversalStacks::new);
+
+    // layout of a node in the bounds and nodes arrays
+    private static final int MIN_X = 0;
+    private static final int MIN_Y = 1;
+    private static final int MAX_X = 2;
+    private static final int MAX_Y = 3;
+    private static final int START = 0;
+    private static final int SLOTS = 1;
+    private static final int COUNT = 2;
+    private static final int CHILD = 3;
+    private static final int NODE_STRIDE = 4;
+
+    private final Rect boundary;
+    private final int capacity;
+
+    // points, ordered by leaf, followed by the overflow area; coordinates are stored as x, y pairs
+    private Point[] points = new Point[0];
+    private int[] coords = new int[0];
+    private int size;
+    private int overflowStart;
+    private int pointCount;
+
+    // nodes, the four children of a node are stored next to each other: SW, SE, NW, NE
+    private double[] bounds = new double[0];
+    private int[] nodes = new int[0];
+    private int nodeCount;
+
+    // open addressing map from point id to slot + 1, 0 marks a free entry
+    private int[] idKeys = new int[0];
+    private int[] idSlots = new int[0];
+
+    FlatQuadTree(Rect boundary, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.boundary = boundary;
+        this.capacity = capacity;
+        rebuild(List.of());
+    }
+
+    /**
+     * Replaces the content of the tree with the points within its boundary.
+     *
+     * @param field the points to be tracked
+     */
+    void rebuild(Collection<? extends Point> field) {
+        ensurePointCapacity(field.size());
+        size = 0;
+        for (var p : field) {
+            if (boundary.contains(p)) {
+                points[size] = p;
+                coords[2 * size] = p.coordinateX;
+                coords[2 * size + 1] = p.coordinateY;
+                size++;
+            }
+        }
+        Arrays.fill(points, size, points.length, null);
+        buildTree();
+    }
+
+    /**
+     * Rebuilds the tree from the points it holds, which empties the overflow area.
+     */
+    void rebuild() {
+        var live = 0;
+        for (var slot = 0; slot < size; slot++) {
+            if (points[slot] != null) {
+                points[live] = points[slot];
+                coords[2 * live] = coords[2 * slot];
+                coords[2 * live + 1] = coords[2 * slot + 1];
+                live++;
+            }
+        }
+        Arrays.fill(points, live, size, null);
+        size = live;
+        buildTree();
+    }
+
+    /**
+     * Reports every point lying within the range to the visitor.
+     *
+     * @param r       the range
+     * @param visitor receives the points found
+     */
+    void query(Rect r, Visitor visitor) {
+        query(r.coordinateX - r.width / 2, r.coordinateY - r.height / 2,
+                r.coordinateX + r.width / 2, r.coordinateY + r.height / 2, visitor);
+    }
+
+    /**
+     * Reports every point lying within the range, bounds included, to the visitor.
+     */
+    void query(double minX, double minY, double maxX, double maxY, Visitor visitor) {
+        var stacks = STACKS.get();
+        var stack = stacks.acquire();
+        try {
+            var top = 0;
+            if (intersects(0, minX, minY, maxX, maxY)) {
+                stack[top++] = 0;
+            }
+            while (top > 0) {
+                var node = stack[--top];
+                var child = nodes[NODE_STRIDE * node + CHILD];
+                if (child == NO_CHILD) {
+                    var start = nodes[NODE_STRIDE * node + START];
+                    visit(start, start + nodes[NODE_STRIDE * node + COUNT], minX, minY, maxX, maxY,
+                            visitor);
+                    continue;
+                }
+                for (var quadrant = child; quadrant < child + 4; quadrant++) {
+                    if (intersects(quadrant, minX, minY, maxX, maxY)) {
+                        stack[top++] = quadrant;
+                    }
+                }
+            }
+            visit(overflowStart, size, minX, minY, maxX, maxY, visitor);
+        } finally {
+            stacks.release();
+        }
+    }
+
+    /**
+     * Number of points in the tree.
+     */
+    int size() {
+        return pointCount;
+    }
+
+    boolean contains(int id) {
+        return findId(id) >= 0;
+    }
+
+    /**
+     * Removes a point.
+     *
+     * @param id the id of the point
+     * @return whether the point was in the tree
+     */
+    boolean remove(int id) {
+        var entry = findId(id);
+        if (entry < 0) {
+            return false;
+        }
+        var slot = idSlots[entry] - 1;
+        removeId(entry);
+        pointCount--;
+        if (slot >= overflowStart) {
+            moveSlot(size - 1, slot);
+            size--;
+            points[size] = null;
+        } else {
+            var leaf = leafOf(coords[2 * slot], coords[2 * slot + 1]);
+            var last = nodes[NODE_STRIDE * leaf + START] + --nodes[NODE_STRIDE * leaf + COUNT];
+            moveSlot(last, slot);
+            points[last] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Updates the position of a point after it moved, adding it if it is not in the tree yet.
+     * Points that left the boundary are removed.
+     *
+     * @param p the point
+     */
+    void relocate(Point p) {
+        var entry = findId(p.id);
+        if (entry >= 0) {
+            var slot = idSlots[entry] - 1;
+            var x = p.coordinateX;
+            var y = p.coordinateY;
+            if (boundary.contains(p) && (slot >= overflowStart
+                    || leafOf(coords[2 * slot], coords[2 * slot + 1]) == leafOf(x, y))) {
+                coords[2 * slot] = x;
+                coords[2 * slot + 1] = y;
+                return;
+            }
+            remove(p.id);
+        }
+        if (boundary.contains(p)) {
+            add(p);
+            if (size - overflowStart > Math.max(MIN_OVERFLOW, pointCount / OVERFLOW_RATIO)) {
+                rebuild();
+            }
+        }
+    }
+
+    private void add(Point p) {
+        var leaf = NODE_STRIDE * leafOf(p.coordinateX, p.coordinateY);
+        int slot;
+        if (nodes[leaf + COUNT] < nodes[leaf + SLOTS]) {
+            slot = nodes[leaf + START] + nodes[leaf + COUNT]++;
+        } else {
+            ensurePointCapacity(size + 1);
+            slot = size++;
+        }
+        points[slot] = p;
+        coords[2 * slot] = p.coordinateX;
+        coords[2 * slot + 1] = p.coordinateY;
+        putId(p.id, slot);
+        pointCount++;
+    }
+
+    private boolean intersects(int node, double minX, double minY, double maxX, double maxY) {
+        var i = NODE_STRIDE * node;
+        return bounds[i + MIN_X] <= maxX && bounds[i + MAX_X] >= minX
+                && bounds[i + MIN_Y] <= maxY && bounds[i + MAX_Y] >= minY;
+    }
+
+    private void visit(int from, int to, double minX, double minY, double maxX, double maxY,
+                       Visitor visitor) {
+        for (var i = from; i < to; i++) {
+            var x = coords[2 * i];
+            var y = coords[2 * i + 1];
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                visitor.visit(points[i]);
+            }
+        }
+    }
+
+    private void buildTree() {
+        overflowStart = size;
+        pointCount = size;
+        nodeCount = 1;
+        ensureNodeCapacity(nodeCount);
+        build(0, 0, size, boundary.coordinateX - boundary.width / 2,
+                boundary.coordinateY - boundary.height / 2,
+                boundary.coordinateX + boundary.width / 2,
+                boundary.coordinateY + boundary.height / 2, 0);
+        indexIds();
+    }
+
+    private void build(int node, int start, int end, double minX, double minY, double maxX,
+                       double maxY, int depth) {
+        var b = NODE_STRIDE * node;
+        bounds[b + MIN_X] = minX;
+        bounds[b + MIN_Y] = minY;
+        bounds[b + MAX_X] = maxX;
+        bounds[b + MAX_Y] = maxY;
+        nodes[b + START] = start;
+        nodes[b + SLOTS] = end - start;
+        nodes[b + COUNT] = end - start;
+        if (end - start <= capacity || depth == MAX_DEPTH) {
+            nodes[b + CHILD] = NO_CHILD;
+            return;
+        }
+        var child = nodeCount;
+        nodeCount += 4;
+        ensureNodeCapacity(nodeCount);
+        nodes[b + CHILD] = child;
+        var centreX = (minX + maxX) / 2;
+        var centreY = (minY + maxY) / 2;
+        var north = partition(start, end, 1, centreY);
+        var southEast = partition(start, north, 0, centreX);
+        var northEast = partition(north, end, 0, centreX);
+        build(child, start, southEast, minX, minY, centreX, centreY, depth + 1);
+        build(child + 1, southEast, north, centreX, minY, maxX, centreY, depth + 1);
+        build(child + 2, north, northEast, minX, centreY, centreX, maxY, depth + 1);
+        build(child + 3, northEast, end, centreX, centreY, maxX, maxY, depth + 1);
+    }
+
+    /**
+     * Moves the slots whose coordinate on the axis, 0 for x and 1 for y, is below the pivot to the
+     * front of the range.
+     *
+     * @return the first slot whose coordinate is at least the pivot
+     */
+    private int partition(int start, int end, int axis, double pivot) {
+        var i = start;
+        var j = end - 1;
+        while (i <= j) {
+            if (coords[2 * i + axis] < pivot) {
+                i++;
+            } else {
+                swap(i, j--);
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Finds the leaf whose quadrant holds the position, following the same split as the build.
+     */
+    private int leafOf(int x, int y) {
+        var node = 0;
+        var child = nodes[CHILD];
+        while (child != NO_CHILD) {
+            var b = NODE_STRIDE * node;
+            var centreX = (bounds[b + MIN_X] + bounds[b + MAX_X]) / 2;
+            var centreY = (bounds[b + MIN_Y] + bounds[b + MAX_Y]) / 2;
+            node = child + (x < centreX ? 0 : 1) + (y < centreY ? 0 : 2);
+            child = nodes[NODE_STRIDE * node + CHILD];
+        }
+        return node;
+    }
+
+    private void swap(int i, int j) {
+        var p = points[i];
+        points[i] = points[j];
+        points[j] = p;
+        var x = coords[2 * i];
+        var y = coords[2 * i + 1];
+        coords[2 * i] = coords[2 * j];
+        coords[2 * i + 1] = coords[2 * j + 1];
+        coords[2 * j] = x;
+        coords[2 * j + 1] = y;
+    }
+
+    private void moveSlot(int from, int to) {
+        if (from == to) {
+            return;
+        }
+        points[to] = points[from];
+        coords[2 * to] = coords[2 * from];
+        coords[2 * to + 1] = coords[2 * from + 1];
+        idSlots[findId(points[to].id)] = to + 1;
+    }
+
+    private void ensurePointCapacity(int required) {
+        if (points.length < required) {
+            var length = Math.max(required, points.length * 2);
+            points = Arrays.copyOf(points, length);
+            coords = Arrays.copyOf(coords, 2 * length);
+        }
+        // keep the id table at most half full
+        if (idKeys.length < 2 * required) {
+            var length = Integer.highestOneBit(Math.max(8, 4 * required - 1));
+            idKeys = new int[length];
+            idSlots = new int[length];
+            indexIds();
+        }
+    }
+
+    private void ensureNodeCapacity(int required) {
+        if (nodes.length < NODE_STRIDE * required) {
+            var length = NODE_STRIDE * Math.max(required, 2 * nodes.length / NODE_STRIDE);
+            bounds = Arrays.copyOf(bounds, length);
+            nodes = Arrays.copyOf(nodes, length);
+        }
+    }
+
+    private void indexIds() {
+        Arrays.fill(idSlots, 0);
+        for (var slot = 0; slot < size; slot++) {
+            if (points[slot] != null) {
+                putId(points[slot].id, slot);
+            }
+        }
+    }
+
+    private int indexOf(int id) {
+        var h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (idKeys.length - 1);
+    }
+
+    private int findId(int id) {
+        var mask = idKeys.length - 1;
+        for (var i = indexOf(id); idSlots[i] != 0; i = (i + 1) & mask) {
+            if (idKeys[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void putId(int id, int slot) {
+        var mask = idKeys.length - 1;
+        var i = indexOf(id);
+        while (idSlots[i] != 0 && idKeys[i] != id) {
+            i = (i + 1) & mask;
+        }
+        idKeys[i] = id;
+        idSlots[i] = slot + 1;
+    }
+
+    /**
+     * Frees an entry of the id table, shifting back the entries probing past it.
+     */
+    private void removeId(int entry) {
+        var mask = idKeys.length - 1;
+        var free = entry;
+        idSlots[free] = 0;
+        for (var i = (free + 1) & mask; idSlots[i] != 0; i = (i + 1) & mask) {
+            var home = indexOf(idKeys[i]);
+            var between = free <= i ? free < home && home <= i : free < home || home <= i;
+            if (!between) {
+                idKeys[free] = idKeys[i];
+                idSlots[free] = idSlots[i];
+                idSlots[i] = 0;
+                free = i;
+            }
+        }
+    }
+
+    /**
+     * Traversal stacks of the queries running on one thread, one per nesting level. A depth first
+     * traversal leaves at most three siblings behind on every level of the tree.
+     */
+    private static final class TraversalStacks {
+        private int[][] stacks = new int[1][];
+        private int inUse;
+
+        int[] acquire() {
+            if (inUse == stacks.length) {
+                stacks = Arrays.copyOf(stacks, 2 * inUse);
+            }
+            if (stacks[inUse] == null) {
+                stacks[inUse] = new int[3 * MAX_DEPTH + 1];
+            }
+            return stacks[inUse++];
+        }
+
+        void release() {
+            inUse--;
+        }
+    }
+}
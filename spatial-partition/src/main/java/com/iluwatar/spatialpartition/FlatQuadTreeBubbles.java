@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class extends the generic SpatialPartition abstract class like {@link SpatialPartitionBubbles}
+ * does, but keeps track of the bubbles in a {@link FlatQuadTree}. The range of a bubble is passed
+ * to the tree as coordinates and the bubbles found are checked by a visitor, so handling the
+ * collisions of a bubble allocates neither a {@link Rect} nor a list of candidates.
+ */
+
+public class FlatQuadTreeBubbles extends SpatialPartitionGeneric<Bubble> {
+
+    /**
+     * The broad phase is split into tasks of at most this many bubbles.
+     */
+    private static final int BUBBLES_PER_TASK = 512;
+
+    private final HashMap<Integer, Bubble> bubbles;
+    private final FlatQuadTree tree;
+    private final FlatQuadTree.Visitor popIfTouching = this::popIfTouching;
+    // bubble whose collisions are handled by handleCollisionsUsingQt and whether it hit another
+    private Bubble current;
+    private boolean collided;
+
+    FlatQuadTreeBubbles(HashMap<Integer, Bubble> bubbles, FlatQuadTree tree) {
+        this.bubbles = bubbles;
+        this.tree = tree;
+    }
+
+    /**
+     * handles collisions for bubble b using the flat quadtree, with the same outcome as {@link
+     * Bubble#handleCollision}.
+     *
+     * @param b is the bubble for which collisions need to be checked
+     */
+    @Override
+    void handleCollisionsUsingQt(Bubble b) {
+        current = b;
+        collided = false;
+        query(b, popIfTouching);
+        current = null;
+        if (collided) {
+            b.pop(bubbles);
+        }
+    }
+
+    @Override
+    void handleCollisionsInParallel(ForkJoinPool pool) {
+        var all = bubbles.values().toArray(new Bubble[0]);
+        var touching = new ConcurrentHashMap<Integer, List<Point>>(2 * all.length);
+        pool.invoke(new BroadPhase(all, 0, all.length, touching));
+        Bubble.resolveCollisions(touching, bubbles);
+    }
+
+    private void popIfTouching(Point point) {
+        var other = bubbles.get(point.id);
+        if (other != null && current.id != point.id && current.touches(other)) {
+            other.pop(bubbles);
+            collided = true;
+        }
+    }
+
+    private void query(Bubble b, FlatQuadTree.Visitor visitor) {
+        // same range as the quadtree query of SpatialPartitionBubbles
+        tree.query(b.coordinateX - (double) b.radius, b.coordinateY - (double) b.radius,
+                b.coordinateX + (double) b.radius, b.coordinateY + (double) b.radius, visitor);
+    }
+
+    /**
+     * Looks up the collisions of a range of bubbles, splitting it in halves. Bubbles outside the
+     * boundary of the tree are not held by it but are looked up like the others.
+     */
+    private final class BroadPhase extends RecursiveAction {
+        private final Bubble[] all;
+        private final int from;
+        private final int to;
+        private final Map<Integer, List<Point>> touching;
+
+        BroadPhase(Bubble[] all, int from, int to, Map<Integer, List<Point>> touching) {
+            this.all = all;
+            this.from = from;
+            this.to = to;
+            this.touching = touching;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BUBBLES_PER_TASK) {
+                var middle = (from + to) >>> 1;
+                invokeAll(new BroadPhase(all, from, middle, touching),
+                        new BroadPhase(all, middle, to, touching));
+                return;
+            }
+            // candidates of one bubble at a time, reused for the whole range
+            var candidates = new ArrayList<Point>();
+            FlatQuadTree.Visitor collect = candidates::add;
+            for (var i = from; i < to; i++) {
+                var b = all[i];
+                candidates.clear();
+                query(b, collect);
+                touching.put(b.id, b.touching(candidates, bubbles));
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the per-frame cost of finding the neighbours of every bubble with {@link QuadTree},
+ * {@link FlatQuadTree} and brute force. Every frame all bubbles move, the trees are brought up to
+ * date and the neighbourhood of every bubble is queried.
+ *
+ * <p>{@link QuadTree} is rebuilt from scratch every frame, as in {@link App}, while
+ * {@link FlatQuadTree} is measured both bulk-rebuilt and updated through relocation. Brute force
+ * is quadratic, so it only runs a sample of the queries and is extrapolated.
+ *
+ * <p>Usage: {@code QuadTreeBenchmark [frames]}.
+ */
+@Slf4j
+public final class QuadTreeBenchmark {
+
+    private static final int[] POINT_COUNTS = {1_000, 10_000, 100_000};
+    private static final int CAPACITY = 4;
+    private static final int QUERY_SIZE = 4;
+    private static final int BRUTE_FORCE_SAMPLE = 1_000;
+    private static final int WARM_UP_FRAMES = 3;
+
+    private QuadTreeBenchmark() {
+    }
+
+    /**
+     * Counts the points reported by a query without allocating per query.
+     */
+    private static final class Counter implements FlatQuadTree.Visitor {
+        private long count;
+
+        @Override
+        public void visit(Point point) {
+            count++;
+        }
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional number of measured frames
+     */
+    public static void main(String[] args) {
+        var frames = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        for (var count : POINT_COUNTS) {
+            // constant density of one bubble per 10 x 10 units
+            var side = (int) Math.sqrt(count) * 10;
+            var field = new Rect(side / 2D, side / 2D, side, side);
+            var quadTree = run(count, side, frames, bubbles -> {
+                var tree = new QuadTree(field, CAPACITY);
+                bubbles.forEach(tree::insert);
+                var found = 0L;
+                for (var b : bubbles) {
+                    var range = new Rect(b.coordinateX, b.coordinateY, QUERY_SIZE, QUERY_SIZE);
+                    found += tree.query(range, new ArrayList<>()).size();
+                }
+                return found;
+            });
+            var flatTree = new FlatQuadTree(field, CAPACITY);
+            var counter = new Counter();
+            var rebuilt = run(count, side, frames, bubbles -> {
+                flatTree.rebuild(bubbles);
+                return queryAll(flatTree, bubbles, counter);
+            });
+            var relocatedTree = new FlatQuadTree(field, CAPACITY);
+            var relocated = run(count, side, frames, bubbles -> {
+                if (relocatedTree.size() == 0) {
+                    relocatedTree.rebuild(bubbles);
+                } else {
+                    bubbles.forEach(relocatedTree::relocate);
+                }
+                return queryAll(relocatedTree, bubbles, counter);
+            });
+            var sample = Math.min(BRUTE_FORCE_SAMPLE, count);
+            var bruteForce = run(count, side, frames, bubbles -> {
+                var found = 0L;
+                for (var i = 0; i < sample; i++) {
+                    var b = bubbles.get(i);
+                    var range = new Rect(b.coordinateX, b.coordinateY, QUERY_SIZE, QUERY_SIZE);
+                    for (var other : bubbles) {
+                        if (range.contains(other)) {
+                            found++;
+                        }
+                    }
+                }
+                return found;
+            });
+            // scale the sample up to all bubbles
+            bruteForce[0] = bruteForce[0] * count / sample;
+            LOGGER.info("{} points: QuadTree {} ms/frame, FlatQuadTree rebuilt {} ms/frame, "
+                            + "relocated {} ms/frame, brute force {} ms/frame (extrapolated)",
+                    count, format(quadTree[0]), format(rebuilt[0]), format(relocated[0]),
+                    format(bruteForce[0]));
+            LOGGER.info("{} points: neighbours found by QuadTree {}, FlatQuadTree {} and {}",
+                    count, quadTree[1], rebuilt[1], relocated[1]);
+        }
+    }
+
+    /**
+     * A frame of work on the moved bubbles, returning the number of neighbours found.
+     */
+    private interface Frame {
+        long run(List<Bubble> bubbles);
+    }
+
+    /**
+     * Runs the frames on a field that moves the same way for every variant.
+     *
+     * @return milliseconds per measured frame and the total number of neighbours found
+     */
+    private static long[] run(int count, int side, int frames, Frame frame) {
+        var rand = new Random(count);
+        var bubbles = new ArrayList<Bubble>(count);
+        for (var i = 0; i < count; i++) {
+            bubbles.add(new Bubble(rand.nextInt(side), rand.nextInt(side), i, 1));
+        }
+        var found = 0L;
+        var nanos = 0L;
+        for (var f = 0; f < WARM_UP_FRAMES + frames; f++) {
+            for (var b : bubbles) {
+                b.coordinateX = Math.floorMod(b.coordinateX + rand.nextInt(3) - 1, side);
+                b.coordinateY = Math.floorMod(b.coordinateY + rand.nextInt(3) - 1, side);
+            }
+            var start = System.nanoTime();
+            var result = frame.run(bubbles);
+            if (f >= WARM_UP_FRAMES) {
+                nanos += System.nanoTime() - start;
+                found += result;
+            }
+        }
+        return new long[]{nanos / frames, found};
+    }
+
+    private static long queryAll(FlatQuadTree tree, List<Bubble> bubbles, Counter counter) {
+        counter.count = 0;
+        for (var b : bubbles) {
+            tree.query(b.coordinateX - QUERY_SIZE / 2D, b.coordinateY - QUERY_SIZE / 2D,
+                    b.coordinateX + QUERY_SIZE / 2D, b.coordinateY + QUERY_SIZE / 2D, counter);
+        }
+        return counter.count;
+    }
+
+    private static String format(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000D);
+    }
+}
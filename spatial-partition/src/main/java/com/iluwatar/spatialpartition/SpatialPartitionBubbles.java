@@ -24,7 +24,13 @@
 package com.iluwatar.spatialpartition;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * This class extends the generic SpatialPartition abstract class and is used in our example to keep
@@ -33,6 +39,11 @@ import java.util.HashMap;
 
 public class SpatialPartitionBubbles extends SpatialPartitionGeneric<Bubble> {
 
+    /**
+     * Sub-trees below this depth are handled by the task of their ancestor instead of being forked.
+     */
+    private static final int SPLIT_DEPTH = 6;
+
     private final HashMap<Integer, Bubble> bubbles;
     private final QuadTree quadTree;
 
@@ -42,12 +53,76 @@ public class SpatialPartitionBubbles extends SpatialPartitionGeneric<Bubble> {
     }
 
     void handleCollisionsUsingQt(Bubble b) {
+        //handling the collisions with the bubbles found in the quadtree
+        b.handleCollision(query(b), this.bubbles);
+    }
+
+    @Override
+    void handleCollisionsInParallel(ForkJoinPool pool) {
+        var touching = new ConcurrentHashMap<Integer, List<Point>>(2 * bubbles.size());
+        pool.invoke(new BroadPhase(quadTree, 0, touching));
+        // bubbles outside the boundary of the quadtree are not held by any of its sub-trees
+        for (var b : bubbles.values()) {
+            if (!touching.containsKey(b.id)) {
+                touching.put(b.id, b.touching(query(b), bubbles));
+            }
+        }
+        Bubble.resolveCollisions(touching, bubbles);
+    }
+
+    private Collection<Point> query(Bubble b) {
         // finding points within area of a square drawn with centre same as
         // centre of bubble and length = radius of bubble
         var rect = new Rect(b.coordinateX, b.coordinateY, 2D * b.radius, 2D * b.radius);
-        var quadTreeQueryResult = new ArrayList<Point>();
-        this.quadTree.query(rect, quadTreeQueryResult);
-        //handling these collisions
-        b.handleCollision(quadTreeQueryResult, this.bubbles);
+        return this.quadTree.query(rect, new ArrayList<>());
+    }
+
+    /**
+     * Looks up the collisions of the bubbles held by a sub-tree, forking a task per quadrant.
+     */
+    private final class BroadPhase extends RecursiveAction {
+        private final QuadTree node;
+        private final int depth;
+        private final Map<Integer, List<Point>> touching;
+
+        BroadPhase(QuadTree node, int depth, Map<Integer, List<Point>> touching) {
+            this.node = node;
+            this.depth = depth;
+            this.touching = touching;
+        }
+
+        @Override
+        protected void compute() {
+            if (depth == SPLIT_DEPTH) {
+                collectSubTree(node);
+                return;
+            }
+            collect(node);
+            if (node.divided) {
+                invokeAll(new BroadPhase(node.northwest, depth + 1, touching),
+                        new BroadPhase(node.northeast, depth + 1, touching),
+                        new BroadPhase(node.southwest, depth + 1, touching),
+                        new BroadPhase(node.southeast, depth + 1, touching));
+            }
+        }
+
+        private void collectSubTree(QuadTree tree) {
+            collect(tree);
+            if (tree.divided) {
+                collectSubTree(tree.northwest);
+                collectSubTree(tree.northeast);
+                collectSubTree(tree.southwest);
+                collectSubTree(tree.southeast);
+            }
+        }
+
+        private void collect(QuadTree tree) {
+            for (var point : tree.points.values()) {
+                var b = bubbles.get(point.id);
+                if (b != null) {
+                    touching.put(b.id, b.touching(query(b), bubbles));
+                }
+            }
+        }
     }
 }
@@ -24,6 +24,7 @@
 package com.iluwatar.spatialpartition;
 
 import java.util.Hashtable;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This abstract class has 2 fields, one of which is a hashtable containing all objects that
@@ -43,4 +44,14 @@ public abstract class SpatialPartitionGeneric<T> {
      * @param obj is the object for which collisions need to be checked
      */
     abstract void handleCollisionsUsingQt(T obj);
+
+    /**
+     * handles collisions of all objects in two phases: a read-only broad phase, run on the pool,
+     * finds the colliding objects and a sequential phase then resolves them in ascending id order.
+     * The outcome is the same as calling handleCollisionsUsingQt for every object still on the
+     * field, in ascending id order.
+     *
+     * @param pool runs the broad phase
+     */
+    abstract void handleCollisionsInParallel(ForkJoinPool pool);
 }
@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A uniform grid is a simpler alternative to the {@link QuadTree}: the boundary is divided into
+ * square cells of a fixed size and every object is kept in the cell it lies in. It does not adapt
+ * to crowded areas, but inserting is constant time and a query only looks at the cells overlapping
+ * its range. Points outside the boundary are kept in the nearest cell, so none are lost.
+ */
+
+public class UniformGrid {
+    final Rect boundary;
+    final double cellSize;
+    final int columns;
+    final int rows;
+    final List<List<Point>> cells;
+
+    UniformGrid(Rect boundary, double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive");
+        }
+        this.boundary = boundary;
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(boundary.width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(boundary.height / cellSize));
+        // cells are only allocated once a point is inserted into them
+        this.cells = new ArrayList<>(columns * rows);
+        for (var i = 0; i < columns * rows; i++) {
+            cells.add(null);
+        }
+    }
+
+    void insert(Point p) {
+        var index = row(p.coordinateY) * columns + column(p.coordinateX);
+        var cell = cells.get(index);
+        if (cell == null) {
+            cell = new ArrayList<>();
+            cells.set(index, cell);
+        }
+        cell.add(p);
+    }
+
+    Collection<Point> query(Rect r, Collection<Point> relevantPoints) {
+        var fromColumn = column(r.coordinateX - r.width / 2);
+        var toColumn = column(r.coordinateX + r.width / 2);
+        var fromRow = row(r.coordinateY - r.height / 2);
+        var toRow = row(r.coordinateY + r.height / 2);
+        for (var row = fromRow; row <= toRow; row++) {
+            for (var column = fromColumn; column <= toColumn; column++) {
+                var cell = cells.get(row * columns + column);
+                if (cell != null) {
+                    for (var p : cell) {
+                        if (r.contains(p)) {
+                            relevantPoints.add(p);
+                        }
+                    }
+                }
+            }
+        }
+        return relevantPoints;
+    }
+
+    private int column(double x) {
+        var column = (int) Math.floor((x - boundary.coordinateX + boundary.width / 2) / cellSize);
+        return Math.min(columns - 1, Math.max(0, column));
+    }
+
+    private int row(double y) {
+        var row = (int) Math.floor((y - boundary.coordinateY + boundary.height / 2) / cellSize);
+        return Math.min(rows - 1, Math.max(0, row));
+    }
+}
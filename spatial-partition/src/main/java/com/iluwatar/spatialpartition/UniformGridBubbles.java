@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class extends the generic SpatialPartition abstract class like {@link SpatialPartitionBubbles}
+ * does, but keeps track of the bubbles in a {@link UniformGrid} instead of a quadtree.
+ */
+
+public class UniformGridBubbles extends SpatialPartitionGeneric<Bubble> {
+
+    /**
+     * The broad phase is split into tasks of at most this many cells.
+     */
+    private static final int CELLS_PER_TASK = 256;
+
+    private final HashMap<Integer, Bubble> bubbles;
+    private final UniformGrid grid;
+
+    UniformGridBubbles(HashMap<Integer, Bubble> bubbles, UniformGrid grid) {
+        this.bubbles = bubbles;
+        this.grid = grid;
+    }
+
+    /**
+     * handles collisions for bubble b using the grid.
+     *
+     * @param b is the bubble for which collisions need to be checked
+     */
+    @Override
+    void handleCollisionsUsingQt(Bubble b) {
+        b.handleCollision(query(b), this.bubbles);
+    }
+
+    @Override
+    void handleCollisionsInParallel(ForkJoinPool pool) {
+        var touching = new ConcurrentHashMap<Integer, List<Point>>(2 * bubbles.size());
+        pool.invoke(new BroadPhase(0, grid.cells.size(), touching));
+        // bubbles which were not inserted into the grid
+        for (var b : bubbles.values()) {
+            if (!touching.containsKey(b.id)) {
+                touching.put(b.id, b.touching(query(b), bubbles));
+            }
+        }
+        Bubble.resolveCollisions(touching, bubbles);
+    }
+
+    private Collection<Point> query(Bubble b) {
+        // same range as the quadtree query of SpatialPartitionBubbles
+        var rect = new Rect(b.coordinateX, b.coordinateY, 2D * b.radius, 2D * b.radius);
+        return this.grid.query(rect, new ArrayList<>());
+    }
+
+    /**
+     * Looks up the collisions of the bubbles held by a range of cells, splitting it in halves.
+     */
+    private final class BroadPhase extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final Map<Integer, List<Point>> touching;
+
+        BroadPhase(int from, int to, Map<Integer, List<Point>> touching) {
+            this.from = from;
+            this.to = to;
+            this.touching = touching;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CELLS_PER_TASK) {
+                var middle = (from + to) >>> 1;
+                invokeAll(new BroadPhase(from, middle, touching),
+                        new BroadPhase(middle, to, touching));
+                return;
+            }
+            for (var i = from; i < to; i++) {
+                var cell = grid.cells.get(i);
+                if (cell == null) {
+                    continue;
+                }
+                for (var point : cell) {
+                    var b = bubbles.get(point.id);
+                    if (b != null) {
+                        touching.put(b.id, b.touching(query(b), bubbles));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing FlatQuadTreeBubbles class.
+ */
+
+class FlatQuadTreeBubblesTest {
+
+    @Test
+    void handleCollisionsUsingQtTest() {
+        var b1 = new Bubble(10, 10, 1, 3);
+        var b2 = new Bubble(5, 5, 2, 1);
+        var b3 = new Bubble(9, 9, 3, 1);
+        var b4 = new Bubble(8, 8, 4, 2);
+        var bubbles = new HashMap<Integer, Bubble>();
+        bubbles.put(1, b1);
+        bubbles.put(2, b2);
+        bubbles.put(3, b3);
+        bubbles.put(4, b4);
+        var tree = new FlatQuadTree(new Rect(10, 10, 20, 20), 4);
+        tree.rebuild(bubbles.values());
+        var sp = new FlatQuadTreeBubbles(bubbles, tree);
+        sp.handleCollisionsUsingQt(b1);
+        //b1 touches b3 and b4 but not b2 - so b1,b3,b4 get popped
+        assertNull(bubbles.get(1));
+        assertNotNull(bubbles.get(2));
+        assertNull(bubbles.get(3));
+        assertNull(bubbles.get(4));
+    }
+
+    @Test
+    void sameCollisionsAsFullScanTest() {
+        var rand = new Random(2);
+        var sequential = new HashMap<Integer, Bubble>();
+        var flat = new HashMap<Integer, Bubble>();
+        var parallel = new HashMap<Integer, Bubble>();
+        var all = new ArrayList<Bubble>();
+        for (var i = 0; i < 3_000; i++) {
+            var b = new Bubble(rand.nextInt(300), rand.nextInt(300), i, rand.nextInt(2) + 1);
+            sequential.put(i, b);
+            flat.put(i, b);
+            parallel.put(i, b);
+            all.add(b);
+        }
+        var tree = new FlatQuadTree(new Rect(150, 150, 300, 300), 4);
+        tree.rebuild(sequential.values());
+
+        // every bubble is checked against all bubbles within the range a quadtree query covers
+        for (var i = 0; i < 3_000; i++) {
+            var b = sequential.get(i);
+            if (b != null) {
+                var range = new Rect(b.coordinateX, b.coordinateY, 2D * b.radius, 2D * b.radius);
+                var candidates = all.stream().filter(range::contains).collect(Collectors.toList());
+                b.handleCollision(candidates, sequential);
+            }
+        }
+        var flatSp = new FlatQuadTreeBubbles(flat, tree);
+        for (var i = 0; i < 3_000; i++) {
+            if (flat.containsKey(i)) {
+                flatSp.handleCollisionsUsingQt(flat.get(i));
+            }
+        }
+        var pool = new ForkJoinPool(4);
+        new FlatQuadTreeBubbles(parallel, tree).handleCollisionsInParallel(pool);
+        pool.shutdown();
+
+        //the same bubbles get popped as with a full scan of the range
+        assertTrue(sequential.size() < 3_000);
+        assertEquals(sequential.keySet(), flat.keySet());
+        assertEquals(sequential.keySet(), parallel.keySet());
+    }
+}
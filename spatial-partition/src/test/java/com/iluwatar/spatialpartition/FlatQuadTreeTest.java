@@ -0,0 +1,156 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing FlatQuadTree class.
+ */
+
+class FlatQuadTreeTest {
+
+    private static final Rect FIELD = new Rect(150, 150, 300, 300);
+
+    private static List<Bubble> bubbles(int count, Random rand) {
+        var bubbles = new ArrayList<Bubble>();
+        for (var i = 0; i < count; i++) {
+            bubbles.add(new Bubble(rand.nextInt(301), rand.nextInt(301), i, 1));
+        }
+        return bubbles;
+    }
+
+    private static Set<Integer> query(FlatQuadTree tree, Rect range) {
+        var found = new HashSet<Integer>();
+        tree.query(range, point -> assertTrue(found.add(point.id)));
+        return found;
+    }
+
+    private static Set<Integer> verify(List<Bubble> bubbles, Rect range) {
+        // bubbles that left the field are not tracked
+        var found = new HashSet<Integer>();
+        bubbles.stream()
+                .filter(FIELD::contains)
+                .filter(range::contains)
+                .forEach(b -> found.add(b.id));
+        return found;
+    }
+
+    @Test
+    void queryTest() {
+        var rand = new Random(1);
+        var bubbles = bubbles(2_000, rand);
+        var tree = new FlatQuadTree(FIELD, 4);
+        tree.rebuild(bubbles);
+
+        assertEquals(2_000, tree.size());
+        for (var i = 0; i < 50; i++) {
+            var range = new Rect(rand.nextInt(300), rand.nextInt(300), 1 + rand.nextInt(60),
+                    1 + rand.nextInt(60));
+            assertEquals(verify(bubbles, range), query(tree, range));
+        }
+        // points on the quadrant edges are found exactly once
+        assertEquals(verify(bubbles, FIELD), query(tree, FIELD));
+    }
+
+    @Test
+    void nestedAndConcurrentQueriesTest() throws Exception {
+        var rand = new Random(3);
+        var bubbles = bubbles(2_000, rand);
+        var tree = new FlatQuadTree(FIELD, 4);
+        tree.rebuild(bubbles);
+        var range = new Rect(100, 100, 80, 80);
+        var expected = verify(bubbles, range);
+
+        // a visitor querying the same tree does not disturb the outer traversal
+        var outer = new HashSet<Integer>();
+        tree.query(range, point -> {
+            outer.add(point.id);
+            assertEquals(expected, query(tree, range));
+        });
+        assertEquals(expected, outer);
+
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var futures = new ArrayList<Future<Set<Integer>>>();
+            for (var i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> query(tree, range)));
+            }
+            for (var future : futures) {
+                assertEquals(expected, future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void relocateAndRemoveTest() {
+        var rand = new Random(2);
+        var bubbles = bubbles(1_000, rand);
+        var tree = new FlatQuadTree(FIELD, 4);
+        tree.rebuild(bubbles);
+
+        for (var frame = 0; frame < 20; frame++) {
+            for (var bubble : bubbles) {
+                bubble.coordinateX += rand.nextInt(21) - 10;
+                bubble.coordinateY += rand.nextInt(21) - 10;
+                tree.relocate(bubble);
+            }
+        }
+        var removed = new ArrayList<Bubble>();
+        for (var i = 0; i < bubbles.size(); i += 3) {
+            var bubble = bubbles.get(i);
+            // bubbles that left the field have already been dropped
+            assertEquals(FIELD.contains(bubble), tree.remove(bubble.id));
+            removed.add(bubble);
+        }
+        bubbles.removeAll(removed);
+
+        assertFalse(tree.remove(removed.get(0).id));
+        assertFalse(tree.contains(removed.get(0).id));
+        assertEquals(verify(bubbles, FIELD).size(), tree.size());
+        for (var i = 0; i < 50; i++) {
+            var range = new Rect(rand.nextInt(300), rand.nextInt(300), 1 + rand.nextInt(80),
+                    1 + rand.nextInt(80));
+            assertEquals(verify(bubbles, range), query(tree, range));
+        }
+
+        tree.rebuild(bubbles);
+        assertEquals(verify(bubbles, FIELD), query(tree, FIELD));
+    }
+}
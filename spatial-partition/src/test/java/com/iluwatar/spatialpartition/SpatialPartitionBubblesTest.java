@@ -26,9 +26,13 @@ package com.iluwatar.spatialpartition;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Testing SpatialPartition_Bubbles class.
@@ -61,4 +65,34 @@ class SpatialPartitionBubblesTest {
         assertNull(bubbles.get(3));
         assertNull(bubbles.get(4));
     }
+
+    @Test
+    void handleCollisionsInParallelTest() {
+        var rand = new Random(1);
+        var sequential = new HashMap<Integer, Bubble>();
+        var parallel = new HashMap<Integer, Bubble>();
+        for (var i = 0; i < 3_000; i++) {
+            // some bubbles lie outside the field of the quadtree
+            var b = new Bubble(rand.nextInt(320) - 10, rand.nextInt(320) - 10, i, rand.nextInt(2) + 1);
+            sequential.put(i, b);
+            parallel.put(i, b);
+        }
+        var field = new Rect(150, 150, 300, 300);
+        var qt = new QuadTree(field, 4);
+        sequential.values().forEach(qt::insert);
+
+        var sp = new SpatialPartitionBubbles(sequential, qt);
+        for (var i = 0; i < 3_000; i++) {
+            if (sequential.containsKey(i)) {
+                sp.handleCollisionsUsingQt(sequential.get(i));
+            }
+        }
+        var pool = new ForkJoinPool(4);
+        new SpatialPartitionBubbles(parallel, qt).handleCollisionsInParallel(pool);
+        pool.shutdown();
+
+        //the same bubbles get popped
+        assertTrue(sequential.size() < 3_000);
+        assertEquals(sequential.keySet(), parallel.keySet());
+    }
 }
@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing UniformGrid class.
+ */
+
+class UniformGridTest {
+
+    private static Set<Integer> ids(List<Point> points) {
+        var ids = new HashSet<Integer>();
+        points.forEach(p -> assertTrue(ids.add(p.id)));
+        return ids;
+    }
+
+    @Test
+    void queryTest() {
+        var rand = new Random(3);
+        var points = new ArrayList<Point>();
+        for (var i = 0; i < 500; i++) {
+            //some points lie outside the field
+            points.add(new Bubble(rand.nextInt(340) - 20, rand.nextInt(340) - 20, i, 1));
+        }
+        var grid = new UniformGrid(new Rect(150, 150, 300, 300), 7);
+        points.forEach(grid::insert);
+
+        for (var i = 0; i < 100; i++) {
+            var range = new Rect(rand.nextInt(340) - 20, rand.nextInt(340) - 20,
+                    1 + rand.nextInt(60), 1 + rand.nextInt(60));
+            var expected = new HashSet<Integer>();
+            points.stream().filter(range::contains).forEach(p -> expected.add(p.id));
+            assertEquals(expected, ids((List<Point>) grid.query(range, new ArrayList<>())));
+        }
+    }
+}
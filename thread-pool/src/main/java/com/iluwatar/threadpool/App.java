@@ -27,7 +27,6 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * Thread Pool pattern is where a number of threads are created to perform a number of tasks, which
@@ -40,7 +39,8 @@ import java.util.concurrent.Executors;
  * <p>In this example we create a list of tasks presenting work to be done. Each task is then
  * wrapped into a {@link Worker} object that implements {@link Runnable}. We create an {@link
  * ExecutorService} with fixed number of threads (Thread Pool) and use them to execute the {@link
- * Worker}s.
+ * Worker}s. The {@link TaskScheduler} doing this measures the queue wait and run time of every
+ * task, and can use a work-stealing pool instead.
  *
  * 线程池模式是在其中创建多个线程来执行一系列任务，这些任务通常组织在一个队列中。执行任务的结果也可能被放置在一个队列中，
  * 或者任务可能不返回任何结果。通常，任务数量远多于线程数量。一旦线程完成其任务，它将从队列中请求下一个任务，直到所有任务都完成。
@@ -55,8 +55,9 @@ public class App {
      * Program entry point.
      *
      * @param args command line args
+     * @throws InterruptedException if interrupted while waiting for the tasks
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
 
         LOGGER.info("Program started");
 
@@ -81,18 +82,18 @@ public class App {
         // Creates a thread pool that reuses a fixed number of threads operating off a shared
         // unbounded queue. At any point, at most nThreads threads will be active processing
         // tasks. If additional tasks are submitted when all threads are active, they will wait
-        // in the queue until a thread is available.
-        var executor = Executors.newFixedThreadPool(3);
+        // in the queue until a thread is available. The scheduler also records how long every
+        // task waited in the queue and ran.
+        var scheduler = new TaskScheduler(TaskScheduler.Mode.FIXED, 3);
 
         // Allocate new worker for each task
         // The worker is executed when a thread becomes
         // available in the thread pool
-        tasks.stream().map(Worker::new).forEach(executor::execute);
-        // All tasks were executed, now shutdown
-        executor.shutdown();
-        while (!executor.isTerminated()) {
-            Thread.yield();
-        }
+        tasks.forEach(scheduler::submit);
+        // Wait until all tasks were executed, then shutdown
+        scheduler.awaitCompletion();
+        scheduler.shutdown();
+        LOGGER.info("Metrics: {}", scheduler.getMetrics());
         LOGGER.info("Program finished");
     }
 }
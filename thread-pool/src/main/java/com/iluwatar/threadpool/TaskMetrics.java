@@ -0,0 +1,170 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.threadpool;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings and saturation of a {@link TaskScheduler}. For every type of {@link Task} it records how
+ * long the tasks waited in the queue and how long they ran, and for the pool how many tasks are
+ * queued and running and how busy the threads were.
+ */
+public class TaskMetrics {
+
+    /**
+     * Timings of one type of task.
+     */
+    public static class TaskTypeMetrics {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAdder runNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Long::max, 0L);
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getMeanWaitMillis() {
+            return mean(waitNanos);
+        }
+
+        public long getMaxWaitMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+        }
+
+        public long getMeanRunMillis() {
+            return mean(runNanos);
+        }
+
+        private long mean(LongAdder nanos) {
+            var tasks = count.sum();
+            return tasks == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(nanos.sum() / tasks);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d wait=%d ms (max %d ms) run=%d ms", getCount(),
+                    getMeanWaitMillis(), getMaxWaitMillis(), getMeanRunMillis());
+        }
+    }
+
+    private final int threads;
+    private final long createdAt = System.nanoTime();
+    private final Map<String, TaskTypeMetrics> byType = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAccumulator peakQueued = new LongAccumulator(Long::max, 0L);
+    private final LongAccumulator peakRunning = new LongAccumulator(Long::max, 0L);
+    private final LongAdder busyNanos = new LongAdder();
+
+    TaskMetrics(int threads) {
+        this.threads = threads;
+    }
+
+    void submitted() {
+        peakQueued.accumulate(queued.incrementAndGet());
+    }
+
+    void rejected() {
+        queued.decrementAndGet();
+    }
+
+    void started(Task task, long waitNanos) {
+        queued.decrementAndGet();
+        peakRunning.accumulate(running.incrementAndGet());
+        var metrics = typeOf(task);
+        metrics.waitNanos.add(waitNanos);
+        metrics.maxWaitNanos.accumulate(waitNanos);
+    }
+
+    void finished(Task task, long runNanos) {
+        running.decrementAndGet();
+        busyNanos.add(runNanos);
+        var metrics = typeOf(task);
+        metrics.runNanos.add(runNanos);
+        metrics.count.increment();
+    }
+
+    /**
+     * Returns the number of tasks submitted but not started yet.
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Returns the number of tasks running.
+     */
+    public int getRunning() {
+        return running.get();
+    }
+
+    /**
+     * Returns the largest number of tasks that were waiting for a thread at the same time. A pool
+     * that never queues tasks has more threads than it needs.
+     */
+    public long getPeakQueued() {
+        return peakQueued.get();
+    }
+
+    /**
+     * Returns the largest number of tasks that were running at the same time.
+     */
+    public long getPeakRunning() {
+        return peakRunning.get();
+    }
+
+    /**
+     * Returns the fraction of the pool's thread time spent running tasks since the scheduler was
+     * created. Close to 1 means the pool is saturated and more threads would shorten the waits.
+     */
+    public double getUtilization() {
+        var elapsed = System.nanoTime() - createdAt;
+        return elapsed == 0 ? 0 : (double) busyNanos.sum() / ((double) elapsed * threads);
+    }
+
+    /**
+     * Returns the timings by task type, keyed by the simple class name.
+     */
+    public Map<String, TaskTypeMetrics> getTaskTypes() {
+        return new TreeMap<>(byType);
+    }
+
+    private TaskTypeMetrics typeOf(Task task) {
+        return byType.computeIfAbsent(task.getClass().getSimpleName(), type -> new TaskTypeMetrics());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("threads=%d utilization=%.2f peakQueued=%d peakRunning=%d %s", threads,
+                getUtilization(), getPeakQueued(), getPeakRunning(), getTaskTypes());
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.threadpool;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs {@link Task}s in a thread pool, each wrapped in a {@link Worker}, and records their timings
+ * in {@link TaskMetrics}.
+ *
+ * <p>The pool is either a fixed pool whose threads share one queue, or a work-stealing pool whose
+ * threads each have their own queue and take tasks from the others once theirs is empty.
+ */
+public class TaskScheduler {
+
+    /**
+     * Kind of thread pool behind the scheduler.
+     */
+    public enum Mode {
+        /**
+         * A fixed number of threads taking tasks from one shared queue.
+         */
+        FIXED,
+        /**
+         * A fork-join pool with a queue per thread and work stealing between the threads.
+         */
+        WORK_STEALING
+    }
+
+    private final ExecutorService executor;
+    private final TaskMetrics metrics;
+    private final AtomicLong pending = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition idle = lock.newCondition();
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param mode    the kind of thread pool
+     * @param threads the number of threads
+     */
+    public TaskScheduler(Mode mode, int threads) {
+        this.executor = mode == Mode.FIXED
+                ? Executors.newFixedThreadPool(threads)
+                : Executors.newWorkStealingPool(threads);
+        this.metrics = new TaskMetrics(threads);
+    }
+
+    /**
+     * Schedules the task.
+     *
+     * @param task the task
+     * @throws RejectedExecutionException if the scheduler is shut down
+     */
+    public void submit(Task task) {
+        pending.incrementAndGet();
+        metrics.submitted();
+        var submittedAt = System.nanoTime();
+        var worker = new Worker(task);
+        try {
+            executor.execute(() -> {
+                var startedAt = System.nanoTime();
+                metrics.started(task, startedAt - submittedAt);
+                try {
+                    worker.run();
+                } finally {
+                    metrics.finished(task, System.nanoTime() - startedAt);
+                    completed();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the task will never run, so it must not be waited for
+            metrics.rejected();
+            completed();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits until every task submitted so far has finished.
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public void awaitCompletion() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (pending.get() > 0) {
+                idle.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public TaskMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Stops the threads once the submitted tasks have finished.
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    private void completed() {
+        if (pending.decrementAndGet() == 0) {
+            lock.lock();
+            try {
+                idle.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
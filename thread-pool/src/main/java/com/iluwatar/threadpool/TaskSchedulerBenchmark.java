@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.threadpool;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of the {@link TaskScheduler} modes on a mix of short {@link CoffeeMakingTask}s and long
+ * {@link PotatoPeelingTask}s, at several pool sizes. For each run it reports the time until all
+ * tasks finished and the {@link TaskMetrics}, whose queue waits and utilization show how many
+ * threads the workload needs.
+ *
+ * <p>Usage: {@code TaskSchedulerBenchmark [coffeeTasks] [potatoTasks]}. Every coffee task makes one
+ * cup (100 ms) and every potato task peels three potatoes (600 ms); they are submitted in a
+ * shuffled order that is the same for every run.
+ */
+@Slf4j
+public final class TaskSchedulerBenchmark {
+
+    private static final int[] POOL_SIZES = {4, 8, 16};
+
+    private TaskSchedulerBenchmark() {
+    }
+
+    /**
+     * Program entry point.
+     *
+     * @param args optional number of coffee tasks and potato tasks
+     * @throws InterruptedException if interrupted while waiting for the tasks
+     */
+    public static void main(String[] args) throws InterruptedException {
+        var coffeeTasks = args.length > 0 ? Integer.parseInt(args[0]) : 90;
+        var potatoTasks = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        // the workers log every task, which would drown the results
+        ((Logger) LoggerFactory.getLogger(Worker.class)).setLevel(Level.WARN);
+
+        for (var threads : POOL_SIZES) {
+            for (var mode : TaskScheduler.Mode.values()) {
+                var scheduler = new TaskScheduler(mode, threads);
+                var start = System.nanoTime();
+                workload(coffeeTasks, potatoTasks).forEach(scheduler::submit);
+                scheduler.awaitCompletion();
+                var elapsed = (System.nanoTime() - start) / 1_000_000L;
+                scheduler.shutdown();
+                LOGGER.info("{} threads={}: {} ms, {}", mode, threads, elapsed,
+                        scheduler.getMetrics());
+            }
+        }
+    }
+
+    private static List<Task> workload(int coffeeTasks, int potatoTasks) {
+        var tasks = new ArrayList<Task>(coffeeTasks + potatoTasks);
+        for (var i = 0; i < coffeeTasks; i++) {
+            tasks.add(new CoffeeMakingTask(1));
+        }
+        for (var i = 0; i < potatoTasks; i++) {
+            tasks.add(new PotatoPeelingTask(3));
+        }
+        Collections.shuffle(tasks, new Random(42));
+        return tasks;
+    }
+}
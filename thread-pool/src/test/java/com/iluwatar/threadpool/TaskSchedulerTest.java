@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.threadpool;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.time.Duration.ofMillis;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@link TaskScheduler} and its {@link TaskMetrics}.
+ */
+class TaskSchedulerTest {
+
+    @Test
+    void awaitCompletionReturnsOnceEveryTaskRan() {
+        for (var mode : TaskScheduler.Mode.values()) {
+            assertTimeout(ofMillis(5000), () -> {
+                var scheduler = new TaskScheduler(mode, 2);
+                for (var i = 0; i < 4; i++) {
+                    scheduler.submit(new CoffeeMakingTask(1));
+                }
+                scheduler.submit(new PotatoPeelingTask(1));
+
+                scheduler.awaitCompletion();
+
+                var metrics = scheduler.getMetrics();
+                assertEquals(0, metrics.getQueued());
+                assertEquals(0, metrics.getRunning());
+                assertEquals(4, metrics.getTaskTypes().get("CoffeeMakingTask").getCount());
+                assertEquals(1, metrics.getTaskTypes().get("PotatoPeelingTask").getCount());
+                assertEquals(2, metrics.getPeakRunning());
+                scheduler.shutdown();
+            });
+        }
+    }
+
+    @Test
+    void queueWaitAndRunTimeAreRecordedPerTaskType() throws InterruptedException {
+        var scheduler = new TaskScheduler(TaskScheduler.Mode.FIXED, 1);
+        scheduler.submit(new PotatoPeelingTask(1));
+        scheduler.submit(new CoffeeMakingTask(1));
+        scheduler.awaitCompletion();
+        scheduler.shutdown();
+
+        var metrics = scheduler.getMetrics();
+        var potato = metrics.getTaskTypes().get("PotatoPeelingTask");
+        var coffee = metrics.getTaskTypes().get("CoffeeMakingTask");
+        assertTrue(potato.getMeanRunMillis() >= 200);
+        assertTrue(coffee.getMeanRunMillis() >= 100);
+        // the coffee had to wait for the only thread to peel the potato
+        assertTrue(coffee.getMaxWaitMillis() >= 190);
+        assertTrue(metrics.getPeakQueued() >= 1);
+        assertTrue(metrics.getUtilization() > 0.5);
+    }
+
+    @Test
+    void awaitCompletionWithoutTasksReturnsImmediately() {
+        assertTimeout(ofMillis(1000), () -> {
+            var scheduler = new TaskScheduler(TaskScheduler.Mode.WORK_STEALING, 1);
+            scheduler.awaitCompletion();
+            scheduler.shutdown();
+        });
+    }
+
+    @Test
+    void rejectedTaskIsNotWaitedFor() {
+        for (var mode : TaskScheduler.Mode.values()) {
+            assertTimeout(ofMillis(1000), () -> {
+                var scheduler = new TaskScheduler(mode, 1);
+                scheduler.shutdown();
+
+                assertThrows(RejectedExecutionException.class,
+                        () -> scheduler.submit(new CoffeeMakingTask(1)));
+
+                scheduler.awaitCompletion();
+                assertEquals(0, scheduler.getMetrics().getQueued());
+            });
+        }
+    }
+}